@@ -26,12 +26,14 @@ import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Client library for the Application Service.
@@ -60,6 +62,24 @@ public class ApplicationClient extends BaseGenieClient {
         applicationService = retrofit.create(ApplicationService.class);
     }
 
+    /**
+     * Constructor that shares the dispatcher and connection pool of the given HTTP client.
+     *
+     * @param url The url of the Genie Service.
+     * @param securityInterceptor An implementation of the Security Interceptor.
+     * @param httpClient The HTTP client to share the dispatcher and connection pool of.
+     *
+     * @throws GenieException If there is any problem.
+     */
+    public ApplicationClient(
+        final String url,
+        final SecurityInterceptor securityInterceptor,
+        final OkHttpClient httpClient
+    ) throws GenieException {
+        super(url, securityInterceptor, httpClient);
+        applicationService = retrofit.create(ApplicationService.class);
+    }
+
     /**
      * Constructor that takes only the URL.
      *
@@ -162,6 +182,35 @@ public class ApplicationClient extends BaseGenieClient {
         return applicationService.getApplication(applicationId).execute().body();
     }
 
+    /**
+     * Method to create a application in Genie without blocking.
+     *
+     * @param application A application object.
+     * @return A future completed with the id of the application created.
+     */
+    public CompletableFuture<String> createApplicationAsync(final Application application) {
+        if (application == null) {
+            return failedFuture(new GeniePreconditionException("Application cannot be null."));
+        }
+        return executeAsync(
+            applicationService.createApplication(application),
+            response -> getIdFromLocation(response.headers().get("location"))
+        );
+    }
+
+    /**
+     * Method to get a application from Genie without blocking.
+     *
+     * @param applicationId The id of the application to get.
+     * @return A future completed with the application details.
+     */
+    public CompletableFuture<Application> getApplicationAsync(final String applicationId) {
+        if (StringUtils.isEmpty(applicationId)) {
+            return failedFuture(new GeniePreconditionException("Missing required parameter: applicationId."));
+        }
+        return executeAsync(applicationService.getApplication(applicationId));
+    }
+
     /**
      * Method to delete a application from Genie.
      *
@@ -23,11 +23,19 @@ import com.netflix.genie.client.interceptor.ResponseMappingInterceptor;
 import com.netflix.genie.client.security.SecurityInterceptor;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import org.apache.commons.lang3.StringUtils;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 
 /**
  * Base class for the clients for Genie Services.
@@ -39,6 +47,14 @@ public abstract class BaseGenieClient {
 
     protected static final String FILE_PATH_DELIMITER = "/";
     protected static final String STATUS = "status";
+    // Long enough for the server to hold long poll requests open while waiting on a job
+    private static final long READ_TIMEOUT_SECONDS = 60L;
+    // Enough idle connections to reuse between the ranges of parallel downloads
+    private static final int MAX_IDLE_CONNECTIONS = 16;
+    private static final long KEEP_ALIVE_MINUTES = 5L;
+    // Asynchronous calls beyond these limits are queued by the dispatcher until others finish
+    private static final int MAX_REQUESTS = 256;
+    private static final int MAX_REQUESTS_PER_HOST = 64;
 
     protected Retrofit retrofit;
     protected ObjectMapper mapper;
@@ -54,12 +70,41 @@ public abstract class BaseGenieClient {
         final String url,
         final SecurityInterceptor securityInterceptor
         ) throws GenieException {
+        this(url, securityInterceptor, null);
+    }
+
+    /**
+     * Constructor that takes the service url, a security interceptor implementation and the HTTP client to share.
+     * The dispatcher, which limits the number of concurrent asynchronous requests, and the connection pool of the
+     * given client are shared with every other client created from it so many client instances can use a single
+     * pool. See {@link #createHttpClient(int, int, int, long, TimeUnit)}.
+     *
+     * @param url The url of the Genie Service.
+     * @param securityInterceptor An implementation of the Security Interceptor.
+     * @param httpClient The HTTP client to share the dispatcher and connection pool of. If null one is created.
+     * @throws GenieException If there is any problem creating the constructor.
+     */
+    public BaseGenieClient(
+        final String url,
+        final SecurityInterceptor securityInterceptor,
+        final OkHttpClient httpClient
+        ) throws GenieException {
 
         if (StringUtils.isBlank(url)) {
             throw new GeniePreconditionException("Service URL cannot be empty or null");
         }
 
-        final OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        // Builders derived from an existing client share its dispatcher and connection pool
+        final OkHttpClient.Builder builder = httpClient == null
+            ? createHttpClient(
+                MAX_REQUESTS,
+                MAX_REQUESTS_PER_HOST,
+                MAX_IDLE_CONNECTIONS,
+                KEEP_ALIVE_MINUTES,
+                TimeUnit.MINUTES
+            ).newBuilder()
+            : httpClient.newBuilder();
+        builder.readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
         mapper = new ObjectMapper().
             configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
@@ -80,6 +125,100 @@ public abstract class BaseGenieClient {
             .build();
     }
 
+    /**
+     * Create an HTTP client which can be passed to the constructor of any number of Genie clients so they all share
+     * one dispatcher and connection pool.
+     *
+     * @param maxRequests        The maximum number of asynchronous requests to run at once. Others are queued.
+     * @param maxRequestsPerHost The maximum number of asynchronous requests to run at once against one host.
+     * @param maxIdleConnections The maximum number of idle connections to keep in the pool.
+     * @param keepAlive          How long to keep idle connections in the pool.
+     * @param unit               The unit of the keep alive.
+     * @return The HTTP client.
+     */
+    public static OkHttpClient createHttpClient(
+        final int maxRequests,
+        final int maxRequestsPerHost,
+        final int maxIdleConnections,
+        final long keepAlive,
+        final TimeUnit unit
+    ) {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive, unit))
+            .build();
+    }
+
+    /**
+     * Helper method to run a call asynchronously on the dispatcher of the HTTP client.
+     *
+     * @param call The call to run.
+     * @param <T>  The type of the body of the response.
+     * @return A future completed with the body of the response. Cancelling it cancels the call.
+     */
+    protected static <T> CompletableFuture<T> executeAsync(final Call<T> call) {
+        return executeAsync(call, Response::body);
+    }
+
+    /**
+     * Helper method to run a call asynchronously on the dispatcher of the HTTP client. Errors returned by the server
+     * complete the future exceptionally with the same exceptions the synchronous methods throw. The future is
+     * completed on a thread of the dispatcher so dependent actions shouldn't block.
+     *
+     * @param call      The call to run.
+     * @param converter Converts the response to the result of the future.
+     * @param <T>       The type of the body of the response.
+     * @param <R>       The type of the result.
+     * @return A future completed with the converted response. Cancelling it cancels the call.
+     */
+    protected static <T, R> CompletableFuture<R> executeAsync(
+        final Call<T> call,
+        final ResponseConverter<T, R> converter
+    ) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        call.enqueue(
+            new Callback<T>() {
+                @Override
+                public void onResponse(final Call<T> completedCall, final Response<T> response) {
+                    try {
+                        future.complete(converter.convert(response));
+                    } catch (final Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+
+                @Override
+                public void onFailure(final Call<T> failedCall, final Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            }
+        );
+        future.whenComplete(
+            (result, throwable) -> {
+                if (future.isCancelled()) {
+                    call.cancel();
+                }
+            }
+        );
+        return future;
+    }
+
+    /**
+     * Helper method to create a future which has already failed, e.g. when the arguments are invalid.
+     *
+     * @param throwable The reason for the failure.
+     * @param <T>       The type of the result.
+     * @return The failed future.
+     */
+    protected static <T> CompletableFuture<T> failedFuture(final Throwable throwable) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
     /**
      * Helper method to parse the id out of the location string in the Header.
      *
@@ -89,4 +228,23 @@ public abstract class BaseGenieClient {
     protected String getIdFromLocation(final String location) {
         return location.substring(location.lastIndexOf("/") + 1);
     }
+
+    /**
+     * Converts the response of an asynchronous call to the result of its future.
+     *
+     * @param <T> The type of the body of the response.
+     * @param <R> The type of the result.
+     */
+    @FunctionalInterface
+    protected interface ResponseConverter<T, R> {
+
+        /**
+         * Convert the response.
+         *
+         * @param response The successful response.
+         * @return The result.
+         * @throws Exception If the response can't be converted. Completes the future exceptionally.
+         */
+        R convert(final Response<T> response) throws Exception;
+    }
 }
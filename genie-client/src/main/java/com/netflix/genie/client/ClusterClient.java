@@ -26,12 +26,14 @@ import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Client library for the Cluster Service.
@@ -60,6 +62,24 @@ public class ClusterClient extends BaseGenieClient {
         clusterService = retrofit.create(ClusterService.class);
     }
 
+    /**
+     * Constructor that shares the dispatcher and connection pool of the given HTTP client.
+     *
+     * @param url The url of the Genie Service.
+     * @param securityInterceptor An implementation of the Security Interceptor.
+     * @param httpClient The HTTP client to share the dispatcher and connection pool of.
+     *
+     * @throws GenieException If there is any problem.
+     */
+    public ClusterClient(
+        final String url,
+        final SecurityInterceptor securityInterceptor,
+        final OkHttpClient httpClient
+    ) throws GenieException {
+        super(url, securityInterceptor, httpClient);
+        clusterService = retrofit.create(ClusterService.class);
+    }
+
     /**
      * Constructor that takes only the URL.
      *
@@ -168,6 +188,35 @@ public class ClusterClient extends BaseGenieClient {
         return clusterService.getCluster(clusterId).execute().body();
     }
 
+    /**
+     * Method to create a cluster in Genie without blocking.
+     *
+     * @param cluster A cluster object.
+     * @return A future completed with the id of the cluster created.
+     */
+    public CompletableFuture<String> createClusterAsync(final Cluster cluster) {
+        if (cluster == null) {
+            return failedFuture(new GeniePreconditionException("Cluster cannot be null."));
+        }
+        return executeAsync(
+            clusterService.createCluster(cluster),
+            response -> getIdFromLocation(response.headers().get("location"))
+        );
+    }
+
+    /**
+     * Method to get a cluster from Genie without blocking.
+     *
+     * @param clusterId The id of the cluster to get.
+     * @return A future completed with the cluster details.
+     */
+    public CompletableFuture<Cluster> getClusterAsync(final String clusterId) {
+        if (StringUtils.isEmpty(clusterId)) {
+            return failedFuture(new GeniePreconditionException("Missing required parameter: clusterId."));
+        }
+        return executeAsync(clusterService.getCluster(clusterId));
+    }
+
     /**
      * Method to delete a cluster from Genie.
      *
@@ -27,12 +27,14 @@ import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Client library for the Command Service.
@@ -61,6 +63,24 @@ public class CommandClient extends BaseGenieClient {
         commandService = retrofit.create(CommandService.class);
     }
 
+    /**
+     * Constructor that shares the dispatcher and connection pool of the given HTTP client.
+     *
+     * @param url The url of the Genie Service.
+     * @param securityInterceptor An implementation of the Security Interceptor.
+     * @param httpClient The HTTP client to share the dispatcher and connection pool of.
+     *
+     * @throws GenieException If there is any problem.
+     */
+    public CommandClient(
+        final String url,
+        final SecurityInterceptor securityInterceptor,
+        final OkHttpClient httpClient
+    ) throws GenieException {
+        super(url, securityInterceptor, httpClient);
+        commandService = retrofit.create(CommandService.class);
+    }
+
     /**
      * Constructor that takes only the URL.
      *
@@ -160,6 +180,35 @@ public class CommandClient extends BaseGenieClient {
         return commandService.getCommand(commandId).execute().body();
     }
 
+    /**
+     * Method to create a command in Genie without blocking.
+     *
+     * @param command A command object.
+     * @return A future completed with the id of the command created.
+     */
+    public CompletableFuture<String> createCommandAsync(final Command command) {
+        if (command == null) {
+            return failedFuture(new GeniePreconditionException("Command cannot be null."));
+        }
+        return executeAsync(
+            commandService.createCommand(command),
+            response -> getIdFromLocation(response.headers().get("location"))
+        );
+    }
+
+    /**
+     * Method to get a command from Genie without blocking.
+     *
+     * @param commandId The id of the command to get.
+     * @return A future completed with the command details.
+     */
+    public CompletableFuture<Command> getCommandAsync(final String commandId) {
+        if (StringUtils.isEmpty(commandId)) {
+            return failedFuture(new GeniePreconditionException("Missing required parameter: commandId."));
+        }
+        return executeAsync(commandService.getCommand(commandId));
+    }
+
     /**
      * Method to delete a command from Genie.
      *
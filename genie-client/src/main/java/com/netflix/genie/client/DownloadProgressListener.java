@@ -0,0 +1,37 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.client;
+
+/**
+ * Callback notified as a download makes progress. Parts of a download run in parallel so implementations are called
+ * from several threads at once and should be thread safe and quick.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@FunctionalInterface
+public interface DownloadProgressListener {
+
+    /**
+     * Called each time more bytes of the download have been written.
+     *
+     * @param downloaded The total number of bytes written so far
+     * @param total      The total number of bytes to download
+     */
+    void onProgress(final long downloaded, final long total);
+}
@@ -30,19 +30,43 @@ import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.common.exceptions.GenieTimeoutException;
+import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import org.apache.commons.lang3.StringUtils;
 import retrofit2.Response;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * Client library for the Job Service.
@@ -54,6 +78,30 @@ public class JobClient extends BaseGenieClient {
 
     private static final String ATTACHMENT = "attachment";
     private static final String APPLICATION_OCTET_STREAM = "application/octet-stream";
+    // The most jobs the server will look up in a single request
+    private static final int MAX_BULK_JOB_IDS = 100;
+    // Kept well under the read timeout of the HTTP client so held requests aren't cut off
+    private static final long LONG_POLL_TIMEOUT = 30000L;
+    // Least time between long-poll requests so a server which answers straight away isn't flooded with requests
+    private static final long MIN_LONG_POLL_INTERVAL = 1000L;
+    private static final String STDOUT = "stdout";
+    // How many times in a row following output may fail to make progress before giving up
+    private static final int MAX_FOLLOW_RETRIES = 5;
+    private static final long FOLLOW_RETRY_WAIT = 1000L;
+    private static final int FOLLOW_BUFFER_SIZE = 8192;
+    private static final int DEFAULT_DOWNLOAD_PARALLELISM = 4;
+    private static final long DEFAULT_DOWNLOAD_RANGE_SIZE = 32L * 1024L * 1024L;
+    // How many times in a row a range may fail to make progress before the download gives up
+    private static final int MAX_RANGE_RETRIES = 3;
+    private static final long RANGE_RETRY_WAIT = 1000L;
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String ETAG = "ETag";
+    private static final Set<String> FINISHED_STATUSES = Arrays
+        .stream(JobStatus.values())
+        .filter(status -> !status.isActive())
+        .map(JobStatus::toString)
+        .collect(Collectors.toSet());
 
     private final JobService jobService;
 
@@ -86,6 +134,24 @@ public class JobClient extends BaseGenieClient {
         jobService = retrofit.create(JobService.class);
     }
 
+    /**
+     * Constructor that runs requests on the given HTTP client. Clients constructed with the same HTTP client share its
+     * dispatcher and connection pool.
+     *
+     * @param url                 The url of the Genie Service.
+     * @param securityInterceptor An implementation of the Security Interceptor. Can be null.
+     * @param httpClient          The HTTP client to share.
+     * @throws GenieException If there is any problem.
+     */
+    public JobClient(
+        final String url,
+        final SecurityInterceptor securityInterceptor,
+        final OkHttpClient httpClient
+    ) throws GenieException {
+        super(url, securityInterceptor, httpClient);
+        jobService = retrofit.create(JobService.class);
+    }
+
     /**
      * Submit a job to genie using the jobRequest provided.
      *
@@ -318,6 +384,7 @@ public class JobClient extends BaseGenieClient {
 
     /**
      * Method to fetch the stdout of a job from Genie.
+     * The output is requested gzip compressed and decompressed transparently as it's read from the stream.
      *
      * @param jobId The id of the job whose output is desired.
      *
@@ -337,6 +404,7 @@ public class JobClient extends BaseGenieClient {
 
     /**
      * Method to fetch the stderr of a job from Genie.
+     * The output is requested gzip compressed and decompressed transparently as it's read from the stream.
      *
      * @param jobId The id of the job whose stderr is desired.
      *
@@ -351,6 +419,264 @@ public class JobClient extends BaseGenieClient {
         return jobService.getJobStderr(jobId).execute().body().byteStream();
     }
 
+    /**
+     * Method to follow the stdout of a job as it is written. Everything from the given offset is written to the
+     * output stream and the method returns once the job finishes and all of its stdout has been written. If the
+     * connection drops it is re-established from the last byte received so nothing is sent twice.
+     *
+     * @param jobId        The id of the job whose stdout is desired.
+     * @param offset       The byte offset in stdout to start from.
+     * @param outputStream Where to write the stdout of the job. Not closed by this method.
+     *
+     * @return The offset in stdout after the last byte written. Can be used to resume following later.
+     *
+     * @throws GenieException       For any other error.
+     * @throws IOException If the response received is not 2xx or the connection fails repeatedly.
+     * @throws InterruptedException If interrupted while waiting to reconnect.
+     */
+    public long followStdout(
+        final String jobId,
+        final long offset,
+        final OutputStream outputStream
+    ) throws IOException, GenieException, InterruptedException {
+        if (StringUtils.isEmpty(jobId)) {
+            throw new GeniePreconditionException("Missing required parameter: jobId.");
+        }
+
+        long position = offset;
+        int failures = 0;
+        while (true) {
+            final long start = position;
+            try (final InputStream inputStream = this.jobService
+                .followJobOutput(jobId, STDOUT, position)
+                .execute()
+                .body()
+                .byteStream()) {
+                final byte[] buffer = new byte[FOLLOW_BUFFER_SIZE];
+                for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+                    outputStream.write(buffer, 0, read);
+                    position += read;
+                }
+                outputStream.flush();
+
+                // The server ends the stream once the job is done. Otherwise it timed out so pick up where it left off.
+                if (!this.getJobStatus(jobId).isActive()) {
+                    return position;
+                }
+                failures = 0;
+            } catch (final IOException ioe) {
+                // Errors mapped from the server response won't get better by retrying
+                if (ioe.getCause() instanceof GenieException) {
+                    throw ioe;
+                }
+                failures = position > start ? 0 : failures + 1;
+                if (failures >= MAX_FOLLOW_RETRIES) {
+                    throw ioe;
+                }
+                Thread.sleep(FOLLOW_RETRY_WAIT);
+            }
+        }
+    }
+
+    /**
+     * Method to download a file in the output directory of a job into a local file. The file is split into ranges of
+     * 32 MB which are downloaded over four parallel connections.
+     *
+     * @param jobId       The id of the job whose output is desired.
+     * @param path        The path of the file relative to the output directory of the job e.g. stdout.
+     * @param destination The local file to write to. Created or overwritten.
+     *
+     * @return The size of the downloaded file.
+     *
+     * @throws GenieException       If the file doesn't exist, changes during the download or for any other error.
+     * @throws IOException If the response received is not 2xx or a range repeatedly fails.
+     * @throws InterruptedException If interrupted while downloading.
+     */
+    public long downloadJobOutput(
+        final String jobId,
+        final String path,
+        final File destination
+    ) throws IOException, GenieException, InterruptedException {
+        return this.downloadJobOutput(
+            jobId,
+            path,
+            destination,
+            DEFAULT_DOWNLOAD_PARALLELISM,
+            DEFAULT_DOWNLOAD_RANGE_SIZE,
+            null
+        );
+    }
+
+    /**
+     * Method to download a file in the output directory of a job into a local file. The size is found first and then
+     * the file is split into ranges which are downloaded in parallel and written straight to their position in the
+     * destination. A range which fails is retried from the last byte written without restarting the others. The
+     * file is downloaded as it was when the download started so it's meant for jobs which have finished. If it
+     * changes in the meantime the download fails rather than mixing old and new contents.
+     *
+     * @param jobId       The id of the job whose output is desired.
+     * @param path        The path of the file relative to the output directory of the job e.g. stdout.
+     * @param destination The local file to write to. Created or overwritten.
+     * @param parallelism The maximum number of ranges to download at the same time.
+     * @param rangeSize   The size of each range in bytes.
+     * @param listener    Notified as bytes are written. Optional.
+     *
+     * @return The size of the downloaded file.
+     *
+     * @throws GenieException       If the file doesn't exist, changes during the download or for any other error.
+     * @throws IOException If the response received is not 2xx or a range repeatedly fails.
+     * @throws InterruptedException If interrupted while downloading.
+     */
+    public long downloadJobOutput(
+        final String jobId,
+        final String path,
+        final File destination,
+        final int parallelism,
+        final long rangeSize,
+        final DownloadProgressListener listener
+    ) throws IOException, GenieException, InterruptedException {
+        if (StringUtils.isEmpty(jobId) || StringUtils.isEmpty(path)) {
+            throw new GeniePreconditionException("Missing required parameter: jobId or path.");
+        }
+        if (destination == null) {
+            throw new GeniePreconditionException("Missing required parameter: destination.");
+        }
+        if (parallelism < 1 || rangeSize < 1) {
+            throw new GeniePreconditionException("Parallelism and range size must be positive.");
+        }
+
+        final String encodedPath = this.encodePath(path);
+        final Headers headers = this.jobService.getJobOutputHeaders(jobId, encodedPath).execute().headers();
+        final String contentLength = headers.get(CONTENT_LENGTH);
+        if (contentLength == null) {
+            throw new GenieServerException("No size returned for " + path + ". It may be a directory.");
+        }
+        final long size = Long.parseLong(contentLength);
+        final String eTag = headers.get(ETAG);
+
+        try (final RandomAccessFile file = new RandomAccessFile(destination, "rw")) {
+            file.setLength(size);
+            final FileChannel channel = file.getChannel();
+            final AtomicLong downloaded = new AtomicLong();
+            final int threads = (int) Math.max(1L, Math.min(parallelism, (size + rangeSize - 1) / rangeSize));
+            final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+            try {
+                final List<Future<Void>> ranges = new ArrayList<>();
+                for (long start = 0; start < size; start += rangeSize) {
+                    final long rangeStart = start;
+                    final long rangeEnd = Math.min(size, start + rangeSize);
+                    ranges.add(executorService.submit(() -> {
+                        this.downloadRange(
+                            jobId,
+                            encodedPath,
+                            eTag,
+                            channel,
+                            rangeStart,
+                            rangeEnd,
+                            size,
+                            downloaded,
+                            listener
+                        );
+                        return null;
+                    }));
+                }
+                for (final Future<Void> range : ranges) {
+                    try {
+                        range.get();
+                    } catch (final ExecutionException ee) {
+                        final Throwable cause = ee.getCause();
+                        if (cause instanceof IOException) {
+                            throw (IOException) cause;
+                        } else if (cause instanceof InterruptedException) {
+                            throw (InterruptedException) cause;
+                        } else if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        } else {
+                            throw new IllegalStateException(cause);
+                        }
+                    }
+                }
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Download the bytes from start (inclusive) to end (exclusive) of the file into the same position of the channel,
+     * resuming from the last byte written when the connection fails.
+     */
+    private void downloadRange(
+        final String jobId,
+        final String encodedPath,
+        final String eTag,
+        final FileChannel channel,
+        final long start,
+        final long end,
+        final long size,
+        final AtomicLong downloaded,
+        final DownloadProgressListener listener
+    ) throws IOException, InterruptedException {
+        long position = start;
+        int failures = 0;
+        while (position < end) {
+            final long before = position;
+            try {
+                final Response<ResponseBody> response = this.jobService
+                    .getJobOutputRange(jobId, encodedPath, "bytes=" + position + "-" + (end - 1), eTag)
+                    .execute();
+                try (final InputStream inputStream = response.body().byteStream()) {
+                    // Anything but partial content means the server sent the whole file as it changed since we started
+                    if (response.code() != HttpURLConnection.HTTP_PARTIAL) {
+                        throw new IOException(
+                            new GeniePreconditionException("Job output changed on the server during the download.")
+                        );
+                    }
+                    final byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+                    for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+                        final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, (int) Math.min(read, end - position));
+                        final int length = bytes.remaining();
+                        while (bytes.hasRemaining()) {
+                            position += channel.write(bytes, position);
+                        }
+                        final long total = downloaded.addAndGet(length);
+                        if (listener != null) {
+                            listener.onProgress(total, size);
+                        }
+                        if (position >= end) {
+                            break;
+                        }
+                    }
+                }
+                if (position < end) {
+                    throw new EOFException("Connection closed after " + (position - start) + " bytes of the range.");
+                }
+            } catch (final IOException ioe) {
+                // Errors mapped from the server response won't get better by retrying
+                if (ioe.getCause() instanceof GenieException) {
+                    throw ioe;
+                }
+                failures = position > before ? 0 : failures + 1;
+                if (failures >= MAX_RANGE_RETRIES) {
+                    throw ioe;
+                }
+                Thread.sleep(RANGE_RETRY_WAIT);
+            }
+        }
+    }
+
+    /**
+     * URL encode each segment of a relative path keeping the separators.
+     */
+    private String encodePath(final String path) throws IOException {
+        final List<String> segments = new ArrayList<>();
+        for (final String segment : StringUtils.split(path, FILE_PATH_DELIMITER)) {
+            segments.add(URLEncoder.encode(segment, "UTF-8").replace("+", "%20"));
+        }
+        return StringUtils.join(segments, FILE_PATH_DELIMITER);
+    }
+
     /**
      * Method to fetch the status of a job.
      *
@@ -367,6 +693,47 @@ public class JobClient extends BaseGenieClient {
         return JobStatus.parse(jsonNode.get(STATUS).asText());
     }
 
+    /**
+     * Method to fetch the summaries, including the statuses, of many jobs. The jobs are fetched in batches so any
+     * number of ids can be passed in.
+     *
+     * @param jobIds The ids of the jobs.
+     *
+     * @return The summaries of the jobs which exist. Jobs which don't exist are left out.
+     * @throws GenieException       For any other error.
+     * @throws IOException If the response received is not 2xx.
+     */
+    public List<JobSearchResult> getJobSummaries(
+        final Collection<String> jobIds
+    ) throws IOException, GenieException {
+        final List<String> ids = new ArrayList<>(new LinkedHashSet<>(jobIds));
+        final List<JobSearchResult> summaries = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_BULK_JOB_IDS) {
+            final Set<String> batch = new HashSet<>(ids.subList(i, Math.min(i + MAX_BULK_JOB_IDS, ids.size())));
+            summaries.addAll(jobService.getJobSummaries(batch).execute().body());
+        }
+        return summaries;
+    }
+
+    /**
+     * Method to fetch the statuses of many jobs.
+     *
+     * @param jobIds The ids of the jobs.
+     *
+     * @return The status of each job keyed by id. Jobs which don't exist are left out.
+     * @throws GenieException       For any other error.
+     * @throws IOException If the response received is not 2xx.
+     */
+    public Map<String, JobStatus> getJobStatuses(
+        final Collection<String> jobIds
+    ) throws IOException, GenieException {
+        final Map<String, JobStatus> statuses = new HashMap<>();
+        for (final JobSearchResult summary : this.getJobSummaries(jobIds)) {
+            statuses.put(summary.getId(), summary.getStatus());
+        }
+        return statuses;
+    }
+
     /**
      * Method to send a kill job request to Genie.
      *
@@ -421,7 +788,9 @@ public class JobClient extends BaseGenieClient {
     }
 
     /**
-     * Wait for job to complete, until the given timeout.
+     * Wait for job to complete, until the given timeout. Rather than polling, the server holds each request open
+     * until the job finishes so the status is returned as soon as it changes. Requests are sent at most once a second
+     * in case the server answers without holding them.
      *
      * @param id           the Genie job ID to wait for completion.
      * @param blockTimeout the time to block for (in ms), after which a
@@ -433,7 +802,170 @@ public class JobClient extends BaseGenieClient {
      */
     public JobStatus waitForCompletion(final String id, final long blockTimeout)
         throws GenieException, InterruptedException, IOException {
-        final long pollTime = 10000;
-        return waitForCompletion(id, blockTimeout, pollTime);
+        if (StringUtils.isEmpty(id)) {
+            throw new GeniePreconditionException("Missing required parameter: jobId.");
+        }
+
+        final long startTime = System.currentTimeMillis();
+
+        while (true) {
+            final long requestTime = System.currentTimeMillis();
+            final long remaining = blockTimeout - (requestTime - startTime);
+            final JsonNode jsonNode = this.jobService
+                .waitForJobStatus(id, FINISHED_STATUSES, Math.max(1L, Math.min(remaining, LONG_POLL_TIMEOUT)))
+                .execute()
+                .body();
+            final JobStatus status = JobStatus.parse(jsonNode.get(STATUS).asText());
+
+            if (!status.isActive()) {
+                return status;
+            }
+
+            final long now = System.currentTimeMillis();
+            if (now - startTime >= blockTimeout) {
+                throw new GenieTimeoutException("Timed out waiting for job to finish");
+            }
+
+            // An older server, an error or a proxy dropping idle connections can answer without holding the request
+            final long wait = Math.min(MIN_LONG_POLL_INTERVAL - (now - requestTime), blockTimeout - (now - startTime));
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+        }
+    }
+
+    /**
+     * Submit a job to genie using the jobRequest provided without blocking.
+     *
+     * @param jobRequest A job request containing all the details for running a job.
+     * @return A future completed with the id of the job submitted.
+     */
+    public CompletableFuture<String> submitJobAsync(final JobRequest jobRequest) {
+        if (jobRequest == null) {
+            return failedFuture(new GeniePreconditionException("Job Request cannot be null."));
+        }
+        return executeAsync(
+            this.jobService.submitJob(jobRequest),
+            response -> this.getIdFromLocation(response.headers().get("location"))
+        );
+    }
+
+    /**
+     * Method to get a job from Genie without blocking.
+     *
+     * @param jobId The id of the job to get.
+     * @return A future completed with the job.
+     */
+    public CompletableFuture<Job> getJobAsync(final String jobId) {
+        if (StringUtils.isEmpty(jobId)) {
+            return failedFuture(new GeniePreconditionException("Missing required parameter: jobId."));
+        }
+        return executeAsync(this.jobService.getJob(jobId));
+    }
+
+    /**
+     * Method to fetch the status of a job without blocking.
+     *
+     * @param jobId The id of the job.
+     * @return A future completed with the status of the job.
+     */
+    public CompletableFuture<JobStatus> getJobStatusAsync(final String jobId) {
+        if (StringUtils.isEmpty(jobId)) {
+            return failedFuture(new GeniePreconditionException("Missing required parameter: jobId."));
+        }
+        return executeAsync(
+            this.jobService.getJobStatus(jobId),
+            response -> JobStatus.parse(response.body().get(STATUS).asText())
+        );
+    }
+
+    /**
+     * Method to fetch the summaries, including the statuses, of many jobs without blocking. The batches are
+     * requested concurrently.
+     *
+     * @param jobIds The ids of the jobs.
+     * @return A future completed with the summaries of the jobs which exist. Jobs which don't exist are left out.
+     */
+    public CompletableFuture<List<JobSearchResult>> getJobSummariesAsync(final Collection<String> jobIds) {
+        final List<String> ids = new ArrayList<>(new LinkedHashSet<>(jobIds));
+        final List<CompletableFuture<List<JobSearchResult>>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_BULK_JOB_IDS) {
+            final Set<String> batch = new HashSet<>(ids.subList(i, Math.min(i + MAX_BULK_JOB_IDS, ids.size())));
+            batches.add(executeAsync(this.jobService.getJobSummaries(batch)));
+        }
+        return CompletableFuture
+            .allOf(batches.toArray(new CompletableFuture<?>[batches.size()]))
+            .thenApply(
+                ignored -> batches
+                    .stream()
+                    .flatMap(batch -> batch.join().stream())
+                    .collect(Collectors.toList())
+            );
+    }
+
+    /**
+     * Method to fetch the statuses of many jobs without blocking.
+     *
+     * @param jobIds The ids of the jobs.
+     * @return A future completed with the status of each job keyed by id. Jobs which don't exist are left out.
+     */
+    public CompletableFuture<Map<String, JobStatus>> getJobStatusesAsync(final Collection<String> jobIds) {
+        return this.getJobSummariesAsync(jobIds).thenApply(
+            summaries -> {
+                final Map<String, JobStatus> statuses = new HashMap<>();
+                for (final JobSearchResult summary : summaries) {
+                    statuses.put(summary.getId(), summary.getStatus());
+                }
+                return statuses;
+            }
+        );
+    }
+
+    /**
+     * Method to send a kill job request to Genie without blocking.
+     *
+     * @param jobId The id of the job.
+     * @return A future completed once the request has been accepted.
+     */
+    public CompletableFuture<Void> killJobAsync(final String jobId) {
+        if (StringUtils.isEmpty(jobId)) {
+            return failedFuture(new GeniePreconditionException("Missing required parameter: jobId."));
+        }
+        return executeAsync(this.jobService.killJob(jobId));
+    }
+
+    /**
+     * Wait for a job to complete, until the given timeout, without blocking a thread. The server holds each request
+     * open until the job finishes and a new request is only sent when the previous one returned while the job was
+     * still active. Cancelling the future stops waiting after the outstanding request returns.
+     *
+     * @param jobId        the Genie job ID to wait for completion.
+     * @param blockTimeout the time to wait for (in ms), after which the future fails with a GenieTimeoutException.
+     * @return A future completed with the job status for the job after completion.
+     */
+    public CompletableFuture<JobStatus> waitForCompletionAsync(final String jobId, final long blockTimeout) {
+        if (StringUtils.isEmpty(jobId)) {
+            return failedFuture(new GeniePreconditionException("Missing required parameter: jobId."));
+        }
+        return this.pollForCompletion(jobId, System.currentTimeMillis() + blockTimeout);
+    }
+
+    private CompletableFuture<JobStatus> pollForCompletion(final String jobId, final long deadline) {
+        final long remaining = deadline - System.currentTimeMillis();
+        return executeAsync(
+            this.jobService
+                .waitForJobStatus(jobId, FINISHED_STATUSES, Math.max(1L, Math.min(remaining, LONG_POLL_TIMEOUT))),
+            response -> JobStatus.parse(response.body().get(STATUS).asText())
+        ).thenCompose(
+            status -> {
+                if (!status.isActive()) {
+                    return CompletableFuture.completedFuture(status);
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    return failedFuture(new GenieTimeoutException("Timed out waiting for job to finish"));
+                }
+                return this.pollForCompletion(jobId, deadline);
+            }
+        );
     }
 }
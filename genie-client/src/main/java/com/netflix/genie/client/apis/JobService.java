@@ -24,12 +24,16 @@ import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.search.JobSearchResult;
 import okhttp3.MultipartBody;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
 import retrofit2.http.Multipart;
 import retrofit2.http.POST;
 import retrofit2.http.Part;
@@ -141,6 +145,56 @@ public interface JobService {
     @GET(JOBS_URL_SUFFIX + "/{id}/output/stderr")
     Call<ResponseBody> getJobStderr(@Path("id") final String jobId);
 
+    /**
+     * Method to get the headers, such as the size and ETag, of a file in the output directory of a job without its
+     * contents. The identity encoding is requested so the size is that of the file itself.
+     *
+     * @param jobId The id of the job whose output is desired.
+     * @param path  The already URL encoded path of the file within the output directory.
+     * @return A callable object.
+     */
+    @HEAD(JOBS_URL_SUFFIX + "/{id}/output/{path}")
+    @Headers("Accept-Encoding: identity")
+    Call<Void> getJobOutputHeaders(
+        @Path("id") final String jobId,
+        @Path(value = "path", encoded = true) final String path
+    );
+
+    /**
+     * Method to fetch a byte range of a file in the output directory of a job.
+     *
+     * @param jobId   The id of the job whose output is desired.
+     * @param path    The already URL encoded path of the file within the output directory.
+     * @param range   The range to fetch in the format of an HTTP Range header e.g. bytes=0-1023
+     * @param ifRange The ETag the file must still have for the range to be returned. Otherwise the whole file is.
+     * @return A callable object.
+     */
+    @Streaming
+    @GET(JOBS_URL_SUFFIX + "/{id}/output/{path}")
+    Call<ResponseBody> getJobOutputRange(
+        @Path("id") final String jobId,
+        @Path(value = "path", encoded = true) final String path,
+        @Header("Range") final String range,
+        @Header("If-Range") final String ifRange
+    );
+
+    /**
+     * Method to follow a file in the output directory of a job as it grows. The response ends once the job finishes
+     * and all its output has been sent.
+     *
+     * @param jobId  The id of the job whose output is desired.
+     * @param file   The path of the file within the output directory.
+     * @param offset The byte offset in the file to start from.
+     * @return A callable object.
+     */
+    @Streaming
+    @GET(JOBS_URL_SUFFIX + "/{id}/output/{file}?follow=true")
+    Call<ResponseBody> followJobOutput(
+        @Path("id") final String jobId,
+        @Path("file") final String file,
+        @Query("offset") final long offset
+    );
+
     /**
      * Method to get Job status.
      *
@@ -150,6 +204,31 @@ public interface JobService {
     @GET(JOBS_URL_SUFFIX + "/{id}/status")
     Call<JsonNode> getJobStatus(@Path("id") final String jobId);
 
+    /**
+     * Method to get the summaries, including the statuses, of many jobs at once.
+     *
+     * @param jobIds The ids of the jobs. At most 100 at a time.
+     * @return A callable object.
+     */
+    @GET(JOBS_URL_SUFFIX + "/summaries")
+    Call<List<JobSearchResult>> getJobSummaries(@Query("id") final Set<String> jobIds);
+
+    /**
+     * Method to wait for a job to reach one of the given statuses. The server holds the request until the job is in
+     * one of the statuses, has finished or the timeout elapses and then returns the current status.
+     *
+     * @param jobId   The id of the job to wait for.
+     * @param waitFor The statuses to wait for.
+     * @param timeout The maximum time for the server to wait in milliseconds.
+     * @return A callable object.
+     */
+    @GET(JOBS_URL_SUFFIX + "/{id}/status")
+    Call<JsonNode> waitForJobStatus(
+        @Path("id") final String jobId,
+        @Query("waitFor") final Set<String> waitFor,
+        @Query("timeout") final long timeout
+    );
+
     /**
      * Method to get the cluster information on which a job is run.
      *
@@ -23,6 +23,8 @@ import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.ClusterStatus;
 import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import okhttp3.OkHttpClient;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -36,6 +38,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -98,6 +103,39 @@ public class ClusterClientIntegrationTests extends GenieClientsIntegrationTestsB
         Assert.assertEquals(cluster.getStatus(), cstr.getStatus());
     }
 
+    /**
+     * Integration test to create a cluster and get it many times concurrently through clients sharing one HTTP client.
+     *
+     * @throws Exception If there is any problem.
+     */
+    @Test
+    public void testCanCreateAndGetClusterAsync() throws Exception {
+        final OkHttpClient httpClient = BaseGenieClient.createHttpClient(64, 64, 16, 5, TimeUnit.MINUTES);
+        final ClusterClient asyncClient = new ClusterClient(getBaseUrl(), null, httpClient);
+        final ClusterClient otherAsyncClient = new ClusterClient(getBaseUrl(), null, httpClient);
+
+        final String id = UUID.randomUUID().toString();
+        final Cluster cluster = constructClusterDTO(id);
+        Assert.assertEquals(id, asyncClient.createClusterAsync(cluster).get(30, TimeUnit.SECONDS));
+
+        final List<CompletableFuture<Cluster>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(i % 2 == 0 ? asyncClient.getClusterAsync(id) : otherAsyncClient.getClusterAsync(id));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).get(30, TimeUnit.SECONDS);
+        for (final CompletableFuture<Cluster> future : futures) {
+            Assert.assertEquals(cluster.getName(), future.join().getName());
+        }
+
+        try {
+            asyncClient.getClusterAsync(UUID.randomUUID().toString()).get(30, TimeUnit.SECONDS);
+            Assert.fail("Expected the cluster not to be found");
+        } catch (final ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof IOException);
+            Assert.assertTrue(ee.getCause().getCause() instanceof GenieNotFoundException);
+        }
+    }
+
     /**
      * Test getting the clusters using the various query parameters.
      *
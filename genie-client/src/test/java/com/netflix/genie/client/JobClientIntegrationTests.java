@@ -37,14 +37,19 @@ import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -415,6 +420,14 @@ public class JobClientIntegrationTests extends GenieClientsIntegrationTestsBase
             null,
             null
         ).size());
+
+        // Get the statuses of all the jobs at once
+        final Map<String, JobStatus> statuses = jobClient.getJobStatuses(
+            Lists.newArrayList(jobRequest1.getId(), jobRequest2.getId(), UUID.randomUUID().toString())
+        );
+        Assert.assertEquals(2, statuses.size());
+        Assert.assertEquals(JobStatus.SUCCEEDED, statuses.get(jobRequest1.getId()));
+        Assert.assertEquals(JobStatus.FAILED, statuses.get(jobRequest2.getId()));
     }
 
     /**
@@ -459,6 +472,26 @@ public class JobClientIntegrationTests extends GenieClientsIntegrationTestsBase
         inputStream1.close();
 
         Assert.assertEquals("HELLO WORLD!!!", sb.toString());
+
+        final ByteArrayOutputStream followed = new ByteArrayOutputStream();
+        final long end = jobClient.followStdout(jobRequest1.getId(), 6L, followed);
+        Assert.assertEquals("WORLD!!!\n", followed.toString("UTF-8"));
+        Assert.assertEquals(15L, end);
+
+        final File downloaded = File.createTempFile("stdout", ".txt");
+        downloaded.deleteOnExit();
+        final AtomicLong progress = new AtomicLong();
+        final long size = jobClient.downloadJobOutput(
+            jobRequest1.getId(),
+            "stdout",
+            downloaded,
+            2,
+            4L,
+            (bytes, total) -> progress.accumulateAndGet(bytes, Math::max)
+        );
+        Assert.assertEquals(15L, size);
+        Assert.assertEquals(15L, progress.get());
+        Assert.assertEquals("HELLO WORLD!!!\n", new String(Files.readAllBytes(downloaded.toPath()), "UTF-8"));
     }
 
     /**
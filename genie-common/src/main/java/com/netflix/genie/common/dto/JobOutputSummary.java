@@ -0,0 +1,80 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.validation.constraints.Min;
+import java.io.Serializable;
+
+/**
+ * A compact summary of the output of a finished job. Holds the beginning and end of the standard output and
+ * standard error of the job along with their full sizes so the most commonly requested parts of the output can be
+ * shown without reading the job directory. The tail never overlaps the head so if an entire file fit within the
+ * head the tail is empty.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class JobOutputSummary implements Serializable {
+
+    private static final long serialVersionUID = -1392752408245432875L;
+
+    private final String stdoutHead;
+    private final String stdoutTail;
+    @Min(0)
+    private final long stdoutSize;
+    private final String stderrHead;
+    private final String stderrTail;
+    @Min(0)
+    private final long stderrSize;
+
+    /**
+     * Constructor.
+     *
+     * @param stdoutHead The beginning of the standard output. Null is stored as empty.
+     * @param stdoutTail The end of the standard output. Null is stored as empty.
+     * @param stdoutSize The total size of the standard output in bytes
+     * @param stderrHead The beginning of the standard error. Null is stored as empty.
+     * @param stderrTail The end of the standard error. Null is stored as empty.
+     * @param stderrSize The total size of the standard error in bytes
+     */
+    @JsonCreator
+    public JobOutputSummary(
+        @JsonProperty("stdoutHead") final String stdoutHead,
+        @JsonProperty("stdoutTail") final String stdoutTail,
+        @JsonProperty("stdoutSize") final long stdoutSize,
+        @JsonProperty("stderrHead") final String stderrHead,
+        @JsonProperty("stderrTail") final String stderrTail,
+        @JsonProperty("stderrSize") final long stderrSize
+    ) {
+        this.stdoutHead = stdoutHead == null ? "" : stdoutHead;
+        this.stdoutTail = stdoutTail == null ? "" : stdoutTail;
+        this.stdoutSize = stdoutSize;
+        this.stderrHead = stderrHead == null ? "" : stderrHead;
+        this.stderrTail = stderrTail == null ? "" : stderrTail;
+        this.stderrSize = stderrSize;
+    }
+}
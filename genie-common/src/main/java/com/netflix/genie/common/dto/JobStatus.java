@@ -52,6 +52,16 @@ public enum JobStatus {
      */
     INVALID;
 
+    /**
+     * Whether a job in this status may still change status. Once a job reaches any other status it is finished and
+     * the status will never change again.
+     *
+     * @return True if the job is INIT or RUNNING
+     */
+    public boolean isActive() {
+        return this == INIT || this == RUNNING;
+    }
+
     /**
      * Parse job status.
      *
@@ -0,0 +1,90 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.netflix.genie.common.util.JsonDateDeserializer;
+import com.netflix.genie.common.util.JsonDateSerializer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A single entry in the timeline of a job. Records the status a job moved into, the status it moved out of, when it
+ * happened and which Genie node recorded it. The time between consecutive transitions is how long the job spent in
+ * each status.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class JobStatusTransition implements Serializable {
+
+    private static final long serialVersionUID = -8466282196318935618L;
+
+    private final JobStatus previousStatus;
+    @NotNull
+    private final JobStatus status;
+    private final String statusMsg;
+    @JsonSerialize(using = JsonDateSerializer.class)
+    @NotNull
+    private final Date time;
+    private final String hostName;
+
+    /**
+     * Constructor.
+     *
+     * @param previousStatus The status the job moved out of. Null when the job was just created.
+     * @param status         The status the job moved into
+     * @param statusMsg      The status message which accompanied the transition
+     * @param time           When the transition happened
+     * @param hostName       The host name of the Genie node which recorded the transition
+     */
+    @JsonCreator
+    public JobStatusTransition(
+        @JsonProperty("previousStatus") final JobStatus previousStatus,
+        @JsonProperty("status") final JobStatus status,
+        @JsonProperty("statusMsg") final String statusMsg,
+        @JsonProperty("time") @JsonDeserialize(using = JsonDateDeserializer.class) final Date time,
+        @JsonProperty("hostName") final String hostName
+    ) {
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.statusMsg = statusMsg;
+        this.time = time == null ? null : new Date(time.getTime());
+        this.hostName = hostName;
+    }
+
+    /**
+     * Get when the transition happened.
+     *
+     * @return The time of the transition
+     */
+    public Date getTime() {
+        return this.time == null ? null : new Date(this.time.getTime());
+    }
+}
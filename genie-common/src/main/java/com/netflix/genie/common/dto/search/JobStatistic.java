@@ -0,0 +1,93 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.util.JsonDateDeserializer;
+import com.netflix.genie.common.util.JsonDateSerializer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.validation.constraints.Min;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A single row of pre-aggregated job statistics. Represents the number of status transitions into a given status
+ * for the combination of dimensions which were grouped by. Any dimension which wasn't part of the grouping is null.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class JobStatistic implements Serializable {
+
+    private static final long serialVersionUID = 4406247812364329052L;
+
+    @JsonSerialize(using = JsonDateSerializer.class)
+    private final Date hour;
+    private final JobStatus status;
+    private final String user;
+    private final String clusterName;
+    private final String commandName;
+    @Min(0)
+    private final long count;
+
+    /**
+     * Constructor.
+     *
+     * @param hour        The start of the hour (UTC) the transitions happened in. Null if not grouped by hour.
+     * @param status      The status the jobs transitioned to. Null if not grouped by status.
+     * @param user        The user who owns the jobs. Null if not grouped by user.
+     * @param clusterName The name of the cluster the jobs ran on. Null if not grouped by cluster or not known.
+     * @param commandName The name of the command the jobs ran. Null if not grouped by command or not known.
+     * @param count       The number of transitions
+     */
+    @JsonCreator
+    public JobStatistic(
+        @JsonProperty("hour") @JsonDeserialize(using = JsonDateDeserializer.class) final Date hour,
+        @JsonProperty("status") final JobStatus status,
+        @JsonProperty("user") final String user,
+        @JsonProperty("clusterName") final String clusterName,
+        @JsonProperty("commandName") final String commandName,
+        @JsonProperty("count") final long count
+    ) {
+        this.hour = hour == null ? null : new Date(hour.getTime());
+        this.status = status;
+        this.user = user;
+        this.clusterName = clusterName;
+        this.commandName = commandName;
+        this.count = count;
+    }
+
+    /**
+     * Get the start of the hour the transitions were counted in.
+     *
+     * @return The hour or null if the statistic isn't grouped by hour
+     */
+    public Date getHour() {
+        return this.hour == null ? null : new Date(this.hour.getTime());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto.search;
+
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The dimensions job statistics can be grouped by.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+public enum JobStatisticDimension {
+
+    /**
+     * The hour (UTC) the jobs entered the status.
+     */
+    HOUR,
+    /**
+     * The status the jobs entered.
+     */
+    STATUS,
+    /**
+     * The user who submitted the jobs.
+     */
+    USER,
+    /**
+     * The name of the cluster the jobs ran on.
+     */
+    CLUSTER_NAME,
+    /**
+     * The name of the command the jobs ran.
+     */
+    COMMAND_NAME;
+
+    /**
+     * Parse a job statistic dimension. Both the enum name (e.g. CLUSTER_NAME) and the camel case field name
+     * (e.g. clusterName) are accepted regardless of case.
+     *
+     * @param value string to parse/convert
+     * @return HOUR, STATUS, USER, CLUSTER_NAME or COMMAND_NAME if match
+     * @throws GeniePreconditionException if invalid value passed in
+     */
+    public static JobStatisticDimension parse(final String value) throws GeniePreconditionException {
+        if (StringUtils.isNotBlank(value)) {
+            final String normalized = value.replace("_", "");
+            for (final JobStatisticDimension dimension : JobStatisticDimension.values()) {
+                if (normalized.equalsIgnoreCase(dimension.toString().replace("_", ""))) {
+                    return dimension;
+                }
+            }
+        }
+        throw new GeniePreconditionException(
+            "Unacceptable job statistic dimension. Must be one of {hour, status, user, clusterName, commandName}"
+        );
+    }
+}
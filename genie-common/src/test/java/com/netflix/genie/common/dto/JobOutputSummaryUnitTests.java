@@ -0,0 +1,71 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.UUID;
+
+/**
+ * Tests for the JobOutputSummary DTO.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobOutputSummaryUnitTests {
+
+    /**
+     * Make sure constructor works.
+     */
+    @Test
+    public void canConstruct() {
+        final String stdoutHead = UUID.randomUUID().toString();
+        final String stdoutTail = UUID.randomUUID().toString();
+        final String stderrHead = UUID.randomUUID().toString();
+        final String stderrTail = UUID.randomUUID().toString();
+        final JobOutputSummary summary
+            = new JobOutputSummary(stdoutHead, stdoutTail, 3424L, stderrHead, stderrTail, 23L);
+
+        Assert.assertThat(summary.getStdoutHead(), Matchers.is(stdoutHead));
+        Assert.assertThat(summary.getStdoutTail(), Matchers.is(stdoutTail));
+        Assert.assertThat(summary.getStdoutSize(), Matchers.is(3424L));
+        Assert.assertThat(summary.getStderrHead(), Matchers.is(stderrHead));
+        Assert.assertThat(summary.getStderrTail(), Matchers.is(stderrTail));
+        Assert.assertThat(summary.getStderrSize(), Matchers.is(23L));
+    }
+
+    /**
+     * Make sure missing output is stored as empty strings.
+     */
+    @Test
+    public void canConstructWithNulls() {
+        final JobOutputSummary summary = new JobOutputSummary(null, null, 0L, null, null, 0L);
+
+        Assert.assertThat(summary.getStdoutHead(), Matchers.is(""));
+        Assert.assertThat(summary.getStdoutTail(), Matchers.is(""));
+        Assert.assertThat(summary.getStdoutSize(), Matchers.is(0L));
+        Assert.assertThat(summary.getStderrHead(), Matchers.is(""));
+        Assert.assertThat(summary.getStderrTail(), Matchers.is(""));
+        Assert.assertThat(summary.getStderrSize(), Matchers.is(0L));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Tests for the JobStatusTransition DTO.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatusTransitionUnitTests {
+
+    /**
+     * Make sure constructor works and the time can't be modified from outside.
+     */
+    @Test
+    public void canConstruct() {
+        final String statusMsg = UUID.randomUUID().toString();
+        final String hostName = UUID.randomUUID().toString();
+        final Date time = new Date();
+        final JobStatusTransition transition
+            = new JobStatusTransition(JobStatus.INIT, JobStatus.RUNNING, statusMsg, time, hostName);
+
+        Assert.assertThat(transition.getPreviousStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(transition.getStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(transition.getStatusMsg(), Matchers.is(statusMsg));
+        Assert.assertThat(transition.getTime(), Matchers.is(time));
+        Assert.assertThat(transition.getHostName(), Matchers.is(hostName));
+
+        final long originalTime = time.getTime();
+        time.setTime(0L);
+        Assert.assertThat(transition.getTime().getTime(), Matchers.is(originalTime));
+        transition.getTime().setTime(0L);
+        Assert.assertThat(transition.getTime().getTime(), Matchers.is(originalTime));
+    }
+
+    /**
+     * Make sure the first transition of a job has no previous status.
+     */
+    @Test
+    public void canConstructWithNulls() {
+        final JobStatusTransition transition = new JobStatusTransition(null, JobStatus.INIT, null, null, null);
+
+        Assert.assertThat(transition.getPreviousStatus(), Matchers.nullValue());
+        Assert.assertThat(transition.getStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(transition.getStatusMsg(), Matchers.nullValue());
+        Assert.assertThat(transition.getTime(), Matchers.nullValue());
+        Assert.assertThat(transition.getHostName(), Matchers.nullValue());
+    }
+
+    /**
+     * Make sure a transition survives a round trip through JSON.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canSerializeAndDeserialize() throws IOException {
+        final JobStatusTransition transition = new JobStatusTransition(
+            JobStatus.RUNNING,
+            JobStatus.SUCCEEDED,
+            "Job finished successfully.",
+            new Date(1465857600000L),
+            "genie.netflix.com"
+        );
+        final ObjectMapper mapper = new ObjectMapper();
+
+        final String json = mapper.writeValueAsString(transition);
+        Assert.assertThat(json, Matchers.containsString("\"time\":\"2016-06-13T22:40:00.000Z\""));
+        Assert.assertThat(mapper.readValue(json, JobStatusTransition.class), Matchers.is(transition));
+    }
+}
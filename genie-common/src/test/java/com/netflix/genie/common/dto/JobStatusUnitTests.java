@@ -65,4 +65,17 @@ public class JobStatusUnitTests {
     public void testBlankJobStatus() throws GeniePreconditionException {
         JobStatus.parse(null);
     }
+
+    /**
+     * Tests which statuses are considered active.
+     */
+    @Test
+    public void testIsActive() {
+        Assert.assertTrue(JobStatus.INIT.isActive());
+        Assert.assertTrue(JobStatus.RUNNING.isActive());
+        Assert.assertFalse(JobStatus.SUCCEEDED.isActive());
+        Assert.assertFalse(JobStatus.KILLED.isActive());
+        Assert.assertFalse(JobStatus.FAILED.isActive());
+        Assert.assertFalse(JobStatus.INVALID.isActive());
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto.search;
+
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Tests for the JobStatisticDimension enum.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatisticDimensionUnitTests {
+
+    /**
+     * Make sure both enum names and camel case field names are parsed.
+     *
+     * @throws GeniePreconditionException If any precondition isn't met.
+     */
+    @Test
+    public void canParse() throws GeniePreconditionException {
+        Assert.assertThat(JobStatisticDimension.parse("hour"), Matchers.is(JobStatisticDimension.HOUR));
+        Assert.assertThat(JobStatisticDimension.parse("STATUS"), Matchers.is(JobStatisticDimension.STATUS));
+        Assert.assertThat(JobStatisticDimension.parse("User"), Matchers.is(JobStatisticDimension.USER));
+        Assert.assertThat(
+            JobStatisticDimension.parse("clusterName"),
+            Matchers.is(JobStatisticDimension.CLUSTER_NAME)
+        );
+        Assert.assertThat(
+            JobStatisticDimension.parse("COMMAND_NAME"),
+            Matchers.is(JobStatisticDimension.COMMAND_NAME)
+        );
+    }
+
+    /**
+     * Make sure an unknown dimension throws an exception.
+     *
+     * @throws GeniePreconditionException If any precondition isn't met.
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantParseInvalidDimension() throws GeniePreconditionException {
+        JobStatisticDimension.parse("DOES_NOT_EXIST");
+    }
+
+    /**
+     * Make sure a blank dimension throws an exception.
+     *
+     * @throws GeniePreconditionException If any precondition isn't met.
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantParseBlankDimension() throws GeniePreconditionException {
+        JobStatisticDimension.parse(" ");
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.common.dto.search;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Tests for the JobStatistic DTO.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatisticUnitTests {
+
+    /**
+     * Make sure constructor works.
+     */
+    @Test
+    public void canConstruct() {
+        final Date hour = new Date();
+        final String user = UUID.randomUUID().toString();
+        final String clusterName = UUID.randomUUID().toString();
+        final String commandName = UUID.randomUUID().toString();
+        final long count = 2834L;
+        final JobStatistic statistic
+            = new JobStatistic(hour, JobStatus.SUCCEEDED, user, clusterName, commandName, count);
+
+        Assert.assertThat(statistic.getHour(), Matchers.is(hour));
+        Assert.assertThat(statistic.getStatus(), Matchers.is(JobStatus.SUCCEEDED));
+        Assert.assertThat(statistic.getUser(), Matchers.is(user));
+        Assert.assertThat(statistic.getClusterName(), Matchers.is(clusterName));
+        Assert.assertThat(statistic.getCommandName(), Matchers.is(commandName));
+        Assert.assertThat(statistic.getCount(), Matchers.is(count));
+
+        final JobStatistic statistic2 = new JobStatistic(null, null, null, null, null, count);
+        Assert.assertNull(statistic2.getHour());
+        Assert.assertNull(statistic2.getStatus());
+        Assert.assertNull(statistic2.getUser());
+        Assert.assertNull(statistic2.getClusterName());
+        Assert.assertNull(statistic2.getCommandName());
+        Assert.assertThat(statistic2.getCount(), Matchers.is(count));
+    }
+
+    /**
+     * Make sure the hour can't be modified from outside the object.
+     */
+    @Test
+    public void hourIsDefensivelyCopied() {
+        final Date hour = new Date(0L);
+        final JobStatistic statistic = new JobStatistic(hour, JobStatus.FAILED, null, null, null, 1L);
+        hour.setTime(1000L);
+        Assert.assertThat(statistic.getHour().getTime(), Matchers.is(0L));
+        statistic.getHour().setTime(2000L);
+        Assert.assertThat(statistic.getHour().getTime(), Matchers.is(0L));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.events;
+
+import com.netflix.genie.common.dto.JobStatus;
+import lombok.Getter;
+import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.context.ApplicationEvent;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * An event published whenever the status of a job is persisted. Fired both when a job is first created and on every
+ * subsequent status transition.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Getter
+public class JobStatusChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 2896837495783024963L;
+
+    private final String id;
+    private final JobStatus previousStatus;
+    private final JobStatus status;
+    private final String statusMsg;
+
+    /**
+     * Constructor.
+     *
+     * @param id             The id of the job whose status changed
+     * @param previousStatus The status the job had before this change. Null if the job was just created.
+     * @param status         The new status of the job
+     * @param statusMsg      The status message which accompanied the change
+     * @param source         The source which created the event
+     */
+    public JobStatusChangedEvent(
+        @NotBlank final String id,
+        final JobStatus previousStatus,
+        @NotNull final JobStatus status,
+        final String statusMsg,
+        @NotNull final Object source
+    ) {
+        super(source);
+        this.id = id;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.statusMsg = statusMsg;
+    }
+}
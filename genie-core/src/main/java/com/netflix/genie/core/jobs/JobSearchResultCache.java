@@ -0,0 +1,256 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.search.JobSearchResult;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A short lived cache of job search results so the same search sent by many clients every few seconds only hits the
+ * database once per time to live. Concurrent identical searches which miss the cache wait for and share a single
+ * database execution. Cached results which a job status change could affect are evicted as soon as the change is
+ * committed. That includes every page of a search which the changed job could match when the search is sorted on a
+ * field which changes along with the status, like updated or finished, as the change can move jobs between pages.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+public class JobSearchResultCache {
+
+    private final Cache<Key, Page<JobSearchResult>> cache;
+
+    private final Counter hitRate;
+    private final Counter missRate;
+    private final Counter evictionRate;
+
+    /**
+     * Constructor.
+     *
+     * @param ttl      How long to keep the results of a search in milliseconds
+     * @param maxSize  The maximum number of searches to keep results for
+     * @param registry The metrics registry to use
+     */
+    public JobSearchResultCache(final long ttl, final long maxSize, @NotNull final Registry registry) {
+        this.cache = CacheBuilder
+            .newBuilder()
+            .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+            .maximumSize(maxSize)
+            .build();
+
+        this.hitRate = registry.counter("genie.jobs.searchCache.hit.rate");
+        this.missRate = registry.counter("genie.jobs.searchCache.miss.rate");
+        this.evictionRate = registry.counter("genie.jobs.searchCache.eviction.rate");
+    }
+
+    /**
+     * Get the results of a search from the cache or load them if they aren't cached.
+     *
+     * @param key    The search to get results for
+     * @param loader Runs the search against the database if the results aren't cached
+     * @return The results of the search
+     */
+    public Page<JobSearchResult> get(@NotNull final Key key, @NotNull final Supplier<Page<JobSearchResult>> loader) {
+        final Page<JobSearchResult> cached = this.cache.getIfPresent(key);
+        if (cached != null) {
+            this.hitRate.increment();
+            return cached;
+        }
+
+        this.missRate.increment();
+        try {
+            return this.cache.get(key, loader::get);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Get the number of searches currently cached.
+     *
+     * @return The approximate number of cached searches
+     */
+    public long size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Evict all cached searches whose results the committed job status change could have changed.
+     *
+     * @param event The job status changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobStatusChanged(final JobStatusChangedEvent event) {
+        for (final Map.Entry<Key, Page<JobSearchResult>> entry : this.cache.asMap().entrySet()) {
+            if (entry.getKey().isAffectedBy(event, entry.getValue())) {
+                this.cache.invalidate(entry.getKey());
+                this.evictionRate.increment();
+            }
+        }
+    }
+
+    /**
+     * The normalized filter and page of a job search.
+     *
+     * @author tgianos
+     * @since 3.0.0
+     */
+    @EqualsAndHashCode
+    @ToString
+    public static final class Key {
+        // Fields of a job which never change after it's created so sorting on them can't reorder results
+        private static final Set<String> FIXED_SORT_PROPERTIES = ImmutableSet.of(
+            "id",
+            "created",
+            "name",
+            "user",
+            "version",
+            "description",
+            "tags",
+            "commandArgs"
+        );
+
+        private final String id;
+        private final String jobName;
+        private final String user;
+        private final Set<JobStatus> statuses;
+        private final Set<String> tags;
+        private final String clusterName;
+        private final String clusterId;
+        private final String commandName;
+        private final String commandId;
+        private final Long minStarted;
+        private final Long maxStarted;
+        private final Long minFinished;
+        private final Long maxFinished;
+        private final Pageable page;
+
+        /**
+         * Constructor. Takes the same parameters as the job search.
+         *
+         * @param id          id for job
+         * @param jobName     name of job
+         * @param user        the user who submitted the job
+         * @param statuses    statuses of job
+         * @param tags        tags for the job
+         * @param clusterName name of cluster for job
+         * @param clusterId   id of cluster for job
+         * @param commandName name of the command run in the job
+         * @param commandId   id of the command run in the job
+         * @param minStarted  The time which the job had to start after in order to be return (inclusive)
+         * @param maxStarted  The time which the job had to start before in order to be returned (exclusive)
+         * @param minFinished The time which the job had to finish after in order to be return (inclusive)
+         * @param maxFinished The time which the job had to finish before in order to be returned (exclusive)
+         * @param page        Page information of job to get
+         */
+        public Key(
+            final String id,
+            final String jobName,
+            final String user,
+            final Set<JobStatus> statuses,
+            final Set<String> tags,
+            final String clusterName,
+            final String clusterId,
+            final String commandName,
+            final String commandId,
+            final Date minStarted,
+            final Date maxStarted,
+            final Date minFinished,
+            final Date maxFinished,
+            @NotNull final Pageable page
+        ) {
+            this.id = StringUtils.trimToNull(id);
+            this.jobName = StringUtils.trimToNull(jobName);
+            this.user = StringUtils.trimToNull(user);
+            this.statuses = statuses == null || statuses.isEmpty() ? null : EnumSet.copyOf(statuses);
+            this.tags = tags == null || tags.isEmpty() ? null : new HashSet<>(tags);
+            this.clusterName = StringUtils.trimToNull(clusterName);
+            this.clusterId = StringUtils.trimToNull(clusterId);
+            this.commandName = StringUtils.trimToNull(commandName);
+            this.commandId = StringUtils.trimToNull(commandId);
+            this.minStarted = minStarted == null ? null : minStarted.getTime();
+            this.maxStarted = maxStarted == null ? null : maxStarted.getTime();
+            this.minFinished = minFinished == null ? null : minFinished.getTime();
+            this.maxFinished = maxFinished == null ? null : maxFinished.getTime();
+            this.page = page;
+        }
+
+        /**
+         * Whether a job status change could change the results of this search.
+         *
+         * @param event   The job status change
+         * @param results The results of this search before the change
+         * @return True if the results could be different now
+         */
+        boolean isAffectedBy(final JobStatusChangedEvent event, final Page<JobSearchResult> results) {
+            // Start and finish times are set along with status changes
+            if (this.minStarted != null || this.maxStarted != null
+                || this.minFinished != null || this.maxFinished != null) {
+                return true;
+            }
+            if (results.getContent().stream().anyMatch(result -> event.getId().equals(result.getId()))) {
+                return true;
+            }
+            if (this.statuses == null) {
+                // Without a status filter only a brand new job can add to the results but any job can move within them
+                return event.getPreviousStatus() == null || this.isSortedByChangingField();
+            }
+            return this.statuses.contains(event.getStatus())
+                || event.getPreviousStatus() != null && this.statuses.contains(event.getPreviousStatus());
+        }
+
+        private boolean isSortedByChangingField() {
+            final Sort sort = this.page.getSort();
+            if (sort == null) {
+                return false;
+            }
+            for (final Sort.Order order : sort) {
+                if (!FIXED_SORT_PROPERTIES.contains(order.getProperty())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded, concurrent in-memory cache of job statuses used to answer status polls without a database round trip.
+ * Finished statuses never change so they are kept for a long time. Active statuses can be changed by any Genie node
+ * so they are only kept briefly. Changes made on this node are written through as soon as they are committed.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+public class JobStatusCache {
+
+    private final Cache<String, JobStatus> activeStatuses;
+    private final Cache<String, JobStatus> finishedStatuses;
+
+    /**
+     * Constructor.
+     *
+     * @param activeTtl   How long to keep the status of an active job in milliseconds
+     * @param finishedTtl How long to keep the status of a finished job in milliseconds
+     * @param maxSize     The maximum number of statuses to keep for each of active and finished jobs
+     */
+    public JobStatusCache(final long activeTtl, final long finishedTtl, final long maxSize) {
+        this.activeStatuses = CacheBuilder
+            .newBuilder()
+            .expireAfterWrite(activeTtl, TimeUnit.MILLISECONDS)
+            .maximumSize(maxSize)
+            .build();
+        this.finishedStatuses = CacheBuilder
+            .newBuilder()
+            .expireAfterWrite(finishedTtl, TimeUnit.MILLISECONDS)
+            .maximumSize(maxSize)
+            .build();
+    }
+
+    /**
+     * Get the cached status of a job.
+     *
+     * @param id The id of the job
+     * @return The status or null if it isn't cached
+     */
+    public JobStatus get(@NotBlank final String id) {
+        final JobStatus status = this.finishedStatuses.getIfPresent(id);
+        return status != null ? status : this.activeStatuses.getIfPresent(id);
+    }
+
+    /**
+     * Cache the status of a job.
+     *
+     * @param id     The id of the job
+     * @param status The current status of the job
+     */
+    public void put(@NotBlank final String id, @NotNull final JobStatus status) {
+        if (status.isActive()) {
+            this.activeStatuses.put(id, status);
+        } else {
+            this.finishedStatuses.put(id, status);
+            this.activeStatuses.invalidate(id);
+        }
+    }
+
+    /**
+     * Get the number of statuses currently cached.
+     *
+     * @return The approximate number of cached statuses
+     */
+    public long size() {
+        return this.activeStatuses.size() + this.finishedStatuses.size();
+    }
+
+    /**
+     * Write through a job status change once the transaction which made it has committed.
+     *
+     * @param event The job status changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobStatusChanged(final JobStatusChangedEvent event) {
+        this.put(event.getId(), event.getStatus());
+    }
+}
@@ -22,8 +22,12 @@ import com.netflix.genie.common.dto.ApplicationStatus;
 import com.netflix.genie.common.exceptions.GenieException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -49,6 +53,8 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "applications")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "applications")
 @Getter
 @Setter
 public class ApplicationEntity extends SetupFileEntity {
@@ -64,7 +70,9 @@ public class ApplicationEntity extends SetupFileEntity {
     @Column(name = "type")
     private String type;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "applications.configs")
+    @BatchSize(size = 100)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(
         name = "application_configs",
         joinColumns = @JoinColumn(name = "application_id", referencedColumnName = "id")
@@ -72,7 +80,9 @@ public class ApplicationEntity extends SetupFileEntity {
     @Column(name = "config", nullable = false, length = 1024)
     private Set<String> configs = new HashSet<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "applications.dependencies")
+    @BatchSize(size = 100)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(
         name = "application_dependencies",
         joinColumns = @JoinColumn(name = "application_id", referencedColumnName = "id")
@@ -22,8 +22,12 @@ import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.ClusterStatus;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -54,6 +58,8 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "clusters")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clusters")
 public class ClusterEntity extends SetupFileEntity {
 
     private static final long serialVersionUID = -5674870110962005872L;
@@ -64,7 +70,9 @@ public class ClusterEntity extends SetupFileEntity {
     @NotNull(message = "No cluster status entered and is required.")
     private ClusterStatus status;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clusters.configs")
+    @BatchSize(size = 100)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(
         name = "cluster_configs",
         joinColumns = @JoinColumn(name = "cluster_id", referencedColumnName = "id")
@@ -72,8 +80,8 @@ public class ClusterEntity extends SetupFileEntity {
     @Column(name = "config", nullable = false, length = 1024)
     private Set<String> configs = new HashSet<>();
 
-    // TODO: Make lazy?
-    @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clusters.commands")
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "clusters_commands",
         joinColumns = {
@@ -23,10 +23,14 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotBlank;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -57,6 +61,8 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "commands")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "commands")
 @Getter
 @Setter
 public class CommandEntity extends SetupFileEntity {
@@ -80,7 +86,9 @@ public class CommandEntity extends SetupFileEntity {
     @Min(1)
     private long checkDelay = Command.DEFAULT_CHECK_DELAY;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "commands.configs")
+    @BatchSize(size = 100)
+    @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(
         name = "command_configs",
         joinColumns = @JoinColumn(name = "command_id", referencedColumnName = "id")
@@ -88,8 +96,8 @@ public class CommandEntity extends SetupFileEntity {
     @Column(name = "config", nullable = false, length = 1024)
     private Set<String> configs = new HashSet<>();
 
-    // TODO: Make lazy?
-    @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "commands.applications")
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "commands_applications",
         joinColumns = {
@@ -0,0 +1,104 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.entities;
+
+import com.netflix.genie.common.dto.JobOutputSummary;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+
+/**
+ * The head and tail of the standard output and standard error of a finished job. Shares its id with the job.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Entity
+@Table(name = "job_output_summaries")
+@Getter
+@Setter
+public class JobOutputSummaryEntity extends BaseEntity {
+
+    private static final long serialVersionUID = 5284709376113094781L;
+
+    @Basic
+    @Column(name = "stdout_head", length = 10000)
+    @Size(max = 10000, message = "Max length in database is 10000 characters")
+    private String stdoutHead;
+
+    @Basic
+    @Column(name = "stdout_tail", length = 10000)
+    @Size(max = 10000, message = "Max length in database is 10000 characters")
+    private String stdoutTail;
+
+    @Basic(optional = false)
+    @Column(name = "stdout_size", nullable = false)
+    @Min(0)
+    private long stdoutSize;
+
+    @Basic
+    @Column(name = "stderr_head", length = 10000)
+    @Size(max = 10000, message = "Max length in database is 10000 characters")
+    private String stderrHead;
+
+    @Basic
+    @Column(name = "stderr_tail", length = 10000)
+    @Size(max = 10000, message = "Max length in database is 10000 characters")
+    private String stderrTail;
+
+    @Basic(optional = false)
+    @Column(name = "stderr_size", nullable = false)
+    @Min(0)
+    private long stderrSize;
+
+    /**
+     * Copy the contents of the given summary into this entity.
+     *
+     * @param summary The summary to copy
+     */
+    public void setSummary(final JobOutputSummary summary) {
+        this.stdoutHead = summary.getStdoutHead();
+        this.stdoutTail = summary.getStdoutTail();
+        this.stdoutSize = summary.getStdoutSize();
+        this.stderrHead = summary.getStderrHead();
+        this.stderrTail = summary.getStderrTail();
+        this.stderrSize = summary.getStderrSize();
+    }
+
+    /**
+     * Get a DTO representing this summary.
+     *
+     * @return The job output summary
+     */
+    public JobOutputSummary getDTO() {
+        return new JobOutputSummary(
+            this.stdoutHead,
+            this.stdoutTail,
+            this.stdoutSize,
+            this.stderrHead,
+            this.stderrTail,
+            this.stderrSize
+        );
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.entities;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.search.JobStatistic;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.Date;
+
+/**
+ * A pre-aggregated counter of the number of jobs which transitioned into a given status within an hour for a given
+ * user, cluster name and command name. Each Genie node maintains its own rows (keyed by host name) so that nodes never
+ * contend with each other when flushing their counters. Queries sum across hosts.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Entity
+@Table(name = "job_stats")
+@Getter
+@Setter
+public class JobStatsEntity extends BaseEntity {
+
+    private static final long serialVersionUID = -2408813407722963411L;
+    private static final long MILLIS_PER_HOUR = 60L * 60L * 1000L;
+
+    @Basic(optional = false)
+    @Column(name = "hour_start", nullable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @NotNull
+    private Date hour;
+
+    @Basic(optional = false)
+    @Column(name = "host_name", nullable = false, updatable = false)
+    @Size(min = 1, max = 255, message = "Must have a host name no longer than 255 characters")
+    private String hostName;
+
+    @Basic(optional = false)
+    @Column(name = "status", nullable = false, updatable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @NotNull
+    private JobStatus status;
+
+    @Basic(optional = false)
+    @Column(name = "user", nullable = false, updatable = false)
+    @Size(min = 1, max = 255, message = "Must have a user no longer than 255 characters")
+    private String user;
+
+    @Basic
+    @Column(name = "cluster_name", updatable = false)
+    @Size(max = 255, message = "Max length in database is 255 characters")
+    private String clusterName;
+
+    @Basic
+    @Column(name = "command_name", updatable = false)
+    @Size(max = 255, message = "Max length in database is 255 characters")
+    private String commandName;
+
+    @Basic(optional = false)
+    @Column(name = "transition_count", nullable = false)
+    @Min(0)
+    private long count;
+
+    /**
+     * Truncate the given date to the start of the (UTC) hour it falls within.
+     *
+     * @param date The date to truncate
+     * @return A new date representing the start of the hour
+     */
+    public static Date truncateToHour(@NotNull final Date date) {
+        final long time = date.getTime();
+        return new Date(time - Math.floorMod(time, MILLIS_PER_HOUR));
+    }
+
+    /**
+     * Get the start of the hour this counter covers.
+     *
+     * @return The hour
+     */
+    public Date getHour() {
+        return this.hour == null ? null : new Date(this.hour.getTime());
+    }
+
+    /**
+     * Set the start of the hour this counter covers.
+     *
+     * @param hour The hour
+     */
+    public void setHour(final Date hour) {
+        this.hour = hour == null ? null : new Date(hour.getTime());
+    }
+
+    /**
+     * Get a DTO representing this counter with all dimensions filled in.
+     *
+     * @return The job statistic
+     */
+    public JobStatistic getDTO() {
+        return new JobStatistic(this.hour, this.status, this.user, this.clusterName, this.commandName, this.count);
+    }
+}
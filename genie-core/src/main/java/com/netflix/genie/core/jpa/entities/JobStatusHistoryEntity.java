@@ -0,0 +1,110 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.entities;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobStatusTransition;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.Date;
+
+/**
+ * One status transition of a job. Rows are only ever inserted, never updated, so the history of a job can be read
+ * back in order without touching the jobs table and writing it never contends with status updates of the job itself.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Entity
+@Table(name = "job_status_history")
+@Getter
+@Setter
+public class JobStatusHistoryEntity extends BaseEntity {
+
+    private static final long serialVersionUID = 5216633410928817734L;
+
+    @Basic(optional = false)
+    @Column(name = "job_id", nullable = false, updatable = false)
+    @Size(min = 1, max = 255, message = "Must have a job id no longer than 255 characters")
+    private String jobId;
+
+    @Basic
+    @Column(name = "previous_status", updatable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private JobStatus previousStatus;
+
+    @Basic(optional = false)
+    @Column(name = "status", nullable = false, updatable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @NotNull
+    private JobStatus status;
+
+    @Basic
+    @Column(name = "status_msg", updatable = false)
+    @Size(max = 255, message = "Max length in database is 255 characters")
+    private String statusMsg;
+
+    @Basic(optional = false)
+    @Column(name = "transition_time", nullable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @NotNull
+    private Date time;
+
+    @Basic(optional = false)
+    @Column(name = "host_name", nullable = false, updatable = false)
+    @Size(min = 1, max = 255, message = "Must have a host name no longer than 255 characters")
+    private String hostName;
+
+    /**
+     * Get when the transition happened.
+     *
+     * @return The time of the transition
+     */
+    public Date getTime() {
+        return this.time == null ? null : new Date(this.time.getTime());
+    }
+
+    /**
+     * Set when the transition happened.
+     *
+     * @param time The time of the transition
+     */
+    public void setTime(final Date time) {
+        this.time = time == null ? null : new Date(time.getTime());
+    }
+
+    /**
+     * Get a DTO representing this transition.
+     *
+     * @return The job status transition
+     */
+    public JobStatusTransition getDTO() {
+        return new JobStatusTransition(this.previousStatus, this.status, this.statusMsg, this.time, this.hostName);
+    }
+}
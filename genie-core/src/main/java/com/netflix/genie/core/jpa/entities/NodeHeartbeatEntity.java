@@ -0,0 +1,77 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.entities;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * The last heartbeat written by a Genie node. The id is the host name of the node. Each node only ever writes its own
+ * row so nodes never contend with each other, and the leader finds nodes which have stopped writing with one query on
+ * the indexed heartbeat time.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Entity
+@Table(name = "node_heartbeats")
+@Getter
+@Setter
+public class NodeHeartbeatEntity extends BaseEntity {
+
+    private static final long serialVersionUID = 3562890140572143519L;
+
+    @Basic(optional = false)
+    @Column(name = "last_heartbeat", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    @NotNull
+    private Date lastHeartbeat;
+
+    @Basic(optional = false)
+    @Column(name = "running_jobs", nullable = false)
+    @Min(0)
+    private int runningJobs;
+
+    /**
+     * Get the time of the last heartbeat.
+     *
+     * @return The time of the last heartbeat
+     */
+    public Date getLastHeartbeat() {
+        return this.lastHeartbeat == null ? null : new Date(this.lastHeartbeat.getTime());
+    }
+
+    /**
+     * Set the time of the last heartbeat.
+     *
+     * @param lastHeartbeat The time of the last heartbeat
+     */
+    public void setLastHeartbeat(final Date lastHeartbeat) {
+        this.lastHeartbeat = lastHeartbeat == null ? null : new Date(lastHeartbeat.getTime());
+    }
+}
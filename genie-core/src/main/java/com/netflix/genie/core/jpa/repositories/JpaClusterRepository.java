@@ -16,10 +16,15 @@
 package com.netflix.genie.core.jpa.repositories;
 
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
 /**
  * Cluster repository.
  *
@@ -27,4 +32,21 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface JpaClusterRepository extends JpaRepository<ClusterEntity, String>, JpaSpecificationExecutor {
+
+    /**
+     * Find all the clusters matching the given specification. Used to resolve the clusters a job can run on so the
+     * results are kept in the query cache. Hibernate invalidates them whenever clusters, commands or the mappings
+     * between them are written through this node. Writes through other nodes are only seen once the results expire
+     * after five seconds.
+     *
+     * @param spec The specification the clusters must match
+     * @return The matching clusters
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "clusters.resolution")
+        }
+    )
+    List<ClusterEntity> findAll(Specification spec);
 }
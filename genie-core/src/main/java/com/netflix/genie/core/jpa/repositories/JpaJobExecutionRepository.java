@@ -18,8 +18,14 @@ package com.netflix.genie.core.jpa.repositories;
 import com.netflix.genie.core.jpa.entities.JobExecutionEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -39,4 +45,102 @@ public interface JpaJobExecutionRepository extends JpaRepository<JobExecutionEnt
      * @return All the job executions currently running on that host
      */
     Set<JobExecutionEntity> findByHostNameAndExitCode(final String hostName, final int exitCode);
+
+    /**
+     * Set the exit code of a job execution in a single statement, but only if it still has the expected exit code.
+     *
+     * @param id               The id of the job execution
+     * @param expectedExitCode The exit code the job execution must currently have
+     * @param exitCode         The new exit code
+     * @param updated          The time of the update
+     * @return The number of job executions updated. 1 if this call set the exit code, 0 otherwise.
+     */
+    @Modifying
+    @Query(
+        "UPDATE JobExecutionEntity e"
+            + " SET e.exitCode = :exitCode, e.updated = :updated, e.entityVersion = e.entityVersion + 1"
+            + " WHERE e.id = :id AND e.exitCode = :expectedExitCode"
+    )
+    int updateExitCode(
+        @Param("id") final String id,
+        @Param("expectedExitCode") final int expectedExitCode,
+        @Param("exitCode") final int exitCode,
+        @Param("updated") final Date updated
+    );
+
+    /**
+     * Delete the job executions with the given ids in a single statement.
+     *
+     * @param ids The ids of the job executions to delete
+     * @return The number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM JobExecutionEntity e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") final Collection<String> ids);
+
+    /**
+     * Get the ids of the job executions on the given host with the given exit code without loading them.
+     *
+     * @param hostName The hostname to search for
+     * @param exitCode The exit code to search for
+     * @return The ids of the job executions
+     */
+    @Query("SELECT e.id FROM JobExecutionEntity e WHERE e.hostName = :hostName AND e.exitCode = :exitCode")
+    List<String> findIdsByHostNameAndExitCode(
+        @Param("hostName") final String hostName,
+        @Param("exitCode") final int exitCode
+    );
+
+    /**
+     * Get which of the job executions with the given ids have the given exit code.
+     *
+     * @param ids      The ids of the job executions to check
+     * @param exitCode The exit code to search for
+     * @return The ids of the job executions with the exit code
+     */
+    @Query("SELECT e.id FROM JobExecutionEntity e WHERE e.id IN :ids AND e.exitCode = :exitCode")
+    List<String> findIdsByIdInAndExitCode(
+        @Param("ids") final Collection<String> ids,
+        @Param("exitCode") final int exitCode
+    );
+
+    /**
+     * Get the hosts running job executions with the given exit code which haven't written a heartbeat since the given
+     * time, including hosts which never wrote one.
+     *
+     * @param exitCode The exit code of the job executions to search for
+     * @param since    The time the last heartbeat must be before for a host to be returned
+     * @return The host names
+     */
+    @Query(
+        "SELECT DISTINCT e.hostName FROM JobExecutionEntity e WHERE e.exitCode = :exitCode AND NOT EXISTS"
+            + " (SELECT h.id FROM NodeHeartbeatEntity h WHERE h.id = e.hostName AND h.lastHeartbeat >= :since)"
+    )
+    List<String> findHostNamesWithoutHeartbeatSince(
+        @Param("exitCode") final int exitCode,
+        @Param("since") final Date since
+    );
+
+    /**
+     * Set the exit code of many job executions in a single statement, but only of those which still have the
+     * expected exit code.
+     *
+     * @param ids              The ids of the job executions
+     * @param expectedExitCode The exit code the job executions must currently have
+     * @param exitCode         The new exit code
+     * @param updated          The time of the update
+     * @return The number of job executions updated
+     */
+    @Modifying
+    @Query(
+        "UPDATE JobExecutionEntity e"
+            + " SET e.exitCode = :exitCode, e.updated = :updated, e.entityVersion = e.entityVersion + 1"
+            + " WHERE e.id IN :ids AND e.exitCode = :expectedExitCode"
+    )
+    int updateExitCodes(
+        @Param("ids") final Collection<String> ids,
+        @Param("expectedExitCode") final int expectedExitCode,
+        @Param("exitCode") final int exitCode,
+        @Param("updated") final Date updated
+    );
 }
@@ -0,0 +1,48 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.repositories;
+
+import com.netflix.genie.core.jpa.entities.JobOutputSummaryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.validation.constraints.NotNull;
+import java.util.Collection;
+
+/**
+ * Job output summary repository.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Repository
+public interface JpaJobOutputSummaryRepository extends JpaRepository<JobOutputSummaryEntity, String> {
+
+    /**
+     * Delete the output summaries of the jobs with the given ids in a single statement.
+     *
+     * @param ids The ids of the jobs whose summaries should be deleted
+     * @return The number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM JobOutputSummaryEntity s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") @NotNull final Collection<String> ids);
+}
@@ -15,11 +15,19 @@
  */
 package com.netflix.genie.core.jpa.repositories;
 
+import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.core.jpa.entities.JobEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
 /**
  * Job repository.
  *
@@ -27,4 +35,208 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface JpaJobRepository extends JpaRepository<JobEntity, String>, JpaSpecificationExecutor {
+
+    /**
+     * Get only the status of a job without loading the job.
+     *
+     * @param id The id of the job
+     * @return The status or null if the job doesn't exist
+     */
+    @Query("SELECT j.status FROM JobEntity j WHERE j.id = :id")
+    JobStatus findStatusById(@Param("id") final String id);
+
+    /**
+     * Change the status of a job in a single statement, but only if it still has the expected status. Lets concurrent
+     * callers on any node race for a transition without locking; exactly one of them wins.
+     *
+     * @param id             The id of the job
+     * @param expectedStatus The status the job must currently have
+     * @param status         The new status
+     * @param statusMsg      The new status message
+     * @param updated        The time of the update
+     * @return The number of jobs updated. 1 if the transition happened, 0 if the job doesn't exist or has moved on.
+     */
+    @Modifying
+    @Query(
+        "UPDATE JobEntity j"
+            + " SET j.status = :status, j.statusMsg = :statusMsg, j.updated = :updated,"
+            + " j.entityVersion = j.entityVersion + 1"
+            + " WHERE j.id = :id AND j.status = :expectedStatus"
+    )
+    int updateStatus(
+        @Param("id") final String id,
+        @Param("expectedStatus") final JobStatus expectedStatus,
+        @Param("status") final JobStatus status,
+        @Param("statusMsg") final String statusMsg,
+        @Param("updated") final Date updated
+    );
+
+    /**
+     * Change the status of a job and set when it started in a single statement, but only if it still has the
+     * expected status.
+     *
+     * @param id             The id of the job
+     * @param expectedStatus The status the job must currently have
+     * @param status         The new status
+     * @param statusMsg      The new status message
+     * @param started        The start time
+     * @param updated        The time of the update
+     * @return The number of jobs updated. 1 if the transition happened, 0 if the job doesn't exist or has moved on.
+     */
+    @Modifying
+    @Query(
+        "UPDATE JobEntity j"
+            + " SET j.status = :status, j.statusMsg = :statusMsg, j.started = :started, j.updated = :updated,"
+            + " j.entityVersion = j.entityVersion + 1"
+            + " WHERE j.id = :id AND j.status = :expectedStatus"
+    )
+    int updateStatusAndStarted(
+        @Param("id") final String id,
+        @Param("expectedStatus") final JobStatus expectedStatus,
+        @Param("status") final JobStatus status,
+        @Param("statusMsg") final String statusMsg,
+        @Param("started") final Date started,
+        @Param("updated") final Date updated
+    );
+
+    /**
+     * Change the status of a job and set when it finished in a single statement, but only if it still has the
+     * expected status.
+     *
+     * @param id             The id of the job
+     * @param expectedStatus The status the job must currently have
+     * @param status         The new status
+     * @param statusMsg      The new status message
+     * @param finished       The finish time
+     * @param updated        The time of the update
+     * @return The number of jobs updated. 1 if the transition happened, 0 if the job doesn't exist or has moved on.
+     */
+    @Modifying
+    @Query(
+        "UPDATE JobEntity j"
+            + " SET j.status = :status, j.statusMsg = :statusMsg, j.finished = :finished, j.updated = :updated,"
+            + " j.entityVersion = j.entityVersion + 1"
+            + " WHERE j.id = :id AND j.status = :expectedStatus"
+    )
+    int updateStatusAndFinished(
+        @Param("id") final String id,
+        @Param("expectedStatus") final JobStatus expectedStatus,
+        @Param("status") final JobStatus status,
+        @Param("statusMsg") final String statusMsg,
+        @Param("finished") final Date finished,
+        @Param("updated") final Date updated
+    );
+
+    /**
+     * Move a job to a final status in a single statement, but only if it's still in one of the given active
+     * statuses. The finish time is only set if the job was running. Lets concurrent callers on any node race to
+     * finish a job without locking; exactly one of them wins.
+     *
+     * @param id             The id of the job
+     * @param activeStatuses The statuses the job may currently have
+     * @param runningStatus  The status a job which has started has
+     * @param status         The new status
+     * @param statusMsg      The new status message
+     * @param finished       The finish time
+     * @param updated        The time of the update
+     * @return The number of jobs updated. 1 if the job was finished, 0 if the job doesn't exist or already finished.
+     */
+    @Modifying
+    @Query(
+        // The finish time is assigned before the status as MySQL evaluates later assignments with the new values
+        "UPDATE JobEntity j"
+            + " SET j.finished = CASE WHEN j.status = :runningStatus THEN :finished ELSE j.finished END,"
+            + " j.status = :status, j.statusMsg = :statusMsg, j.updated = :updated,"
+            + " j.entityVersion = j.entityVersion + 1"
+            + " WHERE j.id = :id AND j.status IN :activeStatuses"
+    )
+    int finishActiveJob(
+        @Param("id") final String id,
+        @Param("activeStatuses") final Collection<JobStatus> activeStatuses,
+        @Param("runningStatus") final JobStatus runningStatus,
+        @Param("status") final JobStatus status,
+        @Param("statusMsg") final String statusMsg,
+        @Param("finished") final Date finished,
+        @Param("updated") final Date updated
+    );
+
+    /**
+     * Get the id and status of each of the jobs with the given ids without loading the jobs.
+     *
+     * @param ids The ids of the jobs
+     * @return A pair of id and status for each job which exists
+     */
+    @Query("SELECT j.id, j.status FROM JobEntity j WHERE j.id IN :ids")
+    List<Object[]> findIdsAndStatusesByIdIn(@Param("ids") final Collection<String> ids);
+
+    /**
+     * Change the status of many jobs in a single statement, but only of those which still have the expected status
+     * and whose execution has the given exit code.
+     *
+     * @param ids            The ids of the jobs
+     * @param exitCode       The exit code the execution of each job must have
+     * @param expectedStatus The status the jobs must currently have
+     * @param status         The new status
+     * @param statusMsg      The new status message
+     * @param updated        The time of the update
+     * @return The number of jobs updated
+     */
+    @Modifying
+    @Query(
+        "UPDATE JobEntity j"
+            + " SET j.status = :status, j.statusMsg = :statusMsg, j.updated = :updated,"
+            + " j.entityVersion = j.entityVersion + 1"
+            + " WHERE j.id IN :ids AND j.status = :expectedStatus"
+            + " AND j.id IN (SELECT e.id FROM JobExecutionEntity e WHERE e.id IN :ids AND e.exitCode = :exitCode)"
+    )
+    int updateStatusOfJobsWithExitCode(
+        @Param("ids") final Collection<String> ids,
+        @Param("exitCode") final int exitCode,
+        @Param("expectedStatus") final JobStatus expectedStatus,
+        @Param("status") final JobStatus status,
+        @Param("statusMsg") final String statusMsg,
+        @Param("updated") final Date updated
+    );
+
+    /**
+     * Change the status of many jobs and set when they finished in a single statement, but only of those which still
+     * have the expected status and whose execution has the given exit code.
+     *
+     * @param ids            The ids of the jobs
+     * @param exitCode       The exit code the execution of each job must have
+     * @param expectedStatus The status the jobs must currently have
+     * @param status         The new status
+     * @param statusMsg      The new status message
+     * @param finished       The finish time
+     * @param updated        The time of the update
+     * @return The number of jobs updated
+     */
+    @Modifying
+    @Query(
+        "UPDATE JobEntity j"
+            + " SET j.status = :status, j.statusMsg = :statusMsg, j.finished = :finished, j.updated = :updated,"
+            + " j.entityVersion = j.entityVersion + 1"
+            + " WHERE j.id IN :ids AND j.status = :expectedStatus"
+            + " AND j.id IN (SELECT e.id FROM JobExecutionEntity e WHERE e.id IN :ids AND e.exitCode = :exitCode)"
+    )
+    int updateStatusAndFinishedOfJobsWithExitCode(
+        @Param("ids") final Collection<String> ids,
+        @Param("exitCode") final int exitCode,
+        @Param("expectedStatus") final JobStatus expectedStatus,
+        @Param("status") final JobStatus status,
+        @Param("statusMsg") final String statusMsg,
+        @Param("finished") final Date finished,
+        @Param("updated") final Date updated
+    );
+
+    /**
+     * Delete the jobs with the given ids in a single statement. The execution and applications of each job must
+     * already be deleted.
+     *
+     * @param ids The ids of the jobs to delete
+     * @return The number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM JobEntity j WHERE j.id IN :ids")
+    int deleteByIdIn(@Param("ids") final Collection<String> ids);
 }
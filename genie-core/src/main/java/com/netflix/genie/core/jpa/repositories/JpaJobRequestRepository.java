@@ -16,12 +16,18 @@
 package com.netflix.genie.core.jpa.repositories;
 
 import com.netflix.genie.core.jpa.entities.JobRequestEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.validation.constraints.NotNull;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Job repository.
@@ -33,10 +39,23 @@ import java.util.Date;
 public interface JpaJobRequestRepository extends JpaRepository<JobRequestEntity, String>, JpaSpecificationExecutor {
 
     /**
-     * Delete all job requests created before the given date.
+     * Find the ids of the oldest job requests created before the given date without loading the requests.
      *
-     * @param date The date before which all job requests should be deleted.
+     * @param date The date before which the job requests were created
+     * @param page The page of ids to return. Use the first page with the size of the batch to fetch.
+     * @return The ids of the job requests, oldest first
+     */
+    @Query("SELECT r.id FROM JobRequestEntity r WHERE r.created < :date ORDER BY r.created, r.id")
+    List<String> findIdsByCreatedBefore(@Param("date") @NotNull final Date date, final Pageable page);
+
+    /**
+     * Delete the job requests with the given ids in a single statement. The job and execution of each request must
+     * already be deleted.
+     *
+     * @param ids The ids of the job requests to delete
      * @return The number of deleted records
      */
-    Long deleteByCreatedBefore(@NotNull final Date date);
+    @Modifying
+    @Query("DELETE FROM JobRequestEntity r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") @NotNull final Collection<String> ids);
 }
@@ -0,0 +1,67 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.repositories;
+
+import com.netflix.genie.core.jpa.entities.JobStatusHistoryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.validation.constraints.NotNull;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Job status history repository.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Repository
+public interface JpaJobStatusHistoryRepository extends JpaRepository<JobStatusHistoryEntity, String> {
+
+    /**
+     * Get every recorded status transition of a job in the order they happened. Served by the index on the job id
+     * and transition time.
+     *
+     * @param jobId The id of the job
+     * @return The transitions of the job, oldest first
+     */
+    List<JobStatusHistoryEntity> findByJobIdOrderByTimeAsc(@NotNull final String jobId);
+
+    /**
+     * Get which of the given ids have already been recorded so a batch which is retried isn't written twice.
+     *
+     * @param ids The ids of the transitions
+     * @return The ids which already exist
+     */
+    @Query("SELECT h.id FROM JobStatusHistoryEntity h WHERE h.id IN :ids")
+    List<String> findIdsByIdIn(@Param("ids") @NotNull final Collection<String> ids);
+
+    /**
+     * Delete the status history of the jobs with the given ids in a single statement.
+     *
+     * @param jobIds The ids of the jobs whose history should be deleted
+     * @return The number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM JobStatusHistoryEntity h WHERE h.jobId IN :jobIds")
+    int deleteByJobIdIn(@Param("jobIds") @NotNull final Collection<String> jobIds);
+}
@@ -0,0 +1,58 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.repositories;
+
+import com.netflix.genie.core.jpa.entities.NodeHeartbeatEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+
+/**
+ * Node heartbeat repository.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Repository
+public interface JpaNodeHeartbeatRepository extends JpaRepository<NodeHeartbeatEntity, String> {
+
+    /**
+     * Record a new heartbeat for a node in a single statement without loading its row.
+     *
+     * @param hostName      The host name of the node
+     * @param lastHeartbeat The time of the heartbeat
+     * @param runningJobs   The number of jobs running on the node
+     * @return The number of heartbeats updated. 0 if the node has never written one.
+     */
+    @Modifying
+    @Query(
+        "UPDATE NodeHeartbeatEntity h"
+            + " SET h.lastHeartbeat = :lastHeartbeat, h.runningJobs = :runningJobs, h.updated = :lastHeartbeat,"
+            + " h.entityVersion = h.entityVersion + 1"
+            + " WHERE h.id = :hostName"
+    )
+    int updateHeartbeat(
+        @Param("hostName") final String hostName,
+        @Param("lastHeartbeat") final Date lastHeartbeat,
+        @Param("runningJobs") final int runningJobs
+    );
+}
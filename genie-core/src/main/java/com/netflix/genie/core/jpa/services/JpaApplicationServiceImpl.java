@@ -253,7 +253,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         @NotBlank(message = "No application id entered. Unable to get configs.")
         final String id
     ) throws GenieException {
-        return this.findApplication(id).getConfigs();
+        return Sets.newHashSet(this.findApplication(id).getConfigs());
     }
 
     /**
@@ -315,7 +315,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         @NotBlank(message = "No application id entered. Unable to get dependencies.")
         final String id
     ) throws GenieException {
-        return this.findApplication(id).getDependencies();
+        return Sets.newHashSet(this.findApplication(id).getDependencies());
     }
 
     /**
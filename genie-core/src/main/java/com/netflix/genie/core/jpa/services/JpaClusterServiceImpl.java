@@ -163,7 +163,6 @@ public class JpaClusterServiceImpl implements ClusterService {
         final Set<String> commandCriteria = jobRequest.getCommandCriteria();
 
         for (final ClusterCriteria clusterCriteria : clusterCriterias) {
-            @SuppressWarnings("unchecked")
             final List<ClusterEntity> clusterEntities = this.clusterRepo.findAll(
                 JpaClusterSpecs.findByClusterAndCommandCriteria(
                     clusterCriteria,
@@ -284,7 +283,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final String id
     ) throws GenieException {
         log.debug("called");
-        return this.findCluster(id).getConfigs();
+        return Sets.newHashSet(this.findCluster(id).getConfigs());
     }
 
     /**
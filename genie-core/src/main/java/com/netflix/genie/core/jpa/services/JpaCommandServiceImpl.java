@@ -262,7 +262,7 @@ public class JpaCommandServiceImpl implements CommandService {
         @NotBlank(message = "No command id entered. Unable to get configs.")
         final String id
     ) throws GenieException {
-        return this.findCommand(id).getConfigs();
+        return Sets.newHashSet(this.findCommand(id).getConfigs());
     }
 
     /**
@@ -20,34 +20,66 @@ package com.netflix.genie.core.jpa.services;
 import com.google.common.collect.Lists;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobOutputSummary;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.entities.JobEntity;
+import com.netflix.genie.core.jpa.entities.JobEntity_;
 import com.netflix.genie.core.jpa.entities.JobExecutionEntity;
+import com.netflix.genie.core.jpa.entities.JobOutputSummaryEntity;
 import com.netflix.genie.core.jpa.entities.JobRequestEntity;
+import com.netflix.genie.core.jpa.entities.JobStatsEntity;
+import com.netflix.genie.core.jpa.entities.JobStatusHistoryEntity;
+import com.netflix.genie.core.jpa.entities.NodeHeartbeatEntity;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
 import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobOutputSummaryRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatsRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatusHistoryRepository;
+import com.netflix.genie.core.jpa.repositories.JpaNodeHeartbeatRepository;
 import com.netflix.genie.core.services.JobPersistenceService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.SQLQuery;
 import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 import javax.validation.ConstraintViolationException;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * JPA implementation of the job persistence service.
@@ -63,22 +95,51 @@ import java.util.List;
 @Slf4j
 public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
 
+    /**
+     * The maximum number of ids to put in a single IN clause so we stay well below database limits.
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 500;
+    private static final String JOBS_APPLICATIONS_TABLE = "jobs_applications";
+    private static final String ID_SEPARATOR = "\0";
+    private static final String LOST_STATUS_MSG
+        = "Genie leader can't reach node running job. Assuming node and job are lost.";
+    // The standard SQL state for a unique violation, used by PostgreSQL, H2 and HSQLDB. MySQL reports a generic
+    // integrity violation state so its duplicate entry error code is checked instead.
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+    private static final int MYSQL_DUPLICATE_ENTRY_ERROR_CODE = 1062;
+    private static final Set<JobStatus> FINISHABLE_STATUSES = EnumSet.of(JobStatus.INIT, JobStatus.RUNNING);
+    private static final Set<JobStatus> FINISHED_STATUSES
+        = EnumSet.of(JobStatus.KILLED, JobStatus.FAILED, JobStatus.SUCCEEDED);
+
     private final JpaJobRepository jobRepo;
     private final JpaJobRequestRepository jobRequestRepo;
     private final JpaJobExecutionRepository jobExecutionRepo;
     private final JpaApplicationRepository applicationRepo;
     private final JpaClusterRepository clusterRepo;
     private final JpaCommandRepository commandRepo;
+    private final JpaJobStatsRepository jobStatsRepo;
+    private final JpaJobOutputSummaryRepository jobOutputSummaryRepo;
+    private final JpaNodeHeartbeatRepository nodeHeartbeatRepo;
+    private final JpaJobStatusHistoryRepository jobStatusHistoryRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * Constructor.
      *
-     * @param jobRepo          The job repository to use
-     * @param jobRequestRepo   The job request repository to use
-     * @param jobExecutionRepo The jobExecution Repository to use
-     * @param applicationRepo  The application repository to use
-     * @param clusterRepo      The cluster repository to use
-     * @param commandRepo      The command repository to use
+     * @param jobRepo              The job repository to use
+     * @param jobRequestRepo       The job request repository to use
+     * @param jobExecutionRepo     The jobExecution Repository to use
+     * @param applicationRepo      The application repository to use
+     * @param clusterRepo          The cluster repository to use
+     * @param commandRepo          The command repository to use
+     * @param jobStatsRepo         The job statistics repository to use
+     * @param jobOutputSummaryRepo The job output summary repository to use
+     * @param nodeHeartbeatRepo    The node heartbeat repository to use
+     * @param jobStatusHistoryRepo The job status history repository to use
+     * @param eventPublisher       The publisher used to notify listeners of job status changes
      */
     public JpaJobPersistenceServiceImpl(
         final JpaJobRepository jobRepo,
@@ -86,7 +147,12 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
         final JpaJobExecutionRepository jobExecutionRepo,
         final JpaApplicationRepository applicationRepo,
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final JpaJobStatsRepository jobStatsRepo,
+        final JpaJobOutputSummaryRepository jobOutputSummaryRepo,
+        final JpaNodeHeartbeatRepository nodeHeartbeatRepo,
+        final JpaJobStatusHistoryRepository jobStatusHistoryRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
         this.jobRepo = jobRepo;
         this.jobRequestRepo = jobRequestRepo;
@@ -94,6 +160,11 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
         this.applicationRepo = applicationRepo;
         this.clusterRepo = clusterRepo;
         this.commandRepo = commandRepo;
+        this.jobStatsRepo = jobStatsRepo;
+        this.jobOutputSummaryRepo = jobOutputSummaryRepo;
+        this.nodeHeartbeatRepo = nodeHeartbeatRepo;
+        this.jobStatusHistoryRepo = jobStatusHistoryRepo;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -123,24 +194,10 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
             throw new GeniePreconditionException("Cannot find the job request for the id of the job specified.");
         }
 
-        final JobEntity jobEntity = new JobEntity();
-
-        jobEntity.setId(job.getId());
-        jobEntity.setName(job.getName());
-        jobEntity.setUser(job.getUser());
-        jobEntity.setVersion(job.getVersion());
-        jobEntity.setArchiveLocation(job.getArchiveLocation());
-        jobEntity.setDescription(job.getDescription());
-
-        if (job.getStarted() != null) {
-            jobEntity.setStarted(job.getStarted());
-        }
-        jobEntity.setStatus(job.getStatus());
-        jobEntity.setStatusMsg(job.getStatusMsg());
-        jobEntity.setTags(job.getTags());
-        jobEntity.setCommandArgs(job.getCommandArgs());
-
-        jobRequestEntity.setJob(jobEntity);
+        jobRequestEntity.setJob(this.createJobEntity(job));
+        this.eventPublisher.publishEvent(
+            new JobStatusChangedEvent(job.getId(), null, job.getStatus(), job.getStatusMsg(), this)
+        );
     }
 
     /**
@@ -158,26 +215,15 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
 
         log.debug("Called to update job with id {}, status {} and statusMsg \"{}\"", id, jobStatus, statusMsg);
 
-        final JobEntity jobEntity = this.jobRepo.findOne(id);
-        if (jobEntity == null) {
+        final JobStatus previousStatus = this.jobRepo.findStatusById(id);
+        if (previousStatus == null) {
             throw new GenieNotFoundException("No job exists for the id specified");
         }
 
-        jobEntity.setStatus(jobStatus);
-        jobEntity.setStatusMsg(statusMsg);
-
-        if (jobStatus.equals(JobStatus.RUNNING)) {
-            // Status being changed to running so set start date.
-            jobEntity.setStarted(new Date());
-        } else if (jobEntity.getStarted() != null && (jobStatus.equals(JobStatus.KILLED)
-            || jobStatus.equals(JobStatus.FAILED)
-            || jobStatus.equals(JobStatus.SUCCEEDED))) {
-
-            // Since start date is set the job was running previously and now has finished
-            // with status killed, failed or succeeded. So we set the job finish time.
-            jobEntity.setFinished(new Date());
+        // The update only applies if nobody changed the status since it was read
+        if (!this.transitionJob(id, previousStatus, jobStatus, statusMsg)) {
+            throw new GenieConflictException("Status of job " + id + " changed while updating it to " + jobStatus);
         }
-        this.jobRepo.save(jobEntity);
     }
 
     /**
@@ -213,9 +259,14 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
             throw new GenieNotFoundException("Cannot find command with ID " + commandId);
         }
 
+        // Load all the applications in one query then put them back in the requested order
+        final Map<String, ApplicationEntity> found = this.applicationRepo
+            .findAll(applicationIds)
+            .stream()
+            .collect(Collectors.toMap(ApplicationEntity::getId, application -> application));
         final List<ApplicationEntity> applications = Lists.newArrayList();
         for (final String applicationId : applicationIds) {
-            final ApplicationEntity application = this.applicationRepo.findOne(applicationId);
+            final ApplicationEntity application = found.get(applicationId);
             if (application == null) {
                 throw new GenieNotFoundException("Cannot find application with ID + " + applicationId);
             }
@@ -241,31 +292,49 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
             throw new GenieConflictException("A job with id " + jobRequest.getId() + " already exists");
         }
 
-        final JobRequestEntity jobRequestEntity = new JobRequestEntity();
-
-        jobRequestEntity.setId(jobRequest.getId());
-        jobRequestEntity.setName(jobRequest.getName());
-        jobRequestEntity.setUser(jobRequest.getUser());
-        jobRequestEntity.setVersion(jobRequest.getVersion());
-        jobRequestEntity.setDescription(jobRequest.getDescription());
-        jobRequestEntity.setCommandArgs(jobRequest.getCommandArgs());
-        jobRequestEntity.setGroup(jobRequest.getGroup());
-        jobRequestEntity.setSetupFile(jobRequest.getSetupFile());
-        jobRequestEntity.setClusterCriteriasFromList(jobRequest.getClusterCriterias());
-        jobRequestEntity.setCommandCriteriaFromSet(jobRequest.getCommandCriteria());
-        jobRequestEntity.setDependenciesFromSet(jobRequest.getDependencies());
-        jobRequestEntity.setDisableLogArchival(jobRequest.isDisableLogArchival());
-        jobRequestEntity.setEmail(jobRequest.getEmail());
-        jobRequestEntity.setTags(jobRequest.getTags());
-        jobRequestEntity.setCpu(jobRequest.getCpu());
-        jobRequestEntity.setMemory(jobRequest.getMemory());
-        jobRequestEntity.setApplicationsFromList(jobRequest.getApplications());
-        jobRequestEntity.setTimeout(jobRequest.getTimeout());
-
+        final JobRequestEntity jobRequestEntity = this.createJobRequestEntity(jobRequest);
         this.jobRequestRepo.save(jobRequestEntity);
         return jobRequestEntity.getDTO();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createJobAndRequest(
+        @NotNull(message = "Job Request is null so cannot be saved")
+        final JobRequest jobRequest,
+        final String clientHost,
+        @NotNull(message = "No Job provided to create")
+        final Job job
+    ) throws GenieException {
+        log.debug("Called with jobRequest: {}, client host: {} and job: {}", jobRequest, clientHost, job);
+
+        if (StringUtils.isBlank(jobRequest.getId()) || !jobRequest.getId().equals(job.getId())) {
+            throw new GeniePreconditionException("The job and its request must have the same id");
+        }
+
+        final JobRequestEntity jobRequestEntity = this.createJobRequestEntity(jobRequest);
+        if (StringUtils.isNotBlank(clientHost)) {
+            jobRequestEntity.setClientHost(clientHost);
+        }
+        jobRequestEntity.setJob(this.createJobEntity(job));
+
+        // The primary key catches duplicate ids so there's no need to read first. The job is saved by cascade.
+        try {
+            this.jobRequestRepo.saveAndFlush(jobRequestEntity);
+        } catch (final DataIntegrityViolationException dive) {
+            // Anything else, like a value too long for its column, is a bug rather than a conflict
+            if (this.isDuplicateKey(dive)) {
+                throw new GenieConflictException("A job with id " + jobRequest.getId() + " already exists");
+            }
+            throw dive;
+        }
+        this.eventPublisher.publishEvent(
+            new JobStatusChangedEvent(job.getId(), null, job.getStatus(), job.getStatusMsg(), this)
+        );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -303,28 +372,35 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
             throw new GeniePreconditionException("Cannot create a job execution entry with id blank or null");
         }
 
-        this.updateJobStatus(jobExecution.getId(), JobStatus.RUNNING, "Job is Running.");
-        final JobEntity jobEntity = jobRepo.findOne(jobExecution.getId());
-        if (jobEntity == null) {
-            throw new GenieNotFoundException("Cannot find the job for the id of the jobExecution specified.");
+        final String id = jobExecution.getId();
+
+        // Move the job to running first so nothing is written for a job which doesn't exist or has moved on
+        if (!this.transitionJob(id, JobStatus.INIT, JobStatus.RUNNING, "Job is Running.")) {
+            final JobStatus status = this.jobRepo.findStatusById(id);
+            if (status == null) {
+                throw new GenieNotFoundException("Cannot find the job for the id of the jobExecution specified.");
+            }
+            throw new GeniePreconditionException("Job " + id + " is " + status + ". Unable to start running it.");
         }
 
         final JobExecutionEntity jobExecutionEntity = new JobExecutionEntity();
 
-        jobExecutionEntity.setId(jobExecution.getId());
+        jobExecutionEntity.setId(id);
         jobExecutionEntity.setHostName(jobExecution.getHostName());
         jobExecutionEntity.setProcessId(jobExecution.getProcessId());
         jobExecutionEntity.setCheckDelay(jobExecution.getCheckDelay());
         jobExecutionEntity.setTimeout(jobExecution.getTimeout());
 
-        jobEntity.setExecution(jobExecutionEntity);
+        // A reference is enough to link the execution to its job so the job is never loaded
+        jobExecutionEntity.setJob(this.jobRepo.getOne(id));
+        this.jobExecutionRepo.save(jobExecutionEntity);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized void setExitCode(
+    public boolean setExitCode(
         @NotBlank(message = "No job id entered. Unable to update.")
         final String id,
         @NotBlank(message = "Exit code cannot be blank")
@@ -332,42 +408,113 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
     ) throws GenieException {
         log.debug("Called with id {} and exit code {}", id, exitCode);
 
-        final JobExecutionEntity jobExecutionEntity = this.jobExecutionRepo.findOne(id);
-        if (jobExecutionEntity != null) {
-
-            // Make sure current exit code is the default one before updating
-            if (jobExecutionEntity.getExitCode() == JobExecution.DEFAULT_EXIT_CODE) {
-                switch (exitCode) {
-                    // No update to status in case of default exit code
-                    case JobExecution.DEFAULT_EXIT_CODE:
-                        break;
-                    case JobExecution.KILLED_EXIT_CODE:
-                        this.updateJobStatus(id, JobStatus.KILLED, "Job killed.");
-                        break;
-                    case JobExecution.LOST_EXIT_CODE:
-                        this.updateJobStatus(
-                            id,
-                            JobStatus.FAILED,
-                            "Genie leader can't reach node running job. Assuming node and job are lost."
-                        );
-                        break;
-                    case JobExecution.SUCCESS_EXIT_CODE:
-                        this.updateJobStatus(id, JobStatus.SUCCEEDED, "Job finished successfully.");
-                        break;
-                    // catch all for non-zero and non zombie, killed and failed exit codes
-                    default:
-                        this.updateJobStatus(id, JobStatus.FAILED, "Job failed.");
-                }
-                jobExecutionEntity.setExitCode(exitCode);
-            } else {
-                // If the exit code is not default check if its being set to the current value itself. If yes
-                // then ignore, else throw exception.
-                if (jobExecutionEntity.getExitCode() != exitCode) {
-                    throw new GeniePreconditionException("Exit code already changed from default. Cannot update.");
-                }
+        // Setting the default exit code changes nothing so there's no need to write it
+        if (exitCode == JobExecution.DEFAULT_EXIT_CODE) {
+            final JobExecutionEntity jobExecutionEntity = this.jobExecutionRepo.findOne(id);
+            if (jobExecutionEntity == null) {
+                throw new GenieNotFoundException("No job with id " + id);
+            }
+            if (jobExecutionEntity.getExitCode() != exitCode) {
+                throw new GeniePreconditionException("Exit code already changed from default. Cannot update.");
+            }
+            return false;
+        }
+
+        // The conditional update picks the winner when this races with other threads or nodes so no lock is needed
+        if (this.jobExecutionRepo.updateExitCode(id, JobExecution.DEFAULT_EXIT_CODE, exitCode, new Date()) == 0) {
+            final JobExecutionEntity jobExecutionEntity = this.jobExecutionRepo.findOne(id);
+            if (jobExecutionEntity == null) {
+                throw new GenieNotFoundException("No job with id " + id);
             }
+            // If the exit code is not default check if its being set to the current value itself. If yes
+            // then ignore, else throw exception.
+            if (jobExecutionEntity.getExitCode() != exitCode) {
+                throw new GeniePreconditionException("Exit code already changed from default. Cannot update.");
+            }
+            return false;
+        }
+
+        switch (exitCode) {
+            case JobExecution.KILLED_EXIT_CODE:
+                this.finishJob(id, JobStatus.KILLED, "Job killed.");
+                break;
+            case JobExecution.LOST_EXIT_CODE:
+                this.finishJob(id, JobStatus.FAILED, LOST_STATUS_MSG);
+                break;
+            case JobExecution.SUCCESS_EXIT_CODE:
+                this.finishJob(id, JobStatus.SUCCEEDED, "Job finished successfully.");
+                break;
+            // catch all for non-zero and non zombie, killed and failed exit codes
+            default:
+                this.finishJob(id, JobStatus.FAILED, "Job failed.");
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long deleteBatchOfJobsCreatedBeforeDate(
+        @NotNull(message = "No date entered. Unable to delete jobs.")
+        final Date date,
+        @Min(value = 1, message = "Must delete at least one job per batch.")
+        final int maxDeleted
+    ) {
+        final List<String> ids = this.jobRequestRepo.findIdsByCreatedBefore(date, new PageRequest(0, maxDeleted));
+        long deleted = 0;
+        // Delete with bulk statements from the children up so no entities are loaded into the persistence context
+        for (final List<String> chunk : Lists.partition(ids, MAX_IN_CLAUSE_SIZE)) {
+            this.jobStatusHistoryRepo.deleteByJobIdIn(chunk);
+            this.jobOutputSummaryRepo.deleteByIdIn(chunk);
+            this.jobExecutionRepo.deleteByIdIn(chunk);
+            this.deleteApplicationsOfJobs(chunk);
+            this.jobRepo.deleteByIdIn(chunk);
+            deleted += this.jobRequestRepo.deleteByIdIn(chunk);
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete the links between the given jobs and their applications in a single statement. The production schemas
+     * already cascade this from the jobs table but the schema Hibernate generates doesn't. The statement is native so
+     * it declares the only table it touches, otherwise Hibernate would evict every second level cache region and
+     * invalidate the query cache each time it runs.
+     *
+     * @param ids The ids of the jobs
+     */
+    private void deleteApplicationsOfJobs(final List<String> ids) {
+        this.entityManager
+            .createNativeQuery("DELETE FROM jobs_applications WHERE job_id IN (:ids)")
+            .unwrap(SQLQuery.class)
+            .addSynchronizedQuerySpace(JOBS_APPLICATIONS_TABLE)
+            .setParameterList("ids", ids)
+            .executeUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveJobOutputSummary(
+        @NotBlank(message = "No job id entered. Unable to save output summary.")
+        final String id,
+        @NotNull(message = "No output summary entered. Unable to save.")
+        final JobOutputSummary summary
+    ) throws GenieException {
+        log.debug("Called to save output summary for job {}", id);
+        if (!this.jobRepo.exists(id)) {
+            throw new GenieNotFoundException("No job with id " + id + " exists. Unable to save output summary.");
+        }
+
+        JobOutputSummaryEntity entity = this.jobOutputSummaryRepo.findOne(id);
+        if (entity == null) {
+            entity = new JobOutputSummaryEntity();
+            entity.setId(id);
+            entity.setSummary(summary);
+            this.jobOutputSummaryRepo.save(entity);
         } else {
-            throw new GenieNotFoundException("No job with id " + id);
+            entity.setSummary(summary);
         }
     }
 
@@ -375,7 +522,351 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
      * {@inheritDoc}
      */
     @Override
-    public long deleteAllJobsCreatedBeforeDate(@NotNull final Date date) {
-        return this.jobRequestRepo.deleteByCreatedBefore(date);
+    public int addJobStatistics(
+        @NotBlank(message = "No host name entered. Unable to add job statistics.")
+        final String hostName,
+        @NotNull(message = "No status changes entered. Unable to add job statistics.")
+        final List<JobStatusChangedEvent> changes
+    ) throws GenieException {
+        log.debug("Called to add {} job status changes from host {} to the job statistics", changes.size(), hostName);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        // Resolve the user, cluster name and command name of every job involved in as few queries as possible
+        final Set<String> ids = changes.stream().map(JobStatusChangedEvent::getId).collect(Collectors.toSet());
+        final Map<String, Tuple> jobs = new HashMap<>();
+        final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        for (final List<String> chunk : Lists.partition(Lists.newArrayList(ids), MAX_IN_CLAUSE_SIZE)) {
+            final CriteriaQuery<Tuple> query = cb.createTupleQuery();
+            final Root<JobEntity> root = query.from(JobEntity.class);
+            query.multiselect(
+                root.get(JobEntity_.id),
+                root.get(JobEntity_.user),
+                root.get(JobEntity_.clusterName),
+                root.get(JobEntity_.commandName)
+            );
+            query.where(root.get(JobEntity_.id).in(chunk));
+            for (final Tuple tuple : this.entityManager.createQuery(query).getResultList()) {
+                jobs.put(tuple.get(0, String.class), tuple);
+            }
+        }
+
+        // Roll the changes up into their hourly counters in memory first
+        final Map<String, JobStatsEntity> increments = new HashMap<>();
+        for (final JobStatusChangedEvent change : changes) {
+            final Tuple job = jobs.get(change.getId());
+            if (job == null) {
+                log.debug("Job {} no longer exists. Not counting its change to {}", change.getId(), change.getStatus());
+                continue;
+            }
+            final Date hour = JobStatsEntity.truncateToHour(new Date(change.getTimestamp()));
+            final String user = job.get(1, String.class);
+            final String clusterName = job.get(2, String.class);
+            final String commandName = job.get(3, String.class);
+            final String statsId
+                = this.getJobStatsId(hour, hostName, change.getStatus(), user, clusterName, commandName);
+
+            JobStatsEntity increment = increments.get(statsId);
+            if (increment == null) {
+                increment = new JobStatsEntity();
+                increment.setId(statsId);
+                increment.setHour(hour);
+                increment.setHostName(hostName);
+                increment.setStatus(change.getStatus());
+                increment.setUser(user);
+                increment.setClusterName(clusterName);
+                increment.setCommandName(commandName);
+                increments.put(statsId, increment);
+            }
+            increment.setCount(increment.getCount() + 1);
+        }
+
+        // Counters are owned by a single host so nothing else is updating them concurrently
+        final Map<String, JobStatsEntity> existing = this.jobStatsRepo
+            .findAll(increments.keySet())
+            .stream()
+            .collect(Collectors.toMap(JobStatsEntity::getId, stats -> stats));
+        for (final JobStatsEntity increment : increments.values()) {
+            final JobStatsEntity stats = existing.get(increment.getId());
+            if (stats == null) {
+                this.jobStatsRepo.save(increment);
+            } else {
+                stats.setCount(stats.getCount() + increment.getCount());
+            }
+        }
+        return increments.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int addJobStatusHistory(
+        @NotBlank(message = "No host name entered. Unable to add job status history.")
+        final String hostName,
+        @NotNull(message = "No status changes entered. Unable to add job status history.")
+        final List<JobStatusChangedEvent> changes
+    ) throws GenieException {
+        log.debug("Called to add {} job status changes from host {} to the status history", changes.size(), hostName);
+        int added = 0;
+        for (final List<JobStatusChangedEvent> chunk : Lists.partition(changes, MAX_IN_CLAUSE_SIZE)) {
+            final Map<String, JobStatusHistoryEntity> transitions = new LinkedHashMap<>();
+            for (final JobStatusChangedEvent change : chunk) {
+                final JobStatusHistoryEntity transition = new JobStatusHistoryEntity();
+                transition.setId(this.getJobStatusHistoryId(change));
+                transition.setJobId(change.getId());
+                transition.setPreviousStatus(change.getPreviousStatus());
+                transition.setStatus(change.getStatus());
+                transition.setStatusMsg(change.getStatusMsg());
+                transition.setTime(new Date(change.getTimestamp()));
+                transition.setHostName(hostName);
+                transitions.put(transition.getId(), transition);
+            }
+
+            // A flush which failed after its transaction committed is retried so skip anything already recorded
+            transitions.keySet().removeAll(this.jobStatusHistoryRepo.findIdsByIdIn(transitions.keySet()));
+
+            // Only inserts with assigned ids so Hibernate sends these to the database as JDBC batches on flush
+            for (final JobStatusHistoryEntity transition : transitions.values()) {
+                this.jobStatusHistoryRepo.save(transition);
+            }
+            added += transitions.size();
+        }
+        return added;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveNodeHeartbeat(
+        @NotBlank(message = "No host name entered. Unable to save heartbeat.")
+        final String hostName,
+        @Min(value = 0, message = "The number of running jobs can't be negative.")
+        final int runningJobs
+    ) throws GenieException {
+        log.debug("Called to save heartbeat of host {} running {} jobs", hostName, runningJobs);
+        // Only this host writes its heartbeat so if the update misses the row doesn't exist yet
+        if (this.nodeHeartbeatRepo.updateHeartbeat(hostName, new Date(), runningJobs) == 0) {
+            final NodeHeartbeatEntity heartbeat = new NodeHeartbeatEntity();
+            heartbeat.setId(hostName);
+            heartbeat.setLastHeartbeat(new Date());
+            heartbeat.setRunningJobs(runningJobs);
+            this.nodeHeartbeatRepo.save(heartbeat);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int markJobsOnHostLost(
+        @NotBlank(message = "No host name entered. Unable to mark jobs lost.")
+        final String hostName
+    ) {
+        log.debug("Called to mark jobs on host {} lost", hostName);
+        final List<String> ids = this.jobExecutionRepo.findIdsByHostNameAndExitCode(
+            hostName,
+            JobExecution.DEFAULT_EXIT_CODE
+        );
+        int lost = 0;
+        for (final List<String> chunk : Lists.partition(ids, MAX_IN_CLAUSE_SIZE)) {
+            final Map<String, JobStatus> previousStatuses = new HashMap<>();
+            for (final Object[] idAndStatus : this.jobRepo.findIdsAndStatusesByIdIn(chunk)) {
+                previousStatuses.put((String) idAndStatus[0], (JobStatus) idAndStatus[1]);
+            }
+
+            // Only executions still without an exit code are changed so jobs which just finished keep their exit code
+            final Date now = new Date();
+            this.jobExecutionRepo.updateExitCodes(
+                chunk,
+                JobExecution.DEFAULT_EXIT_CODE,
+                JobExecution.LOST_EXIT_CODE,
+                now
+            );
+            this.jobRepo.updateStatusAndFinishedOfJobsWithExitCode(
+                chunk,
+                JobExecution.LOST_EXIT_CODE,
+                JobStatus.RUNNING,
+                JobStatus.FAILED,
+                LOST_STATUS_MSG,
+                now,
+                now
+            );
+            this.jobRepo.updateStatusOfJobsWithExitCode(
+                chunk,
+                JobExecution.LOST_EXIT_CODE,
+                JobStatus.INIT,
+                JobStatus.FAILED,
+                LOST_STATUS_MSG,
+                now
+            );
+
+            // All of these had no exit code when read so any which are now lost were marked lost above
+            for (final String id : this.jobExecutionRepo.findIdsByIdInAndExitCode(chunk, JobExecution.LOST_EXIT_CODE)) {
+                final JobStatus previousStatus = previousStatuses.get(id);
+                if (previousStatus != null && previousStatus.isActive()) {
+                    this.eventPublisher.publishEvent(
+                        new JobStatusChangedEvent(id, previousStatus, JobStatus.FAILED, LOST_STATUS_MSG, this)
+                    );
+                }
+                lost++;
+            }
+        }
+        return lost;
+    }
+
+    private JobRequestEntity createJobRequestEntity(final JobRequest jobRequest) throws GenieException {
+        final JobRequestEntity jobRequestEntity = new JobRequestEntity();
+
+        jobRequestEntity.setId(jobRequest.getId());
+        jobRequestEntity.setName(jobRequest.getName());
+        jobRequestEntity.setUser(jobRequest.getUser());
+        jobRequestEntity.setVersion(jobRequest.getVersion());
+        jobRequestEntity.setDescription(jobRequest.getDescription());
+        jobRequestEntity.setCommandArgs(jobRequest.getCommandArgs());
+        jobRequestEntity.setGroup(jobRequest.getGroup());
+        jobRequestEntity.setSetupFile(jobRequest.getSetupFile());
+        jobRequestEntity.setClusterCriteriasFromList(jobRequest.getClusterCriterias());
+        jobRequestEntity.setCommandCriteriaFromSet(jobRequest.getCommandCriteria());
+        jobRequestEntity.setDependenciesFromSet(jobRequest.getDependencies());
+        jobRequestEntity.setDisableLogArchival(jobRequest.isDisableLogArchival());
+        jobRequestEntity.setEmail(jobRequest.getEmail());
+        jobRequestEntity.setTags(jobRequest.getTags());
+        jobRequestEntity.setCpu(jobRequest.getCpu());
+        jobRequestEntity.setMemory(jobRequest.getMemory());
+        jobRequestEntity.setApplicationsFromList(jobRequest.getApplications());
+        jobRequestEntity.setTimeout(jobRequest.getTimeout());
+
+        return jobRequestEntity;
+    }
+
+    private JobEntity createJobEntity(final Job job) throws GenieException {
+        final JobEntity jobEntity = new JobEntity();
+
+        jobEntity.setId(job.getId());
+        jobEntity.setName(job.getName());
+        jobEntity.setUser(job.getUser());
+        jobEntity.setVersion(job.getVersion());
+        jobEntity.setArchiveLocation(job.getArchiveLocation());
+        jobEntity.setDescription(job.getDescription());
+
+        if (job.getStarted() != null) {
+            jobEntity.setStarted(job.getStarted());
+        }
+        jobEntity.setStatus(job.getStatus());
+        jobEntity.setStatusMsg(job.getStatusMsg());
+        jobEntity.setTags(job.getTags());
+        jobEntity.setCommandArgs(job.getCommandArgs());
+
+        return jobEntity;
+    }
+
+    /**
+     * Whether an insert failed because a row with the same key already exists. The primary keys are the only unique
+     * constraints on the jobs and job requests tables so this means a job with the same id exists.
+     */
+    private boolean isDuplicateKey(final DataIntegrityViolationException dive) {
+        if (dive instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = dive.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                final SQLException sqle = (SQLException) cause;
+                if (UNIQUE_VIOLATION_SQL_STATE.equals(sqle.getSQLState())
+                    || sqle.getErrorCode() == MYSQL_DUPLICATE_ENTRY_ERROR_CODE) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move an active job to the given final status with a single conditional update. The status is read first only
+     * to tell listeners what the job is coming from. If the job starts in between listeners are told it came from
+     * INIT, while the database still gets the finish time as the update itself checks whether the job was running.
+     */
+    private void finishJob(final String id, final JobStatus status, final String statusMsg) {
+        final JobStatus previousStatus = this.jobRepo.findStatusById(id);
+        if (previousStatus == null || !FINISHABLE_STATUSES.contains(previousStatus)) {
+            log.info("Job {} is no longer active. Not changing its status to {}", id, status);
+            return;
+        }
+        final Date now = new Date();
+        final int updated
+            = this.jobRepo.finishActiveJob(id, FINISHABLE_STATUSES, JobStatus.RUNNING, status, statusMsg, now, now);
+        if (updated == 0) {
+            log.info("Job {} is no longer active. Not changing its status to {}", id, status);
+            return;
+        }
+        this.eventPublisher.publishEvent(new JobStatusChangedEvent(id, previousStatus, status, statusMsg, this));
+    }
+
+    /**
+     * Change the status of a job with a single conditional update, without loading the job, and notify listeners if
+     * it had the expected previous status.
+     */
+    private boolean transitionJob(
+        final String id,
+        final JobStatus previousStatus,
+        final JobStatus status,
+        final String statusMsg
+    ) {
+        final Date now = new Date();
+        final int updated;
+        if (status == JobStatus.RUNNING) {
+            // Status being changed to running so set start date.
+            updated = this.jobRepo.updateStatusAndStarted(id, previousStatus, status, statusMsg, now, now);
+        } else if (previousStatus == JobStatus.RUNNING && FINISHED_STATUSES.contains(status)) {
+            // The job was running and now has finished with status killed, failed or succeeded so set the finish time
+            updated = this.jobRepo.updateStatusAndFinished(id, previousStatus, status, statusMsg, now, now);
+        } else {
+            updated = this.jobRepo.updateStatus(id, previousStatus, status, statusMsg, now);
+        }
+        if (updated == 0) {
+            return false;
+        }
+        this.eventPublisher.publishEvent(new JobStatusChangedEvent(id, previousStatus, status, statusMsg, this));
+        return true;
+    }
+
+    /**
+     * Generate a deterministic id for a status transition so recording the same transition twice is detectable.
+     */
+    private String getJobStatusHistoryId(final JobStatusChangedEvent change) {
+        final String key = String.join(
+            ID_SEPARATOR,
+            change.getId(),
+            Long.toString(change.getTimestamp()),
+            change.getPreviousStatus() == null ? "" : change.getPreviousStatus().name(),
+            change.getStatus().name()
+        );
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Generate a deterministic id for the statistics counter with the given dimensions so the counter can be looked up
+     * by primary key.
+     */
+    private String getJobStatsId(
+        final Date hour,
+        final String hostName,
+        final JobStatus status,
+        final String user,
+        final String clusterName,
+        final String commandName
+    ) {
+        final String key = String.join(
+            ID_SEPARATOR,
+            Long.toString(hour.getTime()),
+            hostName,
+            status.name(),
+            user,
+            StringUtils.defaultString(clusterName),
+            StringUtils.defaultString(commandName)
+        );
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
     }
 }
@@ -17,17 +17,25 @@
  */
 package com.netflix.genie.core.jpa.services;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobOutputSummary;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobStatusTransition;
 import com.netflix.genie.common.dto.search.JobSearchResult;
+import com.netflix.genie.common.dto.search.JobStatistic;
+import com.netflix.genie.common.dto.search.JobStatisticDimension;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.jobs.JobSearchResultCache;
+import com.netflix.genie.core.jobs.JobStatusCache;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
@@ -35,10 +43,16 @@ import com.netflix.genie.core.jpa.entities.JobEntity;
 import com.netflix.genie.core.jpa.entities.JobEntity_;
 import com.netflix.genie.core.jpa.entities.JobExecutionEntity;
 import com.netflix.genie.core.jpa.entities.JobExecutionEntity_;
+import com.netflix.genie.core.jpa.entities.JobOutputSummaryEntity;
 import com.netflix.genie.core.jpa.entities.JobRequestEntity;
+import com.netflix.genie.core.jpa.entities.JobStatsEntity;
+import com.netflix.genie.core.jpa.entities.JobStatsEntity_;
+import com.netflix.genie.core.jpa.entities.JobStatusHistoryEntity;
 import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobOutputSummaryRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatusHistoryRepository;
 import com.netflix.genie.core.jpa.specifications.JpaJobSpecs;
 import com.netflix.genie.core.services.JobSearchService;
 import lombok.extern.slf4j.Slf4j;
@@ -47,15 +61,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import javax.validation.constraints.NotNull;
 import java.util.ArrayList;
 import java.util.Date;
@@ -72,9 +92,22 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class JpaJobSearchServiceImpl implements JobSearchService {
 
+    private static final String COUNT_ALIAS = "count";
+    private static final int MAX_IN_CLAUSE_SIZE = 500;
+    private static final long MAX_CACHED_JOB_HOSTS = 10000L;
+
     private final JpaJobRepository jobRepository;
     private final JpaJobRequestRepository jobRequestRepository;
     private final JpaJobExecutionRepository jobExecutionRepository;
+    private final JpaJobOutputSummaryRepository jobOutputSummaryRepository;
+    private final JpaJobStatusHistoryRepository jobStatusHistoryRepository;
+    private final JobStatusCache jobStatusCache;
+    private final JobSearchResultCache jobSearchResultCache;
+    // The host a job runs on never changes once it's set so no need to expire anything but old jobs
+    private final Cache<String, String> jobHostCache = CacheBuilder
+        .newBuilder()
+        .maximumSize(MAX_CACHED_JOB_HOSTS)
+        .build();
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -82,24 +115,37 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
     /**
      * Constructor.
      *
-     * @param jobRepository          The repository to use for job entities
-     * @param jobRequestRepository   The repository to use for job request entities
-     * @param jobExecutionRepository The repository to use for job execution entities
+     * @param jobRepository              The repository to use for job entities
+     * @param jobRequestRepository       The repository to use for job request entities
+     * @param jobExecutionRepository     The repository to use for job execution entities
+     * @param jobOutputSummaryRepository The repository to use for job output summary entities
+     * @param jobStatusHistoryRepository The repository to use for job status history entities
+     * @param jobStatusCache             The cache to answer job status requests from before going to the database
+     * @param jobSearchResultCache       The cache to answer repeated job searches from before going to the database
      */
     public JpaJobSearchServiceImpl(
         final JpaJobRepository jobRepository,
         final JpaJobRequestRepository jobRequestRepository,
-        final JpaJobExecutionRepository jobExecutionRepository
+        final JpaJobExecutionRepository jobExecutionRepository,
+        final JpaJobOutputSummaryRepository jobOutputSummaryRepository,
+        final JpaJobStatusHistoryRepository jobStatusHistoryRepository,
+        final JobStatusCache jobStatusCache,
+        final JobSearchResultCache jobSearchResultCache
     ) {
         this.jobRepository = jobRepository;
         this.jobRequestRepository = jobRequestRepository;
         this.jobExecutionRepository = jobExecutionRepository;
+        this.jobOutputSummaryRepository = jobOutputSummaryRepository;
+        this.jobStatusHistoryRepository = jobStatusHistoryRepository;
+        this.jobStatusCache = jobStatusCache;
+        this.jobSearchResultCache = jobSearchResultCache;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<JobSearchResult> findJobs(
         final String id,
         final String jobName,
@@ -118,6 +164,79 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
     ) {
         log.debug("called");
 
+        // Inside a transaction the caller may need to see its own uncommitted changes so always go to the database
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return this.findJobsInDatabase(
+                id,
+                jobName,
+                user,
+                statuses,
+                tags,
+                clusterName,
+                clusterId,
+                commandName,
+                commandId,
+                minStarted,
+                maxStarted,
+                minFinished,
+                maxFinished,
+                page
+            );
+        }
+
+        final JobSearchResultCache.Key key = new JobSearchResultCache.Key(
+            id,
+            jobName,
+            user,
+            statuses,
+            tags,
+            clusterName,
+            clusterId,
+            commandName,
+            commandId,
+            minStarted,
+            maxStarted,
+            minFinished,
+            maxFinished,
+            page
+        );
+        return this.jobSearchResultCache.get(
+            key,
+            () -> this.findJobsInDatabase(
+                id,
+                jobName,
+                user,
+                statuses,
+                tags,
+                clusterName,
+                clusterId,
+                commandName,
+                commandId,
+                minStarted,
+                maxStarted,
+                minFinished,
+                maxFinished,
+                page
+            )
+        );
+    }
+
+    private Page<JobSearchResult> findJobsInDatabase(
+        final String id,
+        final String jobName,
+        final String user,
+        final Set<JobStatus> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Date minStarted,
+        final Date maxStarted,
+        final Date minFinished,
+        final Date maxFinished,
+        @NotNull final Pageable page
+    ) {
         final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
         final CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
         final Root<JobEntity> root = countQuery.from(JobEntity.class);
@@ -219,6 +338,15 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
         return this.entityManager.createQuery(query).getResultList();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getAllHostsRunningJobsWithoutHeartbeatSince(@NotNull final Date since) {
+        log.debug("Called with since {}", since);
+        return this.jobExecutionRepository.findHostNamesWithoutHeartbeatSince(JobExecution.DEFAULT_EXIT_CODE, since);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -239,18 +367,61 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public JobStatus getJobStatus(@NotBlank final String id) throws GenieException {
         log.debug("Called with id {}", id);
-        if (this.jobRepository.exists(id)) {
-            final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
-            final CriteriaQuery<JobStatus> query = cb.createQuery(JobStatus.class);
-            final Root<JobEntity> root = query.from(JobEntity.class);
-            query.select(root.get(JobEntity_.status));
-            query.where(cb.equal(root.get(JobEntity_.id), id));
-            return this.entityManager.createQuery(query).getSingleResult();
-        } else {
+        // Status polls are served from the cache without opening a transaction. Within a transaction always read the
+        // database so callers see their own uncommitted changes and those never leak into the cache.
+        final boolean useCache = !TransactionSynchronizationManager.isActualTransactionActive();
+        if (useCache) {
+            final JobStatus cachedStatus = this.jobStatusCache.get(id);
+            if (cachedStatus != null) {
+                return cachedStatus;
+            }
+        }
+
+        final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        final CriteriaQuery<JobStatus> query = cb.createQuery(JobStatus.class);
+        final Root<JobEntity> root = query.from(JobEntity.class);
+        query.select(root.get(JobEntity_.status));
+        query.where(cb.equal(root.get(JobEntity_.id), id));
+        final List<JobStatus> statuses = this.entityManager.createQuery(query).getResultList();
+        if (statuses.isEmpty()) {
             throw new GenieNotFoundException("No job with id " + id + " exists.");
         }
+
+        final JobStatus status = statuses.get(0);
+        if (useCache) {
+            this.jobStatusCache.put(id, status);
+        }
+        return status;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JobSearchResult> getJobSearchResults(@NotNull final Set<String> ids) {
+        log.debug("Called with {} ids", ids.size());
+        final List<JobSearchResult> results = new ArrayList<>();
+        final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        for (final List<String> chunk : Lists.partition(Lists.newArrayList(ids), MAX_IN_CLAUSE_SIZE)) {
+            final CriteriaQuery<JobSearchResult> query = cb.createQuery(JobSearchResult.class);
+            final Root<JobEntity> root = query.from(JobEntity.class);
+            query.multiselect(
+                root.get(JobEntity_.id),
+                root.get(JobEntity_.name),
+                root.get(JobEntity_.user),
+                root.get(JobEntity_.status),
+                root.get(JobEntity_.started),
+                root.get(JobEntity_.finished),
+                root.get(JobEntity_.clusterName),
+                root.get(JobEntity_.commandName)
+            );
+            query.where(root.get(JobEntity_.id).in(chunk));
+            results.addAll(this.entityManager.createQuery(query).getResultList());
+        }
+        return results;
     }
 
     /**
@@ -343,11 +514,152 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
      */
     @Override
     public String getJobHost(@NotBlank final String jobId) throws GenieException {
+        final String cachedHostName = this.jobHostCache.getIfPresent(jobId);
+        if (cachedHostName != null) {
+            return cachedHostName;
+        }
+
         final JobExecutionEntity jobExecution = this.jobExecutionRepository.findOne(jobId);
         if (jobExecution != null) {
-            return jobExecution.getHostName();
+            final String hostName = jobExecution.getHostName();
+            if (hostName != null) {
+                this.jobHostCache.put(jobId, hostName);
+            }
+            return hostName;
         } else {
             throw new GenieNotFoundException("No job execution found for id " + jobId);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JobOutputSummary getJobOutputSummary(@NotBlank final String id) throws GenieException {
+        final JobOutputSummaryEntity summary = this.jobOutputSummaryRepository.findOne(id);
+        if (summary != null) {
+            return summary.getDTO();
+        } else {
+            throw new GenieNotFoundException("No output summary found for job " + id);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JobStatusTransition> getJobStatusHistory(@NotBlank final String id) throws GenieException {
+        log.debug("Called with id {}", id);
+        final List<JobStatusHistoryEntity> history = this.jobStatusHistoryRepository.findByJobIdOrderByTimeAsc(id);
+        // Only fall back to the jobs table to tell a job with no history yet apart from one which doesn't exist
+        if (history.isEmpty() && !this.jobRepository.exists(id)) {
+            throw new GenieNotFoundException("No job with id " + id);
+        }
+        return history.stream().map(JobStatusHistoryEntity::getDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JobStatistic> getJobStatistics(
+        @NotNull final Date from,
+        @NotNull final Date to,
+        @NotNull final Set<JobStatisticDimension> groupBy,
+        final Set<JobStatus> statuses,
+        final String user,
+        final String clusterName,
+        final String commandName
+    ) {
+        log.debug(
+            "Called with from {}, to {}, groupBy {}, statuses {}, user {}, clusterName {} and commandName {}",
+            from,
+            to,
+            groupBy,
+            statuses,
+            user,
+            clusterName,
+            commandName
+        );
+
+        final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        final Root<JobStatsEntity> root = query.from(JobStatsEntity.class);
+
+        final List<Selection<?>> selections = new ArrayList<>();
+        final List<Expression<?>> groupings = new ArrayList<>();
+        for (final JobStatisticDimension dimension : groupBy) {
+            final Path<?> path = this.getStatisticPath(root, dimension);
+            selections.add(path.alias(dimension.name()));
+            groupings.add(path);
+        }
+        selections.add(cb.sum(root.get(JobStatsEntity_.count)).alias(COUNT_ALIAS));
+
+        final List<Predicate> predicates = new ArrayList<>();
+        predicates.add(
+            cb.greaterThanOrEqualTo(root.get(JobStatsEntity_.hour), JobStatsEntity.truncateToHour(from))
+        );
+        predicates.add(cb.lessThan(root.get(JobStatsEntity_.hour), to));
+        if (statuses != null && !statuses.isEmpty()) {
+            predicates.add(root.get(JobStatsEntity_.status).in(statuses));
+        }
+        if (user != null) {
+            predicates.add(cb.equal(root.get(JobStatsEntity_.user), user));
+        }
+        if (clusterName != null) {
+            predicates.add(cb.equal(root.get(JobStatsEntity_.clusterName), clusterName));
+        }
+        if (commandName != null) {
+            predicates.add(cb.equal(root.get(JobStatsEntity_.commandName), commandName));
+        }
+
+        query.multiselect(selections).where(predicates.toArray(new Predicate[predicates.size()]));
+        if (!groupings.isEmpty()) {
+            query.groupBy(groupings);
+        }
+
+        return this.entityManager
+            .createQuery(query)
+            .getResultList()
+            .stream()
+            .filter(tuple -> tuple.get(COUNT_ALIAS) != null)
+            .map(
+                tuple -> new JobStatistic(
+                    groupBy.contains(JobStatisticDimension.HOUR)
+                        ? tuple.get(JobStatisticDimension.HOUR.name(), Date.class)
+                        : null,
+                    groupBy.contains(JobStatisticDimension.STATUS)
+                        ? tuple.get(JobStatisticDimension.STATUS.name(), JobStatus.class)
+                        : null,
+                    groupBy.contains(JobStatisticDimension.USER)
+                        ? tuple.get(JobStatisticDimension.USER.name(), String.class)
+                        : null,
+                    groupBy.contains(JobStatisticDimension.CLUSTER_NAME)
+                        ? tuple.get(JobStatisticDimension.CLUSTER_NAME.name(), String.class)
+                        : null,
+                    groupBy.contains(JobStatisticDimension.COMMAND_NAME)
+                        ? tuple.get(JobStatisticDimension.COMMAND_NAME.name(), String.class)
+                        : null,
+                    tuple.get(COUNT_ALIAS, Long.class)
+                )
+            )
+            .collect(Collectors.toList());
+    }
+
+    private Path<?> getStatisticPath(final Root<JobStatsEntity> root, final JobStatisticDimension dimension) {
+        switch (dimension) {
+            case HOUR:
+                return root.get(JobStatsEntity_.hour);
+            case STATUS:
+                return root.get(JobStatsEntity_.status);
+            case USER:
+                return root.get(JobStatsEntity_.user);
+            case CLUSTER_NAME:
+                return root.get(JobStatsEntity_.clusterName);
+            case COMMAND_NAME:
+                return root.get(JobStatsEntity_.commandName);
+            default:
+                throw new IllegalArgumentException("Unknown job statistic dimension " + dimension);
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.metrics;
+
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.stat.Statistics;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Publishes the Hibernate second level and query cache statistics through Spectator. The statistics are only
+ * collected when hibernate.generate_statistics is enabled, otherwise all the values stay at zero. Enabling them also
+ * makes Hibernate log the metrics of every session at INFO unless hibernate.session.events.log is set to false.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Slf4j
+public class HibernateCacheMetrics {
+
+    private static final String REGION_TAG = "region";
+
+    // Gauges only keep weak references so hold on to what they read from
+    private final Statistics statistics;
+
+    /**
+     * Constructor. Registers the gauges for the query cache and for every second level cache region.
+     *
+     * @param statistics The Hibernate statistics of the session factory
+     * @param registry   The metrics registry to publish to
+     */
+    public HibernateCacheMetrics(@NotNull final Statistics statistics, @NotNull final Registry registry) {
+        this.statistics = statistics;
+
+        registry.gauge("genie.jpa.queryCache.hit.gauge", this.statistics, Statistics::getQueryCacheHitCount);
+        registry.gauge("genie.jpa.queryCache.miss.gauge", this.statistics, Statistics::getQueryCacheMissCount);
+        registry.gauge("genie.jpa.queryCache.put.gauge", this.statistics, Statistics::getQueryCachePutCount);
+        registry.gauge(
+            "genie.jpa.secondLevelCache.hit.gauge",
+            this.statistics,
+            Statistics::getSecondLevelCacheHitCount
+        );
+        registry.gauge(
+            "genie.jpa.secondLevelCache.miss.gauge",
+            this.statistics,
+            Statistics::getSecondLevelCacheMissCount
+        );
+        registry.gauge(
+            "genie.jpa.secondLevelCache.put.gauge",
+            this.statistics,
+            Statistics::getSecondLevelCachePutCount
+        );
+
+        for (final String region : this.statistics.getSecondLevelCacheRegionNames()) {
+            log.debug("Publishing statistics of cache region {}", region);
+            registry.gauge(
+                registry.createId("genie.jpa.secondLevelCache.region.hit.gauge", REGION_TAG, region),
+                this.statistics,
+                stats -> stats.getSecondLevelCacheStatistics(region).getHitCount()
+            );
+            registry.gauge(
+                registry.createId("genie.jpa.secondLevelCache.region.miss.gauge", REGION_TAG, region),
+                this.statistics,
+                stats -> stats.getSecondLevelCacheStatistics(region).getMissCount()
+            );
+            registry.gauge(
+                registry.createId("genie.jpa.secondLevelCache.region.size.gauge", REGION_TAG, region),
+                this.statistics,
+                stats -> stats.getSecondLevelCacheStatistics(region).getElementCountInMemory()
+            );
+        }
+    }
+}
@@ -44,6 +44,7 @@ public class JobCoordinatorService {
     private final JobPersistenceService jobPersistenceService;
     private final JobSubmitterService jobSubmitterService;
     private final JobKillService jobKillService;
+    private final JobIdGenerator jobIdGenerator;
 
     private String baseArchiveLocation;
 
@@ -53,20 +54,32 @@ public class JobCoordinatorService {
      * @param jobPersistenceService implementation of job persistence service interface
      * @param jobSubmitterService   implementation of the job submitter service
      * @param jobKillService        The job kill service to use
+     * @param jobIdGenerator        The generator of ids for jobs submitted without one
      * @param baseArchiveLocation   The base directory location of where the job dir should be archived
      */
     public JobCoordinatorService(
         final JobPersistenceService jobPersistenceService,
         final JobSubmitterService jobSubmitterService,
         final JobKillService jobKillService,
+        final JobIdGenerator jobIdGenerator,
         final String baseArchiveLocation
     ) {
         this.jobPersistenceService = jobPersistenceService;
         this.jobSubmitterService = jobSubmitterService;
         this.jobKillService = jobKillService;
+        this.jobIdGenerator = jobIdGenerator;
         this.baseArchiveLocation = baseArchiveLocation;
     }
 
+    /**
+     * Create a new id for a job which was submitted without one.
+     *
+     * @return The new job id
+     */
+    public String createJobId() {
+        return this.jobIdGenerator.generateJobId();
+    }
+
     /**
      * Takes in a Job Request object and does necessary preparation for execution.
      *
@@ -86,13 +99,6 @@ public class JobCoordinatorService {
             throw new GenieServerException("Id of the jobRequest cannot be null");
         }
 
-        // Log the job request
-        this.jobPersistenceService.createJobRequest(jobRequest);
-
-        if (StringUtils.isNotBlank(clientHost)) {
-            this.jobPersistenceService.addClientHostToJobRequest(jobRequest.getId(), clientHost);
-        }
-
         String archiveLocation = null;
         if (!jobRequest.isDisableLogArchival()) {
             archiveLocation = this.baseArchiveLocation
@@ -116,7 +122,8 @@ public class JobCoordinatorService {
             .withStatusMsg("Job Accepted and in initialization phase.")
             .build();
 
-        this.jobPersistenceService.createJob(job);
+        // Log the job request and create the job in one go
+        this.jobPersistenceService.createJobAndRequest(jobRequest, clientHost, job);
         this.jobSubmitterService.submitJob(jobRequest);
         return jobRequest.getId();
     }
@@ -0,0 +1,34 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services;
+
+/**
+ * Interface for generating the ids of jobs submitted without one.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+public interface JobIdGenerator {
+
+    /**
+     * Generate a new unique job id. Called concurrently for every submission so implementations shouldn't block.
+     *
+     * @return The job id
+     */
+    String generateJobId();
+}
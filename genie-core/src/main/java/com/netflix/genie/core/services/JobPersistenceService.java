@@ -19,11 +19,14 @@ package com.netflix.genie.core.services;
 
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobOutputSummary;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
 import org.hibernate.validator.constraints.NotBlank;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.Date;
 import java.util.List;
@@ -84,6 +87,21 @@ public interface JobPersistenceService {
      */
     JobRequest createJobRequest(@NotNull final JobRequest jobRequest) throws GenieException;
 
+    /**
+     * Save a job request and the job created for it, in status INIT, together. Cheaper than calling
+     * createJobRequest, addClientHostToJobRequest and createJob in turn and nothing is saved if any part fails.
+     *
+     * @param jobRequest The job request to save. Must have an id.
+     * @param clientHost Host of the client that sent the request. Can be null.
+     * @param job        The job to save. Must have the same id as the request.
+     * @throws GenieException If there is an error, including a conflict if a job with the same id already exists
+     */
+    void createJobAndRequest(
+        @NotNull final JobRequest jobRequest,
+        final String clientHost,
+        @NotNull final Job job
+    ) throws GenieException;
+
     /**
      * Add the information of client host to jobRequest.
      *
@@ -102,19 +120,81 @@ public interface JobPersistenceService {
     void createJobExecution(@NotNull final JobExecution jobExecution) throws GenieException;
 
     /**
-     * Method to set exit code for the job execution.
+     * Method to set exit code for the job execution and move the job to the matching final status. Safe to call
+     * concurrently from any node as only the first caller to change the exit code from the default wins.
      *
      * @param id the id of the job to update the exit code
      * @param exitCode The exit code of the process
-     * @throws GenieException if there is an error
+     * @return true if this call set the exit code, false if it was already set to the same value
+     * @throws GenieException if there is an error or the exit code was already set to a different value
      */
-    void setExitCode(@NotBlank final String id, @NotBlank final int exitCode) throws GenieException;
+    boolean setExitCode(@NotBlank final String id, @NotBlank final int exitCode) throws GenieException;
 
     /**
-     * This method will delete all jobs whose created time is less than date.
+     * Delete up to the given number of the oldest jobs whose created time is less than date. Call repeatedly until
+     * fewer than the maximum are deleted to delete all of them in short transactions.
      *
-     * @param date The date before which all jobs should be deleted
+     * @param date       The date before which jobs should be deleted
+     * @param maxDeleted The maximum number of jobs to delete
      * @return the number of deleted jobs
      */
-    long deleteAllJobsCreatedBeforeDate(@NotNull final Date date);
+    long deleteBatchOfJobsCreatedBeforeDate(@NotNull final Date date, @Min(1) final int maxDeleted);
+
+    /**
+     * Save the summary of the output of a finished job, replacing any summary which was previously saved.
+     *
+     * @param id      The id of the job the output belongs to
+     * @param summary The head and tail of the output of the job
+     * @throws GenieException if the job doesn't exist or there is any other error
+     */
+    void saveJobOutputSummary(@NotBlank final String id, @NotNull final JobOutputSummary summary) throws GenieException;
+
+    /**
+     * Add the given job status changes, all observed on the given host, to the pre-aggregated hourly job statistics.
+     * Changes are bucketed by the hour they happened in along with the status, user, cluster name and command name of
+     * the job.
+     *
+     * @param hostName The host the status changes were observed on
+     * @param changes  The status changes to add to the statistics
+     * @return The number of statistics counters which were created or updated
+     * @throws GenieException if there is an error
+     */
+    int addJobStatistics(
+        @NotBlank final String hostName,
+        @NotNull final List<JobStatusChangedEvent> changes
+    ) throws GenieException;
+
+    /**
+     * Append the given job status changes, all observed on the given host, to the status history of their jobs. Each
+     * change is identified by its job, time and statuses so a batch which is written again after a failure doesn't
+     * record any change twice.
+     *
+     * @param hostName The host the status changes were observed on
+     * @param changes  The status changes to record
+     * @return The number of transitions which were newly recorded
+     * @throws GenieException if there is an error
+     */
+    int addJobStatusHistory(
+        @NotBlank final String hostName,
+        @NotNull final List<JobStatusChangedEvent> changes
+    ) throws GenieException;
+
+    /**
+     * Record that the given node is alive along with how many jobs it is running. Each node only writes its own
+     * heartbeat.
+     *
+     * @param hostName    The host name of the node
+     * @param runningJobs The number of jobs currently running on the node
+     * @throws GenieException if there is an error
+     */
+    void saveNodeHeartbeat(@NotBlank final String hostName, @Min(0) final int runningJobs) throws GenieException;
+
+    /**
+     * Mark every job still running on the given host as lost and failed with bulk updates instead of one job at a
+     * time. Jobs which finish on their own concurrently keep their own exit code.
+     *
+     * @param hostName The host whose jobs should be marked lost
+     * @return The number of jobs which were marked lost
+     */
+    int markJobsOnHostLost(@NotBlank final String hostName);
 }
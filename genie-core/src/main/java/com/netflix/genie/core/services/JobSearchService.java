@@ -22,9 +22,13 @@ import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobOutputSummary;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobStatusTransition;
 import com.netflix.genie.common.dto.search.JobSearchResult;
+import com.netflix.genie.common.dto.search.JobStatistic;
+import com.netflix.genie.common.dto.search.JobStatisticDimension;
 import com.netflix.genie.common.exceptions.GenieException;
 import org.hibernate.validator.constraints.NotBlank;
 import org.springframework.data.domain.Page;
@@ -94,6 +98,15 @@ public interface JobSearchService {
      */
     List<String> getAllHostsRunningJobs();
 
+    /**
+     * Get the host names which are currently running jobs but haven't written a heartbeat since the given time,
+     * including hosts which never wrote one.
+     *
+     * @param since The time a host must have written a heartbeat after to not be returned
+     * @return The list of hosts running jobs which may have stopped
+     */
+    List<String> getAllHostsRunningJobsWithoutHeartbeatSince(@NotNull final Date since);
+
     /**
      * Get job information for given job id.
      *
@@ -112,6 +125,14 @@ public interface JobSearchService {
      */
     JobStatus getJobStatus(@NotBlank final String id) throws GenieException;
 
+    /**
+     * Get the search result projection, which includes the status, of each of the given jobs in bulk.
+     *
+     * @param ids The ids of the jobs to get
+     * @return The search results for the jobs which exist. Ids which don't match any job are ignored.
+     */
+    List<JobSearchResult> getJobSearchResults(@NotNull final Set<String> ids);
+
     /**
      * Get job request for given job id.
      *
@@ -165,4 +186,48 @@ public interface JobSearchService {
      * @throws GenieException If the job isn't found or any other error
      */
     String getJobHost(@NotBlank final String jobId) throws GenieException;
+
+    /**
+     * Get the summary of the head and tail of the output of a finished job. Summaries are stored centrally so this
+     * can be answered from any node regardless of where the job ran.
+     *
+     * @param id The id of the job to get the output summary for
+     * @return The output summary
+     * @throws GenieException If no summary exists for the job (e.g. it's still running) or any other error
+     */
+    JobOutputSummary getJobOutputSummary(@NotBlank final String id) throws GenieException;
+
+    /**
+     * Get every recorded status transition of a job, oldest first. Read from the status history rather than the job
+     * itself so how long the job spent in each status can be computed without touching the jobs table. Transitions
+     * are recorded asynchronously so the most recent one may not be included yet.
+     *
+     * @param id The id of the job
+     * @return The transitions of the job in the order they happened
+     * @throws GenieException If the job doesn't exist or any other error
+     */
+    List<JobStatusTransition> getJobStatusHistory(@NotBlank final String id) throws GenieException;
+
+    /**
+     * Get pre-aggregated statistics on the number of jobs which transitioned into each status within the given time
+     * range. Answered from hourly rollups so the cost is independent of the number of jobs in the system.
+     *
+     * @param from        The start of the time range (inclusive). Rounded down to the hour.
+     * @param to          The end of the time range (exclusive)
+     * @param groupBy     The dimensions to group the counts by. If empty a single total is returned.
+     * @param statuses    Only count transitions into these statuses. Null or empty for all.
+     * @param user        Only count jobs owned by this user. Null for all.
+     * @param clusterName Only count jobs run on the cluster with this name. Null for all.
+     * @param commandName Only count jobs run with the command with this name. Null for all.
+     * @return The statistics for each combination of the group by dimensions
+     */
+    List<JobStatistic> getJobStatistics(
+        @NotNull final Date from,
+        @NotNull final Date to,
+        @NotNull final Set<JobStatisticDimension> groupBy,
+        final Set<JobStatus> statuses,
+        final String user,
+        final String clusterName,
+        final String commandName
+    );
 }
@@ -18,13 +18,19 @@
 package com.netflix.genie.core.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobSearchResultCache;
+import com.netflix.genie.core.jobs.JobStatusCache;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
 import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobOutputSummaryRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatsRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatusHistoryRepository;
+import com.netflix.genie.core.jpa.repositories.JpaNodeHeartbeatRepository;
 import com.netflix.genie.core.jpa.services.JpaApplicationServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaClusterServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaCommandServiceImpl;
@@ -36,6 +42,7 @@ import com.netflix.genie.core.services.ClusterService;
 import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.FileTransfer;
 import com.netflix.genie.core.services.JobCoordinatorService;
+import com.netflix.genie.core.services.JobIdGenerator;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSearchService;
@@ -44,6 +51,8 @@ import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.genie.core.services.impl.LocalJobKillServiceImpl;
 import com.netflix.genie.core.services.impl.LocalJobRunner;
 import com.netflix.genie.core.services.impl.RandomizedClusterLoadBalancerImpl;
+import com.netflix.genie.core.services.impl.TimeOrderedJobIdGeneratorImpl;
+import com.netflix.spectator.api.DefaultRegistry;
 import org.apache.commons.exec.Executor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
@@ -109,32 +118,73 @@ public class ServicesConfigTest {
         return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo);
     }
 
+    /**
+     * Get the in-memory cache of job statuses.
+     *
+     * @return The job status cache
+     */
+    @Bean
+    public JobStatusCache jobStatusCache() {
+        return new JobStatusCache(5000L, 3600000L, 10000L);
+    }
+
+    /**
+     * Get the short lived cache of job search results.
+     *
+     * @return The job search result cache
+     */
+    @Bean
+    public JobSearchResultCache jobSearchResultCache() {
+        return new JobSearchResultCache(5000L, 1000L, new DefaultRegistry());
+    }
+
     /**
      * Get JPA based implementation of the JobSearchService.
      *
      * @param jobRepository          The repository to use for job entities
      * @param jobRequestRepository   The repository to use for job request entities
      * @param jobExecutionRepository The repository to use for job execution entities
+     * @param jobOutputSummaryRepo   The repository to use for job output summary entities
+     * @param jobStatusHistoryRepo   The repository to use for job status history entities
+     * @param jobStatusCache         The cache of job statuses to use
+     * @param jobSearchResultCache   The cache of job search results to use
      * @return A job search service instance.
      */
     @Bean
     public JobSearchService jobSearchService(
         final JpaJobRepository jobRepository,
         final JpaJobRequestRepository jobRequestRepository,
-        final JpaJobExecutionRepository jobExecutionRepository
+        final JpaJobExecutionRepository jobExecutionRepository,
+        final JpaJobOutputSummaryRepository jobOutputSummaryRepo,
+        final JpaJobStatusHistoryRepository jobStatusHistoryRepo,
+        final JobStatusCache jobStatusCache,
+        final JobSearchResultCache jobSearchResultCache
     ) {
-        return new JpaJobSearchServiceImpl(jobRepository, jobRequestRepository, jobExecutionRepository);
+        return new JpaJobSearchServiceImpl(
+            jobRepository,
+            jobRequestRepository,
+            jobExecutionRepository,
+            jobOutputSummaryRepo,
+            jobStatusHistoryRepo,
+            jobStatusCache,
+            jobSearchResultCache
+        );
     }
 
     /**
      * Get JPA based implementation of the JobPersistenceService.
      *
-     * @param jobRepo          The job repository to use
-     * @param jobRequestRepo   The job request repository to use
-     * @param jobExecutionRepo The jobExecution Repository to use
-     * @param applicationRepo  The application repository to use
-     * @param clusterRepo      The cluster repository to use
-     * @param commandRepo      The command repository to use
+     * @param jobRepo              The job repository to use
+     * @param jobRequestRepo       The job request repository to use
+     * @param jobExecutionRepo     The jobExecution Repository to use
+     * @param applicationRepo      The application repository to use
+     * @param clusterRepo          The cluster repository to use
+     * @param commandRepo          The command repository to use
+     * @param jobStatsRepo         The job statistics repository to use
+     * @param jobOutputSummaryRepo The job output summary repository to use
+     * @param nodeHeartbeatRepo    The node heartbeat repository to use
+     * @param jobStatusHistoryRepo The job status history repository to use
+     * @param eventPublisher       The publisher to notify of job status changes
      * @return A job search service instance.
      */
     @Bean
@@ -144,7 +194,12 @@ public class ServicesConfigTest {
         final JpaJobExecutionRepository jobExecutionRepo,
         final JpaApplicationRepository applicationRepo,
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final JpaJobStatsRepository jobStatsRepo,
+        final JpaJobOutputSummaryRepository jobOutputSummaryRepo,
+        final JpaNodeHeartbeatRepository nodeHeartbeatRepo,
+        final JpaJobStatusHistoryRepository jobStatusHistoryRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
         return new JpaJobPersistenceServiceImpl(
             jobRepo,
@@ -152,7 +207,12 @@ public class ServicesConfigTest {
             jobExecutionRepo,
             applicationRepo,
             clusterRepo,
-            commandRepo
+            commandRepo,
+            jobStatsRepo,
+            jobOutputSummaryRepo,
+            nodeHeartbeatRepo,
+            jobStatusHistoryRepo,
+            eventPublisher
         );
     }
 
@@ -248,6 +308,16 @@ public class ServicesConfigTest {
         );
     }
 
+    /**
+     * Get the generator of job ids.
+     *
+     * @return A time ordered job id generator
+     */
+    @Bean
+    public JobIdGenerator jobIdGenerator() {
+        return new TimeOrderedJobIdGeneratorImpl();
+    }
+
     /**
      * Get an instance of the JobCoordinatorService.
      *
@@ -255,6 +325,7 @@ public class ServicesConfigTest {
      * @param jobSearchService      implementation of job search service interface.
      * @param jobSubmitterService   implementation of the job submitter service.
      * @param jobKillService        The job kill service to use.
+     * @param jobIdGenerator        The generator of ids for jobs submitted without one.
      * @param baseArchiveLocation   The base directory location of where the job dir should be archived.
      * @return An instance of the JobCoordinatorService.
      */
@@ -264,6 +335,7 @@ public class ServicesConfigTest {
         final JobSearchService jobSearchService,
         final JobSubmitterService jobSubmitterService,
         final JobKillService jobKillService,
+        final JobIdGenerator jobIdGenerator,
         @Value("${genie.jobs.archive.location}")
         final String baseArchiveLocation
     ) {
@@ -271,6 +343,7 @@ public class ServicesConfigTest {
             jobPersistenceService,
             jobSubmitterService,
             jobKillService,
+            jobIdGenerator,
             baseArchiveLocation);
     }
 }
@@ -0,0 +1,69 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.events;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.UUID;
+
+/**
+ * Tests for the JobStatusChangedEvent class.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatusChangedEventUnitTests {
+
+    /**
+     * Make sure we can successfully create a Job Status Changed Event.
+     */
+    @Test
+    public void canConstruct() {
+        final String id = UUID.randomUUID().toString();
+        final String statusMsg = UUID.randomUUID().toString();
+        final Object source = new Object();
+        final JobStatusChangedEvent event
+            = new JobStatusChangedEvent(id, JobStatus.INIT, JobStatus.RUNNING, statusMsg, source);
+        Assert.assertThat(event.getId(), Matchers.is(id));
+        Assert.assertThat(event.getPreviousStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(event.getStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(event.getStatusMsg(), Matchers.is(statusMsg));
+        Assert.assertThat(event.getSource(), Matchers.is(source));
+    }
+
+    /**
+     * Make sure a newly created job has no previous status.
+     */
+    @Test
+    public void canConstructWithoutPreviousStatus() {
+        final JobStatusChangedEvent event = new JobStatusChangedEvent(
+            UUID.randomUUID().toString(),
+            null,
+            JobStatus.INIT,
+            UUID.randomUUID().toString(),
+            new Object()
+        );
+        Assert.assertThat(event.getPreviousStatus(), Matchers.nullValue());
+    }
+}
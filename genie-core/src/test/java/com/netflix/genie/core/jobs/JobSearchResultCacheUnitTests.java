@@ -0,0 +1,236 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.search.JobSearchResult;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Unit tests for the JobSearchResultCache.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobSearchResultCacheUnitTests {
+
+    private JobSearchResultCache cache;
+    private AtomicInteger loads;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.cache = new JobSearchResultCache(60000L, 10L, new DefaultRegistry());
+        this.loads = new AtomicInteger();
+    }
+
+    /**
+     * Make sure identical searches are only run once.
+     */
+    @Test
+    public void canCacheIdenticalSearches() {
+        final Page<JobSearchResult> results = this.results(UUID.randomUUID().toString());
+        final Page<JobSearchResult> first = this.cache.get(this.key(" tgianos ", null, null), this.loader(results));
+        final Page<JobSearchResult> second = this.cache.get(this.key("tgianos", null, null), this.loader(results));
+        Assert.assertThat(first, Matchers.sameInstance(results));
+        Assert.assertThat(second, Matchers.sameInstance(results));
+        Assert.assertThat(this.loads.get(), Matchers.is(1));
+        Assert.assertThat(this.cache.size(), Matchers.is(1L));
+    }
+
+    /**
+     * Make sure different searches aren't served each other's results.
+     */
+    @Test
+    public void cantShareResultsOfDifferentSearches() {
+        final Page<JobSearchResult> results = this.results(UUID.randomUUID().toString());
+        this.cache.get(this.key("tgianos", null, null), this.loader(results));
+        this.cache.get(this.key("tgianos", Sets.newHashSet(JobStatus.RUNNING), null), this.loader(results));
+        this.cache.get(this.key("tgianos", null, new Date()), this.loader(results));
+        Assert.assertThat(this.loads.get(), Matchers.is(3));
+    }
+
+    /**
+     * Make sure failures to load aren't cached and are rethrown as is.
+     */
+    @Test
+    public void cantCacheFailures() {
+        final JobSearchResultCache.Key key = this.key("tgianos", null, null);
+        try {
+            this.cache.get(
+                key,
+                () -> {
+                    throw new IllegalArgumentException("bad search");
+                }
+            );
+            Assert.fail();
+        } catch (final IllegalArgumentException iae) {
+            Assert.assertThat(iae.getMessage(), Matchers.is("bad search"));
+        }
+        Assert.assertThat(this.cache.size(), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure a status change to a job in the results evicts them.
+     */
+    @Test
+    public void canEvictResultsContainingJob() {
+        final String id = UUID.randomUUID().toString();
+        final JobSearchResultCache.Key key = this.key("tgianos", Sets.newHashSet(JobStatus.INIT), null);
+        this.cache.get(key, this.loader(this.results(id)));
+        this.cache.onJobStatusChanged(new JobStatusChangedEvent(id, JobStatus.INIT, JobStatus.RUNNING, null, this));
+        Assert.assertThat(this.cache.size(), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure a new job evicts searches it could show up in.
+     */
+    @Test
+    public void canEvictResultsOnNewJob() {
+        final String id = UUID.randomUUID().toString();
+        this.cache.get(this.key("tgianos", null, null), this.loader(this.results(id)));
+        this.cache.get(this.key("tgianos", Sets.newHashSet(JobStatus.FAILED), null), this.loader(this.results(id)));
+        this.cache.onJobStatusChanged(
+            new JobStatusChangedEvent(UUID.randomUUID().toString(), null, JobStatus.INIT, null, this)
+        );
+        Assert.assertThat(this.cache.size(), Matchers.is(1L));
+    }
+
+    /**
+     * Make sure a status change only evicts searches for the statuses involved.
+     */
+    @Test
+    public void canEvictResultsByStatus() {
+        final String id = UUID.randomUUID().toString();
+        final String otherId = UUID.randomUUID().toString();
+        this.cache.get(this.key("tgianos", Sets.newHashSet(JobStatus.RUNNING), null), this.loader(this.results(id)));
+        this.cache.get(this.key("tgianos", Sets.newHashSet(JobStatus.FAILED), null), this.loader(this.results(id)));
+        this.cache.get(this.key("tgianos", Sets.newHashSet(JobStatus.KILLED), null), this.loader(this.results(id)));
+        this.cache.get(this.key("tgianos", null, null), this.loader(this.results(id)));
+        this.cache.onJobStatusChanged(
+            new JobStatusChangedEvent(otherId, JobStatus.RUNNING, JobStatus.FAILED, null, this)
+        );
+        Assert.assertThat(this.cache.size(), Matchers.is(2L));
+        this.cache.get(this.key("tgianos", Sets.newHashSet(JobStatus.KILLED), null), this.loader(this.results(id)));
+        this.cache.get(this.key("tgianos", null, null), this.loader(this.results(id)));
+        Assert.assertThat(this.loads.get(), Matchers.is(4));
+    }
+
+    /**
+     * Make sure any status change evicts searches on start or finish times.
+     */
+    @Test
+    public void canEvictResultsWithTimeFilters() {
+        this.cache.get(this.key("tgianos", null, new Date()), this.loader(this.results(UUID.randomUUID().toString())));
+        this.cache.onJobStatusChanged(
+            new JobStatusChangedEvent(UUID.randomUUID().toString(), JobStatus.RUNNING, JobStatus.KILLED, null, this)
+        );
+        Assert.assertThat(this.cache.size(), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure any status change evicts searches without a status filter which are sorted on a field the change
+     * updates as the job could move onto or within the cached page.
+     */
+    @Test
+    public void canEvictResultsSortedByChangingField() {
+        final String id = UUID.randomUUID().toString();
+        this.cache.get(
+            this.key("tgianos", null, null, new PageRequest(0, 10, Sort.Direction.DESC, "updated")),
+            this.loader(this.results(id))
+        );
+        this.cache.get(
+            this.key("tgianos", null, null, new PageRequest(0, 10, Sort.Direction.DESC, "created")),
+            this.loader(this.results(id))
+        );
+        this.cache.onJobStatusChanged(
+            new JobStatusChangedEvent(UUID.randomUUID().toString(), JobStatus.INIT, JobStatus.RUNNING, null, this)
+        );
+        Assert.assertThat(this.cache.size(), Matchers.is(1L));
+        this.cache.get(
+            this.key("tgianos", null, null, new PageRequest(0, 10, Sort.Direction.DESC, "created")),
+            this.loader(this.results(id))
+        );
+        Assert.assertThat(this.loads.get(), Matchers.is(2));
+    }
+
+    private JobSearchResultCache.Key key(final String user, final Set<JobStatus> statuses, final Date minStarted) {
+        return this.key(user, statuses, minStarted, new PageRequest(0, 10));
+    }
+
+    private JobSearchResultCache.Key key(
+        final String user,
+        final Set<JobStatus> statuses,
+        final Date minStarted,
+        final PageRequest page
+    ) {
+        return new JobSearchResultCache.Key(
+            null,
+            null,
+            user,
+            statuses,
+            Sets.newHashSet(),
+            null,
+            null,
+            null,
+            null,
+            minStarted,
+            null,
+            null,
+            null,
+            page
+        );
+    }
+
+    private Page<JobSearchResult> results(final String id) {
+        return new PageImpl<>(
+            Lists.newArrayList(
+                new JobSearchResult(id, "name", "tgianos", JobStatus.RUNNING, new Date(), null, "cluster", "command")
+            )
+        );
+    }
+
+    private Supplier<Page<JobSearchResult>> loader(final Page<JobSearchResult> results) {
+        return () -> {
+            this.loads.incrementAndGet();
+            return results;
+        };
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for the JobStatusCache.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatusCacheUnitTests {
+
+    private JobStatusCache cache;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.cache = new JobStatusCache(60000L, 60000L, 10L);
+    }
+
+    /**
+     * Make sure nothing is returned for a job which isn't cached.
+     */
+    @Test
+    public void cantGetUncachedStatus() {
+        Assert.assertNull(this.cache.get(UUID.randomUUID().toString()));
+        Assert.assertThat(this.cache.size(), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure a job can move from active to finished in the cache.
+     */
+    @Test
+    public void canPutAndGetStatus() {
+        final String id = UUID.randomUUID().toString();
+        this.cache.put(id, JobStatus.INIT);
+        Assert.assertThat(this.cache.get(id), Matchers.is(JobStatus.INIT));
+        this.cache.put(id, JobStatus.RUNNING);
+        Assert.assertThat(this.cache.get(id), Matchers.is(JobStatus.RUNNING));
+        this.cache.put(id, JobStatus.SUCCEEDED);
+        Assert.assertThat(this.cache.get(id), Matchers.is(JobStatus.SUCCEEDED));
+        Assert.assertThat(this.cache.size(), Matchers.is(1L));
+    }
+
+    /**
+     * Make sure a late write of an active status never hides the finished status of a job.
+     */
+    @Test
+    public void finishedStatusWins() {
+        final String id = UUID.randomUUID().toString();
+        this.cache.put(id, JobStatus.FAILED);
+        this.cache.put(id, JobStatus.RUNNING);
+        Assert.assertThat(this.cache.get(id), Matchers.is(JobStatus.FAILED));
+    }
+
+    /**
+     * Make sure active statuses expire on their own schedule.
+     */
+    @Test
+    public void activeStatusesExpire() {
+        this.cache = new JobStatusCache(0L, 60000L, 10L);
+        final String activeId = UUID.randomUUID().toString();
+        final String finishedId = UUID.randomUUID().toString();
+        this.cache.put(activeId, JobStatus.RUNNING);
+        this.cache.put(finishedId, JobStatus.KILLED);
+        Assert.assertNull(this.cache.get(activeId));
+        Assert.assertThat(this.cache.get(finishedId), Matchers.is(JobStatus.KILLED));
+    }
+
+    /**
+     * Make sure status change events are written through to the cache.
+     */
+    @Test
+    public void canWriteThroughStatusChanges() {
+        final String id = UUID.randomUUID().toString();
+        this.cache.onJobStatusChanged(new JobStatusChangedEvent(id, JobStatus.INIT, JobStatus.RUNNING, null, this));
+        Assert.assertThat(this.cache.get(id), Matchers.is(JobStatus.RUNNING));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.entities;
+
+import com.netflix.genie.common.dto.JobOutputSummary;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for the JobOutputSummaryEntity class.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobOutputSummaryEntityUnitTests {
+
+    private JobOutputSummaryEntity entity;
+
+    /**
+     * Setup the for each test.
+     *
+     * @throws GenieException on error
+     */
+    @Before
+    public void setup() throws GenieException {
+        this.entity = new JobOutputSummaryEntity();
+        this.entity.setId(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Make sure a summary survives the round trip through the entity.
+     */
+    @Test
+    public void canSetSummaryAndGetDTO() {
+        final JobOutputSummary summary = new JobOutputSummary(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            234L,
+            UUID.randomUUID().toString(),
+            "",
+            12L
+        );
+        this.entity.setSummary(summary);
+
+        Assert.assertThat(this.entity.getStdoutHead(), Matchers.is(summary.getStdoutHead()));
+        Assert.assertThat(this.entity.getStdoutTail(), Matchers.is(summary.getStdoutTail()));
+        Assert.assertThat(this.entity.getStdoutSize(), Matchers.is(234L));
+        Assert.assertThat(this.entity.getStderrHead(), Matchers.is(summary.getStderrHead()));
+        Assert.assertThat(this.entity.getStderrTail(), Matchers.is(""));
+        Assert.assertThat(this.entity.getStderrSize(), Matchers.is(12L));
+        Assert.assertThat(this.entity.getDTO(), Matchers.is(summary));
+    }
+
+    /**
+     * Make sure null columns come back as empty output.
+     */
+    @Test
+    public void canGetDTOWithNullColumns() {
+        final JobOutputSummary summary = this.entity.getDTO();
+        Assert.assertThat(summary.getStdoutHead(), Matchers.is(""));
+        Assert.assertThat(summary.getStderrTail(), Matchers.is(""));
+        Assert.assertThat(summary.getStdoutSize(), Matchers.is(0L));
+    }
+}
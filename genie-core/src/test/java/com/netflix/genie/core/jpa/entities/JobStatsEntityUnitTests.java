@@ -0,0 +1,113 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.entities;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.search.JobStatistic;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Unit tests for the JobStatsEntity class.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatsEntityUnitTests {
+
+    private JobStatsEntity entity;
+
+    /**
+     * Setup the for each test.
+     *
+     * @throws GenieException on error
+     */
+    @Before
+    public void setup() throws GenieException {
+        this.entity = new JobStatsEntity();
+        this.entity.setId(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Make sure the hour is defensively copied.
+     */
+    @Test
+    public void canSetHour() {
+        Assert.assertNull(this.entity.getHour());
+        final Date hour = new Date(3600000L);
+        this.entity.setHour(hour);
+        hour.setTime(0L);
+        Assert.assertThat(this.entity.getHour().getTime(), Matchers.is(3600000L));
+        this.entity.setHour(null);
+        Assert.assertNull(this.entity.getHour());
+    }
+
+    /**
+     * Make sure the DTO contains all the dimensions and the count.
+     */
+    @Test
+    public void canGetDTO() {
+        final Date hour = new Date(7200000L);
+        final String hostName = UUID.randomUUID().toString();
+        final String user = UUID.randomUUID().toString();
+        final String clusterName = UUID.randomUUID().toString();
+        final String commandName = UUID.randomUUID().toString();
+        final long count = 3242L;
+
+        this.entity.setHour(hour);
+        this.entity.setHostName(hostName);
+        this.entity.setStatus(JobStatus.KILLED);
+        this.entity.setUser(user);
+        this.entity.setClusterName(clusterName);
+        this.entity.setCommandName(commandName);
+        this.entity.setCount(count);
+
+        Assert.assertThat(this.entity.getHostName(), Matchers.is(hostName));
+
+        final JobStatistic statistic = this.entity.getDTO();
+        Assert.assertThat(statistic.getHour(), Matchers.is(hour));
+        Assert.assertThat(statistic.getStatus(), Matchers.is(JobStatus.KILLED));
+        Assert.assertThat(statistic.getUser(), Matchers.is(user));
+        Assert.assertThat(statistic.getClusterName(), Matchers.is(clusterName));
+        Assert.assertThat(statistic.getCommandName(), Matchers.is(commandName));
+        Assert.assertThat(statistic.getCount(), Matchers.is(count));
+    }
+
+    /**
+     * Make sure dates are truncated to the start of the hour.
+     */
+    @Test
+    public void canTruncateToHour() {
+        final long hour = 3600000L;
+        Assert.assertThat(JobStatsEntity.truncateToHour(new Date(5 * hour)).getTime(), Matchers.is(5 * hour));
+        Assert.assertThat(JobStatsEntity.truncateToHour(new Date(5 * hour + 1L)).getTime(), Matchers.is(5 * hour));
+        Assert.assertThat(
+            JobStatsEntity.truncateToHour(new Date(6 * hour - 1L)).getTime(),
+            Matchers.is(5 * hour)
+        );
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.entities;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobStatusTransition;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Unit tests for the JobStatusHistoryEntity class.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatusHistoryEntityUnitTests {
+
+    private JobStatusHistoryEntity entity;
+
+    /**
+     * Setup the for each test.
+     *
+     * @throws GenieException on error
+     */
+    @Before
+    public void setup() throws GenieException {
+        this.entity = new JobStatusHistoryEntity();
+        this.entity.setId(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Make sure the time is defensively copied.
+     */
+    @Test
+    public void canSetTime() {
+        Assert.assertNull(this.entity.getTime());
+        final Date time = new Date(3600000L);
+        this.entity.setTime(time);
+        time.setTime(0L);
+        Assert.assertThat(this.entity.getTime().getTime(), Matchers.is(3600000L));
+        this.entity.getTime().setTime(0L);
+        Assert.assertThat(this.entity.getTime().getTime(), Matchers.is(3600000L));
+        this.entity.setTime(null);
+        Assert.assertNull(this.entity.getTime());
+    }
+
+    /**
+     * Make sure the DTO contains everything about the transition.
+     */
+    @Test
+    public void canGetDTO() {
+        final String jobId = UUID.randomUUID().toString();
+        final String statusMsg = UUID.randomUUID().toString();
+        final String hostName = UUID.randomUUID().toString();
+        final Date time = new Date(7200000L);
+
+        this.entity.setJobId(jobId);
+        this.entity.setPreviousStatus(JobStatus.INIT);
+        this.entity.setStatus(JobStatus.RUNNING);
+        this.entity.setStatusMsg(statusMsg);
+        this.entity.setTime(time);
+        this.entity.setHostName(hostName);
+
+        Assert.assertThat(this.entity.getJobId(), Matchers.is(jobId));
+
+        final JobStatusTransition transition = this.entity.getDTO();
+        Assert.assertThat(transition.getPreviousStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(transition.getStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(transition.getStatusMsg(), Matchers.is(statusMsg));
+        Assert.assertThat(transition.getTime(), Matchers.is(time));
+        Assert.assertThat(transition.getHostName(), Matchers.is(hostName));
+    }
+}
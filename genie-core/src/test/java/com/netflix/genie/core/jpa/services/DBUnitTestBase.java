@@ -19,7 +19,14 @@ package com.netflix.genie.core.jpa.services;
 
 import com.github.springtestdbunit.TransactionDbUnitTestExecutionListener;
 import com.netflix.genie.GenieCoreTestApplication;
+import com.netflix.genie.common.exceptions.GenieException;
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestExecutionListeners;
@@ -28,6 +35,8 @@ import org.springframework.test.context.support.DependencyInjectionTestExecution
 import org.springframework.test.context.support.DirtiesContextTestExecutionListener;
 import org.springframework.test.context.transaction.TransactionalTestExecutionListener;
 
+import javax.persistence.EntityManagerFactory;
+
 /**
  * Base class to save on configuration.
  *
@@ -45,4 +54,54 @@ import org.springframework.test.context.transaction.TransactionalTestExecutionLi
 )
 @ActiveProfiles("integration")
 public abstract class DBUnitTestBase {
+
+    @Autowired
+    private EntityManagerFactory baseEntityManagerFactory;
+
+    /**
+     * DBUnit writes straight to the database so drop anything Hibernate cached from the data of a previous test.
+     */
+    @Before
+    public void evictCaches() {
+        this.baseEntityManagerFactory.getCache().evictAll();
+        this.baseEntityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    /**
+     * Run some work against the database and make sure it sends exactly the expected number of SQL statements.
+     * Keeps the list, search and resolution paths honest about what they fetch.
+     *
+     * @param expectedStatements The number of statements the work should prepare
+     * @param work               The work to run
+     * @param <T>                The type of result the work produces
+     * @return The result of the work
+     * @throws GenieException For any problem running the work
+     */
+    protected <T> T assertStatementCount(
+        final long expectedStatements,
+        final DatabaseWork<T> work
+    ) throws GenieException {
+        final Statistics statistics = this.baseEntityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        final T result = work.run();
+        Assert.assertThat(statistics.getPrepareStatementCount(), Matchers.is(expectedStatements));
+        return result;
+    }
+
+    /**
+     * Some unit of work against the database whose statements should be counted.
+     *
+     * @param <T> The type of result the work produces
+     */
+    @FunctionalInterface
+    protected interface DatabaseWork<T> {
+
+        /**
+         * Run the work.
+         *
+         * @return The result of the work
+         * @throws GenieException For any problem
+         */
+        T run() throws GenieException;
+    }
 }
@@ -21,15 +21,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.springtestdbunit.annotation.DatabaseSetup;
 import com.github.springtestdbunit.annotation.DatabaseTearDown;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterCriteria;
 import com.netflix.genie.common.dto.ClusterStatus;
 import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.core.services.ClusterService;
 import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.test.categories.IntegrationTest;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -41,6 +47,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mapping.PropertyReferenceException;
 
+import javax.persistence.EntityManagerFactory;
 import javax.validation.ConstraintViolationException;
 import java.io.IOException;
 import java.net.HttpURLConnection;
@@ -88,6 +95,9 @@ public class JpaClusterServiceImplIntegrationTests extends DBUnitTestBase {
     @Autowired
     private CommandService commandService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     /**
      * Test the get cluster method.
      *
@@ -282,6 +292,123 @@ public class JpaClusterServiceImplIntegrationTests extends DBUnitTestBase {
 
     // TODO Add tests where jobRequest object is
 
+    /**
+     * Make sure the clusters resolved for a job request are served from the query cache until a cluster changes.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canCacheClustersForJobRequest() throws GenieException {
+        final JobRequest jobRequest = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("pig"))),
+            Sets.newHashSet("pig")
+        ).build();
+        final Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Cluster> clusters = this.service.chooseClusterForJobRequest(jobRequest);
+        Assert.assertThat(clusters.size(), Matchers.is(2));
+        Assert.assertThat(statistics.getQueryCacheMissCount(), Matchers.is(1L));
+        Assert.assertThat(statistics.getQueryCachePutCount(), Matchers.is(1L));
+
+        clusters = this.service.chooseClusterForJobRequest(jobRequest);
+        Assert.assertThat(clusters.size(), Matchers.is(2));
+        Assert.assertThat(statistics.getQueryCacheHitCount(), Matchers.is(1L));
+
+        // Taking a cluster out of service has to invalidate the cached resolution
+        final Cluster cluster2 = this.service.getCluster(CLUSTER_2_ID);
+        this.service.updateCluster(
+            CLUSTER_2_ID,
+            new Cluster.Builder(
+                cluster2.getName(),
+                cluster2.getUser(),
+                cluster2.getVersion(),
+                ClusterStatus.OUT_OF_SERVICE
+            )
+                .withId(cluster2.getId())
+                .withCreated(cluster2.getCreated())
+                .withUpdated(cluster2.getUpdated())
+                .withDescription(cluster2.getDescription())
+                .withTags(cluster2.getTags())
+                .withConfigs(cluster2.getConfigs())
+                .build()
+        );
+
+        clusters = this.service.chooseClusterForJobRequest(jobRequest);
+        Assert.assertThat(clusters.size(), Matchers.is(1));
+        Assert.assertThat(clusters.get(0).getId(), Matchers.is(CLUSTER_1_ID));
+        Assert.assertThat(statistics.getQueryCacheHitCount(), Matchers.is(1L));
+        Assert.assertThat(statistics.getQueryCacheMissCount(), Matchers.is(2L));
+    }
+
+    /**
+     * Make sure a page of clusters costs a count, the page itself and one batch for all the configs on the page.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canGetClustersWithoutLoadingCollectionsPerCluster() throws GenieException {
+        final Page<Cluster> clusters = this.assertStatementCount(
+            3L,
+            () -> this.service.getClusters(null, null, null, null, null, PAGE)
+        );
+        Assert.assertThat(clusters.getNumberOfElements(), Matchers.is(2));
+        clusters.forEach(cluster -> Assert.assertFalse(cluster.getConfigs().isEmpty()));
+    }
+
+    /**
+     * Make sure getting a single cluster doesn't pull its commands along with it.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canGetClusterWithoutLoadingCommands() throws GenieException {
+        final Cluster cluster = this.assertStatementCount(2L, () -> this.service.getCluster(CLUSTER_2_ID));
+        Assert.assertThat(cluster.getConfigs().size(), Matchers.is(2));
+    }
+
+    /**
+     * Make sure resolving clusters for a job only loads the clusters and their configs.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canChooseClusterForJobRequestWithoutLoadingCommands() throws GenieException {
+        final JobRequest jobRequest = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("pig"))),
+            Sets.newHashSet("pig")
+        ).build();
+
+        final List<Cluster> clusters = this.assertStatementCount(
+            2L,
+            () -> this.service.chooseClusterForJobRequest(jobRequest)
+        );
+        Assert.assertThat(clusters.size(), Matchers.is(2));
+    }
+
+    /**
+     * Make sure the commands of a cluster load their configs in one batch rather than one query per command.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canGetCommandsForClusterWithoutLoadingCollectionsPerCommand() throws GenieException {
+        final List<Command> commands = this.assertStatementCount(
+            3L,
+            () -> this.service.getCommandsForCluster(CLUSTER_1_ID, null)
+        );
+        Assert.assertThat(commands.size(), Matchers.is(3));
+        commands.forEach(command -> Assert.assertFalse(command.getConfigs().isEmpty()));
+    }
+
     /**
      * Test the create method.
      *
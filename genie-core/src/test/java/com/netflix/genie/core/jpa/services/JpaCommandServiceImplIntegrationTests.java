@@ -22,6 +22,7 @@ import com.github.fge.jsonpatch.JsonPatch;
 import com.github.springtestdbunit.annotation.DatabaseSetup;
 import com.github.springtestdbunit.annotation.DatabaseTearDown;
 import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.CommandStatus;
@@ -136,6 +137,36 @@ public class JpaCommandServiceImplIntegrationTests extends DBUnitTestBase {
         Assert.assertEquals(1, command3.getConfigs().size());
     }
 
+    /**
+     * Make sure a page of commands costs a count, the page itself and one batch for all the configs on the page.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canGetCommandsWithoutLoadingCollectionsPerCommand() throws GenieException {
+        final Page<Command> commands = this.assertStatementCount(
+            3L,
+            () -> this.service.getCommands(null, null, null, null, PAGE)
+        );
+        Assert.assertThat(commands.getNumberOfElements(), Matchers.is(3));
+        commands.forEach(command -> Assert.assertFalse(command.getConfigs().isEmpty()));
+    }
+
+    /**
+     * Make sure the applications of a command load their configs and dependencies in a batch each.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canGetApplicationsForCommandWithoutLoadingCollectionsPerApplication() throws GenieException {
+        final List<Application> applications = this.assertStatementCount(
+            4L,
+            () -> this.service.getApplicationsForCommand(COMMAND_1_ID)
+        );
+        Assert.assertThat(applications.size(), Matchers.is(1));
+        Assert.assertThat(applications.get(0).getId(), Matchers.is(APP_1_ID));
+    }
+
     /**
      * Test the get command method.
      *
@@ -19,19 +19,52 @@ package com.netflix.genie.core.jpa.services;
 
 import com.github.springtestdbunit.annotation.DatabaseSetup;
 import com.github.springtestdbunit.annotation.DatabaseTearDown;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobOutputSummary;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobStatusTransition;
+import com.netflix.genie.common.dto.search.JobStatistic;
+import com.netflix.genie.common.dto.search.JobStatisticDimension;
+import com.netflix.genie.common.exceptions.GenieConflictException;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jpa.entities.ApplicationEntity;
+import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import com.netflix.genie.core.jpa.entities.JobEntity;
+import com.netflix.genie.core.jpa.entities.JobExecutionEntity;
+import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
+import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatusHistoryRepository;
+import com.netflix.genie.core.jpa.repositories.JpaNodeHeartbeatRepository;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.test.categories.IntegrationTest;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Integration tests for JpaJobPersistenceImpl.
@@ -44,8 +77,17 @@ import java.util.Calendar;
 @DatabaseTearDown("cleanup.xml")
 public class JpaJobPersistenceImplIntegrationTests extends DBUnitTestBase {
 
+    private static final String JOB_1_ID = "job1";
+    private static final String JOB_2_ID = "job2";
     private static final String JOB_3_ID = "job3";
+    private static final String APP_1_ID = "app1";
+    private static final String CLUSTER_1_ID = "cluster1";
+    private static final long ONE_HOUR = 60L * 60L * 1000L;
 
+    @Autowired
+    private JpaApplicationRepository applicationRepository;
+    @Autowired
+    private JpaClusterRepository clusterRepository;
     @Autowired
     private JpaJobExecutionRepository jobExecutionRepository;
     @Autowired
@@ -53,7 +95,15 @@ public class JpaJobPersistenceImplIntegrationTests extends DBUnitTestBase {
     @Autowired
     private JpaJobRepository jobRepository;
     @Autowired
+    private JpaNodeHeartbeatRepository nodeHeartbeatRepository;
+    @Autowired
+    private JpaJobStatusHistoryRepository jobStatusHistoryRepository;
+    @Autowired
     private JobPersistenceService jobPersistenceService;
+    @Autowired
+    private JobSearchService jobSearchService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     /**
      * Make sure we can delete jobs that were created before a given date.
@@ -63,20 +113,387 @@ public class JpaJobPersistenceImplIntegrationTests extends DBUnitTestBase {
         Assert.assertThat(this.jobExecutionRepository.count(), Matchers.is(3L));
         Assert.assertThat(this.jobRequestRepository.count(), Matchers.is(3L));
         Assert.assertThat(this.jobRepository.count(), Matchers.is(3L));
+        Assert.assertThat(this.jobStatusHistoryRepository.count(), Matchers.is(4L));
 
         // Try to delete all jobs before Jan 1, 2016
         final Calendar cal = Calendar.getInstance(JobConstants.UTC);
         cal.set(2016, Calendar.JANUARY, 1, 0, 0, 0);
         cal.set(Calendar.MILLISECOND, 0);
 
-        final long deleted = this.jobPersistenceService.deleteAllJobsCreatedBeforeDate(cal.getTime());
+        final long deleted = this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(cal.getTime(), 100);
 
         Assert.assertThat(deleted, Matchers.is(2L));
         Assert.assertThat(this.jobExecutionRepository.count(), Matchers.is(1L));
         Assert.assertThat(this.jobRequestRepository.count(), Matchers.is(1L));
         Assert.assertThat(this.jobRepository.count(), Matchers.is(1L));
+        Assert.assertThat(this.jobStatusHistoryRepository.count(), Matchers.is(1L));
         Assert.assertNotNull(this.jobExecutionRepository.getOne(JOB_3_ID));
         Assert.assertNotNull(this.jobRequestRepository.getOne(JOB_3_ID));
         Assert.assertNotNull(this.jobRepository.getOne(JOB_3_ID));
     }
+
+    /**
+     * Make sure deleting a batch of old jobs leaves the catalog entities in the second level cache.
+     */
+    @Test
+    public void canDeleteJobsCreatedBeforeDateWithoutEvictingCatalogCaches() {
+        Assert.assertNotNull(this.applicationRepository.findOne(APP_1_ID));
+        Assert.assertNotNull(this.clusterRepository.findOne(CLUSTER_1_ID));
+        final Cache cache = this.entityManagerFactory.getCache();
+        Assert.assertTrue(cache.contains(ApplicationEntity.class, APP_1_ID));
+        Assert.assertTrue(cache.contains(ClusterEntity.class, CLUSTER_1_ID));
+
+        final Calendar cal = Calendar.getInstance(JobConstants.UTC);
+        cal.set(2016, Calendar.JANUARY, 1, 0, 0, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        Assert.assertThat(
+            this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(cal.getTime(), 100),
+            Matchers.is(2L)
+        );
+
+        Assert.assertTrue(cache.contains(ApplicationEntity.class, APP_1_ID));
+        Assert.assertTrue(cache.contains(ClusterEntity.class, CLUSTER_1_ID));
+    }
+
+    /**
+     * Make sure old jobs can be deleted a batch at a time along with everything that belongs to them.
+     */
+    @Test
+    public void canDeleteJobsCreatedBeforeDateInBatches() {
+        final Calendar cal = Calendar.getInstance(JobConstants.UTC);
+        cal.set(2016, Calendar.JANUARY, 1, 0, 0, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        final Date date = cal.getTime();
+
+        Assert.assertThat(this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(date, 1), Matchers.is(1L));
+        Assert.assertThat(this.jobRequestRepository.count(), Matchers.is(2L));
+        Assert.assertThat(this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(date, 1), Matchers.is(1L));
+        Assert.assertThat(this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(date, 1), Matchers.is(0L));
+
+        Assert.assertThat(this.jobExecutionRepository.count(), Matchers.is(1L));
+        Assert.assertThat(this.jobRequestRepository.count(), Matchers.is(1L));
+        Assert.assertThat(this.jobRepository.count(), Matchers.is(1L));
+        Assert.assertNotNull(this.jobRepository.findOne(JOB_3_ID));
+    }
+
+    /**
+     * Make sure only the first caller sets the exit code and finishes the job.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSetExitCodeOnlyOnce() throws GenieException {
+        Assert.assertTrue(this.jobPersistenceService.setExitCode(JOB_2_ID, 1));
+        Assert.assertFalse(this.jobPersistenceService.setExitCode(JOB_2_ID, 1));
+        try {
+            this.jobPersistenceService.setExitCode(JOB_2_ID, JobExecution.LOST_EXIT_CODE);
+            Assert.fail("Expected the exit code not to change");
+        } catch (final GeniePreconditionException gpe) {
+            // Expected
+        }
+
+        Assert.assertThat(this.jobExecutionRepository.findOne(JOB_2_ID).getExitCode(), Matchers.is(1));
+        final JobEntity jobEntity = this.jobRepository.findOne(JOB_2_ID);
+        Assert.assertThat(jobEntity.getStatus(), Matchers.is(JobStatus.FAILED));
+        Assert.assertThat(jobEntity.getStatusMsg(), Matchers.is("Job failed."));
+        Assert.assertNotNull(jobEntity.getFinished());
+    }
+
+    /**
+     * Make sure each step of a job's lifecycle takes a fixed, small number of statements and never loads the job.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canTransitionJobWithoutLoadingIt() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        final Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Creation is one insert of the request and one of the job, with no reads to check for duplicates
+        statistics.clear();
+        this.jobPersistenceService.createJobAndRequest(this.createJobRequest(id), "localhost", this.createJob(id));
+        Assert.assertThat(statistics.getPrepareStatementCount(), Matchers.is(2L));
+        Assert.assertThat(statistics.getEntityLoadCount(), Matchers.is(0L));
+        Assert.assertThat(this.jobRequestRepository.findOne(id).getClientHost(), Matchers.is("localhost"));
+
+        // INIT -> RUNNING is one update of the job and one insert of the execution
+        statistics.clear();
+        this.jobPersistenceService.createJobExecution(
+            new JobExecution.Builder("a.netflix.com", 320, 10000L, new Date()).withId(id).build()
+        );
+        Assert.assertThat(statistics.getPrepareStatementCount(), Matchers.is(2L));
+        Assert.assertThat(statistics.getEntityLoadCount(), Matchers.is(0L));
+
+        // RUNNING -> SUCCEEDED is one update of the exit code, one read of the status and one update of the job
+        statistics.clear();
+        Assert.assertTrue(this.jobPersistenceService.setExitCode(id, JobExecution.SUCCESS_EXIT_CODE));
+        Assert.assertThat(statistics.getPrepareStatementCount(), Matchers.is(3L));
+        Assert.assertThat(statistics.getEntityLoadCount(), Matchers.is(0L));
+
+        // Any other update is one read of the status and one update of the job
+        statistics.clear();
+        this.jobPersistenceService.updateJobStatus(id, JobStatus.FAILED, "Failed after the fact");
+        Assert.assertThat(statistics.getPrepareStatementCount(), Matchers.is(2L));
+        Assert.assertThat(statistics.getEntityLoadCount(), Matchers.is(0L));
+
+        final JobEntity jobEntity = this.jobRepository.findOne(id);
+        Assert.assertThat(jobEntity.getStatus(), Matchers.is(JobStatus.FAILED));
+        Assert.assertNotNull(jobEntity.getStarted());
+        Assert.assertNotNull(jobEntity.getFinished());
+        final JobExecutionEntity jobExecutionEntity = this.jobExecutionRepository.findOne(id);
+        Assert.assertThat(jobExecutionEntity.getHostName(), Matchers.is("a.netflix.com"));
+        Assert.assertThat(jobExecutionEntity.getExitCode(), Matchers.is(JobExecution.SUCCESS_EXIT_CODE));
+    }
+
+    /**
+     * Make sure all the running jobs on a host, and only those, are marked lost at once.
+     */
+    @Test
+    public void canMarkJobsOnHostLost() {
+        Assert.assertThat(this.jobPersistenceService.markJobsOnHostLost("a.netflix.com"), Matchers.is(1));
+        Assert.assertThat(this.jobPersistenceService.markJobsOnHostLost("a.netflix.com"), Matchers.is(0));
+
+        final JobEntity lostJob = this.jobRepository.findOne(JOB_2_ID);
+        Assert.assertThat(lostJob.getStatus(), Matchers.is(JobStatus.FAILED));
+        Assert.assertThat(
+            lostJob.getStatusMsg(),
+            Matchers.is("Genie leader can't reach node running job. Assuming node and job are lost.")
+        );
+        Assert.assertNotNull(lostJob.getFinished());
+        Assert.assertThat(
+            this.jobExecutionRepository.findOne(JOB_2_ID).getExitCode(),
+            Matchers.is(JobExecution.LOST_EXIT_CODE)
+        );
+
+        // The finished job on the same host and the job on the other host are untouched
+        Assert.assertThat(this.jobRepository.findOne(JOB_1_ID).getStatus(), Matchers.is(JobStatus.SUCCEEDED));
+        Assert.assertThat(this.jobExecutionRepository.findOne(JOB_1_ID).getExitCode(), Matchers.is(0));
+        Assert.assertThat(this.jobRepository.findOne(JOB_3_ID).getStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(
+            this.jobExecutionRepository.findOne(JOB_3_ID).getExitCode(),
+            Matchers.is(JobExecution.DEFAULT_EXIT_CODE)
+        );
+    }
+
+    /**
+     * Make sure hosts writing heartbeats are no longer considered stale.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSaveNodeHeartbeat() throws GenieException {
+        final Date since = new Date(System.currentTimeMillis() - ONE_HOUR);
+        Assert.assertThat(
+            this.jobSearchService.getAllHostsRunningJobsWithoutHeartbeatSince(since),
+            Matchers.containsInAnyOrder("a.netflix.com", "b.netflix.com")
+        );
+
+        this.jobPersistenceService.saveNodeHeartbeat("b.netflix.com", 1);
+        this.jobPersistenceService.saveNodeHeartbeat("b.netflix.com", 2);
+
+        Assert.assertThat(
+            this.jobSearchService.getAllHostsRunningJobsWithoutHeartbeatSince(since),
+            Matchers.contains("a.netflix.com")
+        );
+        Assert.assertThat(this.nodeHeartbeatRepository.findOne("b.netflix.com").getRunningJobs(), Matchers.is(2));
+    }
+
+    /**
+     * Make sure a job can't be created with the id of an existing job.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieConflictException.class)
+    public void cantCreateJobAndRequestWithExistingId() throws GenieException {
+        this.jobPersistenceService.createJobAndRequest(this.createJobRequest(JOB_1_ID), null, this.createJob(JOB_1_ID));
+    }
+
+    /**
+     * Make sure the status history of a job comes back in the order the transitions happened.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canGetJobStatusHistory() throws GenieException {
+        final List<JobStatusTransition> history = this.jobSearchService.getJobStatusHistory(JOB_1_ID);
+        Assert.assertThat(history.size(), Matchers.is(3));
+        Assert.assertThat(history.get(0).getPreviousStatus(), Matchers.nullValue());
+        Assert.assertThat(history.get(0).getStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(history.get(1).getPreviousStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(history.get(1).getStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(history.get(2).getPreviousStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(history.get(2).getStatus(), Matchers.is(JobStatus.SUCCEEDED));
+        Assert.assertThat(history.get(2).getHostName(), Matchers.is("a.netflix.com"));
+        Assert.assertThat(
+            history.get(2).getTime().getTime() - history.get(1).getTime().getTime(),
+            Matchers.is(ONE_HOUR + 9L * 60L * 1000L)
+        );
+
+        // Job 2 exists but nothing has been recorded for it
+        Assert.assertThat(this.jobSearchService.getJobStatusHistory(JOB_2_ID), Matchers.empty());
+    }
+
+    /**
+     * Make sure asking for the status history of a job which doesn't exist fails.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantGetJobStatusHistoryForMissingJob() throws GenieException {
+        this.jobSearchService.getJobStatusHistory(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Make sure status changes are appended to the history and writing them again doesn't duplicate them.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canAddJobStatusHistory() throws GenieException {
+        final String hostName = UUID.randomUUID().toString();
+        final List<JobStatusChangedEvent> changes = Lists.newArrayList(
+            new JobStatusChangedEvent(JOB_2_ID, null, JobStatus.INIT, "Init", this),
+            new JobStatusChangedEvent(JOB_2_ID, JobStatus.INIT, JobStatus.RUNNING, "Running", this)
+        );
+
+        Assert.assertThat(this.jobPersistenceService.addJobStatusHistory(hostName, changes), Matchers.is(2));
+        Assert.assertThat(this.jobPersistenceService.addJobStatusHistory(hostName, changes), Matchers.is(0));
+
+        final List<JobStatusTransition> history = this.jobSearchService.getJobStatusHistory(JOB_2_ID);
+        Assert.assertThat(history.size(), Matchers.is(2));
+        for (final JobStatusTransition transition : history) {
+            Assert.assertThat(transition.getHostName(), Matchers.is(hostName));
+        }
+        Assert.assertThat(this.jobStatusHistoryRepository.count(), Matchers.is(6L));
+    }
+
+    /**
+     * Make sure latin1 and 4 byte UTF-8 characters in a job output summary are stored and read back intact.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSaveAndGetOutputSummaryWithNonAsciiCharacters() throws GenieException {
+        final String latin1 = "Caf\u00e9 cr\u00e8me \u00fcber \u00f1";
+        final String fourByte = "Done \uD83D\uDE00 \uD834\uDD1E";
+        final JobOutputSummary summary = new JobOutputSummary(latin1, fourByte, 123L, fourByte, latin1, 456L);
+
+        this.jobPersistenceService.saveJobOutputSummary(JOB_1_ID, summary);
+
+        Assert.assertThat(this.jobSearchService.getJobOutputSummary(JOB_1_ID), Matchers.is(summary));
+    }
+
+    /**
+     * Make sure job status changes are rolled up into the hourly statistics and can be queried back grouped by
+     * different dimensions.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canAddAndGetJobStatistics() throws GenieException {
+        final String hostName = UUID.randomUUID().toString();
+        final List<JobStatusChangedEvent> changes = Lists.newArrayList(
+            new JobStatusChangedEvent(JOB_1_ID, JobStatus.RUNNING, JobStatus.SUCCEEDED, "Done", this),
+            new JobStatusChangedEvent(JOB_2_ID, JobStatus.INIT, JobStatus.RUNNING, "Running", this),
+            new JobStatusChangedEvent(JOB_3_ID, JobStatus.INIT, JobStatus.RUNNING, "Running", this),
+            new JobStatusChangedEvent(UUID.randomUUID().toString(), null, JobStatus.INIT, "Gone", this)
+        );
+        final Date from = new Date(System.currentTimeMillis() - ONE_HOUR);
+        final Date to = new Date(System.currentTimeMillis() + ONE_HOUR);
+
+        Assert.assertThat(
+            this.jobSearchService
+                .getJobStatistics(from, to, EnumSet.noneOf(JobStatisticDimension.class), null, null, null, null),
+            Matchers.empty()
+        );
+
+        // Job 2 and 3 share all dimensions so they roll up into the same counter, unknown jobs are skipped
+        Assert.assertThat(
+            this.jobPersistenceService.addJobStatistics(hostName, changes),
+            Matchers.greaterThanOrEqualTo(2)
+        );
+
+        List<JobStatistic> statistics = this.jobSearchService.getJobStatistics(
+            from,
+            to,
+            Sets.newHashSet(JobStatisticDimension.STATUS),
+            null,
+            null,
+            null,
+            null
+        );
+        Assert.assertThat(statistics.size(), Matchers.is(2));
+        for (final JobStatistic statistic : statistics) {
+            Assert.assertNull(statistic.getHour());
+            Assert.assertNull(statistic.getUser());
+            if (statistic.getStatus() == JobStatus.RUNNING) {
+                Assert.assertThat(statistic.getCount(), Matchers.is(2L));
+            } else {
+                Assert.assertThat(statistic.getStatus(), Matchers.is(JobStatus.SUCCEEDED));
+                Assert.assertThat(statistic.getCount(), Matchers.is(1L));
+            }
+        }
+
+        // Adding the same changes again should increment the existing counters
+        this.jobPersistenceService.addJobStatistics(hostName, changes);
+        statistics = this.jobSearchService.getJobStatistics(
+            from,
+            to,
+            Sets.newHashSet(JobStatisticDimension.USER),
+            Sets.newHashSet(JobStatus.RUNNING),
+            null,
+            null,
+            null
+        );
+        Assert.assertThat(statistics.size(), Matchers.is(1));
+        Assert.assertThat(statistics.get(0).getUser(), Matchers.is("tgianos"));
+        Assert.assertThat(statistics.get(0).getCount(), Matchers.is(4L));
+
+        // Nothing should be found outside the time range or for other users
+        Assert.assertThat(
+            this.jobSearchService.getJobStatistics(
+                to,
+                new Date(to.getTime() + ONE_HOUR),
+                EnumSet.noneOf(JobStatisticDimension.class),
+                null,
+                null,
+                null,
+                null
+            ),
+            Matchers.empty()
+        );
+        Assert.assertThat(
+            this.jobSearchService.getJobStatistics(
+                from,
+                to,
+                EnumSet.noneOf(JobStatisticDimension.class),
+                null,
+                UUID.randomUUID().toString(),
+                null,
+                null
+            ),
+            Matchers.empty()
+        );
+    }
+
+    private JobRequest createJobRequest(final String id) {
+        return new JobRequest.Builder(
+            "testSparkJob3",
+            "tgianos",
+            "2.4",
+            "-f spark.jar",
+            Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("type:yarn"))),
+            Sets.newHashSet("type:spark")
+        )
+            .withId(id)
+            .build();
+    }
+
+    private Job createJob(final String id) {
+        return new Job.Builder("testSparkJob3", "tgianos", "2.4", "-f spark.jar")
+            .withId(id)
+            .withStatus(JobStatus.INIT)
+            .withStatusMsg("Job Accepted")
+            .build();
+    }
 }
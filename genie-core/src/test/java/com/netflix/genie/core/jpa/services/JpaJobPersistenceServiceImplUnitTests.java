@@ -20,24 +20,33 @@ package com.netflix.genie.core.jpa.services;
 import com.google.common.collect.Lists;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobOutputSummary;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.entities.JobEntity;
 import com.netflix.genie.core.jpa.entities.JobExecutionEntity;
+import com.netflix.genie.core.jpa.entities.JobOutputSummaryEntity;
 import com.netflix.genie.core.jpa.entities.JobRequestEntity;
+import com.netflix.genie.core.jpa.entities.JobStatusHistoryEntity;
+import com.netflix.genie.core.jpa.entities.NodeHeartbeatEntity;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
 import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobOutputSummaryRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatsRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatusHistoryRepository;
+import com.netflix.genie.core.jpa.repositories.JpaNodeHeartbeatRepository;
 import com.netflix.genie.test.categories.UnitTest;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
@@ -46,9 +55,14 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -74,6 +88,10 @@ public class JpaJobPersistenceServiceImplUnitTests {
     private JpaApplicationRepository applicationRepo;
     private JpaClusterRepository clusterRepo;
     private JpaCommandRepository commandRepo;
+    private JpaJobOutputSummaryRepository jobOutputSummaryRepo;
+    private JpaNodeHeartbeatRepository nodeHeartbeatRepo;
+    private JpaJobStatusHistoryRepository jobStatusHistoryRepo;
+    private ApplicationEventPublisher eventPublisher;
 
     private JpaJobPersistenceServiceImpl jobPersistenceService;
 
@@ -88,6 +106,10 @@ public class JpaJobPersistenceServiceImplUnitTests {
         this.applicationRepo = Mockito.mock(JpaApplicationRepository.class);
         this.clusterRepo = Mockito.mock(JpaClusterRepository.class);
         this.commandRepo = Mockito.mock(JpaCommandRepository.class);
+        this.jobOutputSummaryRepo = Mockito.mock(JpaJobOutputSummaryRepository.class);
+        this.nodeHeartbeatRepo = Mockito.mock(JpaNodeHeartbeatRepository.class);
+        this.jobStatusHistoryRepo = Mockito.mock(JpaJobStatusHistoryRepository.class);
+        this.eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
 
         this.jobPersistenceService = new JpaJobPersistenceServiceImpl(
             this.jobRepo,
@@ -95,7 +117,13 @@ public class JpaJobPersistenceServiceImplUnitTests {
             this.jobExecutionRepo,
             this.applicationRepo,
             this.clusterRepo,
-            this.commandRepo);
+            this.commandRepo,
+            Mockito.mock(JpaJobStatsRepository.class),
+            this.jobOutputSummaryRepo,
+            this.nodeHeartbeatRepo,
+            this.jobStatusHistoryRepo,
+            this.eventPublisher
+        );
     }
 
     /******* Unit Tests for Job methods ********/
@@ -177,6 +205,140 @@ public class JpaJobPersistenceServiceImplUnitTests {
         Assert.assertEquals(JOB_1_VERSION, argument.getValue().getVersion());
         Assert.assertEquals(JOB_1_ID, argument.getValue().getId());
         Assert.assertEquals(JOB_1_COMMAND_ARGS, argument.getValue().getCommandArgs());
+
+        final ArgumentCaptor<JobStatusChangedEvent> eventArgument
+            = ArgumentCaptor.forClass(JobStatusChangedEvent.class);
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(eventArgument.capture());
+        Assert.assertEquals(JOB_1_ID, eventArgument.getValue().getId());
+        Assert.assertNull(eventArgument.getValue().getPreviousStatus());
+        Assert.assertEquals(job.getStatus(), eventArgument.getValue().getStatus());
+    }
+
+    /**
+     * Make sure the job and its request are saved together without checking for them first.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canCreateJobAndRequest() throws GenieException {
+        final JobRequest jobRequest = new JobRequest.Builder(
+            JOB_1_NAME,
+            JOB_1_USER,
+            JOB_1_VERSION,
+            JOB_1_COMMAND_ARGS,
+            null,
+            null
+        )
+            .withId(JOB_1_ID)
+            .build();
+        final Job job = new Job.Builder(JOB_1_NAME, JOB_1_USER, JOB_1_VERSION, JOB_1_COMMAND_ARGS)
+            .withId(JOB_1_ID)
+            .withStatus(JobStatus.INIT)
+            .withStatusMsg(JOB_1_STATUS_MSG)
+            .build();
+        final ArgumentCaptor<JobRequestEntity> argument = ArgumentCaptor.forClass(JobRequestEntity.class);
+
+        this.jobPersistenceService.createJobAndRequest(jobRequest, "localhost", job);
+
+        Mockito.verify(this.jobRequestRepo, Mockito.times(1)).saveAndFlush(argument.capture());
+        Assert.assertThat(argument.getValue().getId(), Matchers.is(JOB_1_ID));
+        Assert.assertThat(argument.getValue().getClientHost(), Matchers.is("localhost"));
+        Assert.assertThat(argument.getValue().getJob().getId(), Matchers.is(JOB_1_ID));
+        Assert.assertThat(argument.getValue().getJob().getStatus(), Matchers.is(JobStatus.INIT));
+        Mockito.verify(this.jobRequestRepo, Mockito.never()).exists(Mockito.anyString());
+        Mockito.verify(this.jobRepo, Mockito.never()).exists(Mockito.anyString());
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(Mockito.any(JobStatusChangedEvent.class));
+    }
+
+    /**
+     * Make sure a duplicate id caught by the database is reported as a conflict.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test(expected = GenieConflictException.class)
+    public void cantCreateJobAndRequestWithDuplicateId() throws GenieException {
+        final JobRequest jobRequest = new JobRequest.Builder(
+            JOB_1_NAME,
+            JOB_1_USER,
+            JOB_1_VERSION,
+            JOB_1_COMMAND_ARGS,
+            null,
+            null
+        )
+            .withId(JOB_1_ID)
+            .build();
+        final Job job = new Job.Builder(JOB_1_NAME, JOB_1_USER, JOB_1_VERSION, JOB_1_COMMAND_ARGS)
+            .withId(JOB_1_ID)
+            .withStatus(JobStatus.INIT)
+            .build();
+        Mockito
+            .when(this.jobRequestRepo.saveAndFlush(Mockito.any(JobRequestEntity.class)))
+            .thenThrow(
+                new DataIntegrityViolationException(
+                    "duplicate",
+                    new SQLException("Duplicate entry 'job1' for key 'PRIMARY'", "23000", 1062)
+                )
+            );
+
+        this.jobPersistenceService.createJobAndRequest(jobRequest, null, job);
+    }
+
+    /**
+     * Make sure integrity violations other than a duplicate id aren't reported as a conflict.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test(expected = DataIntegrityViolationException.class)
+    public void cantCreateJobAndRequestWithInvalidData() throws GenieException {
+        final JobRequest jobRequest = new JobRequest.Builder(
+            JOB_1_NAME,
+            JOB_1_USER,
+            JOB_1_VERSION,
+            JOB_1_COMMAND_ARGS,
+            null,
+            null
+        )
+            .withId(JOB_1_ID)
+            .build();
+        final Job job = new Job.Builder(JOB_1_NAME, JOB_1_USER, JOB_1_VERSION, JOB_1_COMMAND_ARGS)
+            .withId(JOB_1_ID)
+            .withStatus(JobStatus.INIT)
+            .build();
+        Mockito
+            .when(this.jobRequestRepo.saveAndFlush(Mockito.any(JobRequestEntity.class)))
+            .thenThrow(
+                new DataIntegrityViolationException(
+                    "too long",
+                    new SQLException("Value too long for column", "22001", 0)
+                )
+            );
+
+        this.jobPersistenceService.createJobAndRequest(jobRequest, null, job);
+    }
+
+    /**
+     * Make sure the job and its request must have the same id.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantCreateJobAndRequestWithDifferentIds() throws GenieException {
+        final JobRequest jobRequest = new JobRequest.Builder(
+            JOB_1_NAME,
+            JOB_1_USER,
+            JOB_1_VERSION,
+            JOB_1_COMMAND_ARGS,
+            null,
+            null
+        )
+            .withId(JOB_1_ID)
+            .build();
+        final Job job = new Job.Builder(JOB_1_NAME, JOB_1_USER, JOB_1_VERSION, JOB_1_COMMAND_ARGS)
+            .withId(UUID.randomUUID().toString())
+            .withStatus(JobStatus.INIT)
+            .build();
+
+        this.jobPersistenceService.createJobAndRequest(jobRequest, null, job);
     }
 
     /**
@@ -188,7 +350,7 @@ public class JpaJobPersistenceServiceImplUnitTests {
     public void testUpdateJobStatusDoesNotExist() throws GenieException {
         final String id = UUID.randomUUID().toString();
 
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(id))).thenReturn(null);
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(id))).thenReturn(null);
 
         this.jobPersistenceService.updateJobStatus(id, JobStatus.RUNNING, JOB_1_STATUS_MSG);
     }
@@ -201,20 +363,21 @@ public class JpaJobPersistenceServiceImplUnitTests {
     @Test
     public void testUpdateJobStatusForStatusInit() throws GenieException {
         final String id = UUID.randomUUID().toString();
-        final JobEntity jobEntity = new JobEntity();
-        final ArgumentCaptor<JobEntity> argument = ArgumentCaptor.forClass(JobEntity.class);
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(id))).thenReturn(JobStatus.INIT);
+        Mockito
+            .when(this.jobRepo.updateStatus(
+                Mockito.eq(id),
+                Mockito.eq(JobStatus.INIT),
+                Mockito.eq(JobStatus.INIT),
+                Mockito.eq(JOB_1_STATUS_MSG),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
 
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(id))).thenReturn(jobEntity);
         this.jobPersistenceService.updateJobStatus(id, JobStatus.INIT, JOB_1_STATUS_MSG);
 
-        Mockito.verify(jobRepo).save(argument.capture());
-
-        Assert.assertEquals(JobStatus.INIT, argument.getValue().getStatus());
-        Assert.assertEquals(JOB_1_STATUS_MSG, argument.getValue().getStatusMsg());
-        Assert.assertNull(argument.getValue().getFinished());
-
-        // Started should be null as the status is being set to INIT
-        Assert.assertNull(argument.getValue().getStarted());
+        // Neither started nor finished should be set as the status is being set to INIT
+        this.verifyNoStartOrFinish();
     }
 
     /**
@@ -225,45 +388,68 @@ public class JpaJobPersistenceServiceImplUnitTests {
     @Test
     public void testUpdateJobStatusForStatusRunning() throws GenieException {
         final String id = UUID.randomUUID().toString();
-        final JobEntity jobEntity = new JobEntity();
-        final ArgumentCaptor<JobEntity> argument = ArgumentCaptor.forClass(JobEntity.class);
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(id))).thenReturn(JobStatus.INIT);
+        Mockito
+            .when(this.jobRepo.updateStatusAndStarted(
+                Mockito.eq(id),
+                Mockito.eq(JobStatus.INIT),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.eq(JOB_1_STATUS_MSG),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
 
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(id))).thenReturn(jobEntity);
         this.jobPersistenceService.updateJobStatus(id, JobStatus.RUNNING, JOB_1_STATUS_MSG);
 
-        Mockito.verify(this.jobRepo).save(argument.capture());
-
-        Assert.assertEquals(JobStatus.RUNNING, argument.getValue().getStatus());
-        Assert.assertEquals(JOB_1_STATUS_MSG, argument.getValue().getStatusMsg());
-
-        Assert.assertNull(argument.getValue().getFinished());
-
-        // Started should not be null as the status is being set to RUNNING
-        Assert.assertNotNull(argument.getValue().getStarted());
+        // Started should be set as the status is being set to RUNNING
+        final ArgumentCaptor<Date> started = ArgumentCaptor.forClass(Date.class);
+        Mockito
+            .verify(this.jobRepo, Mockito.times(1))
+            .updateStatusAndStarted(
+                Mockito.eq(id),
+                Mockito.eq(JobStatus.INIT),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.eq(JOB_1_STATUS_MSG),
+                started.capture(),
+                Mockito.any(Date.class)
+            );
+        Assert.assertNotNull(started.getValue());
+        Mockito
+            .verify(this.jobRepo, Mockito.never())
+            .updateStatusAndFinished(
+                Mockito.anyString(),
+                Mockito.any(JobStatus.class),
+                Mockito.any(JobStatus.class),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            );
     }
 
     /**
-     * Test the updateJobStatus with status FAILED.
+     * Test the updateJobStatus with status FAILED for a job which never started.
      *
      * @throws GenieException For any problem
      */
     @Test
     public void testUpdateJobStatusForStatusFailed() throws GenieException {
         final String id = UUID.randomUUID().toString();
-        final JobEntity jobEntity = new JobEntity();
-        final ArgumentCaptor<JobEntity> argument = ArgumentCaptor.forClass(JobEntity.class);
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(id))).thenReturn(JobStatus.INIT);
+        Mockito
+            .when(this.jobRepo.updateStatus(
+                Mockito.eq(id),
+                Mockito.eq(JobStatus.INIT),
+                Mockito.eq(JobStatus.FAILED),
+                Mockito.eq(JOB_1_STATUS_MSG),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
 
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(id))).thenReturn(jobEntity);
         this.jobPersistenceService.updateJobStatus(id, JobStatus.FAILED, JOB_1_STATUS_MSG);
 
-        Mockito.verify(jobRepo).save(argument.capture());
-
-        Assert.assertEquals(JobStatus.FAILED, argument.getValue().getStatus());
-        Assert.assertEquals(JOB_1_STATUS_MSG, argument.getValue().getStatusMsg());
-        Assert.assertNull(argument.getValue().getFinished());
-
-        // Started should not be set as the status is being set to FAILED
-        Assert.assertNull(argument.getValue().getStarted());
+        // Finished should not be set as the job never started
+        this.verifyNoStartOrFinish();
     }
 
     /**
@@ -273,61 +459,94 @@ public class JpaJobPersistenceServiceImplUnitTests {
      */
     @Test
     public void testUpdateJobStatusForStatusKilled() throws GenieException {
-        final String id = UUID.randomUUID().toString();
-        final JobEntity jobEntity = new JobEntity();
-        jobEntity.setStarted(new Date(0));
-        final ArgumentCaptor<JobEntity> argument = ArgumentCaptor.forClass(JobEntity.class);
-
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(id))).thenReturn(jobEntity);
-        this.jobPersistenceService.updateJobStatus(id, JobStatus.KILLED, JOB_1_STATUS_MSG);
-
-        Mockito.verify(jobRepo).save(argument.capture());
-
-        Assert.assertEquals(JobStatus.KILLED, argument.getValue().getStatus());
-        Assert.assertEquals(JOB_1_STATUS_MSG, argument.getValue().getStatusMsg());
-        Assert.assertNotNull(argument.getValue().getFinished());
+        this.verifyFinishTimeSetForRunningJob(JobStatus.KILLED);
     }
 
     /**
-     * Test the updateJobStatus with status SUCCEEDED.
+     * Make sure a status change event is published whenever the status is updated.
      *
      * @throws GenieException For any problem
      */
     @Test
-    public void testUpdateJobStatusForStatusSucceeded() throws GenieException {
+    public void testUpdateJobStatusPublishesEvent() throws GenieException {
         final String id = UUID.randomUUID().toString();
-        final JobEntity jobEntity = new JobEntity();
-        jobEntity.setStarted(new Date(0));
-        final ArgumentCaptor<JobEntity> argument = ArgumentCaptor.forClass(JobEntity.class);
-
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(id))).thenReturn(jobEntity);
-        this.jobPersistenceService.updateJobStatus(id, JobStatus.SUCCEEDED, JOB_1_STATUS_MSG);
+        final ArgumentCaptor<JobStatusChangedEvent> argument = ArgumentCaptor.forClass(JobStatusChangedEvent.class);
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(id))).thenReturn(JobStatus.INIT);
+        Mockito
+            .when(this.jobRepo.updateStatusAndStarted(
+                Mockito.eq(id),
+                Mockito.eq(JobStatus.INIT),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.eq(JOB_1_STATUS_MSG),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
 
-        Mockito.verify(jobRepo).save(argument.capture());
+        this.jobPersistenceService.updateJobStatus(id, JobStatus.RUNNING, JOB_1_STATUS_MSG);
 
-        Assert.assertEquals(JobStatus.SUCCEEDED, argument.getValue().getStatus());
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(argument.capture());
+        Assert.assertEquals(id, argument.getValue().getId());
+        Assert.assertEquals(JobStatus.INIT, argument.getValue().getPreviousStatus());
+        Assert.assertEquals(JobStatus.RUNNING, argument.getValue().getStatus());
         Assert.assertEquals(JOB_1_STATUS_MSG, argument.getValue().getStatusMsg());
-        Assert.assertNotNull(argument.getValue().getFinished());
     }
 
     /**
-     * Test the updateJobStatus method.
+     * Make sure no status change event is published if the job doesn't exist.
      *
      * @throws GenieException For any problem
      */
     @Test
-    public void testUpdateJobStatusFinishedTimeForSuccess() throws GenieException {
+    public void testUpdateJobStatusDoesNotPublishEventIfJobNotFound() throws GenieException {
         final String id = UUID.randomUUID().toString();
-        final JobEntity jobEntity = new JobEntity();
-        jobEntity.setStarted(new Date(0));
-        final ArgumentCaptor<JobEntity> argument = ArgumentCaptor.forClass(JobEntity.class);
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(id))).thenReturn(null);
+        try {
+            this.jobPersistenceService.updateJobStatus(id, JobStatus.RUNNING, JOB_1_STATUS_MSG);
+            Assert.fail();
+        } catch (final GenieNotFoundException gnfe) {
+            Mockito.verify(this.eventPublisher, Mockito.never()).publishEvent(Mockito.any());
+        }
+    }
 
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(id))).thenReturn(jobEntity);
-        this.jobPersistenceService.updateJobStatus(id, JobStatus.SUCCEEDED, JOB_1_STATUS_MSG);
+    /**
+     * Make sure the update is rejected and no event is published if the status changed after it was read.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void testUpdateJobStatusConflictsWithConcurrentChange() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(id))).thenReturn(JobStatus.RUNNING);
+        try {
+            this.jobPersistenceService.updateJobStatus(id, JobStatus.FAILED, JOB_1_STATUS_MSG);
+            Assert.fail();
+        } catch (final GenieConflictException gce) {
+            Mockito.verify(this.eventPublisher, Mockito.never()).publishEvent(Mockito.any());
+        }
+    }
 
-        Mockito.verify(jobRepo).save(argument.capture());
+    /**
+     * Make sure adding no job statistics doesn't touch the database.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canAddEmptyJobStatistics() throws GenieException {
+        Assert.assertThat(
+            this.jobPersistenceService.addJobStatistics(UUID.randomUUID().toString(), Lists.newArrayList()),
+            Matchers.is(0)
+        );
+    }
 
-        Assert.assertNotNull(argument.getValue().getFinished());
+    /**
+     * Test the updateJobStatus with status SUCCEEDED.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void testUpdateJobStatusForStatusSucceeded() throws GenieException {
+        this.verifyFinishTimeSetForRunningJob(JobStatus.SUCCEEDED);
     }
 
     /**
@@ -387,8 +606,11 @@ public class JpaJobPersistenceServiceImplUnitTests {
         Mockito.when(this.jobRepo.findOne(JOB_1_ID)).thenReturn(jobEntity);
         Mockito.when(this.clusterRepo.findOne(clusterId)).thenReturn(new ClusterEntity());
         Mockito.when(this.commandRepo.findOne(commandId)).thenReturn(new CommandEntity());
-        Mockito.when(this.applicationRepo.findOne(applicationId1)).thenReturn(new ApplicationEntity());
-        Mockito.when(this.applicationRepo.findOne(applicationId2)).thenReturn(null);
+        final ApplicationEntity application1 = new ApplicationEntity();
+        application1.setId(applicationId1);
+        Mockito
+            .when(this.applicationRepo.findAll(Lists.newArrayList(applicationId1, applicationId2)))
+            .thenReturn(Lists.newArrayList(application1));
         this.jobPersistenceService.updateJobWithRuntimeEnvironment(
             JOB_1_ID,
             clusterId,
@@ -397,6 +619,44 @@ public class JpaJobPersistenceServiceImplUnitTests {
         );
     }
 
+    /**
+     * Make sure the applications are loaded together but saved in the order requested.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canUpdateRuntimeWithApplicationsInOrder() throws GenieException {
+        final String clusterId = UUID.randomUUID().toString();
+        final String commandId = UUID.randomUUID().toString();
+        final String applicationId1 = UUID.randomUUID().toString();
+        final String applicationId2 = UUID.randomUUID().toString();
+        final JobEntity jobEntity = Mockito.mock(JobEntity.class);
+        final ClusterEntity cluster = new ClusterEntity();
+        final CommandEntity command = new CommandEntity();
+        final ApplicationEntity application1 = new ApplicationEntity();
+        application1.setId(applicationId1);
+        final ApplicationEntity application2 = new ApplicationEntity();
+        application2.setId(applicationId2);
+        Mockito.when(this.jobRepo.findOne(JOB_1_ID)).thenReturn(jobEntity);
+        Mockito.when(this.clusterRepo.findOne(clusterId)).thenReturn(cluster);
+        Mockito.when(this.commandRepo.findOne(commandId)).thenReturn(command);
+        Mockito
+            .when(this.applicationRepo.findAll(Lists.newArrayList(applicationId2, applicationId1)))
+            .thenReturn(Lists.newArrayList(application1, application2));
+
+        this.jobPersistenceService.updateJobWithRuntimeEnvironment(
+            JOB_1_ID,
+            clusterId,
+            commandId,
+            Lists.newArrayList(applicationId2, applicationId1)
+        );
+
+        Mockito.verify(this.applicationRepo, Mockito.never()).findOne(Mockito.anyString());
+        Mockito.verify(jobEntity, Mockito.times(1)).setCluster(cluster);
+        Mockito.verify(jobEntity, Mockito.times(1)).setCommand(command);
+        Mockito.verify(jobEntity, Mockito.times(1)).setApplications(Lists.newArrayList(application2, application1));
+    }
+
     /******* Unit Tests for Job Request methods ********/
 
     /**
@@ -508,10 +768,28 @@ public class JpaJobPersistenceServiceImplUnitTests {
         final JobExecution jobExecution = new JobExecution.Builder("hostname", 123, 2000L, new Date())
             .withId(JOB_1_ID)
             .build();
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(JOB_1_ID))).thenReturn(null);
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(JOB_1_ID))).thenReturn(null);
         this.jobPersistenceService.createJobExecution(jobExecution);
     }
 
+    /**
+     * Make sure a job which isn't waiting to run can't get an execution.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void testCreateJobExecutionJobNotInit() throws GenieException {
+        final JobExecution jobExecution = new JobExecution.Builder("hostname", 123, 2000L, new Date())
+            .withId(JOB_1_ID)
+            .build();
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(JOB_1_ID))).thenReturn(JobStatus.FAILED);
+        try {
+            this.jobPersistenceService.createJobExecution(jobExecution);
+        } finally {
+            Mockito.verify(this.jobExecutionRepo, Mockito.never()).save(Mockito.any(JobExecutionEntity.class));
+        }
+    }
+
     /**
      * Test the createJobExecution method.
      *
@@ -527,25 +805,32 @@ public class JpaJobPersistenceServiceImplUnitTests {
             .withId(JOB_1_ID)
             .build();
         final JobEntity jobEntity = Mockito.mock(JobEntity.class);
-        Mockito.when(this.jobRepo.findOne(Mockito.eq(JOB_1_ID))).thenReturn(jobEntity);
+        Mockito.when(this.jobRepo.getOne(Mockito.eq(JOB_1_ID))).thenReturn(jobEntity);
+        Mockito
+            .when(this.jobRepo.updateStatusAndStarted(
+                Mockito.eq(JOB_1_ID),
+                Mockito.eq(JobStatus.INIT),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
         final ArgumentCaptor<JobExecutionEntity> argument = ArgumentCaptor.forClass(JobExecutionEntity.class);
-        final ArgumentCaptor<JobStatus> argument1 = ArgumentCaptor.forClass(JobStatus.class);
 
         this.jobPersistenceService.createJobExecution(jobExecution);
 
-        Mockito.verify(jobEntity).setExecution(argument.capture());
-        Mockito.verify(jobEntity).setStatus(argument1.capture());
-
-        Mockito.verify(jobEntity, Mockito.times(1)).setStarted(Mockito.any());
-
+        Mockito.verify(this.jobExecutionRepo).save(argument.capture());
         Assert.assertEquals(hostname, argument.getValue().getHostName());
         Assert.assertEquals(pid, argument.getValue().getProcessId());
         Assert.assertThat(argument.getValue().getCheckDelay(), Matchers.is(checkDelay));
         Assert.assertThat(argument.getValue().getTimeout(), Matchers.is(timeout));
         Assert.assertEquals(JOB_1_ID, argument.getValue().getId());
+        Assert.assertThat(argument.getValue().getJob(), Matchers.is(jobEntity));
 
-        // verify the method sets the status code of the Job to RUNNING
-        Assert.assertEquals(JobStatus.RUNNING, argument1.getValue());
+        // The job is never loaded, only referenced
+        Mockito.verify(this.jobRepo, Mockito.never()).findOne(Mockito.anyString());
+        Mockito.verify(this.jobRepo, Mockito.never()).save(Mockito.any(JobEntity.class));
     }
 
     /**
@@ -558,4 +843,451 @@ public class JpaJobPersistenceServiceImplUnitTests {
         Mockito.when(this.jobExecutionRepo.findOne(Mockito.eq(JOB_1_ID))).thenReturn(null);
         this.jobPersistenceService.setExitCode(JOB_1_ID, 0);
     }
+
+    /**
+     * Make sure setting the exit code of a running job finishes it with a finish time.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canSetExitCodeAndFinishRunningJob() throws GenieException {
+        Mockito
+            .when(this.jobExecutionRepo.updateExitCode(
+                Mockito.eq(JOB_1_ID),
+                Mockito.eq(JobExecution.DEFAULT_EXIT_CODE),
+                Mockito.eq(JobExecution.SUCCESS_EXIT_CODE),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
+        Mockito.when(this.jobRepo.findStatusById(JOB_1_ID)).thenReturn(JobStatus.RUNNING);
+        Mockito
+            .when(this.jobRepo.finishActiveJob(
+                Mockito.eq(JOB_1_ID),
+                Mockito.eq(EnumSet.of(JobStatus.INIT, JobStatus.RUNNING)),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.eq(JobStatus.SUCCEEDED),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
+
+        Assert.assertTrue(this.jobPersistenceService.setExitCode(JOB_1_ID, JobExecution.SUCCESS_EXIT_CODE));
+
+        // One conditional update covers both active statuses
+        Mockito
+            .verify(this.jobRepo, Mockito.times(1))
+            .finishActiveJob(
+                Mockito.anyString(),
+                Mockito.anyCollectionOf(JobStatus.class),
+                Mockito.any(JobStatus.class),
+                Mockito.any(JobStatus.class),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            );
+        this.verifyNoStartOrFinish();
+        final ArgumentCaptor<JobStatusChangedEvent> argument = ArgumentCaptor.forClass(JobStatusChangedEvent.class);
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(argument.capture());
+        Assert.assertThat(argument.getValue().getPreviousStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(argument.getValue().getStatus(), Matchers.is(JobStatus.SUCCEEDED));
+    }
+
+    /**
+     * Make sure setting the exit code of a job which never ran finishes it from INIT.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canSetExitCodeAndFinishJobWhichNeverRan() throws GenieException {
+        Mockito
+            .when(this.jobExecutionRepo.updateExitCode(
+                Mockito.eq(JOB_1_ID),
+                Mockito.eq(JobExecution.DEFAULT_EXIT_CODE),
+                Mockito.eq(JobExecution.KILLED_EXIT_CODE),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
+        Mockito.when(this.jobRepo.findStatusById(JOB_1_ID)).thenReturn(JobStatus.INIT);
+        Mockito
+            .when(this.jobRepo.finishActiveJob(
+                Mockito.eq(JOB_1_ID),
+                Mockito.eq(EnumSet.of(JobStatus.INIT, JobStatus.RUNNING)),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.eq(JobStatus.KILLED),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
+
+        Assert.assertTrue(this.jobPersistenceService.setExitCode(JOB_1_ID, JobExecution.KILLED_EXIT_CODE));
+
+        final ArgumentCaptor<JobStatusChangedEvent> argument = ArgumentCaptor.forClass(JobStatusChangedEvent.class);
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(argument.capture());
+        Assert.assertThat(argument.getValue().getPreviousStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(argument.getValue().getStatus(), Matchers.is(JobStatus.KILLED));
+    }
+
+    /**
+     * Make sure a job which already finished isn't finished again.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void setExitCodeWontFinishFinishedJob() throws GenieException {
+        Mockito
+            .when(this.jobExecutionRepo.updateExitCode(
+                Mockito.eq(JOB_1_ID),
+                Mockito.eq(JobExecution.DEFAULT_EXIT_CODE),
+                Mockito.eq(JobExecution.KILLED_EXIT_CODE),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
+        Mockito.when(this.jobRepo.findStatusById(JOB_1_ID)).thenReturn(JobStatus.FAILED);
+
+        Assert.assertTrue(this.jobPersistenceService.setExitCode(JOB_1_ID, JobExecution.KILLED_EXIT_CODE));
+
+        Mockito
+            .verify(this.jobRepo, Mockito.never())
+            .finishActiveJob(
+                Mockito.anyString(),
+                Mockito.anyCollectionOf(JobStatus.class),
+                Mockito.any(JobStatus.class),
+                Mockito.any(JobStatus.class),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            );
+        Mockito.verify(this.eventPublisher, Mockito.never()).publishEvent(Mockito.any(JobStatusChangedEvent.class));
+    }
+
+    /**
+     * Make sure setting the default exit code doesn't write anything.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void setExitCodeWontWriteDefaultExitCode() throws GenieException {
+        Mockito.when(this.jobExecutionRepo.findOne(JOB_1_ID)).thenReturn(new JobExecutionEntity());
+
+        Assert.assertFalse(this.jobPersistenceService.setExitCode(JOB_1_ID, JobExecution.DEFAULT_EXIT_CODE));
+
+        Mockito
+            .verify(this.jobExecutionRepo, Mockito.never())
+            .updateExitCode(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any(Date.class));
+        Mockito.verify(this.eventPublisher, Mockito.never()).publishEvent(Mockito.any(JobStatusChangedEvent.class));
+    }
+
+    /**
+     * Make sure losing the race to set the exit code to the same value doesn't change the status again.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void setExitCodeIgnoresSameExitCodeSetConcurrently() throws GenieException {
+        final JobExecutionEntity jobExecutionEntity = new JobExecutionEntity();
+        jobExecutionEntity.setExitCode(JobExecution.LOST_EXIT_CODE);
+        Mockito.when(this.jobExecutionRepo.findOne(JOB_1_ID)).thenReturn(jobExecutionEntity);
+
+        Assert.assertFalse(this.jobPersistenceService.setExitCode(JOB_1_ID, JobExecution.LOST_EXIT_CODE));
+
+        this.verifyNoStartOrFinish();
+        Mockito
+            .verify(this.jobRepo, Mockito.never())
+            .updateStatus(
+                Mockito.anyString(),
+                Mockito.any(JobStatus.class),
+                Mockito.any(JobStatus.class),
+                Mockito.anyString(),
+                Mockito.any(Date.class)
+            );
+        Mockito.verify(this.eventPublisher, Mockito.never()).publishEvent(Mockito.any(JobStatusChangedEvent.class));
+    }
+
+    /**
+     * Make sure losing the race to set the exit code to a different value is reported.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantSetExitCodeWhenDifferentExitCodeSetConcurrently() throws GenieException {
+        final JobExecutionEntity jobExecutionEntity = new JobExecutionEntity();
+        jobExecutionEntity.setExitCode(JobExecution.SUCCESS_EXIT_CODE);
+        Mockito.when(this.jobExecutionRepo.findOne(JOB_1_ID)).thenReturn(jobExecutionEntity);
+
+        this.jobPersistenceService.setExitCode(JOB_1_ID, JobExecution.LOST_EXIT_CODE);
+    }
+
+    /**
+     * Make sure an output summary can't be saved for a job which doesn't exist.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantSaveJobOutputSummaryForJobWhichDoesNotExist() throws GenieException {
+        Mockito.when(this.jobRepo.exists(JOB_1_ID)).thenReturn(false);
+        this.jobPersistenceService.saveJobOutputSummary(JOB_1_ID, new JobOutputSummary(null, null, 0L, null, null, 0L));
+    }
+
+    /**
+     * Make sure a new output summary is saved with the id of the job.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canSaveJobOutputSummary() throws GenieException {
+        Mockito.when(this.jobRepo.exists(JOB_1_ID)).thenReturn(true);
+        Mockito.when(this.jobOutputSummaryRepo.findOne(JOB_1_ID)).thenReturn(null);
+        final JobOutputSummary summary = new JobOutputSummary("head", "tail", 2048L, "error", null, 5L);
+
+        this.jobPersistenceService.saveJobOutputSummary(JOB_1_ID, summary);
+
+        final ArgumentCaptor<JobOutputSummaryEntity> argument = ArgumentCaptor.forClass(JobOutputSummaryEntity.class);
+        Mockito.verify(this.jobOutputSummaryRepo, Mockito.times(1)).save(argument.capture());
+        Assert.assertThat(argument.getValue().getId(), Matchers.is(JOB_1_ID));
+        Assert.assertThat(argument.getValue().getDTO(), Matchers.is(summary));
+    }
+
+    /**
+     * Make sure an existing output summary is replaced in place.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canReplaceJobOutputSummary() throws GenieException {
+        final JobOutputSummaryEntity entity = new JobOutputSummaryEntity();
+        entity.setId(JOB_1_ID);
+        Mockito.when(this.jobRepo.exists(JOB_1_ID)).thenReturn(true);
+        Mockito.when(this.jobOutputSummaryRepo.findOne(JOB_1_ID)).thenReturn(entity);
+        final JobOutputSummary summary = new JobOutputSummary("head", "", 4L, "", "", 0L);
+
+        this.jobPersistenceService.saveJobOutputSummary(JOB_1_ID, summary);
+
+        Mockito.verify(this.jobOutputSummaryRepo, Mockito.never()).save(Mockito.any(JobOutputSummaryEntity.class));
+        Assert.assertThat(entity.getDTO(), Matchers.is(summary));
+    }
+
+    /**
+     * Make sure an existing heartbeat is updated in place.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canUpdateNodeHeartbeat() throws GenieException {
+        final String hostName = UUID.randomUUID().toString();
+        Mockito
+            .when(this.nodeHeartbeatRepo.updateHeartbeat(Mockito.eq(hostName), Mockito.any(Date.class), Mockito.eq(3)))
+            .thenReturn(1);
+
+        this.jobPersistenceService.saveNodeHeartbeat(hostName, 3);
+
+        Mockito.verify(this.nodeHeartbeatRepo, Mockito.never()).save(Mockito.any(NodeHeartbeatEntity.class));
+    }
+
+    /**
+     * Make sure the first heartbeat of a host is inserted.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canSaveFirstNodeHeartbeat() throws GenieException {
+        final String hostName = UUID.randomUUID().toString();
+        Mockito
+            .when(this.nodeHeartbeatRepo.updateHeartbeat(Mockito.eq(hostName), Mockito.any(Date.class), Mockito.eq(5)))
+            .thenReturn(0);
+
+        this.jobPersistenceService.saveNodeHeartbeat(hostName, 5);
+
+        final ArgumentCaptor<NodeHeartbeatEntity> captor = ArgumentCaptor.forClass(NodeHeartbeatEntity.class);
+        Mockito.verify(this.nodeHeartbeatRepo, Mockito.times(1)).save(captor.capture());
+        Assert.assertThat(captor.getValue().getId(), Matchers.is(hostName));
+        Assert.assertThat(captor.getValue().getRunningJobs(), Matchers.is(5));
+        Assert.assertNotNull(captor.getValue().getLastHeartbeat());
+    }
+
+    /**
+     * Make sure each status change is appended to the history of its job with the host which observed it.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canAddJobStatusHistory() throws GenieException {
+        final String hostName = UUID.randomUUID().toString();
+        final JobStatusChangedEvent init = new JobStatusChangedEvent(JOB_1_ID, null, JobStatus.INIT, "Init", this);
+        final JobStatusChangedEvent running
+            = new JobStatusChangedEvent(JOB_1_ID, JobStatus.INIT, JobStatus.RUNNING, "Running", this);
+        Mockito
+            .when(this.jobStatusHistoryRepo.findIdsByIdIn(Mockito.anyCollectionOf(String.class)))
+            .thenReturn(Lists.newArrayList());
+
+        Assert.assertThat(
+            this.jobPersistenceService.addJobStatusHistory(hostName, Lists.newArrayList(init, running)),
+            Matchers.is(2)
+        );
+
+        final ArgumentCaptor<JobStatusHistoryEntity> captor = ArgumentCaptor.forClass(JobStatusHistoryEntity.class);
+        Mockito.verify(this.jobStatusHistoryRepo, Mockito.times(2)).save(captor.capture());
+        final JobStatusHistoryEntity first = captor.getAllValues().get(0);
+        Assert.assertThat(first.getJobId(), Matchers.is(JOB_1_ID));
+        Assert.assertThat(first.getPreviousStatus(), Matchers.nullValue());
+        Assert.assertThat(first.getStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(first.getStatusMsg(), Matchers.is("Init"));
+        Assert.assertThat(first.getTime().getTime(), Matchers.is(init.getTimestamp()));
+        Assert.assertThat(first.getHostName(), Matchers.is(hostName));
+        final JobStatusHistoryEntity second = captor.getAllValues().get(1);
+        Assert.assertThat(second.getPreviousStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(second.getStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(second.getId(), Matchers.not(first.getId()));
+    }
+
+    /**
+     * Make sure writing the same status changes again, e.g. after a flush which failed after committing, doesn't
+     * record them twice.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canRetryAddingJobStatusHistory() throws GenieException {
+        final String hostName = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+        final List<JobStatusChangedEvent> changes = Lists.newArrayList(
+            new JobStatusChangedEvent(JOB_1_ID, JobStatus.INIT, JobStatus.RUNNING, "Running", this),
+            new JobStatusChangedEvent(job2Id, JobStatus.RUNNING, JobStatus.SUCCEEDED, "Done", this)
+        );
+        Mockito
+            .when(this.jobStatusHistoryRepo.findIdsByIdIn(Mockito.anyCollectionOf(String.class)))
+            .thenReturn(Lists.newArrayList());
+        this.jobPersistenceService.addJobStatusHistory(hostName, changes);
+        final ArgumentCaptor<JobStatusHistoryEntity> captor = ArgumentCaptor.forClass(JobStatusHistoryEntity.class);
+        Mockito.verify(this.jobStatusHistoryRepo, Mockito.times(2)).save(captor.capture());
+
+        // The ids are derived from the changes so the second attempt finds both already recorded
+        Mockito
+            .when(this.jobStatusHistoryRepo.findIdsByIdIn(Mockito.anyCollectionOf(String.class)))
+            .thenReturn(Lists.newArrayList(captor.getAllValues().get(0).getId(), captor.getAllValues().get(1).getId()));
+        Assert.assertThat(this.jobPersistenceService.addJobStatusHistory(hostName, changes), Matchers.is(0));
+        Mockito.verify(this.jobStatusHistoryRepo, Mockito.times(2)).save(Mockito.any(JobStatusHistoryEntity.class));
+    }
+
+    /**
+     * Make sure all the running jobs on a host are marked lost with bulk updates and events are only sent for the
+     * jobs which were actually changed.
+     */
+    @Test
+    public void canMarkJobsOnHostLost() {
+        final String hostName = UUID.randomUUID().toString();
+        final String job1Id = UUID.randomUUID().toString();
+        final String job2Id = UUID.randomUUID().toString();
+        final String job3Id = UUID.randomUUID().toString();
+        final List<String> ids = Lists.newArrayList(job1Id, job2Id, job3Id);
+        Mockito
+            .when(this.jobExecutionRepo.findIdsByHostNameAndExitCode(hostName, JobExecution.DEFAULT_EXIT_CODE))
+            .thenReturn(ids);
+        Mockito
+            .when(this.jobRepo.findIdsAndStatusesByIdIn(ids))
+            .thenReturn(
+                Lists.newArrayList(
+                    new Object[]{job1Id, JobStatus.RUNNING},
+                    new Object[]{job2Id, JobStatus.INIT},
+                    new Object[]{job3Id, JobStatus.RUNNING}
+                )
+            );
+        // Job 3 finished on its own before it could be marked lost
+        Mockito
+            .when(this.jobExecutionRepo.findIdsByIdInAndExitCode(ids, JobExecution.LOST_EXIT_CODE))
+            .thenReturn(Lists.newArrayList(job1Id, job2Id));
+
+        Assert.assertThat(this.jobPersistenceService.markJobsOnHostLost(hostName), Matchers.is(2));
+
+        Mockito
+            .verify(this.jobExecutionRepo, Mockito.times(1))
+            .updateExitCodes(
+                Mockito.eq(ids),
+                Mockito.eq(JobExecution.DEFAULT_EXIT_CODE),
+                Mockito.eq(JobExecution.LOST_EXIT_CODE),
+                Mockito.any(Date.class)
+            );
+        Mockito
+            .verify(this.jobRepo, Mockito.times(1))
+            .updateStatusAndFinishedOfJobsWithExitCode(
+                Mockito.eq(ids),
+                Mockito.eq(JobExecution.LOST_EXIT_CODE),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.eq(JobStatus.FAILED),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            );
+        Mockito
+            .verify(this.jobRepo, Mockito.times(1))
+            .updateStatusOfJobsWithExitCode(
+                Mockito.eq(ids),
+                Mockito.eq(JobExecution.LOST_EXIT_CODE),
+                Mockito.eq(JobStatus.INIT),
+                Mockito.eq(JobStatus.FAILED),
+                Mockito.anyString(),
+                Mockito.any(Date.class)
+            );
+        final ArgumentCaptor<JobStatusChangedEvent> captor = ArgumentCaptor.forClass(JobStatusChangedEvent.class);
+        Mockito.verify(this.eventPublisher, Mockito.times(2)).publishEvent(captor.capture());
+        Assert.assertThat(captor.getAllValues().get(0).getId(), Matchers.is(job1Id));
+        Assert.assertThat(captor.getAllValues().get(0).getPreviousStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(captor.getAllValues().get(1).getId(), Matchers.is(job2Id));
+        Assert.assertThat(captor.getAllValues().get(1).getPreviousStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(captor.getAllValues().get(1).getStatus(), Matchers.is(JobStatus.FAILED));
+    }
+
+    private void verifyFinishTimeSetForRunningJob(final JobStatus status) throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jobRepo.findStatusById(Mockito.eq(id))).thenReturn(JobStatus.RUNNING);
+        Mockito
+            .when(this.jobRepo.updateStatusAndFinished(
+                Mockito.eq(id),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.eq(status),
+                Mockito.eq(JOB_1_STATUS_MSG),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            ))
+            .thenReturn(1);
+
+        this.jobPersistenceService.updateJobStatus(id, status, JOB_1_STATUS_MSG);
+
+        final ArgumentCaptor<Date> finished = ArgumentCaptor.forClass(Date.class);
+        Mockito
+            .verify(this.jobRepo, Mockito.times(1))
+            .updateStatusAndFinished(
+                Mockito.eq(id),
+                Mockito.eq(JobStatus.RUNNING),
+                Mockito.eq(status),
+                Mockito.eq(JOB_1_STATUS_MSG),
+                finished.capture(),
+                Mockito.any(Date.class)
+            );
+        Assert.assertNotNull(finished.getValue());
+    }
+
+    private void verifyNoStartOrFinish() {
+        Mockito
+            .verify(this.jobRepo, Mockito.never())
+            .updateStatusAndStarted(
+                Mockito.anyString(),
+                Mockito.any(JobStatus.class),
+                Mockito.any(JobStatus.class),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            );
+        Mockito
+            .verify(this.jobRepo, Mockito.never())
+            .updateStatusAndFinished(
+                Mockito.anyString(),
+                Mockito.any(JobStatus.class),
+                Mockito.any(JobStatus.class),
+                Mockito.anyString(),
+                Mockito.any(Date.class),
+                Mockito.any(Date.class)
+            );
+    }
 }
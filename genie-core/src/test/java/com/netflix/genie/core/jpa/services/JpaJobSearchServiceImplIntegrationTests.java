@@ -38,9 +38,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.util.Calendar;
 import java.util.List;
 import java.util.Set;
+import java.util.TimeZone;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Integration tests for the Job Search Service using JPA.
@@ -185,6 +188,28 @@ public class JpaJobSearchServiceImplIntegrationTests extends DBUnitTestBase {
         Assert.assertThat(hostNames, Matchers.hasItem(hostB));
     }
 
+    /**
+     * Make sure only the hosts running jobs which stopped writing heartbeats are returned.
+     */
+    @Test
+    public void canFindHostnamesOfRunningJobsWithoutHeartbeat() {
+        final String hostA = "a.netflix.com";
+        final String hostB = "b.netflix.com";
+
+        final Calendar since = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        since.clear();
+        since.set(2016, Calendar.JANUARY, 1);
+        List<String> hostNames = this.service.getAllHostsRunningJobsWithoutHeartbeatSince(since.getTime());
+        Assert.assertThat(hostNames.size(), Matchers.is(1));
+        Assert.assertThat(hostNames, Matchers.hasItem(hostB));
+
+        since.set(2017, Calendar.JANUARY, 1);
+        hostNames = this.service.getAllHostsRunningJobsWithoutHeartbeatSince(since.getTime());
+        Assert.assertThat(hostNames.size(), Matchers.is(2));
+        Assert.assertThat(hostNames, Matchers.hasItem(hostA));
+        Assert.assertThat(hostNames, Matchers.hasItem(hostB));
+    }
+
     /**
      * Make sure the getting job method works.
      *
@@ -204,6 +229,29 @@ public class JpaJobSearchServiceImplIntegrationTests extends DBUnitTestBase {
         }
     }
 
+    /**
+     * Make sure job search results can be fetched in bulk.
+     */
+    @Test
+    public void canGetJobSearchResults() {
+        final List<JobSearchResult> results = this.service.getJobSearchResults(
+            Sets.newHashSet(JOB_1_ID, JOB_3_ID, UUID.randomUUID().toString())
+        );
+        Assert.assertThat(results.size(), Matchers.is(2));
+        Assert.assertThat(
+            results.stream().map(JobSearchResult::getId).collect(Collectors.toSet()),
+            Matchers.containsInAnyOrder(JOB_1_ID, JOB_3_ID)
+        );
+        results.forEach(
+            result -> Assert.assertThat(
+                result.getStatus(),
+                Matchers.is(JOB_1_ID.equals(result.getId()) ? JobStatus.SUCCEEDED : JobStatus.RUNNING)
+            )
+        );
+
+        Assert.assertTrue(this.service.getJobSearchResults(Sets.newHashSet()).isEmpty());
+    }
+
     /**
      * Make sure the job status method works.
      *
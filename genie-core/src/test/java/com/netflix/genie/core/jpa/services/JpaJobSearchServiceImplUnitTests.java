@@ -19,13 +19,22 @@ package com.netflix.genie.core.jpa.services;
 
 import com.google.common.collect.Lists;
 import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobOutputSummary;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobStatusTransition;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.jobs.JobSearchResultCache;
+import com.netflix.genie.core.jobs.JobStatusCache;
 import com.netflix.genie.core.jpa.entities.JobEntity;
 import com.netflix.genie.core.jpa.entities.JobExecutionEntity;
+import com.netflix.genie.core.jpa.entities.JobOutputSummaryEntity;
+import com.netflix.genie.core.jpa.entities.JobStatusHistoryEntity;
 import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobOutputSummaryRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatusHistoryRepository;
 import com.netflix.genie.test.categories.UnitTest;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
@@ -34,6 +43,8 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
 
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -48,6 +59,9 @@ public class JpaJobSearchServiceImplUnitTests {
     private JpaJobRepository jobRepository;
     private JpaJobRequestRepository jobRequestRepository;
     private JpaJobExecutionRepository jobExecutionRepository;
+    private JpaJobOutputSummaryRepository jobOutputSummaryRepository;
+    private JpaJobStatusHistoryRepository jobStatusHistoryRepository;
+    private JobStatusCache jobStatusCache;
     private JpaJobSearchServiceImpl service;
 
     /**
@@ -58,8 +72,31 @@ public class JpaJobSearchServiceImplUnitTests {
         this.jobRepository = Mockito.mock(JpaJobRepository.class);
         this.jobRequestRepository = Mockito.mock(JpaJobRequestRepository.class);
         this.jobExecutionRepository = Mockito.mock(JpaJobExecutionRepository.class);
-        this.service
-            = new JpaJobSearchServiceImpl(this.jobRepository, this.jobRequestRepository, this.jobExecutionRepository);
+        this.jobOutputSummaryRepository = Mockito.mock(JpaJobOutputSummaryRepository.class);
+        this.jobStatusHistoryRepository = Mockito.mock(JpaJobStatusHistoryRepository.class);
+        this.jobStatusCache = new JobStatusCache(60000L, 60000L, 10L);
+        this.service = new JpaJobSearchServiceImpl(
+            this.jobRepository,
+            this.jobRequestRepository,
+            this.jobExecutionRepository,
+            this.jobOutputSummaryRepository,
+            this.jobStatusHistoryRepository,
+            this.jobStatusCache,
+            Mockito.mock(JobSearchResultCache.class)
+        );
+    }
+
+    /**
+     * Make sure a cached job status is returned without going to the database.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canGetJobStatusFromCache() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        this.jobStatusCache.put(id, JobStatus.SUCCEEDED);
+        Assert.assertThat(this.service.getJobStatus(id), Matchers.is(JobStatus.SUCCEEDED));
+        Mockito.verifyZeroInteractions(this.jobRepository);
     }
 
     /**
@@ -234,4 +271,110 @@ public class JpaJobSearchServiceImplUnitTests {
 
         Assert.assertThat(this.service.getJobHost(jobId), Matchers.is(hostName));
     }
+
+    /**
+     * Make sure the host of a job is only looked up in the database once.
+     *
+     * @throws GenieException on any problem
+     */
+    @Test
+    public void canGetJobHostFromCache() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        final String hostName = UUID.randomUUID().toString();
+        final JobExecutionEntity jobExecution = Mockito.mock(JobExecutionEntity.class);
+        Mockito.when(jobExecution.getHostName()).thenReturn(hostName);
+        Mockito.when(this.jobExecutionRepository.findOne(jobId)).thenReturn(jobExecution);
+
+        Assert.assertThat(this.service.getJobHost(jobId), Matchers.is(hostName));
+        Assert.assertThat(this.service.getJobHost(jobId), Matchers.is(hostName));
+        Mockito.verify(this.jobExecutionRepository, Mockito.times(1)).findOne(jobId);
+    }
+
+    /**
+     * Make sure a missing output summary results in a not found exception.
+     *
+     * @throws GenieException on any problem
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantGetJobOutputSummaryIfNotSaved() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        Mockito.when(this.jobOutputSummaryRepository.findOne(jobId)).thenReturn(null);
+        this.service.getJobOutputSummary(jobId);
+    }
+
+    /**
+     * Make sure a saved output summary is returned.
+     *
+     * @throws GenieException on any problem
+     */
+    @Test
+    public void canGetJobOutputSummary() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        final JobOutputSummary summary = new JobOutputSummary("out", "", 3L, "err", "", 3L);
+        final JobOutputSummaryEntity entity = new JobOutputSummaryEntity();
+        entity.setId(jobId);
+        entity.setSummary(summary);
+        Mockito.when(this.jobOutputSummaryRepository.findOne(jobId)).thenReturn(entity);
+
+        Assert.assertThat(this.service.getJobOutputSummary(jobId), Matchers.is(summary));
+    }
+
+    /**
+     * Make sure the status history of a job is returned without checking the job itself.
+     *
+     * @throws GenieException on any problem
+     */
+    @Test
+    public void canGetJobStatusHistory() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        final JobStatusHistoryEntity init = new JobStatusHistoryEntity();
+        init.setJobId(jobId);
+        init.setStatus(JobStatus.INIT);
+        init.setTime(new Date(1000L));
+        final JobStatusHistoryEntity running = new JobStatusHistoryEntity();
+        running.setJobId(jobId);
+        running.setPreviousStatus(JobStatus.INIT);
+        running.setStatus(JobStatus.RUNNING);
+        running.setTime(new Date(5000L));
+        Mockito
+            .when(this.jobStatusHistoryRepository.findByJobIdOrderByTimeAsc(jobId))
+            .thenReturn(Lists.newArrayList(init, running));
+
+        final List<JobStatusTransition> history = this.service.getJobStatusHistory(jobId);
+        Assert.assertThat(history.size(), Matchers.is(2));
+        Assert.assertThat(history.get(0).getPreviousStatus(), Matchers.nullValue());
+        Assert.assertThat(history.get(0).getStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(history.get(1).getPreviousStatus(), Matchers.is(JobStatus.INIT));
+        Assert.assertThat(history.get(1).getStatus(), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(history.get(1).getTime().getTime(), Matchers.is(5000L));
+        Mockito.verify(this.jobRepository, Mockito.never()).exists(Mockito.anyString());
+    }
+
+    /**
+     * Make sure a job which exists but has no history yet gets an empty history.
+     *
+     * @throws GenieException on any problem
+     */
+    @Test
+    public void canGetEmptyJobStatusHistory() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        Mockito.when(this.jobStatusHistoryRepository.findByJobIdOrderByTimeAsc(jobId)).thenReturn(Lists.newArrayList());
+        Mockito.when(this.jobRepository.exists(jobId)).thenReturn(true);
+
+        Assert.assertThat(this.service.getJobStatusHistory(jobId), Matchers.empty());
+    }
+
+    /**
+     * Make sure asking for the history of a job which doesn't exist results in a not found exception.
+     *
+     * @throws GenieException on any problem
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantGetJobStatusHistoryForMissingJob() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        Mockito.when(this.jobStatusHistoryRepository.findByJobIdOrderByTimeAsc(jobId)).thenReturn(Lists.newArrayList());
+        Mockito.when(this.jobRepository.exists(jobId)).thenReturn(false);
+
+        this.service.getJobStatusHistory(jobId);
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.metrics;
+
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Unit tests for HibernateCacheMetrics.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class HibernateCacheMetricsUnitTests {
+
+    private Statistics statistics;
+    private Registry registry;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.statistics = Mockito.mock(Statistics.class);
+        this.registry = Mockito.mock(Registry.class);
+        Mockito.when(this.statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+    }
+
+    /**
+     * Make sure the query cache statistics are published.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canPublishQueryCacheStatistics() {
+        Mockito.when(this.statistics.getQueryCacheHitCount()).thenReturn(12L);
+        Mockito.when(this.statistics.getQueryCacheMissCount()).thenReturn(3L);
+
+        new HibernateCacheMetrics(this.statistics, this.registry);
+
+        final ArgumentCaptor<ToDoubleFunction> hits = ArgumentCaptor.forClass(ToDoubleFunction.class);
+        Mockito
+            .verify(this.registry, Mockito.times(1))
+            .gauge(Mockito.eq("genie.jpa.queryCache.hit.gauge"), Mockito.eq(this.statistics), hits.capture());
+        Assert.assertThat(hits.getValue().applyAsDouble(this.statistics), Matchers.is(12.0));
+
+        final ArgumentCaptor<ToDoubleFunction> misses = ArgumentCaptor.forClass(ToDoubleFunction.class);
+        Mockito
+            .verify(this.registry, Mockito.times(1))
+            .gauge(Mockito.eq("genie.jpa.queryCache.miss.gauge"), Mockito.eq(this.statistics), misses.capture());
+        Assert.assertThat(misses.getValue().applyAsDouble(this.statistics), Matchers.is(3.0));
+    }
+
+    /**
+     * Make sure the statistics of every second level cache region are published with the region as a tag.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canPublishRegionStatistics() {
+        final String region = "clusters";
+        Mockito.when(this.statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{region});
+        final SecondLevelCacheStatistics regionStatistics = Mockito.mock(SecondLevelCacheStatistics.class);
+        Mockito.when(regionStatistics.getHitCount()).thenReturn(7L);
+        Mockito.when(regionStatistics.getElementCountInMemory()).thenReturn(2L);
+        Mockito.when(this.statistics.getSecondLevelCacheStatistics(region)).thenReturn(regionStatistics);
+        final Id hitId = Mockito.mock(Id.class);
+        Mockito
+            .when(this.registry.createId("genie.jpa.secondLevelCache.region.hit.gauge", "region", region))
+            .thenReturn(hitId);
+        final Id sizeId = Mockito.mock(Id.class);
+        Mockito
+            .when(this.registry.createId("genie.jpa.secondLevelCache.region.size.gauge", "region", region))
+            .thenReturn(sizeId);
+
+        new HibernateCacheMetrics(this.statistics, this.registry);
+
+        final ArgumentCaptor<ToDoubleFunction> hits = ArgumentCaptor.forClass(ToDoubleFunction.class);
+        Mockito
+            .verify(this.registry, Mockito.times(1))
+            .gauge(Mockito.eq(hitId), Mockito.eq(this.statistics), hits.capture());
+        Assert.assertThat(hits.getValue().applyAsDouble(this.statistics), Matchers.is(7.0));
+
+        final ArgumentCaptor<ToDoubleFunction> size = ArgumentCaptor.forClass(ToDoubleFunction.class);
+        Mockito
+            .verify(this.registry, Mockito.times(1))
+            .gauge(Mockito.eq(sizeId), Mockito.eq(this.statistics), size.capture());
+        Assert.assertThat(size.getValue().applyAsDouble(this.statistics), Matchers.is(2.0));
+    }
+}
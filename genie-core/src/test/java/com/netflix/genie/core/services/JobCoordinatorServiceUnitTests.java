@@ -23,6 +23,7 @@ import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -53,6 +54,7 @@ public class JobCoordinatorServiceUnitTests {
     private JobPersistenceService jobPersistenceService;
     private JobSubmitterService jobSubmitterService;
     private JobKillService jobKillService;
+    private JobIdGenerator jobIdGenerator;
 
     /**
      * Setup for the tests.
@@ -62,11 +64,13 @@ public class JobCoordinatorServiceUnitTests {
         this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
         this.jobSubmitterService = Mockito.mock(JobSubmitterService.class);
         this.jobKillService = Mockito.mock(JobKillService.class);
+        this.jobIdGenerator = Mockito.mock(JobIdGenerator.class);
 
         this.jobCoordinatorService = new JobCoordinatorService(
             this.jobPersistenceService,
             this.jobSubmitterService,
             this.jobKillService,
+            this.jobIdGenerator,
             BASE_ARCHIVE_LOCATION
         );
     }
@@ -109,15 +113,15 @@ public class JobCoordinatorServiceUnitTests {
             .withDisableLogArchival(true)
             .build();
 
-        Mockito.when(this.jobPersistenceService.createJobRequest(Mockito.eq(jobRequest))).thenReturn(jobRequest);
         final ArgumentCaptor<Job> argument = ArgumentCaptor.forClass(Job.class);
 
         this.jobCoordinatorService.coordinateJob(jobRequest, clientHost);
 
-        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).addClientHostToJobRequest(JOB_1_ID, clientHost);
         Mockito.verify(this.jobSubmitterService, Mockito.times(1)).submitJob(jobRequest);
 
-        Mockito.verify(this.jobPersistenceService).createJob(argument.capture());
+        Mockito
+            .verify(this.jobPersistenceService)
+            .createJobAndRequest(Mockito.eq(jobRequest), Mockito.eq(clientHost), argument.capture());
 
         Assert.assertEquals(JOB_1_ID, argument.getValue().getId());
         Assert.assertEquals(JOB_1_NAME, argument.getValue().getName());
@@ -147,10 +151,11 @@ public class JobCoordinatorServiceUnitTests {
             .withId(JOB_1_ID)
             .build();
 
-        Mockito.when(this.jobPersistenceService.createJobRequest(Mockito.eq(jobRequest))).thenReturn(jobRequest);
         final ArgumentCaptor<Job> argument = ArgumentCaptor.forClass(Job.class);
         this.jobCoordinatorService.coordinateJob(jobRequest, clientHost);
-        Mockito.verify(this.jobPersistenceService).createJob(argument.capture());
+        Mockito
+            .verify(this.jobPersistenceService)
+            .createJobAndRequest(Mockito.eq(jobRequest), Mockito.eq(clientHost), argument.capture());
         Assert.assertEquals(BASE_ARCHIVE_LOCATION
             + JobConstants.FILE_PATH_DELIMITER
             + JOB_1_ID
@@ -178,10 +183,11 @@ public class JobCoordinatorServiceUnitTests {
             .withId(JOB_1_ID)
             .build();
 
-        Mockito.when(this.jobPersistenceService.createJobRequest(Mockito.eq(jobRequest))).thenReturn(jobRequest);
         final ArgumentCaptor<Job> argument = ArgumentCaptor.forClass(Job.class);
         this.jobCoordinatorService.coordinateJob(jobRequest, clientHost);
-        Mockito.verify(this.jobPersistenceService).createJob(argument.capture());
+        Mockito
+            .verify(this.jobPersistenceService)
+            .createJobAndRequest(Mockito.eq(jobRequest), Mockito.eq(clientHost), argument.capture());
         Assert.assertNull(argument.getValue().getArchiveLocation());
     }
 
@@ -208,4 +214,14 @@ public class JobCoordinatorServiceUnitTests {
         Mockito.doThrow(new GenieException(123, "fake")).when(this.jobKillService).killJob(id);
         this.jobCoordinatorService.killJob(id);
     }
+
+    /**
+     * Make sure new job ids come from the configured generator.
+     */
+    @Test
+    public void canCreateJobId() {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jobIdGenerator.generateJobId()).thenReturn(id);
+        Assert.assertThat(this.jobCoordinatorService.createJobId(), Matchers.is(id));
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Sets;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Unit tests for the TimeOrderedJobIdGeneratorImpl class.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class TimeOrderedJobIdGeneratorImplUnitTests {
+
+    private static final long NODE = 0x2A5F3C1B0E9D7L;
+
+    private TimeOrderedJobIdGeneratorImpl generator;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.generator = new TimeOrderedJobIdGeneratorImpl(NODE);
+    }
+
+    /**
+     * Make sure the ids are valid version 7 UUIDs carrying the current time and the node.
+     */
+    @Test
+    public void canGenerateUuidCompatibleId() {
+        final long before = System.currentTimeMillis();
+        final UUID uuid = UUID.fromString(this.generator.generateJobId());
+        final long after = System.currentTimeMillis();
+
+        Assert.assertThat(uuid.version(), Matchers.is(7));
+        Assert.assertThat(uuid.variant(), Matchers.is(2));
+        final long time = uuid.getMostSignificantBits() >>> 16;
+        Assert.assertThat(time, Matchers.greaterThanOrEqualTo(before));
+        Assert.assertThat(time, Matchers.lessThanOrEqualTo(after));
+        Assert.assertThat(uuid.getLeastSignificantBits() & ((1L << 54) - 1), Matchers.is(NODE));
+    }
+
+    /**
+     * Make sure ids generated one after the other always sort in the order they were generated.
+     */
+    @Test
+    public void idsAlwaysIncrease() {
+        String previous = this.generator.generateJobId();
+        for (int i = 0; i < 100_000; i++) {
+            final String current = this.generator.generateJobId();
+            Assert.assertThat(current, Matchers.greaterThan(previous));
+            previous = current;
+        }
+    }
+
+    /**
+     * Make sure no id is handed out twice when many threads generate ids at once.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void idsAreUniqueAcrossThreads() throws Exception {
+        final int threads = 8;
+        final int idsPerThread = 10_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<List<String>>> futures = IntStream.range(0, threads)
+                .mapToObj(
+                    i -> executor.submit(
+                        () -> IntStream
+                            .range(0, idsPerThread)
+                            .mapToObj(j -> this.generator.generateJobId())
+                            .collect(Collectors.toList())
+                    )
+                )
+                .collect(Collectors.toList());
+
+            final Set<String> ids = Sets.newHashSet();
+            for (final Future<List<String>> future : futures) {
+                ids.addAll(future.get());
+            }
+            Assert.assertThat(ids.size(), Matchers.is(threads * idsPerThread));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Make sure generators created without a node pick different random nodes.
+     */
+    @Test
+    public void defaultConstructorPicksRandomNode() {
+        final UUID first = UUID.fromString(new TimeOrderedJobIdGeneratorImpl().generateJobId());
+        final UUID second = UUID.fromString(new TimeOrderedJobIdGeneratorImpl().generateJobId());
+        Assert.assertThat(
+            first.getLeastSignificantBits() & ((1L << 54) - 1),
+            Matchers.not(second.getLeastSignificantBits() & ((1L << 54) - 1))
+        );
+    }
+}
@@ -215,6 +215,30 @@ CREATE TABLE `job_executions` (
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `job_output_summaries`
+--
+
+-- The head and tail columns hold 4 byte characters only if clients connect with characterEncoding=UTF-8 and the
+-- server runs with character_set_server=utf8mb4
+DROP TABLE IF EXISTS `job_output_summaries`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `job_output_summaries` (
+  `id` varchar(255) NOT NULL,
+  `created` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `updated` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `entity_version` int(11) NOT NULL DEFAULT '0',
+  `stdout_head` text CHARACTER SET utf8mb4 DEFAULT NULL,
+  `stdout_tail` text CHARACTER SET utf8mb4 DEFAULT NULL,
+  `stdout_size` bigint(20) NOT NULL DEFAULT '0',
+  `stderr_head` text CHARACTER SET utf8mb4 DEFAULT NULL,
+  `stderr_tail` text CHARACTER SET utf8mb4 DEFAULT NULL,
+  `stderr_size` bigint(20) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `job_requests`
 --
@@ -250,6 +274,30 @@ CREATE TABLE `job_requests` (
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `job_stats`
+--
+
+DROP TABLE IF EXISTS `job_stats`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `job_stats` (
+  `id` varchar(255) NOT NULL,
+  `created` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `updated` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `entity_version` int(11) NOT NULL DEFAULT '0',
+  `hour_start` datetime(3) NOT NULL,
+  `host_name` varchar(255) NOT NULL,
+  `status` varchar(20) NOT NULL,
+  `user` varchar(255) NOT NULL,
+  `cluster_name` varchar(255) DEFAULT NULL,
+  `command_name` varchar(255) DEFAULT NULL,
+  `transition_count` bigint(20) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`),
+  KEY `JOB_STATS_HOUR_START_INDEX` (`hour_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `jobs`
 --
@@ -311,6 +359,48 @@ CREATE TABLE `jobs_applications` (
   CONSTRAINT `jobs_applications_ibfk_2` FOREIGN KEY (`application_id`) REFERENCES `applications` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 /*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `node_heartbeats`
+--
+
+DROP TABLE IF EXISTS `node_heartbeats`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `node_heartbeats` (
+  `id` varchar(255) NOT NULL,
+  `created` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `updated` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `entity_version` int(11) NOT NULL DEFAULT '0',
+  `last_heartbeat` datetime(3) NOT NULL,
+  `running_jobs` int(11) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`),
+  KEY `NODE_HEARTBEATS_LAST_HEARTBEAT_INDEX` (`last_heartbeat`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `job_status_history`
+--
+
+DROP TABLE IF EXISTS `job_status_history`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `job_status_history` (
+  `id` varchar(255) NOT NULL,
+  `created` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `updated` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `entity_version` int(11) NOT NULL DEFAULT '0',
+  `job_id` varchar(255) NOT NULL,
+  `previous_status` varchar(20) DEFAULT NULL,
+  `status` varchar(20) NOT NULL,
+  `status_msg` varchar(255) DEFAULT NULL,
+  `transition_time` datetime(3) NOT NULL,
+  `host_name` varchar(255) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `JOB_STATUS_HISTORY_JOB_ID_TRANSITION_TIME_INDEX` (`job_id`,`transition_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+/*!40101 SET character_set_client = @saved_cs_client */;
 /*!40103 SET TIME_ZONE=@OLD_TIME_ZONE */;
 
 /*!40101 SET SQL_MODE=@OLD_SQL_MODE */;
@@ -493,5 +493,71 @@ SELECT CURRENT_TIMESTAMP AS '', 'Dropping the job_tags table for 3.0...' AS '';
 DROP TABLE `job_tags`;
 SELECT CURRENT_TIMESTAMP AS '', 'Successfully dropped the job_tags table.' AS '';
 
+SELECT CURRENT_TIMESTAMP AS '', 'Creating the job_stats table...' AS '';
+CREATE TABLE `job_stats` (
+  `id` VARCHAR(255) NOT NULL,
+  `created` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `updated` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `entity_version` INT(11) NOT NULL DEFAULT 0,
+  `hour_start` DATETIME(3) NOT NULL,
+  `host_name` VARCHAR(255) NOT NULL,
+  `status` VARCHAR(20) NOT NULL,
+  `user` VARCHAR(255) NOT NULL,
+  `cluster_name` VARCHAR(255) DEFAULT NULL,
+  `command_name` VARCHAR(255) DEFAULT NULL,
+  `transition_count` BIGINT(20) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  INDEX `JOB_STATS_HOUR_START_INDEX` (`hour_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created the job_stats table.' AS '';
+
+-- The head and tail columns hold 4 byte characters only if clients connect with characterEncoding=UTF-8 and the
+-- server runs with character_set_server=utf8mb4
+SELECT CURRENT_TIMESTAMP AS '', 'Creating the job_output_summaries table...' AS '';
+CREATE TABLE `job_output_summaries` (
+  `id` VARCHAR(255) NOT NULL,
+  `created` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `updated` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `entity_version` INT(11) NOT NULL DEFAULT 0,
+  `stdout_head` TEXT CHARACTER SET utf8mb4 DEFAULT NULL,
+  `stdout_tail` TEXT CHARACTER SET utf8mb4 DEFAULT NULL,
+  `stdout_size` BIGINT(20) NOT NULL DEFAULT 0,
+  `stderr_head` TEXT CHARACTER SET utf8mb4 DEFAULT NULL,
+  `stderr_tail` TEXT CHARACTER SET utf8mb4 DEFAULT NULL,
+  `stderr_size` BIGINT(20) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created the job_output_summaries table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Creating the node_heartbeats table...' AS '';
+CREATE TABLE `node_heartbeats` (
+  `id` VARCHAR(255) NOT NULL,
+  `created` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `updated` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `entity_version` INT(11) NOT NULL DEFAULT 0,
+  `last_heartbeat` DATETIME(3) NOT NULL,
+  `running_jobs` INT(11) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  INDEX `NODE_HEARTBEATS_LAST_HEARTBEAT_INDEX` (`last_heartbeat`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created the node_heartbeats table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Creating the job_status_history table...' AS '';
+CREATE TABLE `job_status_history` (
+  `id` VARCHAR(255) NOT NULL,
+  `created` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `updated` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  `entity_version` INT(11) NOT NULL DEFAULT 0,
+  `job_id` VARCHAR(255) NOT NULL,
+  `previous_status` VARCHAR(20) DEFAULT NULL,
+  `status` VARCHAR(20) NOT NULL,
+  `status_msg` VARCHAR(255) DEFAULT NULL,
+  `transition_time` DATETIME(3) NOT NULL,
+  `host_name` VARCHAR(255) NOT NULL,
+  PRIMARY KEY (`id`),
+  INDEX `JOB_STATUS_HISTORY_JOB_ID_TRANSITION_TIME_INDEX` (`job_id`, `transition_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created the job_status_history table.' AS '';
+
 SELECT CURRENT_TIMESTAMP AS '', 'Finished upgrading Genie schema from version 2.0.0 to 3.0.0' AS '';
 COMMIT;
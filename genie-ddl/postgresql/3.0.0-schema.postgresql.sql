@@ -172,6 +172,24 @@ CREATE TABLE job_executions (
 );
 
 
+--
+-- Name: job_output_summaries; Type: TABLE; Schema: public; Owner: -
+--
+
+CREATE TABLE job_output_summaries (
+    id character varying(255) NOT NULL,
+    created timestamp(3) without time zone DEFAULT now() NOT NULL,
+    updated timestamp(3) without time zone DEFAULT now() NOT NULL,
+    entity_version integer DEFAULT 0 NOT NULL,
+    stdout_head character varying(10000) DEFAULT NULL::character varying,
+    stdout_tail character varying(10000) DEFAULT NULL::character varying,
+    stdout_size bigint DEFAULT 0 NOT NULL,
+    stderr_head character varying(10000) DEFAULT NULL::character varying,
+    stderr_tail character varying(10000) DEFAULT NULL::character varying,
+    stderr_size bigint DEFAULT 0 NOT NULL
+);
+
+
 --
 -- Name: job_requests; Type: TABLE; Schema: public; Owner: -
 --
@@ -202,6 +220,25 @@ CREATE TABLE job_requests (
 );
 
 
+--
+-- Name: job_stats; Type: TABLE; Schema: public; Owner: -
+--
+
+CREATE TABLE job_stats (
+    id character varying(255) NOT NULL,
+    created timestamp(3) without time zone DEFAULT now() NOT NULL,
+    updated timestamp(3) without time zone DEFAULT now() NOT NULL,
+    entity_version integer DEFAULT 0 NOT NULL,
+    hour_start timestamp(3) without time zone NOT NULL,
+    host_name character varying(255) NOT NULL,
+    status character varying(20) NOT NULL,
+    "user" character varying(255) NOT NULL,
+    cluster_name character varying(255) DEFAULT NULL::character varying,
+    command_name character varying(255) DEFAULT NULL::character varying,
+    transition_count bigint DEFAULT 0 NOT NULL
+);
+
+
 --
 -- Name: jobs; Type: TABLE; Schema: public; Owner: -
 --
@@ -240,6 +277,38 @@ CREATE TABLE jobs_applications (
 );
 
 
+--
+-- Name: node_heartbeats; Type: TABLE; Schema: public; Owner: -
+--
+
+CREATE TABLE node_heartbeats (
+    id character varying(255) NOT NULL,
+    created timestamp(3) without time zone DEFAULT now() NOT NULL,
+    updated timestamp(3) without time zone DEFAULT now() NOT NULL,
+    entity_version integer DEFAULT 0 NOT NULL,
+    last_heartbeat timestamp(3) without time zone NOT NULL,
+    running_jobs integer DEFAULT 0 NOT NULL
+);
+
+
+--
+-- Name: job_status_history; Type: TABLE; Schema: public; Owner: -
+--
+
+CREATE TABLE job_status_history (
+    id character varying(255) NOT NULL,
+    created timestamp(3) without time zone DEFAULT now() NOT NULL,
+    updated timestamp(3) without time zone DEFAULT now() NOT NULL,
+    entity_version integer DEFAULT 0 NOT NULL,
+    job_id character varying(255) NOT NULL,
+    previous_status character varying(20),
+    status character varying(20) NOT NULL,
+    status_msg character varying(255),
+    transition_time timestamp(3) without time zone NOT NULL,
+    host_name character varying(255) NOT NULL
+);
+
+
 --
 -- Name: application_pkey; Type: CONSTRAINT; Schema: public; Owner: -
 --
@@ -272,6 +341,14 @@ ALTER TABLE ONLY jobs
     ADD CONSTRAINT job_pkey PRIMARY KEY (id);
 
 
+--
+-- Name: job_output_summaries_pkey; Type: CONSTRAINT; Schema: public; Owner: -
+--
+
+ALTER TABLE ONLY job_output_summaries
+    ADD CONSTRAINT job_output_summaries_pkey PRIMARY KEY (id);
+
+
 --
 -- Name: job_requests_pkey; Type: CONSTRAINT; Schema: public; Owner: -
 --
@@ -280,6 +357,30 @@ ALTER TABLE ONLY job_requests
     ADD CONSTRAINT job_requests_pkey PRIMARY KEY (id);
 
 
+--
+-- Name: job_stats_pkey; Type: CONSTRAINT; Schema: public; Owner: -
+--
+
+ALTER TABLE ONLY job_stats
+    ADD CONSTRAINT job_stats_pkey PRIMARY KEY (id);
+
+
+--
+-- Name: node_heartbeats_pkey; Type: CONSTRAINT; Schema: public; Owner: -
+--
+
+ALTER TABLE ONLY node_heartbeats
+    ADD CONSTRAINT node_heartbeats_pkey PRIMARY KEY (id);
+
+
+--
+-- Name: job_status_history_pkey; Type: CONSTRAINT; Schema: public; Owner: -
+--
+
+ALTER TABLE ONLY job_status_history
+    ADD CONSTRAINT job_status_history_pkey PRIMARY KEY (id);
+
+
 --
 -- Name: applications_name_index; Type: INDEX; Schema: public; Owner: -
 --
@@ -371,6 +472,13 @@ CREATE INDEX job_executions_hostname_index ON job_executions USING btree (host_n
 CREATE INDEX job_requests_created_index ON job_requests USING btree (created);
 
 
+--
+-- Name: job_stats_hour_start_index; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX job_stats_hour_start_index ON job_stats USING btree (hour_start);
+
+
 --
 -- Name: jobs_cluster_name_index; Type: INDEX; Schema: public; Owner: -
 --
@@ -427,6 +535,20 @@ CREATE INDEX jobs_tags_index ON jobs USING btree (tags);
 CREATE INDEX jobs_user_index ON jobs USING btree ("user");
 
 
+--
+-- Name: node_heartbeats_last_heartbeat_index; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX node_heartbeats_last_heartbeat_index ON node_heartbeats USING btree (last_heartbeat);
+
+
+--
+-- Name: job_status_history_job_id_transition_time_index; Type: INDEX; Schema: public; Owner: -
+--
+
+CREATE INDEX job_status_history_job_id_transition_time_index ON job_status_history USING btree (job_id, transition_time);
+
+
 --
 -- Name: application_configs_application_id_fkey; Type: FK CONSTRAINT; Schema: public; Owner: -
 --
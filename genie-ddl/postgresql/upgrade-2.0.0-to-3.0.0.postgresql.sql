@@ -525,6 +525,73 @@ SELECT CURRENT_TIMESTAMP, 'Dropping the job_tags table for 3.0...';
 DROP TABLE job_tags;
 SELECT CURRENT_TIMESTAMP, 'Successfully dropped the job_tags table.';
 
+SELECT CURRENT_TIMESTAMP, 'Creating the job_stats table...';
+CREATE TABLE job_stats (
+  id VARCHAR(255) NOT NULL,
+  created TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  entity_version INT NOT NULL DEFAULT 0,
+  hour_start TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL,
+  host_name VARCHAR(255) NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  "user" VARCHAR(255) NOT NULL,
+  cluster_name VARCHAR(255) DEFAULT NULL,
+  command_name VARCHAR(255) DEFAULT NULL,
+  transition_count BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id)
+);
+SELECT CURRENT_TIMESTAMP, 'Successfully created the job_stats table.';
+
+CREATE INDEX JOB_STATS_HOUR_START_INDEX ON job_stats (hour_start);
+
+SELECT CURRENT_TIMESTAMP, 'Creating the job_output_summaries table...';
+CREATE TABLE job_output_summaries (
+  id VARCHAR(255) NOT NULL,
+  created TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  entity_version INT NOT NULL DEFAULT 0,
+  stdout_head VARCHAR(10000) DEFAULT NULL,
+  stdout_tail VARCHAR(10000) DEFAULT NULL,
+  stdout_size BIGINT NOT NULL DEFAULT 0,
+  stderr_head VARCHAR(10000) DEFAULT NULL,
+  stderr_tail VARCHAR(10000) DEFAULT NULL,
+  stderr_size BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id)
+);
+SELECT CURRENT_TIMESTAMP, 'Successfully created the job_output_summaries table.';
+
+SELECT CURRENT_TIMESTAMP, 'Creating the node_heartbeats table...';
+CREATE TABLE node_heartbeats (
+  id VARCHAR(255) NOT NULL,
+  created TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  entity_version INT NOT NULL DEFAULT 0,
+  last_heartbeat TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL,
+  running_jobs INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (id)
+);
+SELECT CURRENT_TIMESTAMP, 'Successfully created the node_heartbeats table.';
+
+CREATE INDEX NODE_HEARTBEATS_LAST_HEARTBEAT_INDEX ON node_heartbeats (last_heartbeat);
+
+SELECT CURRENT_TIMESTAMP, 'Creating the job_status_history table...';
+CREATE TABLE job_status_history (
+  id VARCHAR(255) NOT NULL,
+  created TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  entity_version INT NOT NULL DEFAULT 0,
+  job_id VARCHAR(255) NOT NULL,
+  previous_status VARCHAR(20) DEFAULT NULL,
+  status VARCHAR(20) NOT NULL,
+  status_msg VARCHAR(255) DEFAULT NULL,
+  transition_time TIMESTAMP(3) WITHOUT TIME ZONE NOT NULL,
+  host_name VARCHAR(255) NOT NULL,
+  PRIMARY KEY (id)
+);
+SELECT CURRENT_TIMESTAMP, 'Successfully created the job_status_history table.';
+
+CREATE INDEX JOB_STATUS_HISTORY_JOB_ID_TRANSITION_TIME_INDEX ON job_status_history (job_id, transition_time);
+
 SELECT CURRENT_TIMESTAMP, 'Finished upgrading Genie schema from version 2.0.0 to 3.0.0';
 
 COMMIT;
@@ -18,11 +18,15 @@
 package com.netflix.genie.web.configs;
 
 import com.google.common.collect.Lists;
+import com.netflix.genie.web.properties.JobForwardingProperties;
+import com.netflix.genie.web.properties.JobOutputStreamingProperties;
 import com.netflix.genie.web.resources.handlers.GenieResourceHttpRequestHandler;
 import com.netflix.genie.web.resources.writers.DefaultDirectoryWriter;
 import com.netflix.genie.web.resources.writers.DirectoryWriter;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.ApplicationContext;
@@ -31,13 +35,17 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration for Spring MVC.
@@ -86,14 +94,81 @@ public class MvcConfig extends WebMvcConfigurerAdapter {
     }
 
     /**
-     * Get an HttpClient for calling between Genie nodes.
+     * Get an HttpClient for calling between Genie nodes. Connections are pooled per target host and every request
+     * is bounded by the configured timeouts so a slow or dead node can't hold request threads forever. Content
+     * compression is disabled so compressed job output is passed through to the client untouched instead of being
+     * decompressed and sent on as identity.
      *
+     * @param jobForwardingProperties The properties configuring how requests are forwarded between nodes
      * @return The http client to use
      */
     @Bean
     @ConditionalOnMissingBean
-    public HttpClient genieMvcHttpClient() {
-        return HttpClients.createDefault();
+    public HttpClient genieMvcHttpClient(final JobForwardingProperties jobForwardingProperties) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(jobForwardingProperties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(jobForwardingProperties.getMaxConnectionsPerHost());
+
+        final RequestConfig requestConfig = RequestConfig
+            .custom()
+            .setConnectTimeout(jobForwardingProperties.getConnectTimeout())
+            .setConnectionRequestTimeout(jobForwardingProperties.getConnectTimeout())
+            .setSocketTimeout(jobForwardingProperties.getReadTimeout())
+            .build();
+
+        return HttpClients
+            .custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .disableContentCompression()
+            .build();
+    }
+
+    /**
+     * Get the executor which streams job output to clients once the request thread has been released. Every
+     * forwarded, followed, archived or searched output response holds one of these threads until it's done so the
+     * pool is bounded and, once it and its queue are full, new requests are rejected with a 503 rather than
+     * starting an unbounded number of threads.
+     *
+     * @param jobOutputStreamingProperties The properties bounding the executor
+     * @return The executor to run asynchronous requests on
+     */
+    @Bean
+    public ThreadPoolTaskExecutor jobOutputStreamingTaskExecutor(
+        final JobOutputStreamingProperties jobOutputStreamingProperties
+    ) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // Streams last as long as the transfer so queued requests would wait for whole downloads. Grow to the
+        // maximum number of threads first and only queue once they're all busy.
+        executor.setCorePoolSize(jobOutputStreamingProperties.getThreads());
+        executor.setMaxPoolSize(jobOutputStreamingProperties.getThreads());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(jobOutputStreamingProperties.getQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("genie-output-");
+        return executor;
+    }
+
+    /**
+     * Get the configuration of asynchronous request processing. Without it Spring MVC runs every streaming response
+     * on a new thread and never times them out.
+     *
+     * @param jobOutputStreamingTaskExecutor The executor to run asynchronous requests on
+     * @param jobOutputStreamingProperties   The properties with the timeout of asynchronous requests
+     * @return The configurer of asynchronous request processing
+     */
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer(
+        final ThreadPoolTaskExecutor jobOutputStreamingTaskExecutor,
+        final JobOutputStreamingProperties jobOutputStreamingProperties
+    ) {
+        return new WebMvcConfigurerAdapter() {
+            @Override
+            public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(jobOutputStreamingTaskExecutor);
+                configurer.setDefaultTimeout(jobOutputStreamingProperties.getTimeout());
+            }
+        };
     }
 
     /**
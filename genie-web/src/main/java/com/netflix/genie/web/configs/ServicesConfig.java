@@ -18,19 +18,26 @@
 package com.netflix.genie.web.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobSearchResultCache;
+import com.netflix.genie.core.jobs.JobStatusCache;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
 import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobOutputSummaryRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatsRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatusHistoryRepository;
+import com.netflix.genie.core.jpa.repositories.JpaNodeHeartbeatRepository;
 import com.netflix.genie.core.jpa.services.JpaApplicationServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaClusterServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaCommandServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobPersistenceServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobSearchServiceImpl;
 import com.netflix.genie.core.metrics.GenieNodeStatistics;
+import com.netflix.genie.core.metrics.HibernateCacheMetrics;
 import com.netflix.genie.core.metrics.impl.GenieNodeStatisticsImpl;
 import com.netflix.genie.core.services.ApplicationService;
 import com.netflix.genie.core.services.ClusterLoadBalancer;
@@ -38,6 +45,7 @@ import com.netflix.genie.core.services.ClusterService;
 import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.FileTransfer;
 import com.netflix.genie.core.services.JobCoordinatorService;
+import com.netflix.genie.core.services.JobIdGenerator;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSearchService;
@@ -49,7 +57,12 @@ import com.netflix.genie.core.services.impl.LocalJobKillServiceImpl;
 import com.netflix.genie.core.services.impl.LocalJobRunner;
 import com.netflix.genie.core.services.impl.MailServiceImpl;
 import com.netflix.genie.core.services.impl.RandomizedClusterLoadBalancerImpl;
+import com.netflix.genie.core.services.impl.TimeOrderedJobIdGeneratorImpl;
+import com.netflix.genie.web.properties.JobSearchCacheProperties;
+import com.netflix.genie.web.properties.JobStatusCacheProperties;
+import com.netflix.spectator.api.Registry;
 import org.apache.commons.exec.Executor;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -59,6 +72,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
 import org.springframework.mail.javamail.JavaMailSender;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 
 /**
@@ -164,32 +178,105 @@ public class ServicesConfig {
         return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo);
     }
 
+    /**
+     * Get the in-memory cache of job statuses.
+     *
+     * @param jobStatusCacheProperties The properties configuring the cache
+     * @return The job status cache
+     */
+    @Bean
+    public JobStatusCache jobStatusCache(final JobStatusCacheProperties jobStatusCacheProperties) {
+        return new JobStatusCache(
+            jobStatusCacheProperties.getActiveTtl(),
+            jobStatusCacheProperties.getFinishedTtl(),
+            jobStatusCacheProperties.getMaxSize()
+        );
+    }
+
+    /**
+     * Get the short lived cache of job search results.
+     *
+     * @param jobSearchCacheProperties The properties configuring the cache
+     * @param registry                 The metrics registry to use
+     * @return The job search result cache
+     */
+    @Bean
+    public JobSearchResultCache jobSearchResultCache(
+        final JobSearchCacheProperties jobSearchCacheProperties,
+        final Registry registry
+    ) {
+        return new JobSearchResultCache(
+            jobSearchCacheProperties.getTtl(),
+            jobSearchCacheProperties.getMaxSize(),
+            registry
+        );
+    }
+
+    /**
+     * Publish the statistics of the Hibernate second level and query caches.
+     *
+     * @param entityManagerFactory The entity manager factory whose caches should be published
+     * @param registry             The metrics registry to use
+     * @return The cache metrics
+     */
+    @Bean
+    public HibernateCacheMetrics hibernateCacheMetrics(
+        final EntityManagerFactory entityManagerFactory,
+        final Registry registry
+    ) {
+        return new HibernateCacheMetrics(
+            entityManagerFactory.unwrap(SessionFactory.class).getStatistics(),
+            registry
+        );
+    }
+
     /**
      * Get JPA based implementation of the JobSearchService.
      *
      * @param jobRepository          The repository to use for job entities
      * @param jobRequestRepository   The repository to use for job request entities
      * @param jobExecutionRepository The repository to use for job execution entities
+     * @param jobOutputSummaryRepo   The repository to use for job output summary entities
+     * @param jobStatusHistoryRepo   The repository to use for job status history entities
+     * @param jobStatusCache         The cache of job statuses to use
+     * @param jobSearchResultCache   The cache of job search results to use
      * @return A job search service instance.
      */
     @Bean
     public JobSearchService jobSearchService(
         final JpaJobRepository jobRepository,
         final JpaJobRequestRepository jobRequestRepository,
-        final JpaJobExecutionRepository jobExecutionRepository
+        final JpaJobExecutionRepository jobExecutionRepository,
+        final JpaJobOutputSummaryRepository jobOutputSummaryRepo,
+        final JpaJobStatusHistoryRepository jobStatusHistoryRepo,
+        final JobStatusCache jobStatusCache,
+        final JobSearchResultCache jobSearchResultCache
     ) {
-        return new JpaJobSearchServiceImpl(jobRepository, jobRequestRepository, jobExecutionRepository);
+        return new JpaJobSearchServiceImpl(
+            jobRepository,
+            jobRequestRepository,
+            jobExecutionRepository,
+            jobOutputSummaryRepo,
+            jobStatusHistoryRepo,
+            jobStatusCache,
+            jobSearchResultCache
+        );
     }
 
     /**
      * Get JPA based implementation of the JobPersistenceService.
      *
-     * @param jobRepo          The job repository to use
-     * @param jobRequestRepo   The job request repository to use
-     * @param jobExecutionRepo The jobExecution Repository to use
-     * @param applicationRepo  The application repository to use
-     * @param clusterRepo      The cluster repository to use
-     * @param commandRepo      The command repository to use
+     * @param jobRepo              The job repository to use
+     * @param jobRequestRepo       The job request repository to use
+     * @param jobExecutionRepo     The jobExecution Repository to use
+     * @param applicationRepo      The application repository to use
+     * @param clusterRepo          The cluster repository to use
+     * @param commandRepo          The command repository to use
+     * @param jobStatsRepo         The job statistics repository to use
+     * @param jobOutputSummaryRepo The job output summary repository to use
+     * @param nodeHeartbeatRepo    The node heartbeat repository to use
+     * @param jobStatusHistoryRepo The job status history repository to use
+     * @param eventPublisher       The publisher to notify of job status changes
      * @return A job search service instance.
      */
     @Bean
@@ -199,7 +286,12 @@ public class ServicesConfig {
         final JpaJobExecutionRepository jobExecutionRepo,
         final JpaApplicationRepository applicationRepo,
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final JpaJobStatsRepository jobStatsRepo,
+        final JpaJobOutputSummaryRepository jobOutputSummaryRepo,
+        final JpaNodeHeartbeatRepository nodeHeartbeatRepo,
+        final JpaJobStatusHistoryRepository jobStatusHistoryRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
         return new JpaJobPersistenceServiceImpl(
             jobRepo,
@@ -207,7 +299,12 @@ public class ServicesConfig {
             jobExecutionRepo,
             applicationRepo,
             clusterRepo,
-            commandRepo
+            commandRepo,
+            jobStatsRepo,
+            jobOutputSummaryRepo,
+            nodeHeartbeatRepo,
+            jobStatusHistoryRepo,
+            eventPublisher
         );
     }
 
@@ -306,12 +403,25 @@ public class ServicesConfig {
         );
     }
 
+    /**
+     * Get the default generator of job ids, which creates time ordered ids. Define another JobIdGenerator bean to
+     * replace it.
+     *
+     * @return A time ordered job id generator
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JobIdGenerator jobIdGenerator() {
+        return new TimeOrderedJobIdGeneratorImpl();
+    }
+
     /**
      * Get an instance of the JobCoordinatorService.
      *
      * @param jobPersistenceService implementation of job persistence service interface
      * @param jobSubmitterService   implementation of the job submitter service
      * @param jobKillService        The job kill service to use
+     * @param jobIdGenerator        The generator of ids for jobs submitted without one
      * @param baseArchiveLocation   The base directory location of where the job dir should be archived
      * @return An instance of the JobCoordinatorService.
      */
@@ -320,6 +430,7 @@ public class ServicesConfig {
         final JobPersistenceService jobPersistenceService,
         final JobSubmitterService jobSubmitterService,
         final JobKillService jobKillService,
+        final JobIdGenerator jobIdGenerator,
         @Value("${genie.jobs.archive.location}")
         final String baseArchiveLocation
     ) {
@@ -327,6 +438,7 @@ public class ServicesConfig {
             jobPersistenceService,
             jobSubmitterService,
             jobKillService,
+            jobIdGenerator,
             baseArchiveLocation);
     }
 }
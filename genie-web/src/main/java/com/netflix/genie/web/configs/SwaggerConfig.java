@@ -59,7 +59,10 @@ public class SwaggerConfig {
 //                                        + "&lt;/a&gt;.&lt;br/&gt;",
                     "See our <a href=\"http://netflix.github.io/genie\">GitHub Page</a> for more "
                         + "documentation.<br/>Post any issues found "
-                        + "<a href=\"https://github.com/Netflix/genie/issues\">here</a>.<br/>",
+                        + "<a href=\"https://github.com/Netflix/genie/issues\">here</a>.<br/>"
+                        + "Each node caches applications, commands, clusters and cluster resolution results for up "
+                        + "to 5 seconds. Changes made through one node may take that long to be used by jobs "
+                        + "submitted to other nodes.<br/>",
                     "3.0.0",
                     null,
                     new Contact("Netflix, Inc.", "https://jobs.netflix.com/", null),
@@ -57,7 +57,9 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * REST end-point for supporting clusters.
+ * REST end-point for supporting clusters. Each node caches clusters and the results of resolving clusters for jobs for
+ * up to five seconds so changes like a new status, tags or commands may take that long to affect jobs submitted to
+ * other nodes.
  *
  * @author tgianos
  * @since 3.0.0
@@ -17,11 +17,37 @@
  */
 package com.netflix.genie.web.controllers;
 
+import com.google.common.collect.ImmutableSet;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.web.properties.JobForwardingProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.util.EntityUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Set;
 
 /**
  * Utility methods re-used in various controllers.
@@ -32,6 +58,19 @@ import javax.servlet.http.HttpServletRequest;
 @Slf4j
 public final class ControllerUtils {
 
+    private static final int FORWARD_BUFFER_SIZE = 8 * 1024;
+    // Headers which only apply to a single connection so mustn't be passed on from the other node's response
+    private static final Set<String> HOP_BY_HOP_HEADERS = ImmutableSet.of(
+        "connection",
+        "keep-alive",
+        "proxy-authenticate",
+        "proxy-authorization",
+        "te",
+        "trailer",
+        "transfer-encoding",
+        "upgrade"
+    );
+
     /**
      * Constructor.
      */
@@ -57,4 +96,171 @@ public final class ControllerUtils {
         log.debug("Remaining path = {}", path);
         return path;
     }
+
+    /**
+     * Get a file or directory within the directory of a job. The path is normalized and anything which would end up
+     * outside the job directory, like a path containing .. or an absolute path, is rejected so requests can't read
+     * other files on the node.
+     *
+     * @param jobsDir The directory jobs are run in on this node
+     * @param id      The id of the job
+     * @param path    The path within the job directory. Blank for the job directory itself.
+     * @return The file or directory, which may not exist
+     * @throws GeniePreconditionException If the id or path point outside the job directory
+     * @throws IOException                If the jobs directory can't be resolved on the file system
+     */
+    public static File getJobFile(
+        final Resource jobsDir,
+        final String id,
+        final String path
+    ) throws GeniePreconditionException, IOException {
+        final Path jobsPath = jobsDir.getFile().toPath().toAbsolutePath().normalize();
+        try {
+            final Path jobPath = jobsPath.resolve(id).normalize();
+            if (!jobPath.startsWith(jobsPath) || jobPath.equals(jobsPath)) {
+                throw new GeniePreconditionException("Invalid job id " + id);
+            }
+            final Path filePath = StringUtils.isBlank(path) ? jobPath : jobPath.resolve(path).normalize();
+            if (!filePath.startsWith(jobPath)) {
+                throw new GeniePreconditionException("Path " + path + " is outside the directory of job " + id);
+            }
+            return filePath.toFile();
+        } catch (final InvalidPathException ipe) {
+            throw new GeniePreconditionException("Invalid path " + path + " for job " + id, ipe);
+        }
+    }
+
+    /**
+     * Get the URL to send a request to on the node running a job. The path and query of the original request are
+     * kept as is.
+     *
+     * @param request                 The http servlet request
+     * @param jobHostname             The host the job is running on
+     * @param jobForwardingProperties The properties with the scheme and port the other node listens on
+     * @return The URL to forward or redirect the request to
+     */
+    public static String getForwardUrl(
+        final HttpServletRequest request,
+        final String jobHostname,
+        final JobForwardingProperties jobForwardingProperties
+    ) {
+        return jobForwardingProperties.getScheme()
+            + "://"
+            + jobHostname
+            + ":"
+            + jobForwardingProperties.getPort()
+            + request.getRequestURI()
+            + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+    }
+
+    /**
+     * Copy the headers of a request onto the request forwarding it to another node and mark it as forwarded.
+     *
+     * @param request        The http servlet request
+     * @param forwardRequest The request to send to the other node
+     */
+    public static void copyRequestHeaders(final HttpServletRequest request, final HttpRequestBase forwardRequest) {
+        // Copy all the headers (necessary for ACCEPT and security headers especially)
+        final Enumeration<String> headerNames = request.getHeaderNames();
+        if (headerNames != null) {
+            while (headerNames.hasMoreElements()) {
+                final String headerName = headerNames.nextElement();
+                final String headerValue = request.getHeader(headerName);
+                log.debug("Request Header: name = {} value = {}", headerName, headerValue);
+                forwardRequest.addHeader(headerName, headerValue);
+            }
+        }
+
+        // This method only called when need to forward so add the forwarded from header
+        forwardRequest.addHeader(JobConstants.GENIE_FORWARDED_FROM_HEADER, request.getRequestURL().toString());
+    }
+
+    /**
+     * Copy the headers of a response from another node onto the response to the client. Headers which only apply to
+     * the connection to the other node, like Transfer-Encoding, are left out.
+     *
+     * @param response        The http servlet response
+     * @param forwardResponse The response from the other node
+     */
+    public static void copyResponseHeaders(final HttpServletResponse response, final HttpResponse forwardResponse) {
+        for (final Header header : forwardResponse.getAllHeaders()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.getName().toLowerCase())) {
+                response.setHeader(header.getName(), header.getValue());
+            }
+        }
+    }
+
+    /**
+     * Send a GET or HEAD request for job output on to the node running the job. If forwarding is configured to
+     * redirect the client gets a 307 to the other node. Otherwise the request is sent to the other node with the same
+     * method and its status and headers are copied to the response. Errors are sent to the client straight away.
+     * <p>
+     * The body is copied on an async thread once the calling method returns. Writes to the client block the copy so
+     * the other node is only read as fast as the client reads. Whatever has arrived is flushed to the client before
+     * waiting for more so output which is still being written, like a followed file, reaches the client right away.
+     *
+     * @param request                 The http servlet request
+     * @param response                The http servlet response
+     * @param jobHostname             The host the job is running on
+     * @param jobForwardingProperties The properties with how to reach the other node
+     * @param httpClient              The http client to forward the request with
+     * @return The body which copies the response of the other node or null if the response was already handled
+     * @throws IOException If the request can't be sent to the other node
+     */
+    public static StreamingResponseBody forwardRequest(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final String jobHostname,
+        final JobForwardingProperties jobForwardingProperties,
+        final HttpClient httpClient
+    ) throws IOException {
+        final String forwardUrl = getForwardUrl(request, jobHostname, jobForwardingProperties);
+        if (jobForwardingProperties.isRedirect()) {
+            // 307 so the client repeats the same method against the node running the job
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, forwardUrl);
+            return null;
+        }
+
+        // Use Apache HttpClient for access to the response as a stream. RestTemplate reads the entire payload into
+        // memory and output files like stdout can be huge.
+        // HEAD is passed on as is so clients can find the size of a file without the other node sending it
+        final HttpRequestBase forwardRequest = HttpMethod.HEAD.name().equals(request.getMethod())
+            ? new HttpHead(forwardUrl)
+            : new HttpGet(forwardUrl);
+        copyRequestHeaders(request, forwardRequest);
+        final HttpResponse forwardResponse = httpClient.execute(forwardRequest);
+
+        final int statusCode = forwardResponse.getStatusLine().getStatusCode();
+        final HttpEntity entity = forwardResponse.getEntity();
+        if (statusCode >= HttpStatus.BAD_REQUEST.value()) {
+            EntityUtils.consumeQuietly(entity);
+            response.sendError(statusCode, forwardResponse.getStatusLine().getReasonPhrase());
+            return null;
+        }
+
+        response.setStatus(statusCode);
+        copyResponseHeaders(response, forwardResponse);
+        if (entity == null) {
+            // e.g. Not modified
+            return null;
+        }
+        return outputStream -> {
+            try {
+                final InputStream inputStream = entity.getContent();
+                final byte[] buffer = new byte[FORWARD_BUFFER_SIZE];
+                for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+                    outputStream.write(buffer, 0, read);
+                    if (inputStream.available() == 0) {
+                        outputStream.flush();
+                    }
+                }
+                EntityUtils.consume(entity);
+            } catch (final IOException ioe) {
+                // Don't read the rest of a possibly huge or still growing file just to reuse the connection
+                forwardRequest.abort();
+                throw ioe;
+            }
+        };
+    }
 }
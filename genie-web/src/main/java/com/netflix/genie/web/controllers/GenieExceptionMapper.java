@@ -36,6 +36,7 @@ import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Exception mapper for Genie Exceptions.
@@ -132,4 +133,21 @@ public class GenieExceptionMapper {
         this.constraintViolationRate.increment();
         response.sendError(HttpStatus.PRECONDITION_FAILED.value(), builder.toString());
     }
+
+    /**
+     * Handle requests which couldn't be processed asynchronously because all the threads for streaming responses are
+     * busy.
+     *
+     * @param response The HTTP response
+     * @param ree      The exception to handle
+     * @throws IOException on error in sending error
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public void handleRejectedExecution(
+            final HttpServletResponse response,
+            final RejectedExecutionException ree
+    ) throws IOException {
+        this.serverUnavailableRate.increment();
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests. Try again later.");
+    }
 }
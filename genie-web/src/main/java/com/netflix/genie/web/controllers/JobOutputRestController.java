@@ -0,0 +1,648 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.controllers;
+
+import com.google.common.io.ByteStreams;
+import com.netflix.genie.common.dto.JobOutputSummary;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.web.properties.JobForwardingProperties;
+import com.netflix.genie.web.properties.JobOutputGrepProperties;
+import com.netflix.genie.web.resources.handlers.GenieResourceHttpRequestHandler;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * REST end-points for working with the output of a job on the node it ran on rather than copying files to the client,
+ * like downloading the whole directory as one archive or searching a file. Like the other output end-points requests
+ * for jobs running on other nodes are redirected or forwarded to that node.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@RestController
+@RequestMapping(value = "/api/v3/jobs")
+@Slf4j
+public class JobOutputRestController {
+
+    private static final String TAR_GZ = "tar.gz";
+    private static final String ZIP = "zip";
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
+    private static final String ZIP_CONTENT_TYPE = "application/zip";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final JobSearchService jobSearchService;
+    private final JobForwardingProperties jobForwardingProperties;
+    private final JobOutputGrepProperties jobOutputGrepProperties;
+    private final String hostName;
+    private final HttpClient httpClient;
+    private final Resource jobsDir;
+
+    // Metrics
+    private final Counter getJobOutputArchiveRate;
+    private final Counter grepJobOutputRate;
+    private final Counter getJobOutputSummaryRate;
+
+    /**
+     * Constructor.
+     *
+     * @param jobSearchService        The service to find where jobs ran
+     * @param jobForwardingProperties The properties controlling whether requests go to the node running the job
+     * @param jobOutputGrepProperties The properties limiting searches of output files
+     * @param hostName                The hostname this Genie instance is running on
+     * @param httpClient              The http client to use for forwarding requests
+     * @param jobsDir                 The directory jobs are run in on this node
+     * @param registry                The metrics registry to use
+     */
+    @Autowired
+    public JobOutputRestController(
+        final JobSearchService jobSearchService,
+        final JobForwardingProperties jobForwardingProperties,
+        final JobOutputGrepProperties jobOutputGrepProperties,
+        final String hostName,
+        final HttpClient httpClient,
+        final Resource jobsDir,
+        final Registry registry
+    ) {
+        this.jobSearchService = jobSearchService;
+        this.jobForwardingProperties = jobForwardingProperties;
+        this.jobOutputGrepProperties = jobOutputGrepProperties;
+        this.hostName = hostName;
+        this.httpClient = httpClient;
+        this.jobsDir = jobsDir;
+
+        this.getJobOutputArchiveRate = registry.counter("genie.api.v3.jobs.getJobOutputArchive.rate");
+        this.grepJobOutputRate = registry.counter("genie.api.v3.jobs.grepJobOutput.rate");
+        this.getJobOutputSummaryRate = registry.counter("genie.api.v3.jobs.getJobOutputSummary.rate");
+    }
+
+    /**
+     * Download the output directory of a job, or any directory or file within it, as a single archive. The archive
+     * is written to the response as the directory is walked so nothing is buffered in memory or on disk. Entry
+     * names start with the job id so archives of different jobs can be extracted side by side.
+     *
+     * @param id            The id of the job
+     * @param format        The archive format. Either tar.gz or zip.
+     * @param forwardedFrom The host this request was forwarded from if present
+     * @param request       the servlet request
+     * @param response      the servlet response
+     * @return The body which streams the archive or null if the response was already handled
+     * @throws GenieException For any error
+     * @throws IOException    If the directory can't be read or the request can't be forwarded
+     */
+    @RequestMapping(
+        value = {
+            "/{id}/output",
+            "/{id}/output/",
+            "/{id}/output/**"
+        },
+        params = "archive",
+        method = RequestMethod.GET,
+        produces = MediaType.ALL_VALUE
+    )
+    public StreamingResponseBody getJobOutputArchive(
+        @PathVariable("id") final String id,
+        @RequestParam("archive") final String format,
+        @RequestHeader(name = JobConstants.GENIE_FORWARDED_FROM_HEADER, required = false) final String forwardedFrom,
+        final HttpServletRequest request,
+        final HttpServletResponse response
+    ) throws GenieException, IOException {
+        log.debug("[getJobOutputArchive] Called for job with id {} as {}", id, format);
+        this.getJobOutputArchiveRate.increment();
+
+        if (!TAR_GZ.equals(format) && !ZIP.equals(format)) {
+            throw new GeniePreconditionException("Unsupported archive format " + format + ". Use tar.gz or zip.");
+        }
+
+        if (this.jobForwardingProperties.isEnabled() && forwardedFrom == null) {
+            final String jobHostname = this.jobSearchService.getJobHost(id);
+            if (!this.hostName.equals(jobHostname)) {
+                return ControllerUtils.forwardRequest(
+                    request,
+                    response,
+                    jobHostname,
+                    this.jobForwardingProperties,
+                    this.httpClient
+                );
+            }
+        }
+
+        final String path = ControllerUtils.getRemainingPath(request);
+        final String relativePath = StringUtils.isBlank(path) ? id : id + "/" + StringUtils.stripEnd(path, "/");
+        final File root = ControllerUtils.getJobFile(this.jobsDir, id, path);
+        if (!root.exists()) {
+            throw new GenieNotFoundException("No output " + relativePath + " found for job " + id);
+        }
+
+        response.setContentType(TAR_GZ.equals(format) ? GZIP_CONTENT_TYPE : ZIP_CONTENT_TYPE);
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"" + relativePath.replace('/', '-') + "." + format + "\""
+        );
+        // Names in the archive are relative to the jobs directory so they all start with the job id
+        final Path base = this.jobsDir.getFile().toPath();
+        final Path excluded = this.jobsDir
+            .createRelative(id + "/" + GenieResourceHttpRequestHandler.PRECOMPRESSED_DIRECTORY)
+            .getFile()
+            .toPath();
+        return outputStream -> {
+            final ArchiveWriter writer
+                = TAR_GZ.equals(format) ? new TarGzWriter(outputStream) : new ZipWriter(outputStream);
+            this.writeArchive(root.toPath(), base, excluded, writer);
+            writer.finish();
+            outputStream.flush();
+        };
+    }
+
+    /**
+     * Get the head and tail of the standard output and standard error of a finished job. The summary is captured
+     * when the job completes and stored centrally so it's answered by any node without forwarding the request to the
+     * node the job ran on and keeps working after the job directory has been cleaned up. As this path takes
+     * precedence a file named summary at the top of a job directory can only be fetched as part of an archive of the
+     * whole directory.
+     *
+     * @param id The id of the job
+     * @return The output summary of the job
+     * @throws GenieException If the job hasn't finished, no summary was captured or for any other error
+     */
+    @RequestMapping(
+        value = "/{id}/output/summary",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public JobOutputSummary getJobOutputSummary(@PathVariable("id") final String id) throws GenieException {
+        log.debug("[getJobOutputSummary] Called for job with id {}", id);
+        this.getJobOutputSummaryRate.increment();
+        return this.jobSearchService.getJobOutputSummary(id);
+    }
+
+    /**
+     * Search a file in the output directory of a job for lines matching a regular expression. Only the matching
+     * lines, prefixed by their line number, and the requested lines of context around them are sent in the same
+     * format as grep -n. The search stops once the maximum number of matches is found or it has run for the
+     * configured time and a final line starting with -- says why.
+     *
+     * @param id            The id of the job
+     * @param regex         The regular expression to search each line for
+     * @param context       The number of lines before and after each match to include
+     * @param max           The maximum number of matches to send. Limited by the configured maximum.
+     * @param forwardedFrom The host this request was forwarded from if present
+     * @param request       the servlet request
+     * @param response      the servlet response
+     * @return The body which streams the matching lines or null if the response was already handled
+     * @throws GenieException For any error
+     * @throws IOException    If the file can't be read or the request can't be forwarded
+     */
+    @RequestMapping(
+        value = "/{id}/output/**",
+        params = "grep",
+        method = RequestMethod.GET,
+        produces = MediaType.ALL_VALUE
+    )
+    public StreamingResponseBody grepJobOutput(
+        @PathVariable("id") final String id,
+        @RequestParam("grep") final String regex,
+        @RequestParam(value = "context", defaultValue = "0") final int context,
+        @RequestParam(value = "max", required = false) final Integer max,
+        @RequestHeader(name = JobConstants.GENIE_FORWARDED_FROM_HEADER, required = false) final String forwardedFrom,
+        final HttpServletRequest request,
+        final HttpServletResponse response
+    ) throws GenieException, IOException {
+        log.debug("[grepJobOutput] Called for job with id {} to find {}", id, regex);
+        this.grepJobOutputRate.increment();
+
+        final Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (final PatternSyntaxException pse) {
+            throw new GeniePreconditionException("Invalid regular expression " + regex, pse);
+        }
+        if (context < 0 || context > this.jobOutputGrepProperties.getMaxContext()) {
+            throw new GeniePreconditionException(
+                "Context must be between 0 and " + this.jobOutputGrepProperties.getMaxContext() + " lines"
+            );
+        }
+        if (max != null && max < 1) {
+            throw new GeniePreconditionException("Max matches must be positive");
+        }
+
+        if (this.jobForwardingProperties.isEnabled() && forwardedFrom == null) {
+            final String jobHostname = this.jobSearchService.getJobHost(id);
+            if (!this.hostName.equals(jobHostname)) {
+                return ControllerUtils.forwardRequest(
+                    request,
+                    response,
+                    jobHostname,
+                    this.jobForwardingProperties,
+                    this.httpClient
+                );
+            }
+        }
+
+        final String path = ControllerUtils.getRemainingPath(request);
+        final File file = StringUtils.isBlank(path) ? null : ControllerUtils.getJobFile(this.jobsDir, id, path);
+        if (file == null || !file.isFile()) {
+            throw new GenieNotFoundException("No output file " + path + " found for job " + id);
+        }
+
+        final int maxMatches = max == null
+            ? this.jobOutputGrepProperties.getMaxMatches()
+            : Math.min(max, this.jobOutputGrepProperties.getMaxMatches());
+        // Only search what's there now even if a running job keeps writing to the file
+        final long length = file.length();
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8");
+        return outputStream -> {
+            // Don't close the writer as that would close the underlying stream which belongs to the container
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+            final LineMatcher matcher = new LineMatcher(
+                pattern,
+                context,
+                maxMatches,
+                System.currentTimeMillis() + this.jobOutputGrepProperties.getTimeout(),
+                writer
+            );
+            try (final InputStream inputStream = ByteStreams.limit(Files.newInputStream(file.toPath()), length)) {
+                this.readLines(inputStream, matcher);
+            } catch (final SearchTimeoutException ste) {
+                matcher.stop("Reached the time limit of " + this.jobOutputGrepProperties.getTimeout() + " ms");
+            }
+            writer.flush();
+        };
+    }
+
+    private void readLines(final InputStream inputStream, final LineMatcher matcher) throws IOException {
+        // Lines longer than the limit are cut off so a file without line breaks can't use up the heap
+        final byte[] line = new byte[this.jobOutputGrepProperties.getMaxLineLength()];
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int lineLength = 0;
+        for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    if (!matcher.accept(new String(line, 0, lineLength, UTF_8))) {
+                        return;
+                    }
+                    lineLength = 0;
+                } else if (lineLength < line.length) {
+                    line[lineLength++] = buffer[i];
+                }
+            }
+        }
+        if (lineLength > 0) {
+            matcher.accept(new String(line, 0, lineLength, UTF_8));
+        }
+    }
+
+    private void writeArchive(
+        final Path root,
+        final Path base,
+        final Path excluded,
+        final ArchiveWriter writer
+    ) throws IOException {
+        Files.walkFileTree(
+            root,
+            new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(
+                    final Path dir,
+                    final BasicFileAttributes attributes
+                ) throws IOException {
+                    // Compressed copies of output kept for serving would only duplicate files in the archive
+                    if (dir.equals(excluded)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    writer.putDirectory(getName(base, dir) + "/", attributes);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(
+                    final Path file,
+                    final BasicFileAttributes attributes
+                ) throws IOException {
+                    if (!attributes.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    final InputStream inputStream;
+                    try {
+                        inputStream = Files.newInputStream(file);
+                    } catch (final IOException ioe) {
+                        log.debug("Unable to read {}. Leaving it out of the archive.", file, ioe);
+                        return FileVisitResult.CONTINUE;
+                    }
+                    try {
+                        writer.putFile(getName(base, file), attributes, inputStream);
+                    } finally {
+                        inputStream.close();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                    log.debug("Unable to read {}. Leaving it out of the archive.", file, exc);
+                    return FileVisitResult.CONTINUE;
+                }
+            }
+        );
+    }
+
+    private String getName(final Path base, final Path path) {
+        return base.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Writes the entries of an archive to a stream one at a time.
+     */
+    private interface ArchiveWriter {
+
+        void putDirectory(String name, BasicFileAttributes attributes) throws IOException;
+
+        void putFile(String name, BasicFileAttributes attributes, InputStream contents) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Writes a gzip compressed tar archive.
+     */
+    private static final class TarGzWriter implements ArchiveWriter {
+
+        private final GZIPOutputStream gzip;
+        private final TarArchiveOutputStream tar;
+        private final byte[] padding = new byte[BUFFER_SIZE];
+
+        private TarGzWriter(final OutputStream outputStream) throws IOException {
+            // Shield the response stream as closing it is up to the container
+            this.gzip = new GZIPOutputStream(new CloseShieldOutputStream(outputStream), BUFFER_SIZE);
+            this.tar = new TarArchiveOutputStream(this.gzip);
+            this.tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            this.tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        }
+
+        @Override
+        public void putDirectory(final String name, final BasicFileAttributes attributes) throws IOException {
+            final TarArchiveEntry entry = new TarArchiveEntry(name);
+            entry.setModTime(attributes.lastModifiedTime().toMillis());
+            this.tar.putArchiveEntry(entry);
+            this.tar.closeArchiveEntry();
+        }
+
+        @Override
+        public void putFile(
+            final String name,
+            final BasicFileAttributes attributes,
+            final InputStream contents
+        ) throws IOException {
+            // The size is in the header so send exactly that many bytes even if a running job changes the file
+            final long size = attributes.size();
+            final TarArchiveEntry entry = new TarArchiveEntry(name);
+            entry.setSize(size);
+            entry.setModTime(attributes.lastModifiedTime().toMillis());
+            this.tar.putArchiveEntry(entry);
+            long remaining = size - ByteStreams.copy(ByteStreams.limit(contents, size), this.tar);
+            while (remaining > 0) {
+                final int count = (int) Math.min(remaining, this.padding.length);
+                this.tar.write(this.padding, 0, count);
+                remaining -= count;
+            }
+            this.tar.closeArchiveEntry();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            this.tar.finish();
+            this.gzip.finish();
+        }
+    }
+
+    /**
+     * Writes a zip archive.
+     */
+    private static final class ZipWriter implements ArchiveWriter {
+
+        private final ZipOutputStream zip;
+
+        private ZipWriter(final OutputStream outputStream) {
+            // Shield the response stream as closing it is up to the container
+            this.zip = new ZipOutputStream(new CloseShieldOutputStream(outputStream));
+        }
+
+        @Override
+        public void putDirectory(final String name, final BasicFileAttributes attributes) throws IOException {
+            final ZipEntry entry = new ZipEntry(name);
+            entry.setTime(attributes.lastModifiedTime().toMillis());
+            this.zip.putNextEntry(entry);
+            this.zip.closeEntry();
+        }
+
+        @Override
+        public void putFile(
+            final String name,
+            final BasicFileAttributes attributes,
+            final InputStream contents
+        ) throws IOException {
+            final ZipEntry entry = new ZipEntry(name);
+            entry.setTime(attributes.lastModifiedTime().toMillis());
+            this.zip.putNextEntry(entry);
+            ByteStreams.copy(ByteStreams.limit(contents, attributes.size()), this.zip);
+            this.zip.closeEntry();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            this.zip.finish();
+        }
+    }
+
+    /**
+     * Thrown when a search runs past its deadline.
+     */
+    private static final class SearchTimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * A character sequence which fails once a deadline passes so a pathological regular expression can't keep
+     * matching a single line forever.
+     */
+    private static final class DeadlineCharSequence implements CharSequence {
+
+        private static final int CHECK_INTERVAL = 4096;
+
+        private final CharSequence delegate;
+        private final long deadline;
+        private int calls;
+
+        private DeadlineCharSequence(final CharSequence delegate, final long deadline) {
+            this.delegate = delegate;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int length() {
+            return this.delegate.length();
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (++this.calls % CHECK_INTERVAL == 0 && System.currentTimeMillis() > this.deadline) {
+                throw new SearchTimeoutException();
+            }
+            return this.delegate.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return new DeadlineCharSequence(this.delegate.subSequence(start, end), this.deadline);
+        }
+
+        @Override
+        public String toString() {
+            return this.delegate.toString();
+        }
+    }
+
+    /**
+     * Matches lines one at a time and writes the matches with their context in the format of grep -n.
+     */
+    private static final class LineMatcher {
+
+        private final Pattern pattern;
+        private final int context;
+        private final int maxMatches;
+        private final long deadline;
+        private final Writer writer;
+        private final Deque<String> before;
+        private long lineNumber;
+        private long lastWritten;
+        private int afterRemaining;
+        private int matches;
+
+        private LineMatcher(
+            final Pattern pattern,
+            final int context,
+            final int maxMatches,
+            final long deadline,
+            final Writer writer
+        ) {
+            this.pattern = pattern;
+            this.context = context;
+            this.maxMatches = maxMatches;
+            this.deadline = deadline;
+            this.writer = writer;
+            this.before = new ArrayDeque<>(context + 1);
+        }
+
+        /**
+         * Process the next line of the file.
+         *
+         * @param line The line without its line break
+         * @return true if the search should continue
+         * @throws IOException if the output can't be written
+         */
+        private boolean accept(final String line) throws IOException {
+            this.lineNumber++;
+            if (this.pattern.matcher(new DeadlineCharSequence(line, this.deadline)).find()) {
+                if (this.matches == this.maxMatches) {
+                    this.stop("Reached the limit of " + this.maxMatches + " matches");
+                    return false;
+                }
+                this.matches++;
+                final long first = this.lineNumber - this.before.size();
+                if (this.lastWritten > 0 && first > this.lastWritten + 1) {
+                    this.writer.write("--\n");
+                }
+                long number = first;
+                for (final String previous : this.before) {
+                    this.write(number++, '-', previous);
+                }
+                this.before.clear();
+                this.write(this.lineNumber, ':', line);
+                this.afterRemaining = this.context;
+            } else if (this.afterRemaining > 0) {
+                this.write(this.lineNumber, '-', line);
+                this.afterRemaining--;
+            } else if (this.context > 0) {
+                this.before.addLast(line);
+                if (this.before.size() > this.context) {
+                    this.before.removeFirst();
+                }
+            }
+            if (System.currentTimeMillis() > this.deadline) {
+                throw new SearchTimeoutException();
+            }
+            return true;
+        }
+
+        private void stop(final String reason) throws IOException {
+            this.writer.write("-- Stopped searching at line " + this.lineNumber + ". " + reason + ".\n");
+        }
+
+        private void write(final long number, final char separator, final String line) throws IOException {
+            this.writer.write(Long.toString(number));
+            this.writer.write(separator);
+            this.writer.write(line);
+            this.writer.write('\n');
+            this.lastWritten = number;
+        }
+    }
+}
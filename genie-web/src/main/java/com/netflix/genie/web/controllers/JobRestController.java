@@ -19,10 +19,12 @@ package com.netflix.genie.web.controllers;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.google.common.io.ByteStreams;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobStatusTransition;
 import com.netflix.genie.common.dto.search.JobSearchResult;
+import com.netflix.genie.common.dto.search.JobStatistic;
+import com.netflix.genie.common.dto.search.JobStatisticDimension;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
@@ -50,12 +52,11 @@ import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpDelete;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -78,21 +79,20 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Date;
 import java.util.EnumSet;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -108,6 +108,9 @@ import java.util.stream.Collectors;
 public class JobRestController {
 
     private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final long DEFAULT_STATISTICS_RANGE = 24L * 60L * 60L * 1000L;
+    // Keeps the request line of a bulk lookup within the default maximum HTTP header size
+    private static final int MAX_BULK_JOB_IDS = 100;
 
     private final JobCoordinatorService jobCoordinatorService;
     private final JobSearchService jobSearchService;
@@ -131,9 +134,12 @@ public class JobRestController {
     private final Counter getJobRate;
     private final Counter getJobStatusRate;
     private final Counter findJobsRate;
+    private final Counter getJobStatisticsRate;
+    private final Counter getJobSummariesRate;
     private final Counter killJobRate;
     private final Counter getJobRequestRate;
     private final Counter getJobExecutionRate;
+    private final Counter getJobTimelineRate;
     private final Counter getJobClusterRate;
     private final Counter getJobCommandRate;
     private final Counter getJobApplicationsRate;
@@ -199,9 +205,12 @@ public class JobRestController {
         this.getJobRate = registry.counter("genie.api.v3.jobs.getJob.rate");
         this.getJobStatusRate = registry.counter("genie.api.v3.jobs.getJobStatus.rate");
         this.findJobsRate = registry.counter("genie.api.v3.jobs.findJobs.rate");
+        this.getJobStatisticsRate = registry.counter("genie.api.v3.jobs.getJobStatistics.rate");
+        this.getJobSummariesRate = registry.counter("genie.api.v3.jobs.getJobSummaries.rate");
         this.killJobRate = registry.counter("genie.api.v3.jobs.killJob.rate");
         this.getJobRequestRate = registry.counter("genie.api.v3.jobs.getJobRequest.rate");
         this.getJobExecutionRate = registry.counter("genie.api.v3.jobs.getJobExecution.rate");
+        this.getJobTimelineRate = registry.counter("genie.api.v3.jobs.getJobTimeline.rate");
         this.getJobClusterRate = registry.counter("genie.api.v3.jobs.getJobCluster.rate");
         this.getJobCommandRate = registry.counter("genie.api.v3.jobs.getJobCommand.rate");
         this.getJobApplicationsRate = registry.counter("genie.api.v3.jobs.getJobApplications.rate");
@@ -284,7 +293,7 @@ public class JobRestController {
             jobId = jobRequest.getId();
             jobRequestWithId = jobRequest;
         } else {
-            jobId = UUID.randomUUID().toString();
+            jobId = this.jobCoordinatorService.createJobId();
             jobRequestWithId = new JobRequest.Builder(
                 jobRequest.getName(),
                 jobRequest.getUser(),
@@ -347,20 +356,30 @@ public class JobRestController {
     }
 
     /**
-     * Get the status of the given job if it exists.
+     * Get the status of the given job if it exists. The status is used as the ETag of the response so pollers which
+     * send it back in an If-None-Match header get an empty 304 response until the status changes.
      *
-     * @param id The id of the job to get status for
-     * @return The status of the job as one of: {@link JobStatus}
+     * @param id         The id of the job to get status for
+     * @param webRequest The current request used to check the If-None-Match header
+     * @return The status of the job as one of: {@link JobStatus} or null if it hasn't changed since the client
+     * last checked
      * @throws GenieException on error
      */
     @RequestMapping(value = "/{id}/status", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-    public JsonNode getJobStatus(@PathVariable("id") final String id) throws GenieException {
+    public JsonNode getJobStatus(
+        @PathVariable("id") final String id,
+        final WebRequest webRequest
+    ) throws GenieException {
         log.debug("[getJobStatus] Called for job with id: {}", id);
         this.getJobStatusRate.increment();
+        final String status = this.jobSearchService.getJobStatus(id).toString();
+        if (webRequest.checkNotModified(status)) {
+            return null;
+        }
         final JsonNodeFactory factory = JsonNodeFactory.instance;
         return factory
             .objectNode()
-            .set("status", factory.textNode(this.jobSearchService.getJobStatus(id).toString()));
+            .set("status", factory.textNode(status));
     }
 
     /**
@@ -483,6 +502,103 @@ public class JobRestController {
         );
     }
 
+    /**
+     * Get the summary, including the current status, of many jobs at once. Jobs which don't exist are left out of the
+     * results.
+     *
+     * @param ids The ids of the jobs to get. At most 100 at a time.
+     * @return The summaries of the jobs that were found
+     * @throws GenieException For any error
+     */
+    @RequestMapping(value = "/summaries", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public List<JobSearchResult> getJobSummaries(@RequestParam("id") final Set<String> ids) throws GenieException {
+        log.debug("[getJobSummaries] Called for {} jobs", ids.size());
+        this.getJobSummariesRate.increment();
+        final Set<String> jobIds = ids.stream().filter(StringUtils::isNotBlank).collect(Collectors.toSet());
+        if (jobIds.size() > MAX_BULK_JOB_IDS) {
+            throw new GeniePreconditionException(
+                "Can only get " + MAX_BULK_JOB_IDS + " jobs at a time. Requested " + jobIds.size()
+            );
+        }
+        return this.jobSearchService.getJobSearchResults(jobIds);
+    }
+
+    /**
+     * Get pre-aggregated statistics on the number of jobs which transitioned into each status over a time range.
+     * Served from hourly rollups so the cost doesn't depend on how many jobs match. Statistics are flushed from each
+     * node periodically so the most recent changes may not be reflected yet.
+     *
+     * @param from        The start of the time range in epoch milliseconds (inclusive). Defaults to 24 hours ago.
+     *                    Rounded down to the hour.
+     * @param to          The end of the time range in epoch milliseconds (exclusive). Defaults to now.
+     * @param groupBy     The dimensions to group by. Any of hour, status, user, clusterName or commandName.
+     * @param statuses    Only count transitions into these statuses
+     * @param user        Only count jobs owned by this user
+     * @param clusterName Only count jobs run on the cluster with this name
+     * @param commandName Only count jobs run using the command with this name
+     * @return The statistics for each combination of the group by dimensions
+     * @throws GenieException For any error
+     */
+    @RequestMapping(value = "/stats", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public List<JobStatistic> getJobStatistics(
+        @RequestParam(value = "from", required = false) final Long from,
+        @RequestParam(value = "to", required = false) final Long to,
+        @RequestParam(value = "groupBy", required = false) final Set<String> groupBy,
+        @RequestParam(value = "status", required = false) final Set<String> statuses,
+        @RequestParam(value = "user", required = false) final String user,
+        @RequestParam(value = "clusterName", required = false) final String clusterName,
+        @RequestParam(value = "commandName", required = false) final String commandName
+    ) throws GenieException {
+        log.debug(
+            "[getJobStatistics] Called with from {}, to {}, groupBy {}, statuses {}, user {}, cluster {}, command {}",
+            from,
+            to,
+            groupBy,
+            statuses,
+            user,
+            clusterName,
+            commandName
+        );
+        this.getJobStatisticsRate.increment();
+
+        final Date toDate = to == null ? new Date() : new Date(to);
+        final Date fromDate = from == null ? new Date(toDate.getTime() - DEFAULT_STATISTICS_RANGE) : new Date(from);
+        if (!fromDate.before(toDate)) {
+            throw new GeniePreconditionException("The from time must be before the to time");
+        }
+
+        final Set<JobStatisticDimension> dimensions = EnumSet.noneOf(JobStatisticDimension.class);
+        if (groupBy != null) {
+            for (final String dimension : groupBy) {
+                if (StringUtils.isNotBlank(dimension)) {
+                    dimensions.add(JobStatisticDimension.parse(dimension));
+                }
+            }
+        }
+
+        Set<JobStatus> enumStatuses = null;
+        if (statuses != null && !statuses.isEmpty()) {
+            enumStatuses = EnumSet.noneOf(JobStatus.class);
+            for (final String status : statuses) {
+                if (StringUtils.isNotBlank(status)) {
+                    enumStatuses.add(JobStatus.parse(status));
+                }
+            }
+        }
+
+        return this.jobSearchService.getJobStatistics(
+            fromDate,
+            toDate,
+            dimensions,
+            enumStatuses,
+            user,
+            clusterName,
+            commandName
+        );
+    }
+
     /**
      * Kill job based on given job ID.
      *
@@ -495,7 +611,6 @@ public class JobRestController {
      * @throws ServletException when trying to handle the request
      */
     @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
-    @ResponseStatus(HttpStatus.ACCEPTED)
     public void killJob(
         @PathVariable("id") final String id,
         @RequestHeader(name = JobConstants.GENIE_FORWARDED_FROM_HEADER, required = false) final String forwardedFrom,
@@ -509,19 +624,31 @@ public class JobRestController {
         if (this.jobForwardingProperties.isEnabled() && forwardedFrom == null) {
             final String jobHostname = this.jobSearchService.getJobHost(id);
             if (!this.hostName.equals(jobHostname)) {
+                final String forwardUrl
+                    = ControllerUtils.getForwardUrl(request, jobHostname, this.jobForwardingProperties);
+                if (this.jobForwardingProperties.isRedirect()) {
+                    this.redirect(response, forwardUrl);
+                    return;
+                }
+
                 //Need to forward job
-                final HttpDelete deleteRequest = new HttpDelete(this.buildForwardURL(request, jobHostname));
-                this.copyRequestHeaders(request, deleteRequest);
+                final HttpDelete deleteRequest = new HttpDelete(forwardUrl);
+                ControllerUtils.copyRequestHeaders(request, deleteRequest);
                 final HttpResponse deleteResponse = this.httpClient.execute(deleteRequest);
 
-                if (this.forwardResponseHasError(response, deleteResponse)) {
-                    // Method already sent error through servlet response
-                    return;
+                try {
+                    if (this.forwardResponseHasError(response, deleteResponse)) {
+                        // Method already sent error through servlet response
+                        return;
+                    }
+
+                    response.setStatus(HttpStatus.ACCEPTED.value());
+                    ControllerUtils.copyResponseHeaders(response, deleteResponse);
+                } finally {
+                    // Release the connection back to the pool
+                    EntityUtils.consumeQuietly(deleteResponse.getEntity());
                 }
 
-                response.setStatus(HttpStatus.ACCEPTED.value());
-                this.copyResponseHeaders(response, deleteResponse);
-
                 // No need to do anything on this node
                 return;
             }
@@ -562,6 +689,22 @@ public class JobRestController {
         return this.jobExecutionResourceAssembler.toResource(this.jobSearchService.getJobExecution(id));
     }
 
+    /**
+     * Get every status transition recorded for a job, oldest first. Transitions are written to the history in batches
+     * by the node which made them so the most recent ones may take a few seconds to show up.
+     *
+     * @param id The id of the job
+     * @return The status transitions of the job in the order they happened
+     * @throws GenieException GenieNotFoundException if the job doesn't exist
+     */
+    @RequestMapping(value = "/{id}/timeline", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public List<JobStatusTransition> getJobTimeline(@PathVariable("id") final String id) throws GenieException {
+        log.info("[getJobTimeline] Called for job with id {}", id);
+        this.getJobTimelineRate.increment();
+        return this.jobSearchService.getJobStatusHistory(id);
+    }
+
     /**
      * Get the cluster the job was run on or is currently running on.
      *
@@ -613,12 +756,17 @@ public class JobRestController {
     }
 
     /**
-     * Get the job output directory.
+     * Get the job output directory. HEAD requests are answered too so clients can find the size of a file before
+     * downloading it in ranges.
+     * <p>
+     * If the job is running on another node the request is either redirected there or the output is streamed from
+     * that node asynchronously so no request thread is held for the duration of the transfer.
      *
      * @param id            The id of the job to get output for
      * @param forwardedFrom The host this request was forwarded from if present
      * @param request       the servlet request
      * @param response      the servlet response
+     * @return The body to stream from the node running the job or null if the response was already handled
      * @throws IOException      on redirect error
      * @throws ServletException when trying to handle the request
      * @throws GenieException   on any Genie internal error
@@ -629,10 +777,10 @@ public class JobRestController {
             "/{id}/output/",
             "/{id}/output/**"
         },
-        method = RequestMethod.GET,
+        method = {RequestMethod.GET, RequestMethod.HEAD},
         produces = MediaType.ALL_VALUE
     )
-    public void getJobOutput(
+    public StreamingResponseBody getJobOutput(
         @PathVariable("id") final String id,
         @RequestHeader(name = JobConstants.GENIE_FORWARDED_FROM_HEADER, required = false) final String forwardedFrom,
         final HttpServletRequest request,
@@ -648,29 +796,13 @@ public class JobRestController {
             //       and it would return false on check if the job with given id is running on that node
             final String jobHostname = this.jobSearchService.getJobHost(id);
             if (!this.hostName.equals(jobHostname)) {
-                // Use Apache HttpClient for easier access to result bytes as stream than RestTemplate
-                // RestTemplate read entire byte[] payload into memory before the result object even given back to
-                // application control. Concerned about people getting stdout which could be huge file.
-                final HttpGet getRequest = new HttpGet(this.buildForwardURL(request, jobHostname));
-                this.copyRequestHeaders(request, getRequest);
-                final HttpResponse getResponse = this.httpClient.execute(getRequest);
-
-                if (this.forwardResponseHasError(response, getResponse)) {
-                    // Method already sent error through servlet response
-                    return;
-                }
-
-                response.setStatus(HttpStatus.OK.value());
-                this.copyResponseHeaders(response, getResponse);
-
-                // Documentation I could find pointed to the HttpEntity reading the bytes off the stream so this should
-                // resolve memory problems if the file returned is large
-                try (final InputStream inputStream = getResponse.getEntity().getContent()) {
-                    ByteStreams.copy(inputStream, response.getOutputStream());
-                }
-
-                //No need to search on this node
-                return;
+                return ControllerUtils.forwardRequest(
+                    request,
+                    response,
+                    jobHostname,
+                    this.jobForwardingProperties,
+                    this.httpClient
+                );
             }
         }
 
@@ -684,31 +816,13 @@ public class JobRestController {
         request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, id + "/" + path);
 
         this.resourceHttpRequestHandler.handleRequest(request, response);
+        return null;
     }
 
-    private String buildForwardURL(final HttpServletRequest request, final String jobHostname) {
-        return this.jobForwardingProperties.getScheme()
-            + "://"
-            + jobHostname
-            + ":"
-            + this.jobForwardingProperties.getPort()
-            + request.getRequestURI();
-    }
-
-    private void copyRequestHeaders(final HttpServletRequest request, final HttpRequestBase forwardRequest) {
-        // Copy all the headers (necessary for ACCEPT and security headers especially)
-        final Enumeration<String> headerNames = request.getHeaderNames();
-        if (headerNames != null) {
-            while (headerNames.hasMoreElements()) {
-                final String headerName = headerNames.nextElement();
-                final String headerValue = request.getHeader(headerName);
-                log.debug("Request Header: name = {} value = {}", headerName, headerValue);
-                forwardRequest.addHeader(headerName, headerValue);
-            }
-        }
-
-        // This method only called when need to forward so add the forwarded from header
-        forwardRequest.addHeader(JobConstants.GENIE_FORWARDED_FROM_HEADER, request.getRequestURL().toString());
+    private void redirect(final HttpServletResponse response, final String location) {
+        // 307 so the client repeats the same method (e.g. DELETE) against the node running the job
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, location);
     }
 
     private boolean forwardResponseHasError(
@@ -716,17 +830,11 @@ public class JobRestController {
         final HttpResponse forwardResponse
     ) throws IOException {
         final int statusCode = forwardResponse.getStatusLine().getStatusCode();
-        if (statusCode != HttpStatus.OK.value() && statusCode != HttpStatus.ACCEPTED.value()) {
+        if (statusCode >= HttpStatus.BAD_REQUEST.value()) {
             response.sendError(statusCode, forwardResponse.getStatusLine().getReasonPhrase());
             return true;
         } else {
             return false;
         }
     }
-
-    private void copyResponseHeaders(final HttpServletResponse response, final HttpResponse forwardResponse) {
-        for (final Header header : forwardResponse.getAllHeaders()) {
-            response.setHeader(header.getName(), header.getValue());
-        }
-    }
 }
@@ -0,0 +1,427 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.web.properties.JobForwardingProperties;
+import com.netflix.genie.web.properties.JobWatchProperties;
+import com.netflix.genie.web.tasks.job.JobStatusWatcher;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * REST end-points for waiting on job status changes and following job output without polling. Requests are held
+ * using asynchronous servlet support so waiting clients don't tie up request threads.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@RestController
+@RequestMapping(value = "/api/v3/jobs")
+@Slf4j
+public class JobWatchRestController {
+
+    private static final String STATUS = "status";
+    private static final String TEXT_EVENT_STREAM_VALUE = "text/event-stream";
+
+    private final JobSearchService jobSearchService;
+    private final JobStatusWatcher jobStatusWatcher;
+    private final JobWatchProperties jobWatchProperties;
+    private final JobForwardingProperties jobForwardingProperties;
+    private final String hostName;
+    private final HttpClient httpClient;
+    private final Resource jobsDir;
+
+    // Metrics
+    private final Counter waitForJobStatusRate;
+    private final Counter streamJobStatusRate;
+    private final Counter followJobOutputRate;
+    private final Counter followJobOutputRejectedRate;
+
+    private final Semaphore followers;
+
+    /**
+     * Constructor.
+     *
+     * @param jobSearchService        The service to get job statuses from
+     * @param jobStatusWatcher        The watcher to register for job status changes with
+     * @param jobWatchProperties      The properties controlling how long clients can wait
+     * @param jobForwardingProperties The properties controlling whether requests go to the node running the job
+     * @param hostName                The hostname this Genie instance is running on
+     * @param httpClient              The http client to use for forwarding requests
+     * @param jobsDir                 The directory jobs are run in on this node
+     * @param registry                The metrics registry to use
+     */
+    @Autowired
+    public JobWatchRestController(
+        final JobSearchService jobSearchService,
+        final JobStatusWatcher jobStatusWatcher,
+        final JobWatchProperties jobWatchProperties,
+        final JobForwardingProperties jobForwardingProperties,
+        final String hostName,
+        final HttpClient httpClient,
+        final Resource jobsDir,
+        final Registry registry
+    ) {
+        this.jobSearchService = jobSearchService;
+        this.jobStatusWatcher = jobStatusWatcher;
+        this.jobWatchProperties = jobWatchProperties;
+        this.jobForwardingProperties = jobForwardingProperties;
+        this.hostName = hostName;
+        this.httpClient = httpClient;
+        this.jobsDir = jobsDir;
+
+        this.waitForJobStatusRate = registry.counter("genie.api.v3.jobs.waitForJobStatus.rate");
+        this.streamJobStatusRate = registry.counter("genie.api.v3.jobs.streamJobStatus.rate");
+        this.followJobOutputRate = registry.counter("genie.api.v3.jobs.followJobOutput.rate");
+        this.followJobOutputRejectedRate = registry.counter("genie.api.v3.jobs.followJobOutputRejected.rate");
+
+        this.followers = new Semaphore(jobWatchProperties.getMaxFollowers());
+        registry.gauge("genie.api.v3.jobs.followers.gauge", this.followers, this::countFollowers);
+    }
+
+    /**
+     * Wait for a job to reach one of the given statuses. Returns as soon as the job is in one of the statuses, is
+     * finished or the timeout elapses. In every case the response is the current status of the job.
+     *
+     * @param id      The id of the job to wait for
+     * @param waitFor The statuses to wait for
+     * @param timeout How long to wait in milliseconds. Defaults to and is limited by the configured maximum wait.
+     * @return The result which will be set to the status of the job
+     * @throws GenieException For any error
+     */
+    @RequestMapping(
+        value = "/{id}/status",
+        params = "waitFor",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public DeferredResult<JsonNode> waitForJobStatus(
+        @PathVariable("id") final String id,
+        @RequestParam("waitFor") final Set<String> waitFor,
+        @RequestParam(value = "timeout", required = false) final Long timeout
+    ) throws GenieException {
+        log.debug("[waitForJobStatus] Called for job with id {} to wait for {}", id, waitFor);
+        this.waitForJobStatusRate.increment();
+
+        final Set<JobStatus> statuses = EnumSet.noneOf(JobStatus.class);
+        for (final String status : waitFor) {
+            if (StringUtils.isNotBlank(status)) {
+                statuses.add(JobStatus.parse(status));
+            }
+        }
+        if (statuses.isEmpty()) {
+            throw new GeniePreconditionException("At least one status to wait for is required");
+        }
+
+        final long maxWait = this.jobWatchProperties.getMaxWait();
+        final DeferredResult<JsonNode> result
+            = new DeferredResult<>(timeout == null ? maxWait : Math.max(1L, Math.min(timeout, maxWait)));
+        final Runnable unwatch = this.jobStatusWatcher.watch(
+            id,
+            status -> {
+                if (statuses.contains(status) || !status.isActive()) {
+                    result.setResult(this.toJson(status));
+                }
+            }
+        );
+        result.onCompletion(unwatch);
+        result.onTimeout(
+            () -> {
+                try {
+                    result.setResult(this.toJson(this.jobSearchService.getJobStatus(id)));
+                } catch (final GenieException ge) {
+                    result.setErrorResult(ge);
+                }
+            }
+        );
+
+        // Check only after watching so a change in between can't be missed
+        final JobStatus currentStatus;
+        try {
+            currentStatus = this.jobSearchService.getJobStatus(id);
+        } catch (final GenieException ge) {
+            unwatch.run();
+            throw ge;
+        }
+        if (statuses.contains(currentStatus) || !currentStatus.isActive()) {
+            result.setResult(this.toJson(currentStatus));
+        }
+        return result;
+    }
+
+    /**
+     * Stream the status of a job as server sent events. The current status is sent immediately followed by every
+     * change after that. The stream is closed once the job finishes.
+     *
+     * @param id The id of the job to stream the status of
+     * @return The emitter of status events
+     * @throws GenieException For any error
+     */
+    @RequestMapping(value = "/{id}/status/stream", method = RequestMethod.GET, produces = TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobStatus(@PathVariable("id") final String id) throws GenieException {
+        log.debug("[streamJobStatus] Called for job with id {}", id);
+        this.streamJobStatusRate.increment();
+
+        final SseEmitter emitter = new SseEmitter(this.jobWatchProperties.getStreamTimeout());
+        final Consumer<JobStatus> listener = new StatusEventSender(id, emitter);
+        final Runnable unwatch = this.jobStatusWatcher.watch(id, listener);
+        emitter.onCompletion(unwatch);
+
+        try {
+            listener.accept(this.jobSearchService.getJobStatus(id));
+        } catch (final GenieException ge) {
+            unwatch.run();
+            throw ge;
+        }
+        return emitter;
+    }
+
+    /**
+     * Follow a file in the output directory of a job. The bytes of the file from the given offset are sent followed
+     * by any bytes appended to it while the job keeps running. The response ends once the job finishes and all its
+     * output has been sent. Clients which get disconnected can resume by adding the bytes they've received to the
+     * offset.
+     * <p>
+     * If the job is running on another node the request is either redirected there or the stream is relayed from
+     * that node as it arrives. Each stream holds a thread for as long as it's open so only the configured number of
+     * clients can follow output through a node at once. Any more get a 503.
+     *
+     * @param id            The id of the job to follow the output of
+     * @param offset        The byte offset in the file to start from
+     * @param forwardedFrom The host this request was forwarded from if present
+     * @param request       the servlet request
+     * @param response      the servlet response
+     * @return The body which streams the file as it grows or null if the response was already handled
+     * @throws GenieException For any error
+     * @throws IOException    If the file can't be read or the request can't be forwarded
+     */
+    @RequestMapping(
+        value = "/{id}/output/**",
+        params = "follow=true",
+        method = RequestMethod.GET,
+        produces = MediaType.ALL_VALUE
+    )
+    public StreamingResponseBody followJobOutput(
+        @PathVariable("id") final String id,
+        @RequestParam(value = "offset", defaultValue = "0") final long offset,
+        @RequestHeader(name = JobConstants.GENIE_FORWARDED_FROM_HEADER, required = false) final String forwardedFrom,
+        final HttpServletRequest request,
+        final HttpServletResponse response
+    ) throws GenieException, IOException {
+        log.debug("[followJobOutput] Called for job with id {} from offset {}", id, offset);
+        this.followJobOutputRate.increment();
+
+        if (offset < 0) {
+            throw new GeniePreconditionException("Offset must not be negative");
+        }
+
+        if (this.jobForwardingProperties.isEnabled() && forwardedFrom == null) {
+            final String jobHostname = this.jobSearchService.getJobHost(id);
+            if (!this.hostName.equals(jobHostname)) {
+                return this.limitFollowers(
+                    ControllerUtils.forwardRequest(
+                        request,
+                        response,
+                        jobHostname,
+                        this.jobForwardingProperties,
+                        this.httpClient
+                    )
+                );
+            }
+        }
+
+        final String path = ControllerUtils.getRemainingPath(request);
+        final File file = StringUtils.isBlank(path) ? null : ControllerUtils.getJobFile(this.jobsDir, id, path);
+        if (file == null || !file.isFile()) {
+            throw new GenieNotFoundException("No output file " + path + " found for job " + id);
+        }
+        if (offset > file.length()) {
+            throw new GeniePreconditionException(
+                "Offset " + offset + " is past the end of " + path + " which is " + file.length() + " bytes"
+            );
+        }
+
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        return this.limitFollowers(outputStream -> this.follow(id, file, offset, outputStream));
+    }
+
+    private StreamingResponseBody limitFollowers(final StreamingResponseBody body) {
+        if (body == null) {
+            return null;
+        }
+        // Checked once the stream starts so the permit is always released, even if the stream never runs. Nothing
+        // has been written yet so the rejection is still sent to the client as an error.
+        return outputStream -> {
+            if (!this.followers.tryAcquire()) {
+                this.followJobOutputRejectedRate.increment();
+                throw new RejectedExecutionException("Too many clients are following job output on this node");
+            }
+            try {
+                body.writeTo(outputStream);
+            } finally {
+                this.followers.release();
+            }
+        };
+    }
+
+    private void follow(
+        final String id,
+        final File file,
+        final long offset,
+        final OutputStream outputStream
+    ) throws IOException {
+        final long deadline = System.currentTimeMillis() + this.jobWatchProperties.getStreamTimeout();
+        // The watcher checks the status once per job for all watchers rather than every follower polling for it
+        final CountDownLatch jobFinished = new CountDownLatch(1);
+        final Runnable unwatch = this.jobStatusWatcher.watch(
+            id,
+            status -> {
+                if (!status.isActive()) {
+                    jobFinished.countDown();
+                }
+            }
+        );
+        // Don't close this channel as it would close the response output stream
+        final WritableByteChannel target = Channels.newChannel(outputStream);
+        try (final FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Check only after watching so a change in between can't be missed
+            if (this.isJobFinished(id)) {
+                jobFinished.countDown();
+            }
+            long position = offset;
+            boolean finished = false;
+            while (System.currentTimeMillis() < deadline) {
+                final long size = source.size();
+                if (size > position) {
+                    position += source.transferTo(position, size - position, target);
+                    outputStream.flush();
+                } else if (finished) {
+                    // Everything written before the job finished has been sent
+                    return;
+                } else if (jobFinished.getCount() == 0) {
+                    // Go around once more to send anything written between the last read and the job finishing
+                    finished = true;
+                } else {
+                    try {
+                        jobFinished.await(this.jobWatchProperties.getFollowRate(), TimeUnit.MILLISECONDS);
+                    } catch (final InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        } finally {
+            unwatch.run();
+        }
+    }
+
+    private double countFollowers(final Semaphore semaphore) {
+        return this.jobWatchProperties.getMaxFollowers() - semaphore.availablePermits();
+    }
+
+    private boolean isJobFinished(final String id) {
+        try {
+            return !this.jobSearchService.getJobStatus(id).isActive();
+        } catch (final GenieException ge) {
+            log.debug("Unable to get status of job {} while following its output. Stopping.", id, ge);
+            return true;
+        }
+    }
+
+    private JsonNode toJson(final JobStatus status) {
+        final JsonNodeFactory factory = JsonNodeFactory.instance;
+        return factory.objectNode().set(STATUS, factory.textNode(status.toString()));
+    }
+
+    /**
+     * Sends each distinct status of a job as an event until the job finishes.
+     */
+    private final class StatusEventSender implements Consumer<JobStatus> {
+
+        private final String id;
+        private final SseEmitter emitter;
+        private JobStatus lastStatus;
+        private boolean done;
+
+        private StatusEventSender(final String id, final SseEmitter emitter) {
+            this.id = id;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public synchronized void accept(final JobStatus status) {
+            if (this.done || status == this.lastStatus) {
+                return;
+            }
+            this.lastStatus = status;
+            try {
+                this.emitter.send(
+                    SseEmitter.event().name(STATUS).data(toJson(status), MediaType.APPLICATION_JSON)
+                );
+                if (!status.isActive()) {
+                    this.done = true;
+                    this.emitter.complete();
+                }
+            } catch (final IOException | IllegalStateException e) {
+                log.debug("Unable to send status {} of job {}. Closing stream.", status, this.id, e);
+                this.done = true;
+                this.emitter.completeWithError(e);
+            }
+        }
+    }
+}
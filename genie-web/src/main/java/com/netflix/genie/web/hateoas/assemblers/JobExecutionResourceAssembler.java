@@ -97,7 +97,7 @@ public class JobExecutionResourceAssembler implements ResourceAssembler<JobExecu
                 ControllerLinkBuilder.linkTo(
                     ControllerLinkBuilder
                         .methodOn(JobRestController.class)
-                        .getJobStatus(jobExecution.getId())
+                        .getJobStatus(jobExecution.getId(), null)
                 ).withRel("status")
             );
         } catch (final GenieException ge) {
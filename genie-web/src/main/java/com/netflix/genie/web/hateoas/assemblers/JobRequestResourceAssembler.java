@@ -97,7 +97,7 @@ public class JobRequestResourceAssembler implements ResourceAssembler<JobRequest
                 ControllerLinkBuilder.linkTo(
                     ControllerLinkBuilder
                         .methodOn(JobRestController.class)
-                        .getJobStatus(jobRequest.getId())
+                        .getJobStatus(jobRequest.getId(), null)
                 ).withRel("status")
             );
         } catch (final GenieException ge) {
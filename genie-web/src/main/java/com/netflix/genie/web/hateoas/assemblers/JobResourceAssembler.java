@@ -97,7 +97,7 @@ public class JobResourceAssembler implements ResourceAssembler<Job, JobResource>
                 ControllerLinkBuilder.linkTo(
                     ControllerLinkBuilder
                         .methodOn(JobRestController.class)
-                        .getJobStatus(job.getId())
+                        .getJobStatus(job.getId(), null)
                 ).withRel("status")
             );
 
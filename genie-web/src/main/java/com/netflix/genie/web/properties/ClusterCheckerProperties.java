@@ -37,4 +37,7 @@ public class ClusterCheckerProperties {
     private int port = 8080;
     private long rate = 300000L;
     private int lostThreshold = 3;
+    private long heartbeatTimeout = 90000L;
+    private long healthCheckTimeout = 5000L;
+    private int healthCheckThreads = 10;
 }
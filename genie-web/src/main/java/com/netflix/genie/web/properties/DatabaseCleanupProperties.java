@@ -22,6 +22,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import javax.validation.constraints.Min;
+
 /**
  * Properties controlling the behavior of the database cleanup leadership task.
  *
@@ -36,4 +38,8 @@ public class DatabaseCleanupProperties {
     private boolean enabled;
     private String expression = "0 0 0 * * *";
     private int retention = 90;
+    @Min(1)
+    private int batchSize = 10000;
+    private long batchDelay = 1000L;
+    private long maxRunTime = 3600000L;
 }
@@ -36,4 +36,11 @@ public class DiskCleanupProperties {
     private boolean enabled;
     private String expression = "0 0 0 * * *";
     private int retention = 3;
+    private int batchSize = 500;
+    private int deletionThreads = 4;
+    private double diskUsageThreshold = 0.9;
+    private long diskUsageCheckRate = 60000L;
+    private int diskUsageRetention = 1;
+    private long diskUsageBackoff = 300000L;
+    private long diskUsageMaxBackoff = 3600000L;
 }
@@ -22,6 +22,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import javax.validation.constraints.Min;
+
 /**
  * Properties related to job forwarding.
  *
@@ -36,4 +38,13 @@ public class JobForwardingProperties {
     private boolean enabled;
     private String scheme = "http";
     private int port = 8080;
+    private boolean redirect;
+    @Min(1)
+    private int maxConnections = 200;
+    @Min(1)
+    private int maxConnectionsPerHost = 20;
+    @Min(0)
+    private int connectTimeout = 5000;
+    @Min(0)
+    private int readTimeout = 60000;
 }
@@ -0,0 +1,46 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties limiting how much work searching job output files on the server can do.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@ConfigurationProperties(prefix = "genie.jobs.output.grep")
+@Component
+@Getter
+@Setter
+public class JobOutputGrepProperties {
+    @Min(1)
+    private int maxMatches = 1000;
+    @Min(0)
+    private int maxContext = 20;
+    @Min(1L)
+    private long timeout = 10000L;
+    @Min(1)
+    private int maxLineLength = 65536;
+}
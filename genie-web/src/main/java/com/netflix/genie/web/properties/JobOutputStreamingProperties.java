@@ -0,0 +1,45 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties bounding the threads which stream job output to clients after the request thread has been released,
+ * like output relayed from other nodes, followed files, archives and searches.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@ConfigurationProperties(prefix = "genie.jobs.output.streaming")
+@Component
+@Getter
+@Setter
+public class JobOutputStreamingProperties {
+    @Min(1)
+    private int threads = 100;
+    @Min(0)
+    private int queueCapacity = 50;
+    @Min(1L)
+    private long timeout = 3600000L;
+}
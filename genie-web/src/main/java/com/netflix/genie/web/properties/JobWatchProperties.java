@@ -0,0 +1,49 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties related to clients watching jobs for status changes and following job output.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@ConfigurationProperties(prefix = "genie.jobs.watch")
+@Component
+@Getter
+@Setter
+public class JobWatchProperties {
+    @Min(1L)
+    private long maxWait = 60000L;
+    @Min(1L)
+    private long streamTimeout = 3600000L;
+    @Min(1L)
+    private long checkRate = 5000L;
+    @Min(1L)
+    private long followRate = 1000L;
+    // Kept well below the number of threads streaming output so followers can't starve downloads
+    @Min(1)
+    private int maxFollowers = 20;
+}
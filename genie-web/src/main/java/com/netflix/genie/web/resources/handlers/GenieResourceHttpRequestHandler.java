@@ -17,33 +17,58 @@
  */
 package com.netflix.genie.web.resources.handlers;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.web.resources.writers.DirectoryWriter;
+import com.netflix.genie.web.resources.writers.ListingOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.TeeOutputStream;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.HandlerMapping;
-import org.springframework.web.servlet.resource.EncodedResource;
 import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
-import org.springframework.web.servlet.resource.VersionedResource;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Class extends ResourceHttpRequestHandler to override handling a request to return directory listing if it
- * is a directory otherwise follow default behavior.
+ * Class extends ResourceHttpRequestHandler to override handling a request to return directory listing if it is a
+ * directory otherwise serve the file. Directory listings can be paged with the optional limit, after and prefix request
+ * parameters. Without a limit the full listing is returned. Single ranges of files of 48KB or more are handed to the
+ * container to send with sendfile when the connector supports it so the bytes go straight from the file system to the
+ * socket. Everything else, like small files, multiple ranges or connectors without sendfile such as SSL, is copied to
+ * the response output stream through the container's buffers. Text output is gzip compressed on the fly when the client
+ * accepts it and a compressed copy of large files is kept for finished jobs.
  *
  * @author tgianos
  * @see ResourceHttpRequestHandler
  * @since 3.0.0
  */
+@Slf4j
 public class GenieResourceHttpRequestHandler extends ResourceHttpRequestHandler {
 
     /**
@@ -52,9 +77,35 @@ public class GenieResourceHttpRequestHandler extends ResourceHttpRequestHandler
     public static final String GENIE_JOB_IS_ROOT_DIRECTORY
         = GenieResourceHttpRequestHandler.class.getName() + ".isRootDirectory";
 
+    /**
+     * The directory within a job directory where compressed copies of large output files are kept.
+     */
+    public static final String PRECOMPRESSED_DIRECTORY = JobConstants.GENIE_PATH_VAR + "/compressed/";
+
+    private static final String GZIP = "gzip";
+    private static final Set<String> COMPRESSIBLE_MIME_TYPES = ImmutableSet.of(
+        MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_XML_VALUE,
+        "application/javascript",
+        "application/x-sh"
+    );
+    // Below this the gzip header and trailer cancel out most of the savings
+    private static final long MIN_COMPRESSION_SIZE = 1024L;
+    private static final long PRECOMPRESSION_SIZE = 1024L * 1024L;
+    private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+    private static final String PREFIX_PARAM = "prefix";
+    private static final String AFTER_PARAM = "after";
+    private static final String LIMIT_PARAM = "limit";
     private static final Charset UTF_8 = Charset.forName("UTF-8");
     private static final String CONTENT_LENGTH = "Content-Length";
     private static final String BYTES = "bytes";
+    private static final String CRLF = "\r\n";
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+    // Same as the Tomcat default servlet. Below this the overhead of sendfile isn't worth it.
+    private static final long SENDFILE_THRESHOLD = 48 * 1024L;
 
     private DirectoryWriter directoryWriter;
 
@@ -101,64 +152,307 @@ public class GenieResourceHttpRequestHandler extends ResourceHttpRequestHandler
                 requestUrl = request.getRequestURL().toString();
             }
 
+            final int limit;
+            try {
+                final String limitParam = request.getParameter(LIMIT_PARAM);
+                limit = limitParam == null ? 0 : Integer.parseInt(limitParam);
+            } catch (final NumberFormatException nfe) {
+                response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + LIMIT_PARAM + " parameter");
+                return;
+            }
+            // Once a job is done its directory won't change anymore so the listing can be cached. The genie
+            // directory is the exception as compressed copies of output files are still added to it afterwards.
+            final ListingOptions options = new ListingOptions(
+                request.getParameter(PREFIX_PARAM),
+                request.getParameter(AFTER_PARAM),
+                limit,
+                this.isJobDone(path) && !this.isInGenieDirectory(path)
+            );
+
             try {
                 if (accept != null && accept.contains(MediaType.TEXT_HTML_VALUE)) {
                     response.setContentType(MediaType.TEXT_HTML_VALUE);
-                    response
-                        .getOutputStream()
-                        .write(
-                            this.directoryWriter.toHtml(
-                                file,
-                                requestUrl,
-                                !isRootDirectory
-                            ).getBytes(UTF_8)
-                        );
+                    this.directoryWriter.writeHtml(
+                        file,
+                        requestUrl,
+                        !isRootDirectory,
+                        options,
+                        response.getOutputStream()
+                    );
                 } else {
                     response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-                    response
-                        .getOutputStream()
-                        .write(
-                            this.directoryWriter.toJson(
-                                file,
-                                requestUrl,
-                                !isRootDirectory
-                            ).getBytes(UTF_8)
-                        );
+                    this.directoryWriter.writeJson(
+                        file,
+                        requestUrl,
+                        !isRootDirectory,
+                        options,
+                        response.getOutputStream()
+                    );
                 }
             } catch (final Exception e) {
                 throw new ServletException(e);
             }
         } else {
-            super.handleRequest(request, response);
+            this.handleFile(request, response, file, path);
         }
     }
 
-    /**
-     * {@inheritDoc}
-     *
-     * Overriding this method so can handle content lengths greater than Integer.MAX_VALUE.
-     */
-    @Override
-    protected void setHeaders(
+    private boolean isJobDone(final String path) throws IOException {
+        final String jobId = path.contains("/") ? path.substring(0, path.indexOf('/')) : path;
+        return this.getLocations().get(0).createRelative(jobId + "/" + JobConstants.GENIE_DONE_FILE_NAME).exists();
+    }
+
+    private boolean isInGenieDirectory(final String path) {
+        final String[] parts = path.split("/");
+        return parts.length > 1 && JobConstants.GENIE_PATH_VAR.equals(parts[1]);
+    }
+
+    private void handleFile(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final File file,
+        final String path
+    ) throws ServletException, IOException {
+        this.checkRequest(request);
+        this.prepareResponse(response);
+
+        // Take one snapshot of the file so headers and body agree even if the job is still writing to it
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        final String mimeType = request.getServletContext().getMimeType(file.getName());
+        final String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        final boolean compressible = length >= MIN_COMPRESSION_SIZE && this.isCompressible(mimeType);
+        // Ranges are always served from the identity encoding so offsets mean the same thing as for the raw file
+        final boolean compress = compressible && rangeHeader == null && this.acceptsGzip(request);
+        final String eTag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length)
+            + (compress ? "-" + GZIP : "") + "\"";
+        if (compressible) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+        if (compress) {
+            if (mimeType != null) {
+                response.setContentType(mimeType);
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            this.writeCompressed(request, response, file, length, path);
+            return;
+        }
+
+        final String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader == null || ifRange != null && !ifRange.equals(eTag)) {
+            response.setContentLengthLong(length);
+            if (mimeType != null) {
+                response.setContentType(mimeType);
+            }
+            this.writeSingle(request, response, file, 0, length);
+            return;
+        }
+
+        final List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+            for (final HttpRange range : ranges) {
+                if (range.getRangeStart(length) >= length || range.getRangeStart(length) > range.getRangeEnd(length)) {
+                    throw new IllegalArgumentException("Range " + range + " not satisfiable for length " + length);
+                }
+            }
+        } catch (final IllegalArgumentException iae) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+            response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (ranges.size() == 1) {
+            final long start = ranges.get(0).getRangeStart(length);
+            final long end = ranges.get(0).getRangeEnd(length);
+            response.setContentLengthLong(end - start + 1);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " " + start + "-" + end + "/" + length);
+            if (mimeType != null) {
+                response.setContentType(mimeType);
+            }
+            this.writeSingle(request, response, file, start, end - start + 1);
+        } else {
+            final String boundary = UUID.randomUUID().toString();
+            response.setContentType("multipart/byteranges; boundary=" + boundary);
+            if (METHOD_HEAD.equals(request.getMethod())) {
+                return;
+            }
+            final OutputStream out = response.getOutputStream();
+            for (final HttpRange range : ranges) {
+                final long start = range.getRangeStart(length);
+                final long end = range.getRangeEnd(length);
+                final StringBuilder partHeaders = new StringBuilder()
+                    .append(CRLF).append("--").append(boundary).append(CRLF);
+                if (mimeType != null) {
+                    partHeaders.append(HttpHeaders.CONTENT_TYPE).append(": ").append(mimeType).append(CRLF);
+                }
+                partHeaders
+                    .append(HttpHeaders.CONTENT_RANGE).append(": ")
+                    .append(BYTES).append(" ").append(start).append("-").append(end).append("/").append(length)
+                    .append(CRLF)
+                    .append(CRLF);
+                out.write(partHeaders.toString().getBytes(UTF_8));
+                this.transfer(file, out, start, end - start + 1);
+            }
+            out.write((CRLF + "--" + boundary + "--" + CRLF).getBytes(UTF_8));
+        }
+    }
+
+    private boolean isCompressible(final String mimeType) {
+        // Job output like stdout and stderr has no extension and so no mime type but is almost always text
+        return mimeType == null || mimeType.startsWith("text/") || COMPRESSIBLE_MIME_TYPES.contains(mimeType);
+    }
+
+    private boolean acceptsGzip(final HttpServletRequest request) {
+        final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (final String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.trim().split(";");
+            if (!GZIP.equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                final String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (final NumberFormatException nfe) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void writeCompressed(
+        final HttpServletRequest request,
         final HttpServletResponse response,
-        final Resource resource,
-        final MediaType mediaType
+        final File file,
+        final long length,
+        final String path
     ) throws IOException {
-        // Note: This API call is only in Servlet spec 3.1+ (Tomcat 8.x or greater)
-        // This is to get around the resources with content lengths greater than Integer.MAX_VALUE which was limiting
-        // our ability to serve large files
-        response.setContentLengthLong(resource.contentLength());
+        // Large files of finished jobs won't change anymore so keep the compressed copy around and serve it with
+        // sendfile next time rather than compressing the same bytes for every request
+        File precompressed = null;
+        if (length >= PRECOMPRESSION_SIZE && path.contains("/") && this.isJobDone(path)) {
+            final String jobId = path.substring(0, path.indexOf('/'));
+            final String relativePath = path.substring(path.indexOf('/') + 1);
+            precompressed = this.getLocations()
+                .get(0)
+                .createRelative(jobId + "/" + PRECOMPRESSED_DIRECTORY + relativePath + "." + GZIP)
+                .getFile();
+            if (precompressed.isFile() && precompressed.lastModified() >= file.lastModified()) {
+                response.setContentLengthLong(precompressed.length());
+                this.writeSingle(request, response, precompressed, 0, precompressed.length());
+                return;
+            }
+        }
 
-        // The rest of this is taken directly from the super implementation
-        if (mediaType != null) {
-            response.setContentType(mediaType.toString());
+        if (METHOD_HEAD.equals(request.getMethod())) {
+            return;
         }
-        if (resource instanceof EncodedResource) {
-            response.setHeader(HttpHeaders.CONTENT_ENCODING, ((EncodedResource) resource).getContentEncoding());
+
+        final Path temp = precompressed == null ? null : this.createTempFile(precompressed);
+        boolean complete = false;
+        try (
+            final InputStream in = ByteStreams.limit(new FileInputStream(file), length);
+            final OutputStream cache = temp == null ? null : Files.newOutputStream(temp)
+        ) {
+            // Don't close the gzip stream as it would close the response output stream
+            final OutputStream target = cache == null
+                ? response.getOutputStream()
+                : new TeeOutputStream(response.getOutputStream(), cache);
+            final GZIPOutputStream gzip = new GZIPOutputStream(target, COMPRESSION_BUFFER_SIZE);
+            ByteStreams.copy(in, gzip);
+            gzip.finish();
+            gzip.flush();
+            complete = true;
+        } finally {
+            if (temp != null) {
+                this.storePrecompressed(temp, precompressed, complete);
+            }
         }
-        if (resource instanceof VersionedResource) {
-            response.setHeader(HttpHeaders.ETAG, "\"" + ((VersionedResource) resource).getVersion() + "\"");
+    }
+
+    private Path createTempFile(final File precompressed) {
+        try {
+            Files.createDirectories(precompressed.getParentFile().toPath());
+            return Files.createTempFile(precompressed.getParentFile().toPath(), precompressed.getName(), ".tmp");
+        } catch (final IOException | SecurityException e) {
+            // The job directory may belong to the user the job ran as. Just compress on the fly.
+            log.debug("Unable to cache compressed copy {} due to {}", precompressed, e.getMessage());
+            return null;
+        }
+    }
+
+    private void storePrecompressed(final Path temp, final File precompressed, final boolean complete) {
+        try {
+            if (complete) {
+                Files.move(
+                    temp,
+                    precompressed.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING
+                );
+            } else {
+                Files.deleteIfExists(temp);
+            }
+        } catch (final IOException ioe) {
+            log.warn("Unable to store compressed copy {}", precompressed, ioe);
+        }
+    }
+
+    private void writeSingle(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final File file,
+        final long start,
+        final long count
+    ) throws IOException {
+        if (METHOD_HEAD.equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            // The container will write the file to the socket itself after this request returns
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, start + count);
+        } else {
+            this.transfer(file, response.getOutputStream(), start, count);
+        }
+    }
+
+    private void transfer(
+        final File file,
+        final OutputStream out,
+        final long start,
+        final long count
+    ) throws IOException {
+        // Don't close this channel as it would close the response output stream
+        final WritableByteChannel target = Channels.newChannel(out);
+        try (final FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                final long transferred = source.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    // The file was truncated since we took its length. Nothing more to send.
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
         }
-        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
     }
 }
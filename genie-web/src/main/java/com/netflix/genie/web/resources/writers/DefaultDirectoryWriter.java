@@ -17,14 +17,21 @@
  */
 package com.netflix.genie.web.resources.writers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.netflix.genie.common.util.JsonDateDeserializer;
 import com.netflix.genie.common.util.JsonDateSerializer;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import org.apache.catalina.util.ConcurrentDateFormat;
 import org.apache.catalina.util.ServerInfo;
 import org.apache.commons.lang3.StringUtils;
@@ -33,19 +40,62 @@ import org.hibernate.validator.constraints.URL;
 
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * A default directory writer implementation.
+ * A default directory writer implementation. The streaming methods read directories with NIO directory streams and
+ * stat each entry once. With a limit only the selected page is held in memory. Without one the whole listing is still
+ * written but the directory is read one page at a time and each page is written before the next one is selected, so
+ * memory stays bounded by the page size however big the directory is. Listings of directories which won't change any
+ * more, like those of finished jobs, are cached.
  *
  * @author tgianos
  * @since 3.0.0
  */
 public class DefaultDirectoryWriter implements DirectoryWriter {
 
+    /**
+     * The default maximum number of entries to keep in cached directory listings.
+     */
+    public static final long DEFAULT_MAX_CACHED_ENTRIES = 500_000L;
+
+    /**
+     * The default number of entries held in memory at once while writing a listing without a limit.
+     */
+    public static final int DEFAULT_READ_PAGE_SIZE = 1000;
+
+    private static final long CACHE_EXPIRATION_MINUTES = 60L;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String SLASH = "/";
+    // Directories first then by name. The same order the listing has always been rendered in.
+    private static final Comparator<Item> ORDER = (final Item item1, final Item item2) -> {
+        if (item1.isDirectory() != item2.isDirectory()) {
+            return item1.isDirectory() ? -1 : 1;
+        }
+        return item1.getName().compareTo(item2.getName());
+    };
+
     private static final String DEFAULT_CSS =
         "H1 {font-family:Tahoma,Arial,sans-serif;color:white;background-color:#525D76;font-size:22px;} "
             + "H2 {font-family:Tahoma,Arial,sans-serif;color:white;background-color:#525D76;font-size:16px;} "
@@ -57,6 +107,42 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
             + "A.name {color : black;}"
             + ".line {height: 1px; background-color: #525D76; border: none;}";
 
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Cache<Path, List<Item>> listingCache;
+    private final int readPageSize;
+
+    /**
+     * Constructor. Caches listings of up to {@link #DEFAULT_MAX_CACHED_ENTRIES} entries in total.
+     */
+    public DefaultDirectoryWriter() {
+        this(DEFAULT_MAX_CACHED_ENTRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxCachedEntries The maximum total number of entries to keep across all cached directory listings
+     */
+    public DefaultDirectoryWriter(final long maxCachedEntries) {
+        this(maxCachedEntries, DEFAULT_READ_PAGE_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxCachedEntries The maximum total number of entries to keep across all cached directory listings
+     * @param readPageSize     The number of entries held in memory at once while writing a listing without a limit
+     */
+    public DefaultDirectoryWriter(final long maxCachedEntries, final int readPageSize) {
+        this.readPageSize = readPageSize;
+        this.listingCache = CacheBuilder
+            .newBuilder()
+            .maximumWeight(maxCachedEntries)
+            .weigher((final Path path, final List<Item> items) -> items.size() + 1)
+            .expireAfterAccess(CACHE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+            .build();
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -69,89 +155,221 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
         final boolean includeParent
     ) throws IOException {
         final Directory dir = this.getDirectory(directory, requestURL, includeParent);
+        final StringWriter writer = new StringWriter();
+        this.writePage(
+            writer,
+            directory.getName(),
+            dir.getParent(),
+            Iterables.concat(dir.getDirectories(), dir.getFiles()),
+            null
+        );
+        return writer.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toJson(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent
+    ) throws Exception {
+        final Directory dir = this.getDirectory(directory, requestURL, includeParent);
+        return this.mapper.writeValueAsString(dir);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeHtml(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent,
+        @NotNull final ListingOptions options,
+        @NotNull final OutputStream outputStream
+    ) throws IOException {
+        final Entry parent = includeParent ? this.getParentEntry(directory, requestURL) : null;
+
+        // Don't close the writer as that would close the underlying stream which belongs to the caller
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+        this.writePageHeader(writer, directory.getName(), parent);
+        final AtomicBoolean shade = new AtomicBoolean(true);
+        final String next = this.writeEntries(
+            directory,
+            requestURL,
+            options,
+            entry -> this.writeFileHtml(writer, shade.getAndSet(!shade.get()), entry)
+        );
+        String nextUrl = null;
+        if (next != null) {
+            nextUrl = requestURL + "?after=" + URLEncoder.encode(next, UTF_8.name());
+            if (options.getPrefix() != null) {
+                nextUrl += "&prefix=" + URLEncoder.encode(options.getPrefix(), UTF_8.name());
+            }
+            nextUrl += "&limit=" + options.getLimit();
+        }
+        this.writePageFooter(writer, nextUrl);
+        writer.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeJson(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent,
+        @NotNull final ListingOptions options,
+        @NotNull final OutputStream outputStream
+    ) throws IOException {
+        // Same document as toJson with a next field added when there are more entries to page through
+        final JsonGenerator generator = this.mapper.getFactory().createGenerator(outputStream);
+        generator.writeStartObject();
+        generator.writeObjectField("parent", includeParent ? this.getParentEntry(directory, requestURL) : null);
+        generator.writeArrayFieldStart("directories");
+        final AtomicBoolean inDirectories = new AtomicBoolean(true);
+        final String next = this.writeEntries(
+            directory,
+            requestURL,
+            options,
+            entry -> {
+                if (inDirectories.get() && !entry.getName().endsWith(SLASH)) {
+                    generator.writeEndArray();
+                    generator.writeArrayFieldStart("files");
+                    inDirectories.set(false);
+                }
+                generator.writeObject(entry);
+            }
+        );
+        generator.writeEndArray();
+        if (inDirectories.get()) {
+            generator.writeArrayFieldStart("files");
+            generator.writeEndArray();
+        }
+        if (next != null) {
+            generator.writeStringField("next", next);
+        }
+        generator.writeEndObject();
+        // Flush rather than close so the caller's stream stays open
+        generator.flush();
+    }
+
+    /**
+     * Write the entries selected by the options one at a time. Without a limit a directory which isn't cached is read
+     * a page at a time, each page selected with the same bounded heap as a limited listing, so only one page of
+     * entries is ever held in memory.
+     *
+     * @param directory  The directory to list
+     * @param requestUrl The URL of the request for the directory
+     * @param options    The options selecting the entries
+     * @param consumer   What to do with each entry, in listing order
+     * @return The cursor of the next page if the listing was cut off at the limit, otherwise null
+     * @throws IOException On error reading the directory or writing an entry
+     */
+    private String writeEntries(
+        final File directory,
+        final String requestUrl,
+        final ListingOptions options,
+        final EntryConsumer consumer
+    ) throws IOException {
+        if (options.getLimit() > 0 || options.isCacheable()) {
+            final Listing listing = this.list(directory, requestUrl, options);
+            for (final Entry entry : listing.getEntries()) {
+                consumer.accept(entry);
+            }
+            return listing.getNext();
+        }
 
-        final StringBuilder builder = new StringBuilder();
+        String after = options.getAfter();
+        do {
+            final Listing page = this.list(
+                directory,
+                requestUrl,
+                new ListingOptions(options.getPrefix(), after, this.readPageSize, false)
+            );
+            for (final Entry entry : page.getEntries()) {
+                consumer.accept(entry);
+            }
+            after = page.getNext();
+        } while (after != null);
+        return null;
+    }
 
+    private void writePage(
+        final Writer writer,
+        final String title,
+        final Entry parent,
+        final Iterable<Entry> entries,
+        final String nextUrl
+    ) throws IOException {
+        this.writePageHeader(writer, title, parent);
+
+        // Write directories then files
+        boolean shade = true;
+        for (final Entry entry : entries) {
+            this.writeFileHtml(writer, shade, entry);
+            shade = !shade;
+        }
+
+        this.writePageFooter(writer, nextUrl);
+    }
+
+    private void writePageHeader(final Writer writer, final String title, final Entry parent) throws IOException {
         // Render the page header
-        builder.append("<!DOCTYPE html>");
-        builder.append("<html>");
-        builder.append("<head>");
-        builder.append("<title>");
-        builder.append(directory.getName());
-        builder.append("</title>");
-        builder.append("<style type=\"text/css\"><!--");
-        builder.append(DEFAULT_CSS);
-        builder.append("--></style> ");
-        builder.append("</head>");
+        writer.append("<!DOCTYPE html>");
+        writer.append("<html>");
+        writer.append("<head>");
+        writer.append("<title>");
+        writer.append(title);
+        writer.append("</title>");
+        writer.append("<style type=\"text/css\"><!--");
+        writer.append(DEFAULT_CSS);
+        writer.append("--></style> ");
+        writer.append("</head>");
 
         // Body
-        builder.append("<body>");
-        builder.append("<h1>").append(directory.getName()).append("</h1>");
+        writer.append("<body>");
+        writer.append("<h1>").append(title).append("</h1>");
 
-        builder.append("<HR size=\"1\" noshade=\"noshade\">");
+        writer.append("<HR size=\"1\" noshade=\"noshade\">");
 
-        builder.append("<table width=\"100%\" cellspacing=\"0\"" + " cellpadding=\"5\" align=\"center\">");
+        writer.append("<table width=\"100%\" cellspacing=\"0\"" + " cellpadding=\"5\" align=\"center\">");
 
         // Render the column headings
-        builder.append("<tr>");
-        builder.append("<td align=\"left\"><font size=\"+1\"><strong>");
-        builder.append("Filename");
-        builder.append("</strong></font></td>");
-        builder.append("<td align=\"right\"><font size=\"+1\"><strong>");
-        builder.append("Size");
-        builder.append("</strong></font></td>");
-        builder.append("<td align=\"right\"><font size=\"+1\"><strong>");
-        builder.append("Last Modified");
-        builder.append("</strong></font></td>");
-        builder.append("</tr>");
+        writer.append("<tr>");
+        writer.append("<td align=\"left\"><font size=\"+1\"><strong>");
+        writer.append("Filename");
+        writer.append("</strong></font></td>");
+        writer.append("<td align=\"right\"><font size=\"+1\"><strong>");
+        writer.append("Size");
+        writer.append("</strong></font></td>");
+        writer.append("<td align=\"right\"><font size=\"+1\"><strong>");
+        writer.append("Last Modified");
+        writer.append("</strong></font></td>");
+        writer.append("</tr>");
 
         // Write parent if necessary
-        if (dir.getParent() != null) {
-            this.writeFileHtml(builder, false, dir.getParent());
+        if (parent != null) {
+            this.writeFileHtml(writer, false, parent);
         }
+    }
 
-        boolean shade = true;
+    private void writePageFooter(final Writer writer, final String nextUrl) throws IOException {
+        // Render the page footer
+        writer.append("</table>");
 
-        // Write directories
-        if (dir.getDirectories() != null) {
-            for (final Entry entry : dir.getDirectories()) {
-                this.writeFileHtml(builder, shade, entry);
-                shade = !shade;
-            }
+        if (nextUrl != null) {
+            writer.append("<p><a href=\"").append(nextUrl.replace("&", "&amp;")).append("\">Next page</a></p>");
         }
 
-        // Write files
-        if (dir.getFiles() != null) {
-            for (final Entry entry : dir.getFiles()) {
-                this.writeFileHtml(builder, shade, entry);
-                shade = !shade;
-            }
-        }
-
-        // Render the page footer
-        builder.append("</table>");
-
-        builder.append("<HR size=\"1\" noshade=\"noshade\">");
+        writer.append("<HR size=\"1\" noshade=\"noshade\">");
         // TODO: replace with something related to Genie
-        builder.append("<h3>").append(ServerInfo.getServerInfo()).append("</h3>");
-        builder.append("</body>");
-        builder.append("</html>");
-
-        return builder.toString();
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public String toJson(
-        @NotNull final File directory,
-        @URL final String requestURL,
-        final boolean includeParent
-    ) throws Exception {
-        final Directory dir = this.getDirectory(directory, requestURL, includeParent);
-        final ObjectMapper mapper = new ObjectMapper();
-        return mapper.writeValueAsString(dir);
+        writer.append("<h3>").append(ServerInfo.getServerInfo()).append("</h3>");
+        writer.append("</body>");
+        writer.append("</html>");
     }
 
     private String renderSize(final long size) {
@@ -166,25 +384,141 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
     }
 
     private void writeFileHtml(
-        final StringBuilder builder,
+        final Writer writer,
         final boolean shade,
         final Entry entry
-    ) {
-        builder.append("<tr");
+    ) throws IOException {
+        writer.append("<tr");
         if (shade) {
-            builder.append(" bgcolor=\"#eeeeee\"");
+            writer.append(" bgcolor=\"#eeeeee\"");
         }
-        builder.append(">");
+        writer.append(">");
 
-        builder.append("<td align=\"left\">&nbsp;&nbsp;");
-        builder.append("<a href=\"").append(entry.getUrl()).append("\">");
-        builder.append("<tt>").append(entry.getName()).append("</tt></a></td>");
-        builder
+        writer.append("<td align=\"left\">&nbsp;&nbsp;");
+        writer.append("<a href=\"").append(entry.getUrl()).append("\">");
+        writer.append("<tt>").append(entry.getName()).append("</tt></a></td>");
+        writer
             .append("<td align=\"right\"><tt>")
             .append(this.renderSize(entry.getSize())).append("</tt></td>");
         final String lastModified = ConcurrentDateFormat.formatRfc1123(entry.getLastModified());
-        builder.append("<td align=\"right\"><tt>").append(lastModified).append("</tt></td>");
-        builder.append("</tr>");
+        writer.append("<td align=\"right\"><tt>").append(lastModified).append("</tt></td>");
+        writer.append("</tr>");
+    }
+
+    /**
+     * Select the entries of the directory matching the options. The directory is read with a directory stream and
+     * each entry matching the prefix is stat'd once. When there is a limit only the first limit entries after the
+     * cursor are kept in a bounded heap so memory is proportional to the page size rather than the directory size.
+     * Cacheable directories are read in full once and later pages are served from the cached, sorted listing.
+     *
+     * @param directory  The directory to list
+     * @param requestUrl The URL of the request for the directory
+     * @param options    The options selecting the entries
+     * @return The listing
+     * @throws IOException On error reading the directory
+     */
+    protected Listing list(
+        final File directory,
+        final String requestUrl,
+        final ListingOptions options
+    ) throws IOException {
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException("Input directory is not a valid directory. Unable to continue.");
+        }
+        if (StringUtils.isBlank(requestUrl)) {
+            throw new IllegalArgumentException("No request url entered. Unable to continue.");
+        }
+
+        final Path path = directory.toPath().toAbsolutePath().normalize();
+        final Selection selection = new Selection(options);
+        if (options.isCacheable()) {
+            final List<Item> items;
+            try {
+                items = this.listingCache.get(path, () -> this.readAll(path));
+            } catch (final ExecutionException | UncheckedExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            for (final Item item : items) {
+                selection.offer(item);
+            }
+        } else {
+            final String prefix = options.getPrefix();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                path,
+                entry -> prefix == null || entry.getFileName().toString().startsWith(prefix)
+            )) {
+                for (final Path entry : stream) {
+                    final Item item = this.read(entry);
+                    if (item != null) {
+                        selection.offer(item);
+                    }
+                }
+            }
+        }
+
+        final String baseURL = requestUrl.endsWith(SLASH) ? requestUrl : requestUrl + SLASH;
+        final List<Item> selected = selection.getSelected();
+        final List<Entry> entries = Lists.newArrayListWithCapacity(selected.size());
+        for (final Item item : selected) {
+            final Entry entry = new Entry();
+            entry.setName(item.getDisplayName());
+            entry.setUrl(baseURL + item.getDisplayName());
+            entry.setSize(item.getSize());
+            entry.setLastModified(new Date(item.getLastModified()));
+            entries.add(entry);
+        }
+        final String next = selection.isTruncated() ? selected.get(selected.size() - 1).getDisplayName() : null;
+        return new Listing(entries, next);
+    }
+
+    private List<Item> readAll(final Path path) throws IOException {
+        final List<Item> items = Lists.newArrayList();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (final Path entry : stream) {
+                final Item item = this.read(entry);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+        }
+        items.sort(ORDER);
+        return Collections.unmodifiableList(items);
+    }
+
+    private Item read(final Path entry) throws IOException {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+            return new Item(
+                entry.getFileName().toString(),
+                attributes.isDirectory(),
+                attributes.size(),
+                attributes.lastModifiedTime().toMillis()
+            );
+        } catch (final NoSuchFileException nsfe) {
+            // Deleted between reading the directory and reading its attributes. Just leave it out.
+            return null;
+        }
+    }
+
+    private Entry getParentEntry(final File directory, final String requestUrl) {
+        final Entry parent = new Entry();
+        String url = requestUrl;
+        if (url.charAt(url.length() - 1) == '/') {
+            url = url.substring(0, url.length() - 2);
+        }
+        // Rip off the last directory
+        url = url.substring(0, url.lastIndexOf('/'));
+        parent.setName("../");
+        parent.setUrl(url);
+        parent.setSize(directory.getParentFile().getAbsoluteFile().length());
+        parent.setLastModified(new Date(directory.getParentFile().getAbsoluteFile().lastModified()));
+        return parent;
     }
 
     protected Directory getDirectory(final File directory, final String requestUrl, final boolean includeParent) {
@@ -197,18 +531,7 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
         final Directory dir = new Directory();
 
         if (includeParent) {
-            final Entry parent = new Entry();
-            String url = requestUrl;
-            if (url.charAt(url.length() - 1) == '/') {
-                url = url.substring(0, url.length() - 2);
-            }
-            // Rip off the last directory
-            url = url.substring(0, url.lastIndexOf('/'));
-            parent.setName("../");
-            parent.setUrl(url);
-            parent.setSize(directory.getParentFile().getAbsoluteFile().length());
-            parent.setLastModified(new Date(directory.getParentFile().getAbsoluteFile().lastModified()));
-            dir.setParent(parent);
+            dir.setParent(this.getParentEntry(directory, requestUrl));
         }
 
         final File[] files = directory.listFiles();
@@ -243,6 +566,31 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
         return dir;
     }
 
+    /**
+     * Handles the entries of a listing as they're written.
+     */
+    @FunctionalInterface
+    private interface EntryConsumer {
+
+        /**
+         * Handle the next entry of the listing.
+         *
+         * @param entry The entry
+         * @throws IOException On error writing the entry
+         */
+        void accept(final Entry entry) throws IOException;
+    }
+
+    /**
+     * A page of a directory listing.
+     */
+    @Getter
+    @AllArgsConstructor
+    protected static class Listing {
+        private final List<Entry> entries;
+        private final String next;
+    }
+
     @Data
     protected static class Directory {
         private Entry parent;
@@ -282,4 +630,78 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
             this.lastModified = new Date(lastModified.getTime());
         }
     }
+
+    /**
+     * The attributes of a directory entry read once from the file system.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class Item {
+        private final String name;
+        private final boolean directory;
+        private final long size;
+        private final long lastModified;
+
+        String getDisplayName() {
+            return this.directory ? this.name + SLASH : this.name;
+        }
+    }
+
+    /**
+     * Collects the entries selected by a set of listing options as they're offered in any order.
+     */
+    private static final class Selection {
+        private final String prefix;
+        private final Item cursor;
+        private final int limit;
+        private final List<Item> all;
+        private final PriorityQueue<Item> top;
+        @Getter
+        private boolean truncated;
+
+        Selection(final ListingOptions options) {
+            this.prefix = options.getPrefix();
+            final String after = options.getAfter();
+            if (after == null) {
+                this.cursor = null;
+            } else if (after.endsWith(SLASH)) {
+                this.cursor = new Item(after.substring(0, after.length() - 1), true, 0L, 0L);
+            } else {
+                this.cursor = new Item(after, false, 0L, 0L);
+            }
+            this.limit = options.getLimit();
+            if (this.limit > 0) {
+                // Reverse order so the head is the last of the current candidates and can be evicted cheaply
+                this.all = null;
+                this.top = new PriorityQueue<>(this.limit + 1, ORDER.reversed());
+            } else {
+                this.all = Lists.newArrayList();
+                this.top = null;
+            }
+        }
+
+        void offer(final Item item) {
+            if (this.prefix != null && !item.getName().startsWith(this.prefix)) {
+                return;
+            }
+            if (this.cursor != null && ORDER.compare(item, this.cursor) <= 0) {
+                return;
+            }
+            if (this.top == null) {
+                this.all.add(item);
+                return;
+            }
+            this.top.offer(item);
+            if (this.top.size() > this.limit) {
+                this.top.poll();
+                this.truncated = true;
+            }
+        }
+
+        List<Item> getSelected() {
+            final List<Item> selected = this.top == null ? this.all : Lists.newArrayList(this.top);
+            selected.sort(ORDER);
+            return selected;
+        }
+    }
 }
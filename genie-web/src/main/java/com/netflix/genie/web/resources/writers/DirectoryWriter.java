@@ -21,9 +21,11 @@ import org.hibernate.validator.constraints.URL;
 
 import javax.validation.constraints.NotNull;
 import java.io.File;
+import java.io.OutputStream;
 
 /**
- * Interface for methods to convert a directory to various String representations.
+ * Interface for methods to convert a directory to various String representations or write them directly to a
+ * stream.
  *
  * @author tgianos
  * @since 3.0.0
@@ -59,4 +61,42 @@ public interface DirectoryWriter {
         @URL final String requestURL,
         final boolean includeParent
     ) throws Exception;
+
+    /**
+     * Write a full valid HTML page listing the entries of the given directory selected by the options to the output
+     * stream as it's rendered rather than building the whole page up as a String first.
+     *
+     * @param directory     The directory to convert. Not null. Is directory.
+     * @param requestURL    The URL of the request that kicked off this process
+     * @param includeParent Whether the conversion should include reference to the parent directory.
+     * @param options       Which entries of the directory to write
+     * @param outputStream  The stream to write the page to. Not closed.
+     * @throws Exception for any conversion problem
+     */
+    void writeHtml(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent,
+        @NotNull final ListingOptions options,
+        @NotNull final OutputStream outputStream
+    ) throws Exception;
+
+    /**
+     * Write JSON listing the entries of the given directory selected by the options to the output stream as it's
+     * rendered rather than building the whole document up as a String first.
+     *
+     * @param directory     The directory to convert. Not null. Is directory.
+     * @param requestURL    The URL of the request that kicked off this process
+     * @param includeParent Whether the conversion should include reference to the parent directory.
+     * @param options       Which entries of the directory to write
+     * @param outputStream  The stream to write the JSON to. Not closed.
+     * @throws Exception for any conversion problem
+     */
+    void writeJson(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent,
+        @NotNull final ListingOptions options,
+        @NotNull final OutputStream outputStream
+    ) throws Exception;
 }
@@ -0,0 +1,68 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.resources.writers;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.annotation.Nullable;
+
+/**
+ * Options controlling which entries of a directory are written by a {@link DirectoryWriter}. Entries are ordered
+ * directories first and then by name so a page of a listing can be resumed from the name of its last entry.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class ListingOptions {
+
+    /**
+     * Options which list every entry of the directory without any caching.
+     */
+    public static final ListingOptions ALL = new ListingOptions(null, null, 0, false);
+
+    private final String prefix;
+    private final String after;
+    private final int limit;
+    private final boolean cacheable;
+
+    /**
+     * Constructor.
+     *
+     * @param prefix    Only entries whose name starts with this prefix are listed. Null or empty for all entries.
+     * @param after     Only entries ordered after the entry with this name are listed. Directory names end with a
+     *                  slash as they do in the listing. Null or empty to start from the first entry.
+     * @param limit     The maximum number of entries to list. Less than one for no limit.
+     * @param cacheable Whether the contents of the directory will no longer change so the listing can be cached
+     */
+    public ListingOptions(
+        @Nullable final String prefix,
+        @Nullable final String after,
+        final int limit,
+        final boolean cacheable
+    ) {
+        this.prefix = prefix == null || prefix.isEmpty() ? null : prefix;
+        this.after = after == null || after.isEmpty() ? null : after;
+        this.limit = limit < 1 ? 0 : limit;
+        this.cacheable = cacheable;
+    }
+}
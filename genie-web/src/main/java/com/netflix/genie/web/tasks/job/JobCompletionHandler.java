@@ -19,6 +19,7 @@ package com.netflix.genie.web.tasks.job;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobOutputSummary;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
@@ -30,6 +31,7 @@ import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.MailService;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import com.netflix.genie.web.properties.JobOutputSummaryProperties;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +47,8 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 
 /**
  * A class that has the methods to perform various tasks when a job completes.
@@ -61,6 +65,7 @@ public class JobCompletionHandler {
     private final GenieFileTransferService genieFileTransferService;
     private final String baseWorkingDir;
     private final MailService mailServiceImpl;
+    private final JobOutputSummaryProperties jobOutputSummaryProperties;
     private final Executor executor;
 
     // Metrics
@@ -69,16 +74,18 @@ public class JobCompletionHandler {
     private final Counter doneFileProcessingFailureRate;
     private final Counter finalStatusUpdateFailureRate;
     private final Counter processGroupCleanupFailureRate;
+    private final Counter outputSummaryFailureRate;
 
     /**
      * Constructor.
      *
-     * @param jobSearchService         An implementation of the job search service.
-     * @param jobPersistenceService    An implementation of the job persistence service.
-     * @param genieFileTransferService An implementation of the Genie File Transfer service.
-     * @param genieWorkingDir          The working directory where all job directories are created.
-     * @param mailServiceImpl          An implementation of the mail service.
-     * @param registry                 The metrics registry to use
+     * @param jobSearchService           An implementation of the job search service.
+     * @param jobPersistenceService      An implementation of the job persistence service.
+     * @param genieFileTransferService   An implementation of the Genie File Transfer service.
+     * @param genieWorkingDir            The working directory where all job directories are created.
+     * @param mailServiceImpl            An implementation of the mail service.
+     * @param jobOutputSummaryProperties The properties controlling how much output is kept in the database
+     * @param registry                   The metrics registry to use
      *
      * @throws GenieException if there is a problem
      */
@@ -89,12 +96,14 @@ public class JobCompletionHandler {
         final GenieFileTransferService genieFileTransferService,
         final Resource genieWorkingDir,
         final MailService mailServiceImpl,
+        final JobOutputSummaryProperties jobOutputSummaryProperties,
         final Registry registry
     ) throws GenieException {
         this.jobPersistenceService = jobPersistenceService;
         this.jobSearchService = jobSearchService;
         this.genieFileTransferService = genieFileTransferService;
         this.mailServiceImpl = mailServiceImpl;
+        this.jobOutputSummaryProperties = jobOutputSummaryProperties;
         this.executor = new DefaultExecutor();
         executor.setStreamHandler(new PumpStreamHandler(null, null));
 
@@ -110,6 +119,7 @@ public class JobCompletionHandler {
         this.doneFileProcessingFailureRate = registry.counter("genie.jobs.doneFileProcessingFailure.rate");
         this.finalStatusUpdateFailureRate = registry.counter("genie.jobs.finalStatusUpdateFailure.rate");
         this.processGroupCleanupFailureRate = registry.counter("genie.jobs.processGroupCleanupFailure.rate");
+        this.outputSummaryFailureRate = registry.counter("genie.jobs.outputSummaryFailure.rate");
     }
 
     /**
@@ -127,6 +137,7 @@ public class JobCompletionHandler {
 
         updateFinalStatusForJob(jobId);
         cleanupProcesses(event.getJobExecution().getProcessId());
+        saveOutputSummary(jobId);
         archivedJobDir(jobId);
         sendEmail(jobId);
     }
@@ -195,6 +206,108 @@ public class JobCompletionHandler {
         }
     }
 
+    /**
+     * Saves the beginning and end of the standard output and standard error of the job to the database so they can
+     * be shown from any node, even after the job directory is gone.
+     *
+     * @param jobId The job id.
+     * @throws GenieException If there is any problem
+     */
+    public void saveOutputSummary(
+        final String jobId
+    ) throws GenieException {
+        if (!this.jobOutputSummaryProperties.isEnabled()) {
+            return;
+        }
+        try {
+            log.debug("Saving the output summary of the job.");
+
+            final String jobWorkingDir = this.baseWorkingDir + JobConstants.FILE_PATH_DELIMITER + jobId;
+            final OutputExcerpt stdout = this.readExcerpt(
+                new File(jobWorkingDir + JobConstants.FILE_PATH_DELIMITER + JobConstants.STDOUT_LOG_FILE_NAME)
+            );
+            final OutputExcerpt stderr = this.readExcerpt(
+                new File(jobWorkingDir + JobConstants.FILE_PATH_DELIMITER + JobConstants.STDERR_LOG_FILE_NAME)
+            );
+            this.jobPersistenceService.saveJobOutputSummary(
+                jobId,
+                new JobOutputSummary(stdout.head, stdout.tail, stdout.size, stderr.head, stderr.tail, stderr.size)
+            );
+        } catch (Exception e) {
+            log.error("Could not save the output summary for job: {}", jobId, e);
+            this.outputSummaryFailureRate.increment();
+        }
+    }
+
+    /**
+     * Read the configured number of bytes from the beginning and end of the file. The tail starts after the head
+     * so nothing is repeated and both are cut on character boundaries.
+     *
+     * @param file The file to read
+     * @return The excerpt. Empty if the file doesn't exist.
+     * @throws IOException If the file can't be read
+     */
+    private OutputExcerpt readExcerpt(final File file) throws IOException {
+        if (!file.isFile()) {
+            return new OutputExcerpt("", "", 0L);
+        }
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            final long size = raf.length();
+
+            final byte[] head = new byte[(int) Math.min(size, this.jobOutputSummaryProperties.getHeadSize())];
+            raf.readFully(head);
+            int headLength = head.length;
+            if (headLength < size) {
+                headLength = getLastCharacterBoundary(head);
+            }
+
+            final long tailStart = Math.max(headLength, size - this.jobOutputSummaryProperties.getTailSize());
+            final byte[] tail = new byte[(int) (size - tailStart)];
+            raf.seek(tailStart);
+            raf.readFully(tail);
+            final int tailOffset = getFirstCharacterBoundary(tail);
+
+            return new OutputExcerpt(
+                toText(head, 0, headLength),
+                toText(tail, tailOffset, tail.length - tailOffset),
+                size
+            );
+        }
+    }
+
+    /**
+     * Find the end of the last complete UTF-8 character in the bytes.
+     */
+    private static int getLastCharacterBoundary(final byte[] bytes) {
+        for (int i = bytes.length - 1; i >= 0 && i >= bytes.length - 4; i--) {
+            final int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                final int length = b < 0x80 ? 1 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+                return i + length <= bytes.length ? bytes.length : i;
+            }
+        }
+        return bytes.length;
+    }
+
+    /**
+     * Find the start of the first complete UTF-8 character in the bytes.
+     */
+    private static int getFirstCharacterBoundary(final byte[] bytes) {
+        for (int i = 0; i < bytes.length && i < 4; i++) {
+            if ((bytes[i] & 0xC0) != 0x80) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Decode the bytes as UTF-8 replacing nulls as the database won't store them.
+     */
+    private static String toText(final byte[] bytes, final int offset, final int length) {
+        return new String(bytes, offset, length, StandardCharsets.UTF_8).replace('\0', '\uFFFD');
+    }
+
     /**
      * Uploads the job directory to the archive location.
      *
@@ -272,4 +385,19 @@ public class JobCompletionHandler {
             this.emailFailureRate.increment();
         }
     }
+
+    /**
+     * The beginning and end of an output file along with its full size.
+     */
+    private static final class OutputExcerpt {
+        private final String head;
+        private final String tail;
+        private final long size;
+
+        private OutputExcerpt(final String head, final String tail, final long size) {
+            this.head = head;
+            this.tail = tail;
+            this.size = size;
+        }
+    }
 }
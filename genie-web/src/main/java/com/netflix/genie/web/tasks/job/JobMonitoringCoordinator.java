@@ -165,6 +165,15 @@ public class JobMonitoringCoordinator {
         }
     }
 
+    /**
+     * Get the number of jobs currently being monitored on this node.
+     *
+     * @return The number of jobs running on this node
+     */
+    public int getNumRunningJobs() {
+        return this.jobMonitors.size();
+    }
+
     private void scheduleMonitor(final JobExecution jobExecution) {
         final File stdOut = new File(this.jobsDir, jobExecution.getId() + "/" + JobConstants.STDOUT_LOG_FILE_NAME);
         final File stdErr = new File(this.jobsDir, jobExecution.getId() + "/" + JobConstants.STDERR_LOG_FILE_NAME);
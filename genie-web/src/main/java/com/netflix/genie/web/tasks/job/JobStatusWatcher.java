@@ -0,0 +1,147 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.web.properties.JobWatchProperties;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.validation.constraints.NotNull;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Notifies watchers of jobs whenever the status of the job changes. Changes committed on this node are pushed to
+ * watchers as soon as they happen. Changes made by other Genie nodes are picked up by periodically checking the status
+ * of every watched job, once per job no matter how many watchers it has. Watchers may be notified of the same status
+ * more than once and are expected to ignore statuses they have already seen.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Component
+@Slf4j
+public class JobStatusWatcher implements Runnable {
+
+    private final ConcurrentMap<String, Set<Consumer<JobStatus>>> watchers = new ConcurrentHashMap<>();
+    private final JobSearchService jobSearchService;
+
+    private final Counter unableToCheckStatusRate;
+
+    /**
+     * Constructor. Schedules this task to check the status of all watched jobs at the configured rate.
+     *
+     * @param properties       The job watch properties to use
+     * @param scheduler        The scheduler to use to schedule the status checks
+     * @param jobSearchService The search service to use to get job statuses
+     * @param registry         The metrics registry
+     */
+    @Autowired
+    public JobStatusWatcher(
+        @NotNull final JobWatchProperties properties,
+        @NotNull final TaskScheduler scheduler,
+        @NotNull final JobSearchService jobSearchService,
+        @NotNull final Registry registry
+    ) {
+        this.jobSearchService = jobSearchService;
+
+        registry.mapSize("genie.jobs.watched.gauge", this.watchers);
+        this.unableToCheckStatusRate = registry.counter("genie.jobs.watch.unableToCheckStatus.rate");
+
+        scheduler.scheduleAtFixedRate(this, properties.getCheckRate());
+    }
+
+    /**
+     * Start watching a job for status changes.
+     *
+     * @param id       The id of the job to watch
+     * @param listener The listener to call with the status of the job whenever it may have changed
+     * @return A handle to run to stop watching the job
+     */
+    public Runnable watch(@NotBlank final String id, @NotNull final Consumer<JobStatus> listener) {
+        // Add within compute so we can never add to a set which is concurrently being removed for being empty
+        this.watchers.compute(
+            id,
+            (key, listeners) -> {
+                final Set<Consumer<JobStatus>> jobListeners
+                    = listeners == null ? new CopyOnWriteArraySet<>() : listeners;
+                jobListeners.add(listener);
+                return jobListeners;
+            }
+        );
+        return () -> this.watchers.computeIfPresent(
+            id,
+            (key, listeners) -> {
+                listeners.remove(listener);
+                return listeners.isEmpty() ? null : listeners;
+            }
+        );
+    }
+
+    /**
+     * Notify the watchers of a job once a change to its status has been committed.
+     *
+     * @param event The job status changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobStatusChanged(final JobStatusChangedEvent event) {
+        this.notifyWatchers(event.getId(), event.getStatus());
+    }
+
+    /**
+     * Check the status of every watched job to pick up changes made by other nodes.
+     */
+    @Override
+    public void run() {
+        for (final String id : this.watchers.keySet()) {
+            try {
+                this.notifyWatchers(id, this.jobSearchService.getJobStatus(id));
+            } catch (final GenieException ge) {
+                log.error("Unable to check the status of watched job {}", id, ge);
+                this.unableToCheckStatusRate.increment();
+            }
+        }
+    }
+
+    private void notifyWatchers(final String id, final JobStatus status) {
+        final Set<Consumer<JobStatus>> listeners = this.watchers.get(id);
+        if (listeners == null) {
+            return;
+        }
+        for (final Consumer<JobStatus> listener : listeners) {
+            try {
+                listener.accept(status);
+            } catch (final RuntimeException re) {
+                log.error("Unable to notify watcher of job {} of status {}", id, status, re);
+            }
+        }
+    }
+}
@@ -17,8 +17,6 @@
  */
 package com.netflix.genie.web.tasks.leader;
 
-import com.netflix.genie.common.dto.JobExecution;
-import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.web.properties.ClusterCheckerProperties;
@@ -28,25 +26,37 @@ import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
- * A task which checks to see if this leader node can communicate with all other nodes in the cluster. If it can't
- * it will keep track of which nodes it can't communicate with and perform various actions based on the number of times
- * it can't communicate with that node. Currently (as of 3.0) this task will mark jobs as lost if they miss a certain
- * number of checks.
+ * A task which checks to see if all other nodes in the cluster which are running jobs are still alive. Every node
+ * writes a heartbeat to the database so the leader finds the nodes which stopped writing heartbeats with a single
+ * query. Those nodes, which may also just be running an older version which doesn't write heartbeats, are then probed
+ * over HTTP in parallel with strict timeouts. The task keeps track of how many checks in a row each node failed and
+ * once a node misses a certain number of checks all of its jobs are marked as lost at once.
  *
  * @author tgianos
  * @since 3.0.0
@@ -62,12 +72,14 @@ public class ClusterCheckerTask extends LeadershipTask {
     private final HttpClient httpClient;
     private final String scheme;
     private final String healthEndpoint;
+    private final RequestConfig healthCheckConfig;
+    private final ExecutorService healthCheckExecutor;
 
     private final Map<String, Integer> errorCounts = new HashMap<>();
 
-    // TODO: Add metrics
     private final Counter lostJobsCounter;
     private final Counter unableToUpdateJobCounter;
+    private final Counter healthCheckTimeoutCounter;
 
     /**
      * Constructor.
@@ -97,81 +109,66 @@ public class ClusterCheckerTask extends LeadershipTask {
         this.httpClient = httpClient;
         this.scheme = this.properties.getScheme() + "://";
         this.healthEndpoint = ":" + this.properties.getPort() + managementServerProperties.getContextPath() + "/health";
+        final int healthCheckTimeout = (int) this.properties.getHealthCheckTimeout();
+        this.healthCheckConfig = RequestConfig
+            .custom()
+            .setConnectTimeout(healthCheckTimeout)
+            .setConnectionRequestTimeout(healthCheckTimeout)
+            .setSocketTimeout(healthCheckTimeout)
+            .build();
+        this.healthCheckExecutor = Executors.newFixedThreadPool(this.properties.getHealthCheckThreads());
 
         // Keep track of the number of nodes currently unreachable from the the master
         registry.mapSize("genie.tasks.clusterChecker.errorCounts.gauge", this.errorCounts);
         this.lostJobsCounter = registry.counter("genie.tasks.clusterChecker.lostJobs.rate");
         this.unableToUpdateJobCounter = registry.counter("genie.tasks.clusterChecker.unableToUpdateJob.rate");
+        this.healthCheckTimeoutCounter = registry.counter("genie.tasks.clusterChecker.healthCheckTimeout.rate");
     }
 
     /**
-     * Ping the health check endpoint of all other nodes which have running jobs. Track results.
+     * Find the nodes running jobs whose heartbeats stopped, confirm they are unreachable and track results.
      */
     @Override
     public void run() {
         log.info("Checking for cluster node health...");
-        final Set<String> badNodes = new HashSet<>();
-        this.jobSearchService.getAllHostsRunningJobs()
+        final Date since = new Date(System.currentTimeMillis() - this.properties.getHeartbeatTimeout());
+        final List<String> staleHosts = this.jobSearchService.getAllHostsRunningJobsWithoutHeartbeatSince(since)
             .stream()
             .filter(host -> !this.hostName.equals(host))
-            .forEach(
-                host -> {
-                    try {
-                        final HttpGet get = new HttpGet(this.scheme + host + this.healthEndpoint);
-                        final HttpResponse response = this.httpClient.execute(get);
-                        if (response.getStatusLine().getStatusCode() != HttpStatus.OK.value()) {
-                            badNodes.add(host);
-                        }
-                    } catch (final IOException ioe) {
-                        log.error("Unable to reach {}", host, ioe);
-                        badNodes.add(host);
-                    }
-                }
-            );
+            .collect(Collectors.toList());
+        final Map<String, Boolean> health = this.checkHealth(staleHosts);
+
+        // Forget hosts which are writing heartbeats again or are healthy since last iteration. Hosts which couldn't
+        // be checked this time keep their count.
+        this.errorCounts.keySet().removeIf(host -> !staleHosts.contains(host) || Boolean.TRUE.equals(health.get(host)));
 
         // Increment or add new bad nodes
-        badNodes.stream().forEach(
-            host -> {
-                if (this.errorCounts.containsKey(host)) {
-                    this.errorCounts.put(host, this.errorCounts.get(host) + 1);
-                } else {
-                    this.errorCounts.put(host, 1);
+        health.forEach(
+            (host, healthy) -> {
+                if (!healthy) {
+                    this.errorCounts.merge(host, 1, Integer::sum);
                 }
             }
         );
 
-        // Find any hosts that are now healthy since last iteration
-        // Two loops to avoid concurrent modification exception
-        final Set<String> toRemove = this.errorCounts.keySet()
+        // Did we pass bad threshold on any hosts? Mark their jobs lost if so
+        final Set<String> lostHosts = this.errorCounts.keySet()
             .stream()
-            .filter(host -> !badNodes.contains(host))
+            .filter(host -> this.errorCounts.get(host) >= this.properties.getLostThreshold())
             .collect(Collectors.toSet());
-        toRemove.stream().forEach(this.errorCounts::remove);
-
-        // Did we pass bad threshold on any hosts? Error jobs if so
-        toRemove.clear();
-        this.errorCounts.keySet()
-            .stream()
-            .filter(host -> this.errorCounts.get(host) == this.properties.getLostThreshold())
-            .forEach(
-                host -> {
-                    toRemove.add(host);
-                    final Set<JobExecution> jobs = this.jobSearchService.getAllRunningJobExecutionsOnHost(host);
-                    jobs.stream().forEach(
-                        job -> {
-                            try {
-                                this.jobPersistenceService.setExitCode(job.getId(), JobExecution.LOST_EXIT_CODE);
-                                this.lostJobsCounter.increment();
-                            } catch (final GenieException ge) {
-                                log.error("Unable to update job {} to failed due to exception", job.getId(), ge);
-                                this.unableToUpdateJobCounter.increment();
-                            }
-                        }
-                    );
-                }
-            );
-        // Remove the fields we just purged
-        toRemove.stream().forEach(this.errorCounts::remove);
+        for (final String host : lostHosts) {
+            try {
+                // Jobs which finished on their own since the check keep their exit code
+                final int lostJobs = this.jobPersistenceService.markJobsOnHostLost(host);
+                log.info("Marked {} jobs on {} as lost", lostJobs, host);
+                this.lostJobsCounter.increment(lostJobs);
+            } catch (final RuntimeException re) {
+                log.error("Unable to mark jobs on {} as lost due to exception", host, re);
+                this.unableToUpdateJobCounter.increment();
+            }
+        }
+        // Remove the hosts we just purged
+        lostHosts.forEach(this.errorCounts::remove);
         log.info("Finished checking for cluster node health.");
     }
 
@@ -191,6 +188,14 @@ public class ClusterCheckerTask extends LeadershipTask {
         return this.properties.getRate();
     }
 
+    /**
+     * Stop any health checks still in flight.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.healthCheckExecutor.shutdownNow();
+    }
+
     /**
      * Get the current size of error counts. Mainly used for testing.
      *
@@ -199,4 +204,89 @@ public class ClusterCheckerTask extends LeadershipTask {
     protected int getErrorCountsSize() {
         return this.errorCounts.size();
     }
+
+    /**
+     * Probe the health endpoint of all the given hosts in parallel. Each probe gets the health check timeout from
+     * when it starts running so probes waiting for a free thread aren't timed out before they even start. A probe
+     * which still hasn't started once every probe could have used its full timeout is left out rather than counted
+     * against its host.
+     *
+     * @return Whether each checked host is healthy. Hosts which weren't checked are missing.
+     */
+    private Map<String, Boolean> checkHealth(final List<String> hosts) {
+        final long timeout = this.properties.getHealthCheckTimeout();
+        final Map<String, HttpGet> requests = new HashMap<>();
+        final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+        final Map<String, Future<Boolean>> results = new HashMap<>();
+        for (final String host : hosts) {
+            final HttpGet get = new HttpGet(this.scheme + host + this.healthEndpoint);
+            get.setConfig(this.healthCheckConfig);
+            requests.put(host, get);
+            results.put(
+                host,
+                this.healthCheckExecutor.submit(
+                    () -> {
+                        startTimes.put(host, System.currentTimeMillis());
+                        return this.isHealthy(host, get);
+                    }
+                )
+            );
+        }
+
+        // How long all the probes take if every one of them uses its full timeout
+        final int threads = this.properties.getHealthCheckThreads();
+        final long rounds = (hosts.size() + threads - 1) / threads;
+        final long startDeadline = System.currentTimeMillis() + rounds * timeout;
+
+        final Map<String, Boolean> health = new HashMap<>();
+        for (final Map.Entry<String, Future<Boolean>> result : results.entrySet()) {
+            final String host = result.getKey();
+            final Future<Boolean> future = result.getValue();
+            try {
+                while (!health.containsKey(host)) {
+                    final Long started = startTimes.get(host);
+                    final long now = System.currentTimeMillis();
+                    if (started == null && now >= startDeadline) {
+                        log.warn("Never got to check the health of {}. Not counting it.", host);
+                        requests.get(host).abort();
+                        future.cancel(true);
+                        break;
+                    }
+                    final long deadline = started == null ? startDeadline : started + timeout;
+                    try {
+                        health.put(host, future.get(Math.max(0L, deadline - now), TimeUnit.MILLISECONDS));
+                    } catch (final TimeoutException te) {
+                        // Only a probe which has been running for the whole timeout timed out
+                        if (started != null) {
+                            log.error("Timed out checking health of {}", host);
+                            this.healthCheckTimeoutCounter.increment();
+                            requests.get(host).abort();
+                            future.cancel(true);
+                            health.put(host, false);
+                        }
+                    }
+                }
+            } catch (final ExecutionException ee) {
+                log.error("Unable to check health of {}", host, ee);
+                health.put(host, false);
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                // Don't count anything which wasn't checked against the host
+                break;
+            }
+        }
+        return health;
+    }
+
+    private boolean isHealthy(final String host, final HttpGet get) {
+        try {
+            final HttpResponse response = this.httpClient.execute(get);
+            // Release the connection back to the pool
+            EntityUtils.consumeQuietly(response.getEntity());
+            return response.getStatusLine().getStatusCode() == HttpStatus.OK.value();
+        } catch (final IOException ioe) {
+            log.error("Unable to reach {}", host, ioe);
+            return false;
+        }
+    }
 }
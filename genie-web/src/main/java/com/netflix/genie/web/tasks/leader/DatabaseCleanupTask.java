@@ -22,6 +22,7 @@ import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.web.properties.DatabaseCleanupProperties;
 import com.netflix.genie.web.tasks.GenieTaskScheduleType;
 import com.netflix.genie.web.tasks.TaskUtils;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,7 +39,9 @@ import java.util.Date;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * A task which will clean up the database of old jobs if desired.
+ * A task which will clean up the database of old jobs if desired. Jobs are deleted in batches, each in its own short
+ * transaction, with a pause between batches so the cleanup doesn't hold locks or starve job submissions for long.
+ * Anything left when the maximum run time is reached is deleted on the next run.
  *
  * @author tgianos
  * @since 3.0.0
@@ -53,6 +56,8 @@ public class DatabaseCleanupTask extends LeadershipTask {
     private final JobPersistenceService jobPersistenceService;
 
     private final AtomicLong numDeletedJobs;
+    private final Counter deletedJobsRate;
+    private final Counter batchesRate;
 
     /**
      * Constructor.
@@ -71,6 +76,8 @@ public class DatabaseCleanupTask extends LeadershipTask {
         this.jobPersistenceService = jobPersistenceService;
 
         this.numDeletedJobs = registry.gauge("genie.tasks.databaseCleanup.numDeletedJobs.gauge", new AtomicLong());
+        this.deletedJobsRate = registry.counter("genie.tasks.databaseCleanup.deletedJobs.rate");
+        this.batchesRate = registry.counter("genie.tasks.databaseCleanup.batches.rate");
     }
 
     /**
@@ -98,9 +105,35 @@ public class DatabaseCleanupTask extends LeadershipTask {
         // Move the date back the number of days retention is set for
         TaskUtils.subtractDaysFromDate(cal, this.cleanupProperties.getRetention());
         final Date retentionLimit = cal.getTime();
+        final String retentionLimitString = this.dateFormat.format(retentionLimit);
 
-        final long numberDeletedJobs = this.jobPersistenceService.deleteAllJobsCreatedBeforeDate(retentionLimit);
-        log.info("Deleted {} jobs from before {}", numberDeletedJobs, this.dateFormat.format(retentionLimit));
-        this.numDeletedJobs.set(numberDeletedJobs);
+        final int batchSize = this.cleanupProperties.getBatchSize();
+        final long deadline = System.currentTimeMillis() + this.cleanupProperties.getMaxRunTime();
+        long numberDeletedJobs = 0;
+        while (true) {
+            final long deleted
+                = this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(retentionLimit, batchSize);
+            numberDeletedJobs += deleted;
+            this.deletedJobsRate.increment(deleted);
+            this.batchesRate.increment();
+            this.numDeletedJobs.set(numberDeletedJobs);
+            if (deleted < batchSize) {
+                break;
+            }
+
+            final long batchDelay = this.cleanupProperties.getBatchDelay();
+            if (System.currentTimeMillis() + batchDelay >= deadline) {
+                log.info("Ran out of time deleting jobs from before {}. Continuing next run.", retentionLimitString);
+                break;
+            }
+            log.debug("Deleted {} jobs so far from before {}", numberDeletedJobs, retentionLimitString);
+            try {
+                Thread.sleep(batchDelay);
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        log.info("Deleted {} jobs from before {}", numberDeletedJobs, retentionLimitString);
     }
 }
@@ -17,9 +17,8 @@
  */
 package com.netflix.genie.web.tasks.node;
 
-import com.netflix.genie.common.dto.Job;
-import com.netflix.genie.common.dto.JobStatus;
-import com.netflix.genie.common.exceptions.GenieException;
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.search.JobSearchResult;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.web.properties.DiskCleanupProperties;
@@ -35,34 +34,70 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This task runs on every Genie node and is responsible for cleaning up the local disk so that space can be
  * recaptured.
+ * <p>
+ * The statuses of the jobs are looked up a batch of directories at a time. Directories of jobs which can be deleted
+ * are first renamed into a trash directory inside the jobs directory, which removes them from view immediately, and
+ * are then deleted in the background by a bounded pool of threads. Anything left in the trash, for instance by a
+ * restart, is deleted on the next run. Besides the cron schedule the task also runs whenever the disk the jobs
+ * directory is on fills past the configured threshold. If such a run finds nothing to delete the disk is full of
+ * something else, so the checks back off, doubling the wait after every run which frees nothing up to a maximum.
  */
 @ConditionalOnProperty("genie.tasks.databaseCleanup.enabled")
 @Component
 @Slf4j
 public class DiskCleanupTask implements Runnable {
 
+    /**
+     * The name of the directory inside the jobs directory which holds job directories waiting to be deleted.
+     */
+    static final String TRASH_DIR_NAME = ".trash";
+
     private final DiskCleanupProperties properties;
     private final File jobsDir;
+    private final File trashDir;
     private final JobSearchService jobSearchService;
+    private final ExecutorService deletionExecutor;
+    private final AtomicBoolean cleaning = new AtomicBoolean(false);
+    private final Set<String> pendingDeletions = ConcurrentHashMap.newKeySet();
+    // Only touched by the disk usage check which the scheduler never runs concurrently with itself
+    private long diskUsageBackoff;
+    private long nextDiskUsageCleanup;
 
     private final AtomicLong numberOfDeletedJobDirs;
     private final Counter unableToGetJobCounter;
     private final Counter unableToDeleteJobDirCounter;
+    private final Counter diskUsageTriggeredCounter;
+    private final Counter diskUsageNothingDeletedCounter;
 
     /**
      * Constructor. Schedules this task to be run by the task scheduler.
      *
      * @param properties       The disk cleanup properties to use.
-     * @param scheduler        The scheduler to use to schedule the cron trigger.
+     * @param scheduler        The scheduler to use to schedule the cron trigger and disk usage checks.
      * @param jobsDir          The resource representing the location of the job directory
      * @param jobSearchService The service to find jobs with
      * @param registry         The metrics registry
@@ -83,15 +118,23 @@ public class DiskCleanupTask implements Runnable {
 
         this.properties = properties;
         this.jobsDir = jobsDir.getFile();
+        this.trashDir = new File(this.jobsDir, TRASH_DIR_NAME);
         this.jobSearchService = jobSearchService;
+        this.deletionExecutor = Executors.newFixedThreadPool(properties.getDeletionThreads());
 
         this.numberOfDeletedJobDirs
             = registry.gauge("genie.tasks.diskCleanup.numberDeletedJobDirs.gauge", new AtomicLong());
         this.unableToGetJobCounter = registry.counter("genie.tasks.diskCleanup.unableToGetJobs.rate");
         this.unableToDeleteJobDirCounter = registry.counter("genie.tasks.diskCleanup.unableToDeleteJobsDir.rate");
+        this.diskUsageTriggeredCounter = registry.counter("genie.tasks.diskCleanup.diskUsageTriggered.rate");
+        this.diskUsageNothingDeletedCounter
+            = registry.counter("genie.tasks.diskCleanup.diskUsageNothingDeleted.rate");
 
         final CronTrigger trigger = new CronTrigger(properties.getExpression(), JobConstants.UTC);
         scheduler.schedule(this, trigger);
+        if (properties.getDiskUsageThreshold() > 0) {
+            scheduler.scheduleAtFixedRate(this::checkDiskUsage, properties.getDiskUsageCheckRate());
+        }
     }
 
     /**
@@ -100,42 +143,187 @@ public class DiskCleanupTask implements Runnable {
      */
     @Override
     public void run() {
-        final File[] jobDirs = this.jobsDir.listFiles();
-        if (jobDirs == null) {
-            log.warn("No job dirs found. Returning.");
-            this.numberOfDeletedJobDirs.set(0);
+        this.cleanup(this.properties.getRetention());
+    }
+
+    /**
+     * Check how full the disk the jobs directory is on is and clean up right away if it is past the threshold,
+     * using the shorter retention for disk pressure. Skipped while backing off after runs which deleted nothing.
+     */
+    public void checkDiskUsage() {
+        final long now = System.currentTimeMillis();
+        if (now < this.nextDiskUsageCleanup) {
+            return;
+        }
+
+        final long totalSpace = this.jobsDir.getTotalSpace();
+        if (totalSpace <= 0) {
+            return;
+        }
+
+        final double usage = 1.0 - (double) this.jobsDir.getUsableSpace() / totalSpace;
+        if (usage < this.properties.getDiskUsageThreshold()) {
+            this.diskUsageBackoff = 0;
+            return;
+        }
+
+        log.info(
+            "Disk holding {} is {}% full. Cleaning up jobs which finished over {} days ago.",
+            this.jobsDir,
+            Math.round(usage * 100),
+            this.properties.getDiskUsageRetention()
+        );
+        this.diskUsageTriggeredCounter.increment();
+        final long deleted = this.cleanup(this.properties.getDiskUsageRetention());
+        if (deleted == 0) {
+            this.diskUsageBackoff = this.diskUsageBackoff == 0
+                ? this.properties.getDiskUsageBackoff()
+                : Math.min(this.diskUsageBackoff * 2, this.properties.getDiskUsageMaxBackoff());
+            this.nextDiskUsageCleanup = System.currentTimeMillis() + this.diskUsageBackoff;
+            log.warn(
+                "Found no jobs to delete although the disk holding {} is {}% full. Not checking again for {} ms.",
+                this.jobsDir,
+                Math.round(usage * 100),
+                this.diskUsageBackoff
+            );
+            this.diskUsageNothingDeletedCounter.increment();
+        } else if (deleted > 0) {
+            this.diskUsageBackoff = 0;
+        }
+    }
+
+    /**
+     * Stop deleting. Anything still in the trash is deleted the next time this node runs the task.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.deletionExecutor.shutdownNow();
+    }
+
+    /**
+     * Clean up the jobs directory.
+     *
+     * @param retention The number of days to keep the directories of finished jobs for
+     * @return The number of job directories deleted or -1 if a cleanup was already running
+     */
+    private long cleanup(final int retention) {
+        if (!this.cleaning.compareAndSet(false, true)) {
+            log.info("Disk cleanup is already running. Skipping.");
+            return -1;
+        }
+
+        try {
+            this.emptyTrash();
+
+            final File[] jobDirs = this.jobsDir.listFiles(
+                file -> file.isDirectory() && !file.getName().equals(TRASH_DIR_NAME)
+            );
+            if (jobDirs == null) {
+                log.warn("No job dirs found. Returning.");
+                this.numberOfDeletedJobDirs.set(0);
+                return 0;
+            }
+
+            // Delete anything with a finish time before today @12 AM UTC - retention
+            final Calendar retentionThreshold = TaskUtils.getMidnightUTC();
+            TaskUtils.subtractDaysFromDate(retentionThreshold, retention);
+            final Date threshold = retentionThreshold.getTime();
+
+            long deletedCount = 0;
+            for (final List<File> batch : Lists.partition(Arrays.asList(jobDirs), this.properties.getBatchSize())) {
+                deletedCount += this.trashFinishedJobDirs(batch, threshold);
+            }
+            this.numberOfDeletedJobDirs.set(deletedCount);
+
+            this.emptyTrash();
+            return deletedCount;
+        } finally {
+            this.cleaning.set(false);
+        }
+    }
+
+    private long trashFinishedJobDirs(final List<File> batch, final Date threshold) {
+        final Map<String, File> dirs = new HashMap<>();
+        batch.forEach(dir -> dirs.put(dir.getName(), dir));
+
+        final List<JobSearchResult> jobs;
+        try {
+            jobs = this.jobSearchService.getJobSearchResults(dirs.keySet());
+        } catch (final RuntimeException re) {
+            log.error("Unable to get {} jobs. Continuing.", dirs.size(), re);
+            this.unableToGetJobCounter.increment(dirs.size());
+            return 0;
+        }
+
+        long trashedCount = 0;
+        for (final JobSearchResult job : jobs) {
+            final File dir = dirs.remove(job.getId());
+            // Don't want to delete anything still going
+            if (dir == null || job.getStatus().isActive()) {
+                continue;
+            }
+
+            final Date finished = job.getFinished();
+            if (finished != null && finished.before(threshold) && this.moveToTrash(dir)) {
+                trashedCount++;
+            }
+        }
+
+        // Whatever is left has no job
+        for (final String id : dirs.keySet()) {
+            log.error("Unable to get job {}. Continuing.", id);
+            this.unableToGetJobCounter.increment();
+        }
+        return trashedCount;
+    }
+
+    private boolean moveToTrash(final File dir) {
+        try {
+            Files.createDirectories(this.trashDir.toPath());
+            // Renaming within the same file system is atomic and instant no matter how big the directory is
+            Files.move(
+                dir.toPath(),
+                this.trashDir.toPath().resolve(dir.getName() + "-" + UUID.randomUUID().toString()),
+                StandardCopyOption.ATOMIC_MOVE
+            );
+            return true;
+        } catch (final IOException ioe) {
+            log.error("Unable to delete job directory for job with id: {}", dir.getName(), ioe);
+            this.unableToDeleteJobDirCounter.increment();
+            return false;
+        }
+    }
+
+    private void emptyTrash() {
+        final File[] trashed = this.trashDir.listFiles();
+        if (trashed == null) {
             return;
         }
-        // For each of the directories figure out if we need to delete the files or not
-        long deletedCount = 0;
-        for (final File dir : jobDirs) {
-            if (!dir.isDirectory()) {
+
+        for (final File file : trashed) {
+            // Skip anything a previous run already queued up which hasn't been deleted yet
+            if (!this.pendingDeletions.add(file.getName())) {
                 continue;
             }
 
-            final String id = dir.getName();
             try {
-                final Job job = this.jobSearchService.getJob(id);
-                if (job.getStatus() == JobStatus.INIT || job.getStatus() == JobStatus.RUNNING) {
-                    // Don't want to delete anything still going
-                    continue;
-                }
-
-                // Delete anything with a finish time before today @12 AM UTC - retention
-                final Calendar retentionThreshold = TaskUtils.getMidnightUTC();
-                TaskUtils.subtractDaysFromDate(retentionThreshold, this.properties.getRetention());
-                if (job.getFinished().before(retentionThreshold.getTime())) {
-                    FileUtils.deleteDirectory(dir);
-                    deletedCount++;
-                }
-            } catch (final GenieException ge) {
-                log.error("Unable to get job {}. Continuing.", id, ge);
-                this.unableToGetJobCounter.increment();
-            } catch (final IOException ioe) {
-                log.error("Unable to delete job directory for job with id: {}", id, ioe);
-                this.unableToDeleteJobDirCounter.increment();
+                this.deletionExecutor.execute(
+                    () -> {
+                        try {
+                            FileUtils.forceDelete(file);
+                        } catch (final IOException ioe) {
+                            log.error("Unable to delete {} from the trash", file, ioe);
+                            this.unableToDeleteJobDirCounter.increment();
+                        } finally {
+                            this.pendingDeletions.remove(file.getName());
+                        }
+                    }
+                );
+            } catch (final RejectedExecutionException ree) {
+                // Shutting down. The rest will be deleted next time.
+                this.pendingDeletions.remove(file.getName());
+                return;
             }
         }
-        this.numberOfDeletedJobDirs.set(deletedCount);
     }
 }
@@ -0,0 +1,96 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.web.properties.HeartbeatProperties;
+import com.netflix.genie.web.tasks.job.JobMonitoringCoordinator;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * This task runs on every Genie node and periodically writes a heartbeat for the node to the database along with how
+ * many jobs it is running. The leader uses the heartbeats to find nodes which have stopped instead of polling every
+ * node over HTTP.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@ConditionalOnProperty("genie.tasks.heartbeat.enabled")
+@Component
+@Slf4j
+public class HeartbeatTask implements Runnable {
+
+    private final String hostName;
+    private final JobPersistenceService jobPersistenceService;
+    private final JobMonitoringCoordinator jobMonitoringCoordinator;
+
+    private final Counter heartbeatFailuresCounter;
+
+    /**
+     * Constructor. Schedules this task to be run by the task scheduler at the configured rate.
+     *
+     * @param hostName                 The name of the host this Genie process is running on
+     * @param properties               The heartbeat properties to use
+     * @param scheduler                The scheduler to use to schedule the heartbeats
+     * @param jobPersistenceService    The persistence service to save the heartbeats with
+     * @param jobMonitoringCoordinator The coordinator which knows how many jobs are running on this node
+     * @param registry                 The metrics registry
+     */
+    @Autowired
+    public HeartbeatTask(
+        @NotNull final String hostName,
+        @NotNull final HeartbeatProperties properties,
+        @NotNull final TaskScheduler scheduler,
+        @NotNull final JobPersistenceService jobPersistenceService,
+        @NotNull final JobMonitoringCoordinator jobMonitoringCoordinator,
+        @NotNull final Registry registry
+    ) {
+        this.hostName = hostName;
+        this.jobPersistenceService = jobPersistenceService;
+        this.jobMonitoringCoordinator = jobMonitoringCoordinator;
+
+        this.heartbeatFailuresCounter = registry.counter("genie.tasks.heartbeat.failures.rate");
+
+        scheduler.scheduleAtFixedRate(this, properties.getRate());
+    }
+
+    /**
+     * Write the heartbeat of this node.
+     */
+    @Override
+    public void run() {
+        final int runningJobs = this.jobMonitoringCoordinator.getNumRunningJobs();
+        try {
+            this.jobPersistenceService.saveNodeHeartbeat(this.hostName, runningJobs);
+            log.debug("Saved heartbeat for {} running {} jobs", this.hostName, runningJobs);
+        } catch (final GenieException | RuntimeException e) {
+            // The next heartbeat will try again. Missing a few is fine as the leader allows for it.
+            log.error("Unable to save heartbeat for {}", this.hostName, e);
+            this.heartbeatFailuresCounter.increment();
+        }
+    }
+}
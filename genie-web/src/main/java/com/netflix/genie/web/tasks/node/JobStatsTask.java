@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.web.properties.JobStatsProperties;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * This task runs on every Genie node. It collects every job status change committed by this node and periodically
+ * flushes them into the pre-aggregated hourly job statistics in the database. Collecting in memory keeps the cost of
+ * a status change to an in-memory enqueue and turns many per-job writes into a handful of counter updates per flush.
+ * Any changes still pending are flushed when the node shuts down.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@ConditionalOnProperty("genie.tasks.jobStats.enabled")
+@Component
+@Slf4j
+public class JobStatsTask implements Runnable {
+
+    private final String hostName;
+    private final JobPersistenceService jobPersistenceService;
+    private final BlockingQueue<JobStatusChangedEvent> pending;
+
+    private final Counter droppedChangesCounter;
+    private final Counter flushFailuresCounter;
+    private final Counter flushedChangesCounter;
+
+    /**
+     * Constructor. Schedules this task to be run by the task scheduler at the configured rate.
+     *
+     * @param hostName              The name of the host this Genie process is running on
+     * @param properties            The job statistics properties to use
+     * @param scheduler             The scheduler to use to schedule the flushes
+     * @param jobPersistenceService The persistence service to flush the statistics with
+     * @param registry              The metrics registry
+     */
+    @Autowired
+    public JobStatsTask(
+        @NotNull final String hostName,
+        @NotNull final JobStatsProperties properties,
+        @NotNull final TaskScheduler scheduler,
+        @NotNull final JobPersistenceService jobPersistenceService,
+        @NotNull final Registry registry
+    ) {
+        this.hostName = hostName;
+        this.jobPersistenceService = jobPersistenceService;
+        this.pending = new LinkedBlockingQueue<>(properties.getMaxPending());
+
+        registry.collectionSize("genie.tasks.jobStats.pending.gauge", this.pending);
+        this.droppedChangesCounter = registry.counter("genie.tasks.jobStats.droppedChanges.rate");
+        this.flushFailuresCounter = registry.counter("genie.tasks.jobStats.flushFailures.rate");
+        this.flushedChangesCounter = registry.counter("genie.tasks.jobStats.flushedChanges.rate");
+
+        scheduler.scheduleAtFixedRate(this, properties.getRate());
+    }
+
+    /**
+     * Record a job status change once the transaction which made it has committed.
+     *
+     * @param event The job status changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobStatusChanged(final JobStatusChangedEvent event) {
+        if (!this.pending.offer(event)) {
+            log.warn(
+                "Too many job status changes pending. Dropping change of job {} to {}",
+                event.getId(),
+                event.getStatus()
+            );
+            this.droppedChangesCounter.increment();
+        }
+    }
+
+    /**
+     * Flush all pending job status changes into the job statistics.
+     */
+    @Override
+    public void run() {
+        final List<JobStatusChangedEvent> changes = new ArrayList<>();
+        this.pending.drainTo(changes);
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        try {
+            final int counters = this.jobPersistenceService.addJobStatistics(this.hostName, changes);
+            log.debug("Flushed {} job status changes into {} job statistics counters", changes.size(), counters);
+            this.flushedChangesCounter.increment(changes.size());
+        } catch (final GenieException | RuntimeException e) {
+            // Put them back to be retried with the next flush. Anything beyond capacity is dropped.
+            log.error("Unable to flush {} job status changes to the job statistics", changes.size(), e);
+            this.flushFailuresCounter.increment();
+            for (final JobStatusChangedEvent change : changes) {
+                if (!this.pending.offer(change)) {
+                    this.droppedChangesCounter.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Flush anything still pending before this node shuts down so the counts survive a restart.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing pending job statistics before shutdown");
+        this.run();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.web.properties.JobStatusHistoryProperties;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * This task runs on every Genie node. It collects every job status transition committed by this node and
+ * periodically appends them to the job status history in batches of many jobs at once, so a status change never
+ * waits on an extra write and the history is written with a few batched inserts per flush instead of one insert per
+ * transition.
+ * <p>
+ * Durability: transitions are only queued once the transaction which changed the job has committed, so the history
+ * never contains a change that was rolled back. Until they're flushed they only exist in memory. Pending transitions
+ * are flushed when the node shuts down cleanly but if the process dies the transitions of at most the last flush
+ * interval are lost. When a batch fails its transitions are written one at a time so a single bad transition can't hold
+ * back the rest of its batch. Transitions which still fail are retried on the next run and since each transition is
+ * keyed by its job, time and statuses a retry never records it twice. A transition which failed the configured number
+ * of attempts is dropped and counted. If nothing at all can be written the history is most likely unavailable so the
+ * flush stops and the rest is retried on the next run without counting an attempt against it. If more than the
+ * configured maximum are pending further transitions are dropped and counted. The status of the job itself is
+ * unaffected by any of this.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@ConditionalOnProperty("genie.tasks.jobStatusHistory.enabled")
+@Component
+@Slf4j
+public class JobStatusHistoryTask implements Runnable {
+
+    private final String hostName;
+    private final JobPersistenceService jobPersistenceService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final BlockingQueue<PendingTransition> pending;
+
+    private final Counter droppedTransitionsCounter;
+    private final Counter abandonedTransitionsCounter;
+    private final Counter flushFailuresCounter;
+    private final Counter flushedTransitionsCounter;
+
+    /**
+     * Constructor. Schedules this task to be run by the task scheduler at the configured rate.
+     *
+     * @param hostName              The name of the host this Genie process is running on
+     * @param properties            The job status history properties to use
+     * @param scheduler             The scheduler to use to schedule the flushes
+     * @param jobPersistenceService The persistence service to write the history with
+     * @param registry              The metrics registry
+     */
+    @Autowired
+    public JobStatusHistoryTask(
+        @NotNull final String hostName,
+        @NotNull final JobStatusHistoryProperties properties,
+        @NotNull final TaskScheduler scheduler,
+        @NotNull final JobPersistenceService jobPersistenceService,
+        @NotNull final Registry registry
+    ) {
+        this.hostName = hostName;
+        this.jobPersistenceService = jobPersistenceService;
+        this.batchSize = properties.getBatchSize();
+        this.maxAttempts = properties.getMaxAttempts();
+        this.pending = new LinkedBlockingQueue<>(properties.getMaxPending());
+
+        registry.collectionSize("genie.tasks.jobStatusHistory.pending.gauge", this.pending);
+        this.droppedTransitionsCounter = registry.counter("genie.tasks.jobStatusHistory.droppedTransitions.rate");
+        this.abandonedTransitionsCounter
+            = registry.counter("genie.tasks.jobStatusHistory.abandonedTransitions.rate");
+        this.flushFailuresCounter = registry.counter("genie.tasks.jobStatusHistory.flushFailures.rate");
+        this.flushedTransitionsCounter = registry.counter("genie.tasks.jobStatusHistory.flushedTransitions.rate");
+
+        scheduler.scheduleAtFixedRate(this, properties.getRate());
+    }
+
+    /**
+     * Queue a job status transition to be recorded once the transaction which made it has committed.
+     *
+     * @param event The job status changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobStatusChanged(final JobStatusChangedEvent event) {
+        if (!this.pending.offer(new PendingTransition(event))) {
+            log.warn(
+                "Too many job status transitions pending. Dropping transition of job {} to {}",
+                event.getId(),
+                event.getStatus()
+            );
+            this.droppedTransitionsCounter.increment();
+        }
+    }
+
+    /**
+     * Write the transitions pending when the flush started to the job status history a batch at a time. Anything
+     * queued while flushing waits for the next run so a busy node can't keep the flush going forever.
+     */
+    @Override
+    public void run() {
+        int remaining = this.pending.size();
+        while (remaining > 0) {
+            final List<PendingTransition> transitions = new ArrayList<>();
+            this.pending.drainTo(transitions, Math.min(remaining, this.batchSize));
+            if (transitions.isEmpty()) {
+                return;
+            }
+            remaining -= transitions.size();
+
+            if (!this.flush(transitions)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Flush anything still pending before this node shuts down so the transitions survive a restart.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing pending job status history before shutdown");
+        this.run();
+    }
+
+    /**
+     * Write a batch of transitions. If the batch fails the transitions are written one at a time to find the ones
+     * which can't be written.
+     *
+     * @param transitions The transitions to write
+     * @return true if the flush should go on with the next batch
+     */
+    private boolean flush(final List<PendingTransition> transitions) {
+        try {
+            final int added = this.jobPersistenceService.addJobStatusHistory(
+                this.hostName,
+                transitions.stream().map(PendingTransition::getEvent).collect(Collectors.toList())
+            );
+            log.debug("Flushed {} job status transitions, {} of them new", transitions.size(), added);
+            this.flushedTransitionsCounter.increment(transitions.size());
+            return true;
+        } catch (final GenieException | RuntimeException e) {
+            log.error("Unable to flush {} job status transitions to the history", transitions.size(), e);
+            this.flushFailuresCounter.increment();
+        }
+
+        if (transitions.size() == 1) {
+            this.retryLater(transitions.get(0));
+            return false;
+        }
+
+        boolean flushedAny = false;
+        for (int i = 0; i < transitions.size(); i++) {
+            final PendingTransition transition = transitions.get(i);
+            try {
+                this.jobPersistenceService.addJobStatusHistory(
+                    this.hostName,
+                    Collections.singletonList(transition.getEvent())
+                );
+                this.flushedTransitionsCounter.increment();
+                flushedAny = true;
+            } catch (final GenieException | RuntimeException e) {
+                log.error(
+                    "Unable to flush transition of job {} to {} to the history",
+                    transition.getEvent().getId(),
+                    transition.getEvent().getStatus(),
+                    e
+                );
+                this.retryLater(transition);
+                if (!flushedAny) {
+                    // Nothing gets through so don't hold the rest of the batch responsible
+                    transitions.subList(i + 1, transitions.size()).forEach(this::requeue);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void retryLater(final PendingTransition transition) {
+        if (transition.failed() >= this.maxAttempts) {
+            log.error(
+                "Giving up on transition of job {} to {} after {} attempts",
+                transition.getEvent().getId(),
+                transition.getEvent().getStatus(),
+                this.maxAttempts
+            );
+            this.abandonedTransitionsCounter.increment();
+        } else {
+            this.requeue(transition);
+        }
+    }
+
+    private void requeue(final PendingTransition transition) {
+        // Anything beyond capacity is dropped
+        if (!this.pending.offer(transition)) {
+            this.droppedTransitionsCounter.increment();
+        }
+    }
+
+    /**
+     * A transition waiting to be written along with how many times writing it failed.
+     */
+    private static final class PendingTransition {
+        @Getter
+        private final JobStatusChangedEvent event;
+        private int failures;
+
+        PendingTransition(final JobStatusChangedEvent event) {
+            this.event = event;
+        }
+
+        int failed() {
+            return ++this.failures;
+        }
+    }
+}
@@ -18,6 +18,8 @@
 package com.netflix.genie.web.configs;
 
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobForwardingProperties;
+import com.netflix.genie.web.properties.JobOutputStreamingProperties;
 import com.netflix.genie.web.resources.handlers.GenieResourceHttpRequestHandler;
 import com.netflix.genie.web.resources.writers.DefaultDirectoryWriter;
 import com.netflix.genie.web.resources.writers.DirectoryWriter;
@@ -31,6 +33,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 
 import java.io.File;
@@ -92,7 +96,36 @@ public class MvcConfigUnitTests {
      */
     @Test
     public void canGetHttpClient() {
-        Assert.assertNotNull(this.mvcConfig.genieMvcHttpClient());
+        Assert.assertNotNull(this.mvcConfig.genieMvcHttpClient(new JobForwardingProperties()));
+    }
+
+    /**
+     * Make sure the executor for streaming responses is bounded by the properties.
+     */
+    @Test
+    public void canGetJobOutputStreamingTaskExecutor() {
+        final JobOutputStreamingProperties properties = new JobOutputStreamingProperties();
+        properties.setThreads(7);
+        properties.setQueueCapacity(3);
+        final ThreadPoolTaskExecutor executor = this.mvcConfig.jobOutputStreamingTaskExecutor(properties);
+        Assert.assertThat(executor.getCorePoolSize(), Matchers.is(7));
+        Assert.assertThat(executor.getMaxPoolSize(), Matchers.is(7));
+    }
+
+    /**
+     * Make sure asynchronous requests run on the bounded executor and time out.
+     */
+    @Test
+    public void canConfigureAsyncSupport() {
+        final JobOutputStreamingProperties properties = new JobOutputStreamingProperties();
+        properties.setTimeout(1234L);
+        final ThreadPoolTaskExecutor executor = Mockito.mock(ThreadPoolTaskExecutor.class);
+        final AsyncSupportConfigurer configurer = Mockito.mock(AsyncSupportConfigurer.class);
+
+        this.mvcConfig.asyncSupportConfigurer(executor, properties).configureAsyncSupport(configurer);
+
+        Mockito.verify(configurer, Mockito.times(1)).setTaskExecutor(executor);
+        Mockito.verify(configurer, Mockito.times(1)).setDefaultTimeout(1234L);
     }
 
     /**
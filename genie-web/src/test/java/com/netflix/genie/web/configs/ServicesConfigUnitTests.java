@@ -18,25 +18,37 @@
 package com.netflix.genie.web.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobSearchResultCache;
+import com.netflix.genie.core.jobs.JobStatusCache;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
 import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobExecutionRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobOutputSummaryRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRepository;
 import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatsRepository;
+import com.netflix.genie.core.jpa.repositories.JpaJobStatusHistoryRepository;
+import com.netflix.genie.core.jpa.repositories.JpaNodeHeartbeatRepository;
 import com.netflix.genie.core.services.ApplicationService;
 import com.netflix.genie.core.services.ClusterLoadBalancer;
 import com.netflix.genie.core.services.ClusterService;
 import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.FileTransfer;
+import com.netflix.genie.core.services.JobIdGenerator;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobSubmitterService;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobSearchCacheProperties;
+import com.netflix.genie.web.properties.JobStatusCacheProperties;
+import com.netflix.spectator.api.Registry;
 import org.apache.commons.exec.Executor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -46,6 +58,7 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.mail.javamail.JavaMailSender;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -178,6 +191,41 @@ public class ServicesConfigUnitTests {
         );
     }
 
+    /**
+     * Can get a bean for the job status cache.
+     */
+    @Test
+    public void canGetJobStatusCacheBean() {
+        Assert.assertNotNull(this.servicesConfig.jobStatusCache(new JobStatusCacheProperties()));
+    }
+
+    /**
+     * Can get a bean for the job search result cache.
+     */
+    @Test
+    public void canGetJobSearchResultCacheBean() {
+        Assert.assertNotNull(
+            this.servicesConfig.jobSearchResultCache(new JobSearchCacheProperties(), Mockito.mock(Registry.class))
+        );
+    }
+
+    /**
+     * Can get a bean publishing the Hibernate cache statistics.
+     */
+    @Test
+    public void canGetHibernateCacheMetricsBean() {
+        final EntityManagerFactory entityManagerFactory = Mockito.mock(EntityManagerFactory.class);
+        final SessionFactory sessionFactory = Mockito.mock(SessionFactory.class);
+        final Statistics statistics = Mockito.mock(Statistics.class);
+        Mockito.when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        Mockito.when(sessionFactory.getStatistics()).thenReturn(statistics);
+        Mockito.when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+
+        Assert.assertNotNull(
+            this.servicesConfig.hibernateCacheMetrics(entityManagerFactory, Mockito.mock(Registry.class))
+        );
+    }
+
     /**
      * Can get a bean for Job Search Service.
      */
@@ -187,7 +235,11 @@ public class ServicesConfigUnitTests {
             this.servicesConfig.jobSearchService(
                 this.jobRepository,
                 this.jobRequestRepository,
-                this.jobExecutionRepository
+                this.jobExecutionRepository,
+                Mockito.mock(JpaJobOutputSummaryRepository.class),
+                Mockito.mock(JpaJobStatusHistoryRepository.class),
+                Mockito.mock(JobStatusCache.class),
+                Mockito.mock(JobSearchResultCache.class)
             )
         );
     }
@@ -204,7 +256,12 @@ public class ServicesConfigUnitTests {
                 this.jobExecutionRepository,
                 this.applicationRepository,
                 this.clusterRepository,
-                this.commandRepository
+                this.commandRepository,
+                Mockito.mock(JpaJobStatsRepository.class),
+                Mockito.mock(JpaJobOutputSummaryRepository.class),
+                Mockito.mock(JpaNodeHeartbeatRepository.class),
+                Mockito.mock(JpaJobStatusHistoryRepository.class),
+                Mockito.mock(ApplicationEventPublisher.class)
             )
         );
     }
@@ -251,17 +308,27 @@ public class ServicesConfigUnitTests {
         final JobPersistenceService jobPersistenceService = Mockito.mock(JobPersistenceService.class);
         final JobSubmitterService jobSubmitterService = Mockito.mock(JobSubmitterService.class);
         final JobKillService jobKillService = Mockito.mock(JobKillService.class);
+        final JobIdGenerator jobIdGenerator = Mockito.mock(JobIdGenerator.class);
 
         Assert.assertNotNull(
             this.servicesConfig.jobCoordinatorService(
                 jobPersistenceService,
                 jobSubmitterService,
                 jobKillService,
+                jobIdGenerator,
                 "file:///tmp"
             )
         );
     }
 
+    /**
+     * Can get a bean for the Job Id Generator.
+     */
+    @Test
+    public void canGetJobIdGeneratorBean() {
+        Assert.assertNotNull(this.servicesConfig.jobIdGenerator().generateJobId());
+    }
+
     /**
      * Can get a bean for Job Kill Service.
      */
@@ -17,15 +17,39 @@
  */
 package com.netflix.genie.web.controllers;
 
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobForwardingProperties;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Unit tests for the ControllerUtils class.
@@ -36,6 +60,12 @@ import javax.servlet.http.HttpServletRequest;
 @Category(UnitTest.class)
 public class ControllerUtilsUnitTests {
 
+    /**
+     * Temporary directory to act as the jobs directory.
+     */
+    @Rule
+    public TemporaryFolder jobsDir = new TemporaryFolder();
+
     /**
      * Dumb test.
      */
@@ -69,4 +99,195 @@ public class ControllerUtilsUnitTests {
             .thenReturn("/api/v3/jobs/{id}/output");
         Assert.assertThat(ControllerUtils.getRemainingPath(request), Matchers.is(""));
     }
+
+    /**
+     * Make sure the forward URL keeps the path and query of the original request.
+     */
+    @Test
+    public void canGetForwardUrl() {
+        final JobForwardingProperties properties = new JobForwardingProperties();
+        properties.setScheme("https");
+        properties.setPort(8443);
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v3/jobs/1234/output/stdout");
+
+        Assert.assertThat(
+            ControllerUtils.getForwardUrl(request, "genie2", properties),
+            Matchers.is("https://genie2:8443/api/v3/jobs/1234/output/stdout")
+        );
+
+        request.setQueryString("follow=true&offset=5");
+        Assert.assertThat(
+            ControllerUtils.getForwardUrl(request, "genie2", properties),
+            Matchers.is("https://genie2:8443/api/v3/jobs/1234/output/stdout?follow=true&offset=5")
+        );
+    }
+
+    /**
+     * Make sure the headers of the original request are copied and the request is marked as forwarded.
+     */
+    @Test
+    public void canCopyRequestHeaders() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v3/jobs/1234");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        final HttpGet forwardRequest = new HttpGet("http://genie2:8080/api/v3/jobs/1234");
+
+        ControllerUtils.copyRequestHeaders(request, forwardRequest);
+
+        Assert.assertThat(
+            forwardRequest.getFirstHeader(HttpHeaders.AUTHORIZATION).getValue(),
+            Matchers.is("Bearer token")
+        );
+        Assert.assertThat(
+            forwardRequest.getFirstHeader(JobConstants.GENIE_FORWARDED_FROM_HEADER).getValue(),
+            Matchers.is(request.getRequestURL().toString())
+        );
+    }
+
+    /**
+     * Make sure files within a job directory are resolved.
+     *
+     * @throws GeniePreconditionException on error
+     * @throws IOException                on error
+     */
+    @Test
+    public void canGetJobFile() throws GeniePreconditionException, IOException {
+        final Resource resource = new FileSystemResource(this.jobsDir.getRoot().getAbsolutePath() + "/");
+        final File jobDir = new File(this.jobsDir.getRoot(), "1234");
+        Assert.assertThat(ControllerUtils.getJobFile(resource, "1234", null), Matchers.is(jobDir));
+        Assert.assertThat(ControllerUtils.getJobFile(resource, "1234", ""), Matchers.is(jobDir));
+        Assert.assertThat(
+            ControllerUtils.getJobFile(resource, "1234", "genie/logs/"),
+            Matchers.is(new File(jobDir, "genie/logs"))
+        );
+        Assert.assertThat(
+            ControllerUtils.getJobFile(resource, "1234", "genie/../stdout"),
+            Matchers.is(new File(jobDir, "stdout"))
+        );
+    }
+
+    /**
+     * Make sure nothing outside a job directory can be resolved.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void cantGetJobFileOutsideJobDirectory() throws IOException {
+        final Resource resource = new FileSystemResource(this.jobsDir.getRoot().getAbsolutePath() + "/");
+        final String[][] invalid = {
+            {"1234", ".."},
+            {"1234", "../5678/stdout"},
+            {"1234", "../1234x/stdout"},
+            {"1234", "genie/../../5678"},
+            {"1234", "/etc/passwd"},
+            {"..", "stdout"},
+            {".", "5678/stdout"},
+        };
+        for (final String[] idAndPath : invalid) {
+            try {
+                ControllerUtils.getJobFile(resource, idAndPath[0], idAndPath[1]);
+                Assert.fail("Expected " + idAndPath[0] + " " + idAndPath[1] + " to be rejected");
+            } catch (final GeniePreconditionException gpe) {
+                Assert.assertNotNull(gpe.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Make sure a forwarded request copies the status, headers and body of the other node's response.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canForwardRequest() throws IOException {
+        final JobForwardingProperties properties = new JobForwardingProperties();
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v3/jobs/1234/output/stdout");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final BasicHttpResponse forwardResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        forwardResponse.setHeader(HttpHeaders.CONTENT_TYPE, "text/plain");
+        forwardResponse.setHeader("Transfer-Encoding", "chunked");
+        forwardResponse.setEntity(new StringEntity("Job output", StandardCharsets.UTF_8));
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+        Mockito.when(httpClient.execute(Mockito.any(HttpUriRequest.class))).thenReturn(forwardResponse);
+
+        final StreamingResponseBody body
+            = ControllerUtils.forwardRequest(request, response, "genie2", properties, httpClient);
+        Assert.assertNotNull(body);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.SC_OK));
+        Assert.assertThat(response.getHeader(HttpHeaders.CONTENT_TYPE), Matchers.is("text/plain"));
+        Assert.assertNull(response.getHeader("Transfer-Encoding"));
+        Assert.assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8), Matchers.is("Job output"));
+        Mockito.verify(httpClient, Mockito.times(1)).execute(Mockito.any(HttpGet.class));
+    }
+
+    /**
+     * Make sure a HEAD request is forwarded as a HEAD request and the headers describing the file are copied.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canForwardHeadRequest() throws IOException {
+        final JobForwardingProperties properties = new JobForwardingProperties();
+        final MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/api/v3/jobs/1234/output/stdout");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final BasicHttpResponse forwardResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        forwardResponse.setHeader(HttpHeaders.CONTENT_LENGTH, "1048576");
+        forwardResponse.setHeader(HttpHeaders.ETAG, "\"abc\"");
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+        Mockito.when(httpClient.execute(Mockito.any(HttpUriRequest.class))).thenReturn(forwardResponse);
+
+        Assert.assertNull(ControllerUtils.forwardRequest(request, response, "genie2", properties, httpClient));
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.SC_OK));
+        Assert.assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH), Matchers.is("1048576"));
+        Assert.assertThat(response.getHeader(HttpHeaders.ETAG), Matchers.is("\"abc\""));
+        final ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
+        Mockito.verify(httpClient, Mockito.times(1)).execute(captor.capture());
+        Assert.assertThat(captor.getValue(), Matchers.instanceOf(HttpHead.class));
+    }
+
+    /**
+     * Make sure an error from the other node is sent to the client without a body.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canForwardRequestWithError() throws IOException {
+        final JobForwardingProperties properties = new JobForwardingProperties();
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v3/jobs/1234/output/stdout");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final BasicHttpResponse forwardResponse
+            = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_FOUND, "Not Found");
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+        Mockito.when(httpClient.execute(Mockito.any(HttpUriRequest.class))).thenReturn(forwardResponse);
+
+        Assert.assertNull(ControllerUtils.forwardRequest(request, response, "genie2", properties, httpClient));
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.SC_NOT_FOUND));
+        Assert.assertThat(response.getErrorMessage(), Matchers.is("Not Found"));
+    }
+
+    /**
+     * Make sure the client is redirected to the other node when configured.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canRedirectRequest() throws IOException {
+        final JobForwardingProperties properties = new JobForwardingProperties();
+        properties.setRedirect(true);
+        properties.setPort(8080);
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v3/jobs/1234/output/stdout");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final HttpClient httpClient = Mockito.mock(HttpClient.class);
+
+        Assert.assertNull(ControllerUtils.forwardRequest(request, response, "genie2", properties, httpClient));
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.SC_TEMPORARY_REDIRECT));
+        Assert.assertThat(
+            response.getHeader(HttpHeaders.LOCATION),
+            Matchers.is("http://genie2:8080/api/v3/jobs/1234/output/stdout")
+        );
+        Mockito.verifyZeroInteractions(httpClient);
+    }
 }
@@ -36,6 +36,7 @@ import org.mockito.Mockito;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolationException;
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Tests for the exception mapper.
@@ -130,4 +131,18 @@ public class GenieExceptionMapperUnitTests {
         Mockito.verify(this.constraintViolationRate, Mockito.times(1)).increment();
         Mockito.verify(this.response, Mockito.times(1)).sendError(Mockito.anyInt(), Mockito.anyString());
     }
+
+    /**
+     * Test rejected asynchronous requests are answered with service unavailable.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canHandleRejectedExecutionExceptions() throws IOException {
+        this.mapper.handleRejectedExecution(response, new RejectedExecutionException("full"));
+        Mockito.verify(this.serverUnavailableRate, Mockito.times(1)).increment();
+        Mockito
+            .verify(this.response, Mockito.times(1))
+            .sendError(Mockito.eq(HttpServletResponse.SC_SERVICE_UNAVAILABLE), Mockito.anyString());
+    }
 }
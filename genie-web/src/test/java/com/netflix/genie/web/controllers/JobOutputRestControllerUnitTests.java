@@ -0,0 +1,385 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.controllers;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.netflix.genie.common.dto.JobOutputSummary;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobForwardingProperties;
+import com.netflix.genie.web.properties.JobOutputGrepProperties;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.http.client.HttpClient;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Unit tests for the JobOutputRestController.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobOutputRestControllerUnitTests {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Temporary directory to act as the jobs directory.
+     */
+    @Rule
+    public TemporaryFolder jobsDir = new TemporaryFolder();
+
+    private JobSearchService jobSearchService;
+    private JobForwardingProperties jobForwardingProperties;
+    private JobOutputGrepProperties jobOutputGrepProperties;
+    private HttpClient httpClient;
+    private JobOutputRestController controller;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        this.jobForwardingProperties = new JobForwardingProperties();
+        this.jobOutputGrepProperties = new JobOutputGrepProperties();
+        this.httpClient = Mockito.mock(HttpClient.class);
+        this.controller = new JobOutputRestController(
+            this.jobSearchService,
+            this.jobForwardingProperties,
+            this.jobOutputGrepProperties,
+            UUID.randomUUID().toString(),
+            this.httpClient,
+            new FileSystemResource(this.jobsDir.getRoot().getAbsolutePath() + "/"),
+            registry
+        );
+    }
+
+    /**
+     * Make sure the whole output directory of a job can be downloaded as a tar.gz.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canGetJobOutputAsTarGz() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createJobDirectory(id);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        final StreamingResponseBody body
+            = this.controller.getJobOutputArchive(id, "tar.gz", null, this.createRequest(id, ""), response);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        Assert.assertThat(response.getContentType(), Matchers.is("application/gzip"));
+        Assert.assertThat(
+            response.getHeader(HttpHeaders.CONTENT_DISPOSITION),
+            Matchers.is("attachment; filename=\"" + id + ".tar.gz\"")
+        );
+        final List<String> names = Lists.newArrayList();
+        try (final TarArchiveInputStream tar = new TarArchiveInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))
+        )) {
+            for (TarArchiveEntry entry = tar.getNextTarEntry(); entry != null; entry = tar.getNextTarEntry()) {
+                names.add(entry.getName());
+                if (entry.getName().endsWith("stdout")) {
+                    Assert.assertThat(new String(ByteStreams.toByteArray(tar), UTF_8), Matchers.is("out"));
+                }
+            }
+        }
+        Assert.assertThat(
+            names,
+            Matchers.containsInAnyOrder(
+                id + "/",
+                id + "/stdout",
+                id + "/genie/",
+                id + "/genie/logs/",
+                id + "/genie/logs/genie.log"
+            )
+        );
+    }
+
+    /**
+     * Make sure a subtree of the output directory can be downloaded as a zip.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canGetJobOutputSubtreeAsZip() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createJobDirectory(id);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        final StreamingResponseBody body = this.controller.getJobOutputArchive(
+            id,
+            "zip",
+            null,
+            this.createRequest(id, "genie/logs/"),
+            response
+        );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        Assert.assertThat(response.getContentType(), Matchers.is("application/zip"));
+        final List<String> names = Lists.newArrayList();
+        try (final ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                names.add(entry.getName());
+                if (!entry.isDirectory()) {
+                    Assert.assertThat(new String(ByteStreams.toByteArray(zip), UTF_8), Matchers.is("log"));
+                }
+            }
+        }
+        Assert.assertThat(names, Matchers.contains(id + "/genie/logs/", id + "/genie/logs/genie.log"));
+    }
+
+    /**
+     * Make sure unsupported formats are rejected.
+     *
+     * @throws Exception on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantGetJobOutputInUnsupportedFormat() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.controller.getJobOutputArchive(id, "rar", null, this.createRequest(id, ""), new MockHttpServletResponse());
+    }
+
+    /**
+     * Make sure a 404 is returned for output which doesn't exist.
+     *
+     * @throws Exception on error
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantGetJobOutputWhichDoesntExist() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.controller.getJobOutputArchive(id, "zip", null, this.createRequest(id, ""), new MockHttpServletResponse());
+    }
+
+    /**
+     * Make sure nothing outside the job directory can be archived.
+     *
+     * @throws Exception on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantGetJobOutputOutsideJobDirectory() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createJobDirectory(id);
+        this.controller.getJobOutputArchive(
+            id, "zip", null, this.createRequest(id, ".."), new MockHttpServletResponse()
+        );
+    }
+
+    /**
+     * Make sure the client is sent to the node running the job when redirects are enabled.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canRedirectArchiveRequest() throws Exception {
+        this.jobForwardingProperties.setEnabled(true);
+        this.jobForwardingProperties.setRedirect(true);
+        final String id = UUID.randomUUID().toString();
+        final String jobHostname = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobHost(id)).thenReturn(jobHostname);
+        final MockHttpServletRequest request = this.createRequest(id, "");
+        request.setQueryString("archive=zip");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Assert.assertNull(this.controller.getJobOutputArchive(id, "zip", null, request, response));
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.TEMPORARY_REDIRECT.value()));
+        Assert.assertThat(
+            response.getHeader(HttpHeaders.LOCATION),
+            Matchers.is("http://" + jobHostname + ":8080/api/v3/jobs/" + id + "/output?archive=zip")
+        );
+        Mockito.verify(this.httpClient, Mockito.never()).execute(Mockito.any());
+    }
+
+    /**
+     * Make sure only matching lines and their context are returned.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canGrepJobOutput() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createStderr(id, "a\nb\nERROR one\nc\nd\ne\nf\nERROR two\ng\n");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        final StreamingResponseBody body
+            = this.controller.grepJobOutput(id, "ERROR", 1, null, null, this.createRequest(id, "stderr"), response);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        Assert.assertThat(
+            new String(out.toByteArray(), UTF_8),
+            Matchers.is("2-b\n3:ERROR one\n4-c\n--\n7-f\n8:ERROR two\n9-g\n")
+        );
+    }
+
+    /**
+     * Make sure the search stops at the maximum number of matches.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canLimitGrepMatches() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createStderr(id, "x1\nx2\nx3\nx4");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        final StreamingResponseBody body
+            = this.controller.grepJobOutput(id, "x\\d", 0, 2, null, this.createRequest(id, "stderr"), response);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        Assert.assertThat(
+            new String(out.toByteArray(), UTF_8),
+            Matchers.is("1:x1\n2:x2\n-- Stopped searching at line 3. Reached the limit of 2 matches.\n")
+        );
+    }
+
+    /**
+     * Make sure invalid searches are rejected before anything is read.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void cantGrepWithInvalidArguments() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createStderr(id, "x");
+        try {
+            this.controller.grepJobOutput(
+                id, "(", 0, null, null, this.createRequest(id, "stderr"), new MockHttpServletResponse()
+            );
+            Assert.fail();
+        } catch (final GeniePreconditionException gpe) {
+            Assert.assertThat(gpe.getErrorCode(), Matchers.is(HttpStatus.PRECONDITION_FAILED.value()));
+        }
+        try {
+            this.controller.grepJobOutput(
+                id, "x", 21, null, null, this.createRequest(id, "stderr"), new MockHttpServletResponse()
+            );
+            Assert.fail();
+        } catch (final GeniePreconditionException gpe) {
+            Assert.assertThat(gpe.getErrorCode(), Matchers.is(HttpStatus.PRECONDITION_FAILED.value()));
+        }
+    }
+
+    /**
+     * Make sure a file which doesn't exist can't be searched.
+     *
+     * @throws Exception on error
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantGrepFileWhichDoesntExist() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.controller.grepJobOutput(
+            id, "x", 0, null, null, this.createRequest(id, "stderr"), new MockHttpServletResponse()
+        );
+    }
+
+    /**
+     * Make sure files outside the job directory can't be searched.
+     *
+     * @throws Exception on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantGrepFileOutsideJobDirectory() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createStderr(id, "secret");
+        this.controller.grepJobOutput(
+            id, "x", 0, null, null, this.createRequest(id, "../" + id + "x/stderr"), new MockHttpServletResponse()
+        );
+    }
+
+    private void createStderr(final String id, final String contents) throws IOException {
+        Files.write(contents, new File(this.jobsDir.newFolder(id), "stderr"), UTF_8);
+    }
+
+    private void createJobDirectory(final String id) throws IOException {
+        final File jobDir = this.jobsDir.newFolder(id);
+        Files.write("out", new File(jobDir, "stdout"), UTF_8);
+        final File logs = new File(jobDir, "genie/logs");
+        Assert.assertTrue(logs.mkdirs());
+        Files.write("log", new File(logs, "genie.log"), UTF_8);
+        final File compressed = new File(jobDir, "genie/compressed");
+        Assert.assertTrue(compressed.mkdirs());
+        Files.write("gz", new File(compressed, "stdout.gz"), UTF_8);
+    }
+
+    private MockHttpServletRequest createRequest(final String id, final String path) {
+        final String uri = "/api/v3/jobs/" + id + "/output" + (path.isEmpty() ? "" : "/" + path);
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, uri);
+        request.setAttribute(
+            HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+            path.isEmpty() ? "/api/v3/jobs/{id}/output" : "/api/v3/jobs/{id}/output/**"
+        );
+        return request;
+    }
+
+    /**
+     * Make sure the output summary is answered from the database without forwarding even if the job ran elsewhere.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canGetJobOutputSummary() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        final JobOutputSummary summary = new JobOutputSummary("out", "", 3L, "err", "", 3L);
+        this.jobForwardingProperties.setEnabled(true);
+        Mockito.when(this.jobSearchService.getJobOutputSummary(id)).thenReturn(summary);
+
+        Assert.assertThat(this.controller.getJobOutputSummary(id), Matchers.is(summary));
+        Mockito.verify(this.jobSearchService, Mockito.never()).getJobHost(Mockito.anyString());
+    }
+}
@@ -461,6 +461,16 @@ public class JobRestControllerIntegrationTests extends RestControllerIntegration
             .getResponse()
             .getContentAsString(), "{\"status\":\"SUCCEEDED\"}");
 
+        // Polling again with the ETag of the finished status shouldn't return the status again
+        this.mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .get(endpoint)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"SUCCEEDED\"")
+            )
+            .andExpect(MockMvcResultMatchers.status().isNotModified());
+
         // Check if all the fields are created right in the database
         this.mvc
             .perform(MockMvcRequestBuilders.get(JOBS_API + "/" + jobId))
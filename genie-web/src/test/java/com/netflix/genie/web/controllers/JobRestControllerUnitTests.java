@@ -17,8 +17,13 @@
  */
 package com.netflix.genie.web.controllers;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.JobStatusTransition;
+import com.netflix.genie.common.dto.search.JobStatisticDimension;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.core.services.AttachmentService;
 import com.netflix.genie.core.services.JobCoordinatorService;
 import com.netflix.genie.core.services.JobSearchService;
@@ -50,6 +55,8 @@ import org.mockito.Mockito;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -58,6 +65,9 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -419,18 +429,246 @@ public class JobRestControllerUnitTests {
         Mockito.when(forwardResponse.getEntity()).thenReturn(entity);
 
         final ByteArrayServletOutputStream bos = new ByteArrayServletOutputStream();
-        Mockito.when(response.getOutputStream()).thenReturn(bos);
 
         Mockito.when(this.httpClient.execute(Mockito.any())).thenReturn(forwardResponse);
 
-        this.controller.getJobOutput(jobId, forwardedFrom, request, response);
+        final StreamingResponseBody body = this.controller.getJobOutput(jobId, forwardedFrom, request, response);
+        Assert.assertNotNull(body);
+        body.writeTo(bos);
 
         Assert.assertThat(new String(bos.toByteArray(), UTF_8), Matchers.is(text));
         Mockito.verify(request, Mockito.times(1)).getHeader(HttpHeaders.ACCEPT);
         Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobHost(Mockito.eq(jobId));
         Mockito.verify(this.httpClient, Mockito.times(1)).execute(Mockito.any());
         Mockito.verify(response, Mockito.never()).sendError(Mockito.anyInt());
+        Mockito.verify(response, Mockito.times(1)).setStatus(successCode);
         Mockito.verify(response, Mockito.times(1)).setHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE);
         Mockito.verify(this.genieResourceHttpRequestHandler, Mockito.never()).handleRequest(request, response);
     }
+
+    /**
+     * Make sure job output requests are redirected to the node running the job when configured.
+     *
+     * @throws IOException      on error
+     * @throws ServletException on error
+     * @throws GenieException   on error
+     */
+    @Test
+    public void canRedirectJobOutputRequest() throws IOException, ServletException, GenieException {
+        Mockito.when(this.jobForwardingProperties.isEnabled()).thenReturn(true);
+        Mockito.when(this.jobForwardingProperties.isRedirect()).thenReturn(true);
+        Mockito.when(this.jobForwardingProperties.getScheme()).thenReturn("http");
+        Mockito.when(this.jobForwardingProperties.getPort()).thenReturn(8080);
+        final String jobId = UUID.randomUUID().toString();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        final String jobHostName = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobHost(jobId)).thenReturn(jobHostName);
+        final String requestURI = "/api/v3/jobs/" + jobId + "/output/stdout";
+        Mockito.when(request.getRequestURI()).thenReturn(requestURI);
+        Mockito.when(request.getQueryString()).thenReturn("offset=5");
+
+        Assert.assertNull(this.controller.getJobOutput(jobId, null, request, response));
+
+        Mockito.verify(response, Mockito.times(1)).setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        Mockito
+            .verify(response, Mockito.times(1))
+            .setHeader(HttpHeaders.LOCATION, "http://" + jobHostName + ":8080" + requestURI + "?offset=5");
+        Mockito.verify(this.httpClient, Mockito.never()).execute(Mockito.any());
+        Mockito.verify(this.genieResourceHttpRequestHandler, Mockito.never()).handleRequest(request, response);
+    }
+
+    /**
+     * Make sure job kill requests are redirected to the node running the job when configured.
+     *
+     * @throws IOException      on error
+     * @throws ServletException on error
+     * @throws GenieException   on error
+     */
+    @Test
+    public void canRedirectJobKillRequest() throws IOException, ServletException, GenieException {
+        Mockito.when(this.jobForwardingProperties.isEnabled()).thenReturn(true);
+        Mockito.when(this.jobForwardingProperties.isRedirect()).thenReturn(true);
+        Mockito.when(this.jobForwardingProperties.getScheme()).thenReturn("http");
+        Mockito.when(this.jobForwardingProperties.getPort()).thenReturn(8080);
+        final String jobId = UUID.randomUUID().toString();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        final String jobHostName = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobHost(jobId)).thenReturn(jobHostName);
+        final String requestURI = "/api/v3/jobs/" + jobId;
+        Mockito.when(request.getRequestURI()).thenReturn(requestURI);
+
+        this.controller.killJob(jobId, null, request, response);
+
+        Mockito.verify(response, Mockito.times(1)).setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        Mockito
+            .verify(response, Mockito.times(1))
+            .setHeader(HttpHeaders.LOCATION, "http://" + jobHostName + ":8080" + requestURI);
+        Mockito.verify(this.httpClient, Mockito.never()).execute(Mockito.any());
+    }
+
+    /**
+     * Make sure the statistics request parameters are parsed and handed to the search service.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canGetJobStatistics() throws GenieException {
+        final long from = 1465286400000L;
+        final long to = from + 3600000L;
+        final String user = UUID.randomUUID().toString();
+        final String clusterName = UUID.randomUUID().toString();
+        final String commandName = UUID.randomUUID().toString();
+
+        this.controller.getJobStatistics(
+            from,
+            to,
+            Sets.newHashSet("status", "clusterName", ""),
+            Sets.newHashSet(JobStatus.FAILED.toString(), JobStatus.KILLED.toString()),
+            user,
+            clusterName,
+            commandName
+        );
+
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobStatistics(
+            new Date(from),
+            new Date(to),
+            EnumSet.of(JobStatisticDimension.STATUS, JobStatisticDimension.CLUSTER_NAME),
+            EnumSet.of(JobStatus.FAILED, JobStatus.KILLED),
+            user,
+            clusterName,
+            commandName
+        );
+    }
+
+    /**
+     * Make sure the statistics request defaults to the last day with no grouping or filtering.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canGetJobStatisticsWithDefaults() throws GenieException {
+        this.controller.getJobStatistics(null, null, null, null, null, null, null);
+
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobStatistics(
+            Mockito.any(Date.class),
+            Mockito.any(Date.class),
+            Mockito.eq(EnumSet.noneOf(JobStatisticDimension.class)),
+            Mockito.isNull(Set.class),
+            Mockito.isNull(String.class),
+            Mockito.isNull(String.class),
+            Mockito.isNull(String.class)
+        );
+    }
+
+    /**
+     * Make sure an empty time range is rejected.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantGetJobStatisticsForEmptyRange() throws GenieException {
+        final long time = System.currentTimeMillis();
+        this.controller.getJobStatistics(time, time, null, null, null, null, null);
+    }
+
+    /**
+     * Make sure an invalid group by dimension is rejected.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantGetJobStatisticsForInvalidDimension() throws GenieException {
+        this.controller.getJobStatistics(
+            null,
+            null,
+            Sets.newHashSet(UUID.randomUUID().toString()),
+            null,
+            null,
+            null,
+            null
+        );
+    }
+
+    /**
+     * Make sure the job status is returned when the client doesn't have the current version.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canGetJobStatus() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        final WebRequest webRequest = Mockito.mock(WebRequest.class);
+        Mockito.when(this.jobSearchService.getJobStatus(jobId)).thenReturn(JobStatus.RUNNING);
+        Mockito.when(webRequest.checkNotModified(JobStatus.RUNNING.toString())).thenReturn(false);
+
+        Assert.assertThat(
+            this.controller.getJobStatus(jobId, webRequest).get("status").asText(),
+            Matchers.is(JobStatus.RUNNING.toString())
+        );
+    }
+
+    /**
+     * Make sure no body is returned when the status hasn't changed since the client last checked.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontReturnUnmodifiedJobStatus() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        final WebRequest webRequest = Mockito.mock(WebRequest.class);
+        Mockito.when(this.jobSearchService.getJobStatus(jobId)).thenReturn(JobStatus.SUCCEEDED);
+        Mockito.when(webRequest.checkNotModified(JobStatus.SUCCEEDED.toString())).thenReturn(true);
+
+        Assert.assertNull(this.controller.getJobStatus(jobId, webRequest));
+    }
+
+    /**
+     * Make sure job summaries are looked up in bulk, ignoring blank ids.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canGetJobSummaries() throws GenieException {
+        final String id1 = UUID.randomUUID().toString();
+        final String id2 = UUID.randomUUID().toString();
+
+        this.controller.getJobSummaries(Sets.newHashSet(id1, id2, " "));
+
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobSearchResults(Sets.newHashSet(id1, id2));
+    }
+
+    /**
+     * Make sure too many jobs can't be looked up at once.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantGetTooManyJobSummaries() throws GenieException {
+        final Set<String> ids = Sets.newHashSet();
+        for (int i = 0; i < 101; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        this.controller.getJobSummaries(ids);
+    }
+
+    /**
+     * Make sure the job timeline comes straight from the job status history.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canGetJobTimeline() throws GenieException {
+        final String jobId = UUID.randomUUID().toString();
+        final List<JobStatusTransition> transitions = Lists.newArrayList(
+            new JobStatusTransition(null, JobStatus.INIT, null, new Date(), this.hostname),
+            new JobStatusTransition(JobStatus.INIT, JobStatus.RUNNING, null, new Date(), this.hostname)
+        );
+        Mockito.when(this.jobSearchService.getJobStatusHistory(jobId)).thenReturn(transitions);
+
+        Assert.assertThat(this.controller.getJobTimeline(jobId), Matchers.is(transitions));
+    }
 }
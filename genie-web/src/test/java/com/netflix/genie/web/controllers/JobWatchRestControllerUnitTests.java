@@ -0,0 +1,464 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobForwardingProperties;
+import com.netflix.genie.web.properties.JobWatchProperties;
+import com.netflix.genie.web.tasks.job.JobStatusWatcher;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.apache.http.client.HttpClient;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Unit tests for the JobWatchRestController.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobWatchRestControllerUnitTests {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Temporary directory to act as the jobs directory.
+     */
+    @Rule
+    public TemporaryFolder jobsDir = new TemporaryFolder();
+
+    private JobSearchService jobSearchService;
+    private JobStatusWatcher jobStatusWatcher;
+    private JobWatchProperties jobWatchProperties;
+    private JobForwardingProperties jobForwardingProperties;
+    private HttpClient httpClient;
+    private String hostname;
+    private Runnable unwatch;
+    private JobWatchRestController controller;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
+        this.jobStatusWatcher = Mockito.mock(JobStatusWatcher.class);
+        this.unwatch = Mockito.mock(Runnable.class);
+        Mockito
+            .when(this.jobStatusWatcher.watch(Mockito.anyString(), Mockito.any()))
+            .thenReturn(this.unwatch);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        this.jobWatchProperties = new JobWatchProperties();
+        this.jobWatchProperties.setFollowRate(10L);
+        this.jobForwardingProperties = new JobForwardingProperties();
+        this.httpClient = Mockito.mock(HttpClient.class);
+        this.hostname = UUID.randomUUID().toString();
+        this.controller = new JobWatchRestController(
+            this.jobSearchService,
+            this.jobStatusWatcher,
+            this.jobWatchProperties,
+            this.jobForwardingProperties,
+            this.hostname,
+            this.httpClient,
+            new FileSystemResource(this.jobsDir.getRoot().getAbsolutePath() + "/"),
+            registry
+        );
+    }
+
+    /**
+     * Make sure the result is set right away if the job is already in a status being waited for.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canReturnImmediatelyIfAlreadyInStatus() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenReturn(JobStatus.RUNNING);
+
+        final DeferredResult<JsonNode> result
+            = this.controller.waitForJobStatus(id, Sets.newHashSet("running", "succeeded"), null);
+
+        Assert.assertTrue(result.hasResult());
+        Assert.assertThat(((JsonNode) result.getResult()).get("status").asText(), Matchers.is("RUNNING"));
+    }
+
+    /**
+     * Make sure the result is set once the watcher is notified of a status being waited for.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canWaitForStatus() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenReturn(JobStatus.INIT);
+
+        final DeferredResult<JsonNode> result
+            = this.controller.waitForJobStatus(id, Sets.newHashSet(JobStatus.RUNNING.toString()), 1000L);
+        Assert.assertFalse(result.hasResult());
+
+        final ArgumentCaptor<Consumer> captor = ArgumentCaptor.forClass(Consumer.class);
+        Mockito.verify(this.jobStatusWatcher, Mockito.times(1)).watch(Mockito.eq(id), captor.capture());
+        final Consumer<JobStatus> listener = captor.getValue();
+        listener.accept(JobStatus.INIT);
+        Assert.assertFalse(result.hasResult());
+        listener.accept(JobStatus.RUNNING);
+        Assert.assertTrue(result.hasResult());
+        Assert.assertThat(((JsonNode) result.getResult()).get("status").asText(), Matchers.is("RUNNING"));
+    }
+
+    /**
+     * Make sure a job which finished in a status not being waited for doesn't keep the client waiting.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void willReturnIfJobFinished() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenReturn(JobStatus.FAILED);
+
+        final DeferredResult<JsonNode> result
+            = this.controller.waitForJobStatus(id, Sets.newHashSet(JobStatus.RUNNING.toString()), null);
+
+        Assert.assertTrue(result.hasResult());
+        Assert.assertThat(((JsonNode) result.getResult()).get("status").asText(), Matchers.is("FAILED"));
+    }
+
+    /**
+     * Make sure there must be something to wait for.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantWaitForNothing() throws GenieException {
+        this.controller.waitForJobStatus(UUID.randomUUID().toString(), Sets.newHashSet(" "), null);
+    }
+
+    /**
+     * Make sure the watch is removed if the job doesn't exist.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void willStopWatchingIfJobNotFound() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenThrow(new GenieNotFoundException("not found"));
+
+        try {
+            this.controller.waitForJobStatus(id, Sets.newHashSet(JobStatus.SUCCEEDED.toString()), null);
+            Assert.fail();
+        } catch (final GenieNotFoundException gnfe) {
+            Mockito.verify(this.unwatch, Mockito.times(1)).run();
+        }
+
+        try {
+            this.controller.streamJobStatus(id);
+            Assert.fail();
+        } catch (final GenieNotFoundException gnfe) {
+            Mockito.verify(this.unwatch, Mockito.times(2)).run();
+        }
+    }
+
+    /**
+     * Make sure a status stream can be started.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canStreamJobStatus() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenReturn(JobStatus.RUNNING);
+
+        Assert.assertNotNull(this.controller.streamJobStatus(id));
+        Mockito.verify(this.jobStatusWatcher, Mockito.times(1)).watch(Mockito.eq(id), Mockito.any());
+        Mockito.verify(this.unwatch, Mockito.never()).run();
+    }
+
+    /**
+     * Make sure the output of a finished job is sent from the offset and the stream ends.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canFollowOutputOfFinishedJob() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createStdout(id, "0123456789");
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenReturn(JobStatus.SUCCEEDED);
+
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final StreamingResponseBody body
+            = this.controller.followJobOutput(id, 4L, null, this.createRequest(id), response);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+        Assert.assertThat(new String(outputStream.toByteArray(), UTF_8), Matchers.is("456789"));
+    }
+
+    /**
+     * Make sure output written while following is sent until the job finishes without checking the status of the job
+     * on every cycle.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canFollowGrowingOutput() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        final File stdout = this.createStdout(id, "abc");
+        final Consumer<JobStatus> listener = this.captureListener(id);
+        Mockito
+            .when(this.jobSearchService.getJobStatus(id))
+            .thenAnswer(
+                invocation -> {
+                    Files.append("def", stdout, UTF_8);
+                    return JobStatus.RUNNING;
+                }
+            );
+
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final StreamingResponseBody body
+            = this.controller.followJobOutput(id, 0L, null, this.createRequest(id), response);
+
+        final Thread job = new Thread(
+            () -> {
+                try {
+                    Thread.sleep(50L);
+                    Files.append("ghi", stdout, UTF_8);
+                } catch (final InterruptedException | IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                listener.accept(JobStatus.SUCCEEDED);
+            }
+        );
+        job.start();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        body.writeTo(outputStream);
+        job.join();
+        Assert.assertThat(new String(outputStream.toByteArray(), UTF_8), Matchers.is("abcdefghi"));
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobStatus(id);
+        Mockito.verify(this.unwatch, Mockito.times(1)).run();
+    }
+
+    /**
+     * Make sure only the configured number of clients can follow output at once.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void cantFollowWithTooManyFollowers() throws Exception {
+        this.jobWatchProperties.setMaxFollowers(1);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        final JobWatchRestController limitedController = new JobWatchRestController(
+            this.jobSearchService,
+            this.jobStatusWatcher,
+            this.jobWatchProperties,
+            this.jobForwardingProperties,
+            this.hostname,
+            this.httpClient,
+            new FileSystemResource(this.jobsDir.getRoot().getAbsolutePath() + "/"),
+            registry
+        );
+        final String id = UUID.randomUUID().toString();
+        this.createStdout(id, "abc");
+        final Consumer<JobStatus> listener = this.captureListener(id);
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenReturn(JobStatus.RUNNING);
+
+        final StreamingResponseBody first
+            = limitedController.followJobOutput(id, 0L, null, this.createRequest(id), new MockHttpServletResponse());
+        final StreamingResponseBody second
+            = limitedController.followJobOutput(id, 0L, null, this.createRequest(id), new MockHttpServletResponse());
+
+        final ByteArrayOutputStream firstOutput = new ByteArrayOutputStream();
+        final Thread follower = new Thread(
+            () -> {
+                try {
+                    first.writeTo(firstOutput);
+                } catch (final IOException ioe) {
+                    throw new IllegalStateException(ioe);
+                }
+            }
+        );
+        follower.start();
+        while (firstOutput.size() == 0) {
+            Thread.sleep(10L);
+        }
+
+        try {
+            second.writeTo(new ByteArrayOutputStream());
+            Assert.fail();
+        } catch (final RejectedExecutionException ree) {
+            Assert.assertNotNull(ree.getMessage());
+        }
+
+        listener.accept(JobStatus.SUCCEEDED);
+        follower.join();
+        Assert.assertThat(new String(firstOutput.toByteArray(), UTF_8), Matchers.is("abc"));
+
+        // Once the first follower is done another one can start
+        final StreamingResponseBody third
+            = limitedController.followJobOutput(id, 0L, null, this.createRequest(id), new MockHttpServletResponse());
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenReturn(JobStatus.SUCCEEDED);
+        final ByteArrayOutputStream thirdOutput = new ByteArrayOutputStream();
+        third.writeTo(thirdOutput);
+        Assert.assertThat(new String(thirdOutput.toByteArray(), UTF_8), Matchers.is("abc"));
+    }
+
+    /**
+     * Make sure files outside the job directory can't be followed.
+     *
+     * @throws Exception on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantFollowOutsideJobDirectory() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createStdout(id, "abc");
+        this.jobsDir.newFile("secret");
+        final MockHttpServletRequest request = this.createRequest(id);
+        request.setAttribute(
+            HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+            "/api/v3/jobs/" + id + "/output/../secret"
+        );
+        this.controller.followJobOutput(id, 0L, null, request, new MockHttpServletResponse());
+    }
+
+    /**
+     * Make sure a bad offset is rejected.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void cantFollowFromBadOffset() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createStdout(id, "abc");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try {
+            this.controller.followJobOutput(id, -1L, null, this.createRequest(id), response);
+            Assert.fail();
+        } catch (final GeniePreconditionException gpe) {
+            Assert.assertThat(gpe.getErrorCode(), Matchers.is(HttpStatus.PRECONDITION_FAILED.value()));
+        }
+
+        try {
+            this.controller.followJobOutput(id, 4L, null, this.createRequest(id), response);
+            Assert.fail();
+        } catch (final GeniePreconditionException gpe) {
+            Assert.assertThat(gpe.getErrorCode(), Matchers.is(HttpStatus.PRECONDITION_FAILED.value()));
+        }
+    }
+
+    /**
+     * Make sure a file which doesn't exist can't be followed.
+     *
+     * @throws Exception on error
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantFollowMissingFile() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.controller.followJobOutput(id, 0L, null, this.createRequest(id), new MockHttpServletResponse());
+    }
+
+    /**
+     * Make sure the client is sent to the node running the job when redirects are enabled.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canRedirectFollowRequest() throws Exception {
+        this.jobForwardingProperties.setEnabled(true);
+        this.jobForwardingProperties.setRedirect(true);
+        final String id = UUID.randomUUID().toString();
+        final String jobHostname = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobHost(id)).thenReturn(jobHostname);
+        final MockHttpServletRequest request = this.createRequest(id);
+        request.setQueryString("follow=true&offset=10");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Assert.assertNull(this.controller.followJobOutput(id, 10L, null, request, response));
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.TEMPORARY_REDIRECT.value()));
+        Assert.assertThat(
+            response.getHeader(HttpHeaders.LOCATION),
+            Matchers.is("http://" + jobHostname + ":8080/api/v3/jobs/" + id + "/output/stdout?follow=true&offset=10")
+        );
+        Mockito.verify(this.httpClient, Mockito.never()).execute(Mockito.any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<JobStatus> captureListener(final String id) {
+        final AtomicReference<Consumer<JobStatus>> listener = new AtomicReference<>();
+        Mockito
+            .when(this.jobStatusWatcher.watch(Mockito.eq(id), Mockito.any()))
+            .thenAnswer(
+                invocation -> {
+                    listener.set((Consumer<JobStatus>) invocation.getArguments()[1]);
+                    return this.unwatch;
+                }
+            );
+        return status -> listener.get().accept(status);
+    }
+
+    private File createStdout(final String id, final String contents) throws IOException {
+        final File jobDir = this.jobsDir.newFolder(id);
+        final File stdout = new File(jobDir, "stdout");
+        Files.write(contents, stdout, UTF_8);
+        return stdout;
+    }
+
+    private MockHttpServletRequest createRequest(final String id) {
+        final String uri = "/api/v3/jobs/" + id + "/output/stdout";
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, uri);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v3/jobs/{id}/output/**");
+        return request;
+    }
+}
@@ -54,6 +54,9 @@ public class ClusterCheckerPropertiesUnitTests {
         Assert.assertThat(this.properties.getScheme(), Matchers.is("http"));
         Assert.assertThat(this.properties.getLostThreshold(), Matchers.is(3));
         Assert.assertThat(this.properties.getRate(), Matchers.is(300000L));
+        Assert.assertThat(this.properties.getHeartbeatTimeout(), Matchers.is(90000L));
+        Assert.assertThat(this.properties.getHealthCheckTimeout(), Matchers.is(5000L));
+        Assert.assertThat(this.properties.getHealthCheckThreads(), Matchers.is(10));
     }
 
     /**
@@ -95,4 +98,34 @@ public class ClusterCheckerPropertiesUnitTests {
         this.properties.setRate(rate);
         Assert.assertThat(this.properties.getRate(), Matchers.is(rate));
     }
+
+    /**
+     * Make sure we can set the heartbeat timeout.
+     */
+    @Test
+    public void canSetHeartbeatTimeout() {
+        final long heartbeatTimeout = 120000L;
+        this.properties.setHeartbeatTimeout(heartbeatTimeout);
+        Assert.assertThat(this.properties.getHeartbeatTimeout(), Matchers.is(heartbeatTimeout));
+    }
+
+    /**
+     * Make sure we can set the health check timeout.
+     */
+    @Test
+    public void canSetHealthCheckTimeout() {
+        final long healthCheckTimeout = 2000L;
+        this.properties.setHealthCheckTimeout(healthCheckTimeout);
+        Assert.assertThat(this.properties.getHealthCheckTimeout(), Matchers.is(healthCheckTimeout));
+    }
+
+    /**
+     * Make sure we can set the number of health check threads.
+     */
+    @Test
+    public void canSetHealthCheckThreads() {
+        final int healthCheckThreads = 25;
+        this.properties.setHealthCheckThreads(healthCheckThreads);
+        Assert.assertThat(this.properties.getHealthCheckThreads(), Matchers.is(healthCheckThreads));
+    }
 }
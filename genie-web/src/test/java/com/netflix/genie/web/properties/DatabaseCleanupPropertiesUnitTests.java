@@ -53,6 +53,9 @@ public class DatabaseCleanupPropertiesUnitTests {
         Assert.assertFalse(this.properties.isEnabled());
         Assert.assertThat(this.properties.getExpression(), Matchers.is("0 0 0 * * *"));
         Assert.assertThat(this.properties.getRetention(), Matchers.is(90));
+        Assert.assertThat(this.properties.getBatchSize(), Matchers.is(10000));
+        Assert.assertThat(this.properties.getBatchDelay(), Matchers.is(1000L));
+        Assert.assertThat(this.properties.getMaxRunTime(), Matchers.is(3600000L));
     }
 
     /**
@@ -83,4 +86,34 @@ public class DatabaseCleanupPropertiesUnitTests {
         this.properties.setRetention(retention);
         Assert.assertThat(this.properties.getRetention(), Matchers.is(retention));
     }
+
+    /**
+     * Make sure can set a new batch size.
+     */
+    @Test
+    public void canSetBatchSize() {
+        final int batchSize = 500;
+        this.properties.setBatchSize(batchSize);
+        Assert.assertThat(this.properties.getBatchSize(), Matchers.is(batchSize));
+    }
+
+    /**
+     * Make sure can set a new delay between batches.
+     */
+    @Test
+    public void canSetBatchDelay() {
+        final long batchDelay = 2318L;
+        this.properties.setBatchDelay(batchDelay);
+        Assert.assertThat(this.properties.getBatchDelay(), Matchers.is(batchDelay));
+    }
+
+    /**
+     * Make sure can set a new maximum run time.
+     */
+    @Test
+    public void canSetMaxRunTime() {
+        final long maxRunTime = 60000L;
+        this.properties.setMaxRunTime(maxRunTime);
+        Assert.assertThat(this.properties.getMaxRunTime(), Matchers.is(maxRunTime));
+    }
 }
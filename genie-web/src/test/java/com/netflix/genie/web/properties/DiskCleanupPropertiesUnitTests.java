@@ -53,6 +53,13 @@ public class DiskCleanupPropertiesUnitTests {
         Assert.assertFalse(this.properties.isEnabled());
         Assert.assertThat(this.properties.getExpression(), Matchers.is("0 0 0 * * *"));
         Assert.assertThat(this.properties.getRetention(), Matchers.is(3));
+        Assert.assertThat(this.properties.getBatchSize(), Matchers.is(500));
+        Assert.assertThat(this.properties.getDeletionThreads(), Matchers.is(4));
+        Assert.assertThat(this.properties.getDiskUsageThreshold(), Matchers.is(0.9));
+        Assert.assertThat(this.properties.getDiskUsageCheckRate(), Matchers.is(60000L));
+        Assert.assertThat(this.properties.getDiskUsageRetention(), Matchers.is(1));
+        Assert.assertThat(this.properties.getDiskUsageBackoff(), Matchers.is(300000L));
+        Assert.assertThat(this.properties.getDiskUsageMaxBackoff(), Matchers.is(3600000L));
     }
 
     /**
@@ -83,4 +90,74 @@ public class DiskCleanupPropertiesUnitTests {
         this.properties.setRetention(retention);
         Assert.assertThat(this.properties.getRetention(), Matchers.is(retention));
     }
+
+    /**
+     * Make sure can set a new batch size.
+     */
+    @Test
+    public void canSetBatchSize() {
+        final int batchSize = 100;
+        this.properties.setBatchSize(batchSize);
+        Assert.assertThat(this.properties.getBatchSize(), Matchers.is(batchSize));
+    }
+
+    /**
+     * Make sure can set a new number of deletion threads.
+     */
+    @Test
+    public void canSetDeletionThreads() {
+        final int deletionThreads = 8;
+        this.properties.setDeletionThreads(deletionThreads);
+        Assert.assertThat(this.properties.getDeletionThreads(), Matchers.is(deletionThreads));
+    }
+
+    /**
+     * Make sure can set a new disk usage threshold.
+     */
+    @Test
+    public void canSetDiskUsageThreshold() {
+        final double diskUsageThreshold = 0.75;
+        this.properties.setDiskUsageThreshold(diskUsageThreshold);
+        Assert.assertThat(this.properties.getDiskUsageThreshold(), Matchers.is(diskUsageThreshold));
+    }
+
+    /**
+     * Make sure can set a new rate to check the disk usage at.
+     */
+    @Test
+    public void canSetDiskUsageCheckRate() {
+        final long diskUsageCheckRate = 2318L;
+        this.properties.setDiskUsageCheckRate(diskUsageCheckRate);
+        Assert.assertThat(this.properties.getDiskUsageCheckRate(), Matchers.is(diskUsageCheckRate));
+    }
+
+    /**
+     * Make sure can set a new retention time for when the disk is too full.
+     */
+    @Test
+    public void canSetDiskUsageRetention() {
+        final int diskUsageRetention = 0;
+        this.properties.setDiskUsageRetention(diskUsageRetention);
+        Assert.assertThat(this.properties.getDiskUsageRetention(), Matchers.is(diskUsageRetention));
+    }
+
+    /**
+     * Make sure can set the disk usage backoff.
+     */
+    @Test
+    public void canSetDiskUsageBackoff() {
+        final long diskUsageBackoff = 1234L;
+        this.properties.setDiskUsageBackoff(diskUsageBackoff);
+        Assert.assertThat(this.properties.getDiskUsageBackoff(), Matchers.is(diskUsageBackoff));
+    }
+
+    /**
+     * Make sure can set the maximum disk usage backoff.
+     */
+    @Test
+    public void canSetDiskUsageMaxBackoff() {
+        final long diskUsageMaxBackoff = 12345L;
+        this.properties.setDiskUsageMaxBackoff(diskUsageMaxBackoff);
+        Assert.assertThat(this.properties.getDiskUsageMaxBackoff(), Matchers.is(diskUsageMaxBackoff));
+    }
 }
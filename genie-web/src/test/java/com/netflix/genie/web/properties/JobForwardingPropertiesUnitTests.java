@@ -53,6 +53,11 @@ public class JobForwardingPropertiesUnitTests {
         Assert.assertFalse(this.properties.isEnabled());
         Assert.assertThat(this.properties.getScheme(), Matchers.is("http"));
         Assert.assertThat(this.properties.getPort(), Matchers.is(8080));
+        Assert.assertFalse(this.properties.isRedirect());
+        Assert.assertThat(this.properties.getMaxConnections(), Matchers.is(200));
+        Assert.assertThat(this.properties.getMaxConnectionsPerHost(), Matchers.is(20));
+        Assert.assertThat(this.properties.getConnectTimeout(), Matchers.is(5000));
+        Assert.assertThat(this.properties.getReadTimeout(), Matchers.is(60000));
     }
 
     /**
@@ -83,4 +88,35 @@ public class JobForwardingPropertiesUnitTests {
         this.properties.setPort(port);
         Assert.assertThat(this.properties.getPort(), Matchers.is(port));
     }
+
+    /**
+     * Make sure setting the redirect property is persisted.
+     */
+    @Test
+    public void canEnableRedirect() {
+        this.properties.setRedirect(true);
+        Assert.assertTrue(this.properties.isRedirect());
+    }
+
+    /**
+     * Make sure setting the connection pool sizes is persisted.
+     */
+    @Test
+    public void canSetMaxConnections() {
+        this.properties.setMaxConnections(12);
+        this.properties.setMaxConnectionsPerHost(3);
+        Assert.assertThat(this.properties.getMaxConnections(), Matchers.is(12));
+        Assert.assertThat(this.properties.getMaxConnectionsPerHost(), Matchers.is(3));
+    }
+
+    /**
+     * Make sure setting the timeouts is persisted.
+     */
+    @Test
+    public void canSetTimeouts() {
+        this.properties.setConnectTimeout(1234);
+        this.properties.setReadTimeout(5678);
+        Assert.assertThat(this.properties.getConnectTimeout(), Matchers.is(1234));
+        Assert.assertThat(this.properties.getReadTimeout(), Matchers.is(5678));
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobOutputGrepProperties.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobOutputGrepPropertiesUnitTests {
+
+    private JobOutputGrepProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobOutputGrepProperties();
+    }
+
+    /**
+     * Make sure constructor sets reasonable defaults.
+     */
+    @Test
+    public void canGetDefaultValues() {
+        Assert.assertThat(this.properties.getMaxMatches(), Matchers.is(1000));
+        Assert.assertThat(this.properties.getMaxContext(), Matchers.is(20));
+        Assert.assertThat(this.properties.getTimeout(), Matchers.is(10000L));
+        Assert.assertThat(this.properties.getMaxLineLength(), Matchers.is(65536));
+    }
+
+    /**
+     * Make sure can set the maximum number of matches.
+     */
+    @Test
+    public void canSetMaxMatches() {
+        final int maxMatches = 23;
+        this.properties.setMaxMatches(maxMatches);
+        Assert.assertThat(this.properties.getMaxMatches(), Matchers.is(maxMatches));
+    }
+
+    /**
+     * Make sure can set the maximum lines of context.
+     */
+    @Test
+    public void canSetMaxContext() {
+        final int maxContext = 3;
+        this.properties.setMaxContext(maxContext);
+        Assert.assertThat(this.properties.getMaxContext(), Matchers.is(maxContext));
+    }
+
+    /**
+     * Make sure can set the timeout.
+     */
+    @Test
+    public void canSetTimeout() {
+        final long timeout = 2318L;
+        this.properties.setTimeout(timeout);
+        Assert.assertThat(this.properties.getTimeout(), Matchers.is(timeout));
+    }
+
+    /**
+     * Make sure can set the maximum line length.
+     */
+    @Test
+    public void canSetMaxLineLength() {
+        final int maxLineLength = 1024;
+        this.properties.setMaxLineLength(maxLineLength);
+        Assert.assertThat(this.properties.getMaxLineLength(), Matchers.is(maxLineLength));
+    }
+}
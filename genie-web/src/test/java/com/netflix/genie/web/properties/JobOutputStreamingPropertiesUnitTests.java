@@ -0,0 +1,82 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobOutputStreamingProperties.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobOutputStreamingPropertiesUnitTests {
+
+    private JobOutputStreamingProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobOutputStreamingProperties();
+    }
+
+    /**
+     * Test to make sure default constructor sets default values.
+     */
+    @Test
+    public void hasDefaultValues() {
+        Assert.assertThat(this.properties.getThreads(), Matchers.is(100));
+        Assert.assertThat(this.properties.getQueueCapacity(), Matchers.is(50));
+        Assert.assertThat(this.properties.getTimeout(), Matchers.is(3600000L));
+    }
+
+    /**
+     * Make sure setting the number of threads is persisted.
+     */
+    @Test
+    public void canSetThreads() {
+        this.properties.setThreads(12);
+        Assert.assertThat(this.properties.getThreads(), Matchers.is(12));
+    }
+
+    /**
+     * Make sure setting the queue capacity is persisted.
+     */
+    @Test
+    public void canSetQueueCapacity() {
+        this.properties.setQueueCapacity(3);
+        Assert.assertThat(this.properties.getQueueCapacity(), Matchers.is(3));
+    }
+
+    /**
+     * Make sure setting the timeout is persisted.
+     */
+    @Test
+    public void canSetTimeout() {
+        this.properties.setTimeout(1234L);
+        Assert.assertThat(this.properties.getTimeout(), Matchers.is(1234L));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobOutputSummaryProperties.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobOutputSummaryPropertiesUnitTests {
+
+    private JobOutputSummaryProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobOutputSummaryProperties();
+    }
+
+    /**
+     * Make sure constructor sets reasonable defaults.
+     */
+    @Test
+    public void canGetDefaultValues() {
+        Assert.assertTrue(this.properties.isEnabled());
+        Assert.assertThat(this.properties.getHeadSize(), Matchers.is(4096));
+        Assert.assertThat(this.properties.getTailSize(), Matchers.is(4096));
+    }
+
+    /**
+     * Make sure can disable capturing summaries.
+     */
+    @Test
+    public void canSetEnabled() {
+        this.properties.setEnabled(false);
+        Assert.assertFalse(this.properties.isEnabled());
+    }
+
+    /**
+     * Make sure can set the head size.
+     */
+    @Test
+    public void canSetHeadSize() {
+        final int headSize = 1024;
+        this.properties.setHeadSize(headSize);
+        Assert.assertThat(this.properties.getHeadSize(), Matchers.is(headSize));
+    }
+
+    /**
+     * Make sure can set the tail size.
+     */
+    @Test
+    public void canSetTailSize() {
+        final int tailSize = 8192;
+        this.properties.setTailSize(tailSize);
+        Assert.assertThat(this.properties.getTailSize(), Matchers.is(tailSize));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobSearchCacheProperties.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobSearchCachePropertiesUnitTests {
+
+    private JobSearchCacheProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobSearchCacheProperties();
+    }
+
+    /**
+     * Make sure constructor sets reasonable defaults.
+     */
+    @Test
+    public void canGetDefaultValues() {
+        Assert.assertThat(this.properties.getTtl(), Matchers.is(5000L));
+        Assert.assertThat(this.properties.getMaxSize(), Matchers.is(1000L));
+    }
+
+    /**
+     * Make sure can set the time to keep search results.
+     */
+    @Test
+    public void canSetTtl() {
+        final long ttl = 2318L;
+        this.properties.setTtl(ttl);
+        Assert.assertThat(this.properties.getTtl(), Matchers.is(ttl));
+    }
+
+    /**
+     * Make sure can set the maximum size.
+     */
+    @Test
+    public void canSetMaxSize() {
+        final long maxSize = 42L;
+        this.properties.setMaxSize(maxSize);
+        Assert.assertThat(this.properties.getMaxSize(), Matchers.is(maxSize));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobStatusCacheProperties.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatusCachePropertiesUnitTests {
+
+    private JobStatusCacheProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobStatusCacheProperties();
+    }
+
+    /**
+     * Make sure constructor sets reasonable defaults.
+     */
+    @Test
+    public void canGetDefaultValues() {
+        Assert.assertThat(this.properties.getActiveTtl(), Matchers.is(5000L));
+        Assert.assertThat(this.properties.getFinishedTtl(), Matchers.is(3600000L));
+        Assert.assertThat(this.properties.getMaxSize(), Matchers.is(100000L));
+    }
+
+    /**
+     * Make sure can set the time to keep active statuses.
+     */
+    @Test
+    public void canSetActiveTtl() {
+        final long activeTtl = 2318L;
+        this.properties.setActiveTtl(activeTtl);
+        Assert.assertThat(this.properties.getActiveTtl(), Matchers.is(activeTtl));
+    }
+
+    /**
+     * Make sure can set the time to keep finished statuses.
+     */
+    @Test
+    public void canSetFinishedTtl() {
+        final long finishedTtl = 2318234L;
+        this.properties.setFinishedTtl(finishedTtl);
+        Assert.assertThat(this.properties.getFinishedTtl(), Matchers.is(finishedTtl));
+    }
+
+    /**
+     * Make sure can set the maximum size.
+     */
+    @Test
+    public void canSetMaxSize() {
+        final long maxSize = 42L;
+        this.properties.setMaxSize(maxSize);
+        Assert.assertThat(this.properties.getMaxSize(), Matchers.is(maxSize));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobWatchProperties.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobWatchPropertiesUnitTests {
+
+    private JobWatchProperties properties;
+
+    /**
+     * Setup for tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobWatchProperties();
+    }
+
+    /**
+     * Make sure constructor sets reasonable defaults.
+     */
+    @Test
+    public void canGetDefaultValues() {
+        Assert.assertThat(this.properties.getMaxWait(), Matchers.is(60000L));
+        Assert.assertThat(this.properties.getStreamTimeout(), Matchers.is(3600000L));
+        Assert.assertThat(this.properties.getCheckRate(), Matchers.is(5000L));
+        Assert.assertThat(this.properties.getFollowRate(), Matchers.is(1000L));
+        Assert.assertThat(this.properties.getMaxFollowers(), Matchers.is(20));
+    }
+
+    /**
+     * Make sure can set the maximum long poll wait.
+     */
+    @Test
+    public void canSetMaxWait() {
+        final long maxWait = 2318L;
+        this.properties.setMaxWait(maxWait);
+        Assert.assertThat(this.properties.getMaxWait(), Matchers.is(maxWait));
+    }
+
+    /**
+     * Make sure can set the stream timeout.
+     */
+    @Test
+    public void canSetStreamTimeout() {
+        final long streamTimeout = 23182L;
+        this.properties.setStreamTimeout(streamTimeout);
+        Assert.assertThat(this.properties.getStreamTimeout(), Matchers.is(streamTimeout));
+    }
+
+    /**
+     * Make sure can set the rate watched jobs are checked at.
+     */
+    @Test
+    public void canSetCheckRate() {
+        final long checkRate = 1000L;
+        this.properties.setCheckRate(checkRate);
+        Assert.assertThat(this.properties.getCheckRate(), Matchers.is(checkRate));
+    }
+
+    /**
+     * Make sure can set the rate followed output files are checked for new data at.
+     */
+    @Test
+    public void canSetFollowRate() {
+        final long followRate = 250L;
+        this.properties.setFollowRate(followRate);
+        Assert.assertThat(this.properties.getFollowRate(), Matchers.is(followRate));
+    }
+
+    /**
+     * Make sure can set the maximum number of clients following output at once.
+     */
+    @Test
+    public void canSetMaxFollowers() {
+        final int maxFollowers = 5;
+        this.properties.setMaxFollowers(maxFollowers);
+        Assert.assertThat(this.properties.getMaxFollowers(), Matchers.is(maxFollowers));
+    }
+}
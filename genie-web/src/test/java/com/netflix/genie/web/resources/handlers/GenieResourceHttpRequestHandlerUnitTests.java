@@ -18,17 +18,27 @@
 package com.netflix.genie.web.resources.handlers;
 
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.web.resources.writers.DirectoryWriter;
+import com.netflix.genie.web.resources.writers.ListingOptions;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.servlet.HandlerMapping;
 
@@ -36,11 +46,15 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Unit tests for the GenieResourceHttpRequestHandler class.
@@ -51,6 +65,14 @@ import java.util.UUID;
 @Category(UnitTest.class)
 public class GenieResourceHttpRequestHandlerUnitTests {
 
+    private static final String CONTENTS = "0123456789";
+
+    /**
+     * Temporary directory to hold files to serve.
+     */
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
     private DirectoryWriter directoryWriter;
     private GenieResourceHttpRequestHandler handler;
     private Resource location;
@@ -128,10 +150,7 @@ public class GenieResourceHttpRequestHandlerUnitTests {
     }
 
     /**
-     * Make sure if the resource isn't a directory it's sent to super.
-     * <p>
-     * Note: This doesn't actually test returning a file as we leverage Spring's implementation
-     * which we assume is working.
+     * Make sure if the resource isn't a directory only supported methods are allowed to read it.
      *
      * @throws ServletException On any error
      * @throws IOException      On any error
@@ -152,6 +171,244 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         this.handler.handleRequest(request, response);
     }
 
+    /**
+     * Make sure a whole file can be served with validators for conditional requests.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void canServeFile() throws Exception {
+        final File file = this.createFile(CONTENTS);
+        final MockHttpServletRequest request = this.createRequest(file);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.handler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.OK.value()));
+        Assert.assertThat(response.getContentAsString(), Matchers.is(CONTENTS));
+        Assert.assertThat(response.getContentLengthLong(), Matchers.is((long) CONTENTS.length()));
+        Assert.assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES), Matchers.is("bytes"));
+        Assert.assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        Assert.assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    /**
+     * Make sure a file which hasn't changed isn't sent again.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void canReturnNotModified() throws Exception {
+        final File file = this.createFile(CONTENTS);
+        final MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        this.handler.handleRequest(this.createRequest(file), firstResponse);
+
+        final MockHttpServletRequest request = this.createRequest(file);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, firstResponse.getHeader(HttpHeaders.ETAG));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        this.handler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.NOT_MODIFIED.value()));
+        Assert.assertThat(response.getContentAsByteArray().length, Matchers.is(0));
+    }
+
+    /**
+     * Make sure a single range of a file can be served.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void canServeSingleRange() throws Exception {
+        final File file = this.createFile(CONTENTS);
+        final MockHttpServletRequest request = this.createRequest(file);
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.handler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.PARTIAL_CONTENT.value()));
+        Assert.assertThat(response.getContentAsString(), Matchers.is("2345"));
+        Assert.assertThat(response.getContentLengthLong(), Matchers.is(4L));
+        Assert.assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE), Matchers.is("bytes 2-5/10"));
+    }
+
+    /**
+     * Make sure multiple ranges of a file can be served as one multipart response.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void canServeMultipleRanges() throws Exception {
+        final File file = this.createFile(CONTENTS);
+        final MockHttpServletRequest request = this.createRequest(file);
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,-3");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.handler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.PARTIAL_CONTENT.value()));
+        Assert.assertThat(response.getContentType(), Matchers.startsWith("multipart/byteranges; boundary="));
+        final String boundary = response.getContentType().substring(response.getContentType().indexOf('=') + 1);
+        final String content = response.getContentAsString();
+        Assert.assertThat(content, Matchers.startsWith("\r\n--" + boundary + "\r\n"));
+        Assert.assertThat(content, Matchers.containsString("Content-Range: bytes 0-1/10\r\n\r\n01\r\n"));
+        Assert.assertThat(content, Matchers.containsString("Content-Range: bytes 7-9/10\r\n\r\n789\r\n"));
+        Assert.assertThat(content, Matchers.endsWith("\r\n--" + boundary + "--\r\n"));
+    }
+
+    /**
+     * Make sure a range outside of the file is rejected.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void cantServeUnsatisfiableRange() throws Exception {
+        final File file = this.createFile(CONTENTS);
+        final MockHttpServletRequest request = this.createRequest(file);
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-30");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.handler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()));
+        Assert.assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE), Matchers.is("bytes */10"));
+    }
+
+    /**
+     * Make sure a range is ignored if the file changed since the client got the validator.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void canIgnoreRangeIfFileChanged() throws Exception {
+        final File file = this.createFile(CONTENTS);
+        final MockHttpServletRequest request = this.createRequest(file);
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.handler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.OK.value()));
+        Assert.assertThat(response.getContentAsString(), Matchers.is(CONTENTS));
+    }
+
+    /**
+     * Make sure large files are handed to the container to send when it supports sendfile.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void canUseSendfile() throws Exception {
+        final StringBuilder contents = new StringBuilder();
+        while (contents.length() < 64 * 1024) {
+            contents.append(CONTENTS);
+        }
+        final File file = this.createFile(contents.toString());
+        final MockHttpServletRequest request = this.createRequest(file);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.handler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.PARTIAL_CONTENT.value()));
+        Assert.assertThat(response.getContentAsByteArray().length, Matchers.is(0));
+        Assert.assertThat(
+            request.getAttribute("org.apache.tomcat.sendfile.filename"),
+            Matchers.is(file.getCanonicalPath())
+        );
+        Assert.assertThat(request.getAttribute("org.apache.tomcat.sendfile.start"), Matchers.is(100L));
+        Assert.assertThat(
+            request.getAttribute("org.apache.tomcat.sendfile.end"),
+            Matchers.is((long) contents.length())
+        );
+    }
+
+    /**
+     * Make sure text is compressed on the fly when the client accepts gzip.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void canCompressText() throws Exception {
+        final String contents = this.createText(4096);
+        final File file = this.createFile(contents, this.tmpFolder.newFile("stdout.txt"));
+        final MockHttpServletRequest request = this.createRequest(file);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.handler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.OK.value()));
+        Assert.assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING), Matchers.is("gzip"));
+        Assert.assertThat(response.getHeader(HttpHeaders.VARY), Matchers.is(HttpHeaders.ACCEPT_ENCODING));
+        Assert.assertThat(response.getHeader(HttpHeaders.ETAG), Matchers.endsWith("-gzip\""));
+        Assert.assertThat(response.getContentAsByteArray().length, Matchers.lessThan(contents.length()));
+        Assert.assertThat(this.gunzip(response.getContentAsByteArray()), Matchers.is(contents));
+    }
+
+    /**
+     * Make sure text is sent as is when the client doesn't accept gzip or asks for a range.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void cantCompressTextWhenNotAccepted() throws Exception {
+        final String contents = this.createText(4096);
+        final File file = this.createFile(contents, this.tmpFolder.newFile("stdout.txt"));
+
+        final MockHttpServletRequest refused = this.createRequest(file);
+        refused.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+        final MockHttpServletResponse refusedResponse = new MockHttpServletResponse();
+        this.handler.handleRequest(refused, refusedResponse);
+        Assert.assertThat(refusedResponse.getHeader(HttpHeaders.CONTENT_ENCODING), Matchers.nullValue());
+        Assert.assertThat(refusedResponse.getHeader(HttpHeaders.VARY), Matchers.is(HttpHeaders.ACCEPT_ENCODING));
+        Assert.assertThat(refusedResponse.getContentAsString(), Matchers.is(contents));
+
+        final MockHttpServletRequest range = this.createRequest(file);
+        range.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        range.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        final MockHttpServletResponse rangeResponse = new MockHttpServletResponse();
+        this.handler.handleRequest(range, rangeResponse);
+        Assert.assertThat(rangeResponse.getStatus(), Matchers.is(HttpStatus.PARTIAL_CONTENT.value()));
+        Assert.assertThat(rangeResponse.getHeader(HttpHeaders.CONTENT_ENCODING), Matchers.nullValue());
+        Assert.assertThat(rangeResponse.getContentAsString(), Matchers.is(contents.substring(0, 10)));
+    }
+
+    /**
+     * Make sure a compressed copy of large output of a finished job is kept and served on later requests.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void canServePrecompressedOutput() throws Exception {
+        final String contents = this.createText(2 * 1024 * 1024);
+        final File file = this.createFile(contents, this.tmpFolder.newFile("stdout.txt"));
+        final String jobId = UUID.randomUUID().toString();
+        final String path = jobId + "/stdout";
+        this.setJobDone(jobId, true);
+        final File precompressed = new File(this.tmpFolder.getRoot(), UUID.randomUUID().toString() + "/stdout.gz");
+        Mockito.when(this.location.createRelative(Mockito.eq(jobId + "/genie/compressed/stdout.gz")))
+            .thenReturn(new FileSystemResource(precompressed));
+
+        final MockHttpServletRequest first = this.createRequest(file, path);
+        first.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        final MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        this.handler.handleRequest(first, firstResponse);
+        Assert.assertThat(this.gunzip(firstResponse.getContentAsByteArray()), Matchers.is(contents));
+        Assert.assertTrue(precompressed.isFile());
+        Assert.assertThat(precompressed.length(), Matchers.is((long) firstResponse.getContentAsByteArray().length));
+
+        final MockHttpServletRequest second = this.createRequest(file, path);
+        second.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        final MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        this.handler.handleRequest(second, secondResponse);
+        Assert.assertThat(secondResponse.getHeader(HttpHeaders.CONTENT_ENCODING), Matchers.is("gzip"));
+        Assert.assertThat(secondResponse.getContentLengthLong(), Matchers.is(precompressed.length()));
+        Assert.assertThat(this.gunzip(secondResponse.getContentAsByteArray()), Matchers.is(contents));
+    }
+
     /**
      * Make sure if the resource is a directory as HTML it's handled properly.
      *
@@ -172,12 +429,7 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         final File file = Mockito.mock(File.class);
         Mockito.when(resource.getFile()).thenReturn(file);
         Mockito.when(file.isDirectory()).thenReturn(true);
-
-        final String html = UUID.randomUUID().toString();
-
-        Mockito.when(
-            this.directoryWriter.toHtml(Mockito.eq(file), Mockito.eq(forwardedUrl), Mockito.eq(false))
-        ).thenReturn(html);
+        this.setJobDone(path, false);
 
         final ServletOutputStream os = Mockito.mock(ServletOutputStream.class);
         Mockito.when(response.getOutputStream()).thenReturn(os);
@@ -186,9 +438,13 @@ public class GenieResourceHttpRequestHandlerUnitTests {
 
         Mockito.verify(response, Mockito.times(1)).setContentType(MediaType.TEXT_HTML_VALUE);
         Mockito.verify(response, Mockito.times(1)).getOutputStream();
-        Mockito.verify(this.directoryWriter, Mockito.times(1))
-            .toHtml(Mockito.eq(file), Mockito.eq(forwardedUrl), Mockito.eq(false));
-        Mockito.verify(os, Mockito.times(1)).write(html.getBytes(Charset.forName("UTF-8")));
+        Mockito.verify(this.directoryWriter, Mockito.times(1)).writeHtml(
+            Mockito.eq(file),
+            Mockito.eq(forwardedUrl),
+            Mockito.eq(false),
+            Mockito.eq(ListingOptions.ALL),
+            Mockito.eq(os)
+        );
     }
 
     /**
@@ -211,12 +467,7 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         final File file = Mockito.mock(File.class);
         Mockito.when(resource.getFile()).thenReturn(file);
         Mockito.when(file.isDirectory()).thenReturn(true);
-
-        final String html = UUID.randomUUID().toString();
-
-        Mockito.when(
-            this.directoryWriter.toJson(Mockito.eq(file), Mockito.eq(requestUrl), Mockito.eq(false))
-        ).thenReturn(html);
+        this.setJobDone(path, false);
 
         final ServletOutputStream os = Mockito.mock(ServletOutputStream.class);
         Mockito.when(response.getOutputStream()).thenReturn(os);
@@ -225,66 +476,193 @@ public class GenieResourceHttpRequestHandlerUnitTests {
 
         Mockito.verify(response, Mockito.times(1)).setContentType(MediaType.APPLICATION_JSON_VALUE);
         Mockito.verify(response, Mockito.times(1)).getOutputStream();
-        Mockito.verify(this.directoryWriter, Mockito.times(1))
-            .toJson(Mockito.eq(file), Mockito.eq(requestUrl), Mockito.eq(false));
-        Mockito.verify(os, Mockito.times(1)).write(html.getBytes(Charset.forName("UTF-8")));
+        Mockito.verify(this.directoryWriter, Mockito.times(1)).writeJson(
+            Mockito.eq(file),
+            Mockito.eq(requestUrl),
+            Mockito.eq(false),
+            Mockito.eq(ListingOptions.ALL),
+            Mockito.eq(os)
+        );
     }
 
     /**
-     * Make sure if the resource is a directory it's handled properly until exception thrown.
+     * Make sure the paging parameters are passed to the directory writer and listings of finished jobs are cacheable.
      *
      * @throws Exception On any error
      */
-    @Test(expected = ServletException.class)
-    public void cantHandleRequestForDirectoryWhenException() throws Exception {
+    @Test
+    public void canHandleRequestForDirectoryPage() throws Exception {
         final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
         final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
-        final String path = UUID.randomUUID().toString();
+        final String jobId = UUID.randomUUID().toString();
+        final String path = jobId + "/" + UUID.randomUUID().toString();
         Mockito.when(request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE)).thenReturn(path);
-        Mockito.when(request.getAttribute(GenieResourceHttpRequestHandler.GENIE_JOB_IS_ROOT_DIRECTORY))
-            .thenReturn(false);
         final String requestUrl = UUID.randomUUID().toString();
         Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer(requestUrl));
+        Mockito.when(request.getParameter("prefix")).thenReturn("part-");
+        Mockito.when(request.getParameter("after")).thenReturn("part-00010");
+        Mockito.when(request.getParameter("limit")).thenReturn("100");
         final Resource resource = Mockito.mock(Resource.class);
         Mockito.when(this.location.createRelative(Mockito.eq(path))).thenReturn(resource);
         Mockito.when(resource.exists()).thenReturn(true);
         final File file = Mockito.mock(File.class);
         Mockito.when(resource.getFile()).thenReturn(file);
         Mockito.when(file.isDirectory()).thenReturn(true);
+        this.setJobDone(jobId, true);
+
+        final ServletOutputStream os = Mockito.mock(ServletOutputStream.class);
+        Mockito.when(response.getOutputStream()).thenReturn(os);
+
+        this.handler.handleRequest(request, response);
+
+        Mockito.verify(this.directoryWriter, Mockito.times(1)).writeJson(
+            Mockito.eq(file),
+            Mockito.eq(requestUrl),
+            Mockito.eq(false),
+            Mockito.eq(new ListingOptions("part-", "part-00010", 100, true)),
+            Mockito.eq(os)
+        );
+    }
 
-        Mockito.when(
-            this.directoryWriter.toHtml(Mockito.eq(file), Mockito.eq(requestUrl), Mockito.eq(true))
-        ).thenThrow(new Exception());
+    /**
+     * Make sure listings of the genie directory of finished jobs aren't cached as compressed copies of output files
+     * are still added to it.
+     *
+     * @throws Exception On any error
+     */
+    @Test
+    public void wontCacheGenieDirectoryOfFinishedJob() throws Exception {
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        final String jobId = UUID.randomUUID().toString();
+        final String path = jobId + "/genie/compressed";
+        Mockito.when(request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE)).thenReturn(path);
+        final String requestUrl = UUID.randomUUID().toString();
+        Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer(requestUrl));
+        final Resource resource = Mockito.mock(Resource.class);
+        Mockito.when(this.location.createRelative(Mockito.eq(path))).thenReturn(resource);
+        Mockito.when(resource.exists()).thenReturn(true);
+        final File file = Mockito.mock(File.class);
+        Mockito.when(resource.getFile()).thenReturn(file);
+        Mockito.when(file.isDirectory()).thenReturn(true);
+        this.setJobDone(jobId, true);
 
         final ServletOutputStream os = Mockito.mock(ServletOutputStream.class);
         Mockito.when(response.getOutputStream()).thenReturn(os);
 
         this.handler.handleRequest(request, response);
+
+        Mockito.verify(this.directoryWriter, Mockito.times(1)).writeJson(
+            Mockito.eq(file),
+            Mockito.eq(requestUrl),
+            Mockito.eq(false),
+            Mockito.eq(ListingOptions.ALL),
+            Mockito.eq(os)
+        );
     }
 
     /**
-     * Make sure we can use the overridden set headers method properly for large file sizes.
+     * Make sure an invalid limit is rejected.
      *
-     * @throws IOException on error
+     * @throws Exception On any error
      */
     @Test
-    public void canSetHeaders() throws IOException {
+    public void cantHandleRequestForDirectoryWithInvalidLimit() throws Exception {
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        final String path = UUID.randomUUID().toString();
+        Mockito.when(request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE)).thenReturn(path);
+        Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer(UUID.randomUUID().toString()));
+        Mockito.when(request.getParameter("limit")).thenReturn("lots");
+        final Resource resource = Mockito.mock(Resource.class);
+        Mockito.when(this.location.createRelative(Mockito.eq(path))).thenReturn(resource);
+        Mockito.when(resource.exists()).thenReturn(true);
+        final File file = Mockito.mock(File.class);
+        Mockito.when(resource.getFile()).thenReturn(file);
+        Mockito.when(file.isDirectory()).thenReturn(true);
+
+        this.handler.handleRequest(request, response);
+
+        Mockito.verify(response, Mockito.times(1))
+            .sendError(Mockito.eq(HttpStatus.BAD_REQUEST.value()), Mockito.anyString());
+        Mockito.verifyZeroInteractions(this.directoryWriter);
+    }
+
+    /**
+     * Make sure if the resource is a directory it's handled properly until exception thrown.
+     *
+     * @throws Exception On any error
+     */
+    @Test(expected = ServletException.class)
+    public void cantHandleRequestForDirectoryWhenException() throws Exception {
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
         final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        final String path = UUID.randomUUID().toString();
+        Mockito.when(request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE)).thenReturn(path);
+        Mockito.when(request.getAttribute(GenieResourceHttpRequestHandler.GENIE_JOB_IS_ROOT_DIRECTORY))
+            .thenReturn(false);
+        final String requestUrl = UUID.randomUUID().toString();
+        Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer(requestUrl));
         final Resource resource = Mockito.mock(Resource.class);
-        final MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
+        Mockito.when(this.location.createRelative(Mockito.eq(path))).thenReturn(resource);
+        Mockito.when(resource.exists()).thenReturn(true);
+        final File file = Mockito.mock(File.class);
+        Mockito.when(resource.getFile()).thenReturn(file);
+        Mockito.when(file.isDirectory()).thenReturn(true);
+        this.setJobDone(path, false);
 
-        final long justRight = (long) Integer.MAX_VALUE;
-        final long tooLong = (long) Integer.MAX_VALUE + 1;
-        Mockito
-            .when(resource.contentLength())
-            .thenReturn(justRight)
-            .thenReturn(tooLong);
+        Mockito.doThrow(new Exception()).when(this.directoryWriter).writeJson(
+            Mockito.eq(file),
+            Mockito.eq(requestUrl),
+            Mockito.eq(true),
+            Mockito.any(ListingOptions.class),
+            Mockito.any(OutputStream.class)
+        );
+
+        final ServletOutputStream os = Mockito.mock(ServletOutputStream.class);
+        Mockito.when(response.getOutputStream()).thenReturn(os);
+
+        this.handler.handleRequest(request, response);
+    }
 
-        this.handler.setHeaders(response, resource, mediaType);
-        this.handler.setHeaders(response, resource, null);
+    private String createText(final int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append("INFO Processed record ").append(builder.length()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private String gunzip(final byte[] compressed) throws IOException {
+        try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(ByteStreams.toByteArray(in), Charset.forName("UTF-8"));
+        }
+    }
+
+    private void setJobDone(final String jobId, final boolean done) throws IOException {
+        final Resource doneFile = Mockito.mock(Resource.class);
+        Mockito.when(doneFile.exists()).thenReturn(done);
+        Mockito.when(this.location.createRelative(Mockito.eq(jobId + "/" + JobConstants.GENIE_DONE_FILE_NAME)))
+            .thenReturn(doneFile);
+    }
+
+    private File createFile(final String contents) throws IOException {
+        return this.createFile(contents, this.tmpFolder.newFile());
+    }
+
+    private File createFile(final String contents, final File file) throws IOException {
+        Files.write(contents, file, Charset.forName("UTF-8"));
+        return file;
+    }
+
+    private MockHttpServletRequest createRequest(final File file) throws IOException {
+        return this.createRequest(file, UUID.randomUUID().toString());
+    }
 
-        Mockito.verify(response, Mockito.times(1)).setContentLengthLong(justRight);
-        Mockito.verify(response, Mockito.times(1)).setContentLengthLong(tooLong);
-        Mockito.verify(response, Mockito.times(1)).setContentType(Mockito.anyString());
+    private MockHttpServletRequest createRequest(final File file, final String path) throws IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/" + path);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+        Mockito.when(this.location.createRelative(Mockito.eq(path))).thenReturn(new FileSystemResource(file));
+        return request;
     }
 }
@@ -17,22 +17,30 @@
  */
 package com.netflix.genie.web.resources.writers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
 import com.netflix.genie.test.categories.UnitTest;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.w3c.tidy.Tidy;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -74,6 +82,12 @@ public class DefaultDirectoryWriterUnitTests {
     private static final String FILE_2_NAME = UUID.randomUUID().toString();
     private static final String FILE_2_URL = REQUEST_URL_WITH_PARENT + "/" + FILE_2_NAME;
 
+    /**
+     * Temporary directory to list.
+     */
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
     private DefaultDirectoryWriter writer;
     private File directory;
     private DefaultDirectoryWriter.Entry directoryEntry1;
@@ -235,6 +249,153 @@ public class DefaultDirectoryWriterUnitTests {
         );
     }
 
+    /**
+     * Make sure a streamed JSON listing can be paged through in order with directories first.
+     *
+     * @throws Exception on any problem
+     */
+    @Test
+    public void canWriteJsonPages() throws Exception {
+        final File dir = this.createListingDirectory();
+        final ObjectMapper mapper = new ObjectMapper();
+
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        this.writer.writeJson(dir, REQUEST_URL_BASE, false, new ListingOptions(null, null, 3, false), first);
+        final JsonNode firstPage = mapper.readTree(first.toByteArray());
+        Assert.assertTrue(firstPage.get("parent").isNull());
+        Assert.assertThat(this.getNames(firstPage.get("directories")), Matchers.contains("a/", "b/"));
+        Assert.assertThat(this.getNames(firstPage.get("files")), Matchers.contains("part-0"));
+        Assert.assertThat(
+            firstPage.get("directories").get(0).get("url").asText(),
+            Matchers.is(REQUEST_URL_BASE + "/a/")
+        );
+        Assert.assertThat(firstPage.get("files").get(0).get("size").asLong(), Matchers.is(6L));
+        Assert.assertThat(firstPage.get("next").asText(), Matchers.is("part-0"));
+
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        this.writer.writeJson(dir, REQUEST_URL_BASE, false, new ListingOptions(null, "part-0", 3, false), second);
+        final JsonNode secondPage = mapper.readTree(second.toByteArray());
+        Assert.assertThat(secondPage.get("directories").size(), Matchers.is(0));
+        Assert.assertThat(this.getNames(secondPage.get("files")), Matchers.contains("part-1", "part-2", "stdout"));
+        Assert.assertThat(secondPage.get("next"), Matchers.nullValue());
+
+        final ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        this.writer.writeJson(dir, REQUEST_URL_BASE, false, new ListingOptions(null, "a/", 0, false), resumed);
+        final JsonNode resumedPage = mapper.readTree(resumed.toByteArray());
+        Assert.assertThat(this.getNames(resumedPage.get("directories")), Matchers.contains("b/"));
+        Assert.assertThat(resumedPage.get("files").size(), Matchers.is(4));
+    }
+
+    /**
+     * Make sure a listing without a limit still lists every entry of a directory bigger than the read page size.
+     *
+     * @throws Exception on any problem
+     */
+    @Test
+    public void canWriteFullListingLargerThanReadPage() throws Exception {
+        final File dir = this.createListingDirectory();
+        final DefaultDirectoryWriter pagingWriter
+            = new DefaultDirectoryWriter(DefaultDirectoryWriter.DEFAULT_MAX_CACHED_ENTRIES, 2);
+
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        pagingWriter.writeJson(dir, REQUEST_URL_BASE, false, ListingOptions.ALL, json);
+        final JsonNode listing = new ObjectMapper().readTree(json.toByteArray());
+        Assert.assertThat(this.getNames(listing.get("directories")), Matchers.contains("a/", "b/"));
+        Assert.assertThat(
+            this.getNames(listing.get("files")),
+            Matchers.contains("part-0", "part-1", "part-2", "stdout")
+        );
+        Assert.assertThat(listing.get("next"), Matchers.nullValue());
+
+        final ByteArrayOutputStream html = new ByteArrayOutputStream();
+        pagingWriter.writeHtml(dir, REQUEST_URL_BASE, false, new ListingOptions("part-", null, 0, false), html);
+        final String page = new String(html.toByteArray(), Charset.forName("UTF-8"));
+        Assert.assertThat(page, Matchers.containsString(REQUEST_URL_BASE + "/part-2"));
+        Assert.assertThat(page, Matchers.not(Matchers.containsString("stdout")));
+        Assert.assertThat(page, Matchers.not(Matchers.containsString("after=")));
+    }
+
+    /**
+     * Make sure a streamed listing can be filtered by prefix.
+     *
+     * @throws Exception on any problem
+     */
+    @Test
+    public void canFilterByPrefix() throws Exception {
+        final File dir = this.createListingDirectory();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.writer.writeJson(dir, REQUEST_URL_BASE, false, new ListingOptions("part-", null, 2, false), out);
+        final JsonNode page = new ObjectMapper().readTree(out.toByteArray());
+        Assert.assertThat(page.get("directories").size(), Matchers.is(0));
+        Assert.assertThat(this.getNames(page.get("files")), Matchers.contains("part-0", "part-1"));
+        Assert.assertThat(page.get("next").asText(), Matchers.is("part-1"));
+    }
+
+    /**
+     * Make sure a streamed HTML listing is valid and links to the next page.
+     *
+     * @throws Exception on any problem
+     */
+    @Test
+    public void canWriteHtml() throws Exception {
+        final File dir = this.createListingDirectory();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.writer.writeHtml(dir, REQUEST_URL_WITH_PARENT, true, new ListingOptions("part-", null, 1, false), out);
+        final String html = new String(out.toByteArray(), Charset.forName("UTF-8"));
+        Assert.assertThat(html, Matchers.containsString(REQUEST_URL_WITH_PARENT + "/part-0"));
+        Assert.assertThat(html, Matchers.not(Matchers.containsString("part-1")));
+        Assert.assertThat(
+            html,
+            Matchers.containsString(REQUEST_URL_WITH_PARENT + "?after=part-0&amp;prefix=part-&amp;limit=1")
+        );
+
+        final Tidy tidy = new Tidy();
+        tidy.parse(new ByteArrayInputStream(out.toByteArray()), new StringWriter());
+        Assert.assertThat(tidy.getParseErrors(), Matchers.is(0));
+        Assert.assertThat(tidy.getParseWarnings(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure listings are only cached when the options say the directory won't change.
+     *
+     * @throws Exception on any problem
+     */
+    @Test
+    public void canCacheListing() throws Exception {
+        final File dir = this.createListingDirectory();
+        final ListingOptions cacheable = new ListingOptions(null, null, 0, true);
+        final ObjectMapper mapper = new ObjectMapper();
+
+        this.writer.writeJson(dir, REQUEST_URL_BASE, false, cacheable, new ByteArrayOutputStream());
+        Assert.assertTrue(new File(dir, "stderr").createNewFile());
+
+        final ByteArrayOutputStream cached = new ByteArrayOutputStream();
+        this.writer.writeJson(dir, REQUEST_URL_BASE, false, cacheable, cached);
+        Assert.assertThat(mapper.readTree(cached.toByteArray()).get("files").size(), Matchers.is(4));
+
+        final ByteArrayOutputStream uncached = new ByteArrayOutputStream();
+        this.writer.writeJson(dir, REQUEST_URL_BASE, false, ListingOptions.ALL, uncached);
+        Assert.assertThat(mapper.readTree(uncached.toByteArray()).get("files").size(), Matchers.is(5));
+    }
+
+    private File createListingDirectory() throws IOException {
+        final File dir = this.tmpFolder.newFolder();
+        Assert.assertTrue(new File(dir, "b").mkdir());
+        Assert.assertTrue(new File(dir, "a").mkdir());
+        for (final String name : Lists.newArrayList("stdout", "part-2", "part-0", "part-1")) {
+            Files.write(name.getBytes(Charset.forName("UTF-8")), new File(dir, name));
+        }
+        return dir;
+    }
+
+    private List<String> getNames(final JsonNode entries) {
+        final List<String> names = Lists.newArrayList();
+        for (final JsonNode entry : entries) {
+            names.add(entry.get("name").asText());
+        }
+        return names;
+    }
+
     private void setupWithoutParent() {
         Mockito.when(this.directory.listFiles()).thenReturn(null);
     }
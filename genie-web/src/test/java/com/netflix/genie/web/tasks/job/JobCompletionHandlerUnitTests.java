@@ -0,0 +1,211 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import com.netflix.genie.common.dto.JobOutputSummary;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.core.services.MailService;
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobOutputSummaryProperties;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Unit tests for JobCompletionHandler.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobCompletionHandlerUnitTests {
+
+    private static final String EURO = "\u20AC";
+
+    /**
+     * Temporary directory to run the jobs in.
+     */
+    @Rule
+    public TemporaryFolder jobsDir = new TemporaryFolder();
+
+    private JobPersistenceService jobPersistenceService;
+    private JobOutputSummaryProperties jobOutputSummaryProperties;
+    private Counter outputSummaryFailureRate;
+    private JobCompletionHandler handler;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws GenieException on error
+     */
+    @Before
+    public void setup() throws GenieException {
+        this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
+        this.jobOutputSummaryProperties = new JobOutputSummaryProperties();
+        this.jobOutputSummaryProperties.setHeadSize(10);
+        this.jobOutputSummaryProperties.setTailSize(10);
+        this.outputSummaryFailureRate = Mockito.mock(Counter.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        Mockito
+            .when(registry.counter("genie.jobs.outputSummaryFailure.rate"))
+            .thenReturn(this.outputSummaryFailureRate);
+        this.handler = new JobCompletionHandler(
+            this.jobPersistenceService,
+            Mockito.mock(JobSearchService.class),
+            Mockito.mock(GenieFileTransferService.class),
+            new FileSystemResource(this.jobsDir.getRoot()),
+            Mockito.mock(MailService.class),
+            this.jobOutputSummaryProperties,
+            registry
+        );
+    }
+
+    /**
+     * Make sure output which fits in the head isn't repeated in the tail and missing output is empty.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canSaveShortOutputSummary() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createOutput(id, JobConstants.STDOUT_LOG_FILE_NAME, "short");
+
+        this.handler.saveOutputSummary(id);
+
+        final JobOutputSummary summary = this.getSavedSummary(id);
+        Assert.assertThat(summary.getStdoutHead(), Matchers.is("short"));
+        Assert.assertThat(summary.getStdoutTail(), Matchers.is(""));
+        Assert.assertThat(summary.getStdoutSize(), Matchers.is(5L));
+        Assert.assertThat(summary.getStderrHead(), Matchers.is(""));
+        Assert.assertThat(summary.getStderrTail(), Matchers.is(""));
+        Assert.assertThat(summary.getStderrSize(), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure only the beginning and end of long output are kept.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canSaveLongOutputSummary() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createOutput(id, JobConstants.STDOUT_LOG_FILE_NAME, "0123456789abcdefghijklmnopqrstuvwxyz");
+        this.createOutput(id, JobConstants.STDERR_LOG_FILE_NAME, "0123456789abcde");
+
+        this.handler.saveOutputSummary(id);
+
+        final JobOutputSummary summary = this.getSavedSummary(id);
+        Assert.assertThat(summary.getStdoutHead(), Matchers.is("0123456789"));
+        Assert.assertThat(summary.getStdoutTail(), Matchers.is("qrstuvwxyz"));
+        Assert.assertThat(summary.getStdoutSize(), Matchers.is(36L));
+        Assert.assertThat(summary.getStderrHead(), Matchers.is("0123456789"));
+        Assert.assertThat(summary.getStderrTail(), Matchers.is("abcde"));
+        Assert.assertThat(summary.getStderrSize(), Matchers.is(15L));
+    }
+
+    /**
+     * Make sure multi-byte characters aren't split between the head and tail or cut in half.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canSaveOutputSummaryOnCharacterBoundaries() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        // Each euro sign is three bytes so the head limit falls in the middle of the fourth one
+        this.createOutput(id, JobConstants.STDOUT_LOG_FILE_NAME, Strings.repeat(EURO, 6));
+
+        this.handler.saveOutputSummary(id);
+
+        final JobOutputSummary summary = this.getSavedSummary(id);
+        Assert.assertThat(summary.getStdoutHead(), Matchers.is(Strings.repeat(EURO, 3)));
+        Assert.assertThat(summary.getStdoutTail(), Matchers.is(Strings.repeat(EURO, 3)));
+        Assert.assertThat(summary.getStdoutSize(), Matchers.is(18L));
+    }
+
+    /**
+     * Make sure nothing is saved when summaries are disabled.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void wontSaveOutputSummaryWhenDisabled() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        this.createOutput(id, JobConstants.STDOUT_LOG_FILE_NAME, "output");
+        this.jobOutputSummaryProperties.setEnabled(false);
+
+        this.handler.saveOutputSummary(id);
+
+        Mockito.verify(this.jobPersistenceService, Mockito.never())
+            .saveJobOutputSummary(Mockito.anyString(), Mockito.any(JobOutputSummary.class));
+    }
+
+    /**
+     * Make sure a failure to save the summary is counted but doesn't stop job completion.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canHandleOutputSummaryFailure() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        Mockito
+            .doThrow(new GenieException(500, "bad"))
+            .when(this.jobPersistenceService)
+            .saveJobOutputSummary(Mockito.eq(id), Mockito.any(JobOutputSummary.class));
+
+        this.handler.saveOutputSummary(id);
+
+        Mockito.verify(this.outputSummaryFailureRate, Mockito.times(1)).increment();
+    }
+
+    private void createOutput(final String id, final String name, final String contents) throws IOException {
+        final File dir = new File(this.jobsDir.getRoot(), id);
+        if (!dir.exists()) {
+            Assert.assertTrue(dir.mkdirs());
+        }
+        Files.write(contents.getBytes(StandardCharsets.UTF_8), new File(dir, name));
+    }
+
+    private JobOutputSummary getSavedSummary(final String id) throws GenieException {
+        final ArgumentCaptor<JobOutputSummary> captor = ArgumentCaptor.forClass(JobOutputSummary.class);
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .saveJobOutputSummary(Mockito.eq(id), captor.capture());
+        return captor.getValue();
+    }
+}
@@ -29,6 +29,8 @@ import com.netflix.genie.web.properties.JobOutputMaxProperties;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import org.apache.commons.exec.Executor;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -201,6 +203,7 @@ public class JobMonitoringCoordinatorUnitTests {
         Mockito
             .verify(this.scheduler, Mockito.times(4))
             .scheduleWithFixedDelay(Mockito.any(JobMonitor.class), Mockito.eq(DELAY));
+        Assert.assertThat(this.coordinator.getNumRunningJobs(), Matchers.is(4));
     }
 
     /**
@@ -0,0 +1,132 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobWatchProperties;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unit tests for the JobStatusWatcher.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatusWatcherUnitTests {
+
+    private TaskScheduler scheduler;
+    private JobSearchService jobSearchService;
+    private Counter unableToCheckStatusRate;
+    private JobStatusWatcher watcher;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
+        this.unableToCheckStatusRate = Mockito.mock(Counter.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(this.unableToCheckStatusRate);
+        this.watcher = new JobStatusWatcher(
+            new JobWatchProperties(),
+            this.scheduler,
+            this.jobSearchService,
+            registry
+        );
+    }
+
+    /**
+     * Make sure the watcher schedules itself to check watched jobs.
+     */
+    @Test
+    public void willScheduleStatusChecks() {
+        Mockito.verify(this.scheduler, Mockito.times(1)).scheduleAtFixedRate(this.watcher, 5000L);
+    }
+
+    /**
+     * Make sure watchers are notified of local status changes until they stop watching.
+     */
+    @Test
+    public void canNotifyOfStatusChanges() {
+        final String id = UUID.randomUUID().toString();
+        final List<JobStatus> statuses = new ArrayList<>();
+        final List<JobStatus> otherStatuses = new ArrayList<>();
+        final Runnable unwatch = this.watcher.watch(id, statuses::add);
+        this.watcher.watch(UUID.randomUUID().toString(), otherStatuses::add);
+
+        this.watcher.onJobStatusChanged(new JobStatusChangedEvent(id, JobStatus.INIT, JobStatus.RUNNING, null, this));
+        unwatch.run();
+        this.watcher.onJobStatusChanged(new JobStatusChangedEvent(id, JobStatus.RUNNING, JobStatus.FAILED, null, this));
+
+        Assert.assertThat(statuses, Matchers.contains(JobStatus.RUNNING));
+        Assert.assertThat(otherStatuses, Matchers.empty());
+    }
+
+    /**
+     * Make sure watched jobs are checked for changes made elsewhere and unwatched jobs aren't.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCheckWatchedJobs() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        final String missingId = UUID.randomUUID().toString();
+        final List<JobStatus> statuses = new ArrayList<>();
+        this.watcher.watch(id, statuses::add);
+        this.watcher.watch(missingId, statuses::add);
+        Mockito.when(this.jobSearchService.getJobStatus(id)).thenReturn(JobStatus.SUCCEEDED);
+        Mockito.when(this.jobSearchService.getJobStatus(missingId)).thenThrow(new GenieNotFoundException("no"));
+
+        this.watcher.run();
+
+        Assert.assertThat(statuses, Matchers.contains(JobStatus.SUCCEEDED));
+        Mockito.verify(this.unableToCheckStatusRate, Mockito.times(1)).increment();
+    }
+
+    /**
+     * Make sure nothing is checked when no jobs are watched.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontCheckIfNothingWatched() throws GenieException {
+        this.watcher.watch(UUID.randomUUID().toString(), status -> { }).run();
+        this.watcher.run();
+        Mockito.verify(this.jobSearchService, Mockito.never()).getJobStatus(Mockito.anyString());
+    }
+}
@@ -18,10 +18,6 @@
 package com.netflix.genie.web.tasks.leader;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
-import com.netflix.genie.common.dto.JobExecution;
-import com.netflix.genie.common.exceptions.GenieException;
-import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.test.categories.UnitTest;
@@ -34,14 +30,17 @@ import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.hamcrest.Matchers;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -59,6 +58,8 @@ public class ClusterCheckerTaskUnitTests {
     private JobSearchService jobSearchService;
     private JobPersistenceService jobPersistenceService;
     private HttpClient httpClient;
+    private ManagementServerProperties serverProperties;
+    private Registry registry;
 
     private Counter lostJobCounter;
     private Counter unableToUpdateJobCounter;
@@ -73,34 +74,44 @@ public class ClusterCheckerTaskUnitTests {
         this.jobSearchService = Mockito.mock(JobSearchService.class);
         this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
         this.httpClient = Mockito.mock(HttpClient.class);
-        final ManagementServerProperties serverProperties = Mockito.mock(ManagementServerProperties.class);
-        Mockito.when(serverProperties.getContextPath()).thenReturn("/actuator");
-        final Registry registry = Mockito.mock(Registry.class);
+        this.serverProperties = Mockito.mock(ManagementServerProperties.class);
+        Mockito.when(this.serverProperties.getContextPath()).thenReturn("/actuator");
+        this.registry = Mockito.mock(Registry.class);
         this.lostJobCounter = Mockito.mock(Counter.class);
-        Mockito.when(registry.counter("genie.tasks.clusterChecker.lostJobs.rate")).thenReturn(this.lostJobCounter);
+        Mockito.when(this.registry.counter("genie.tasks.clusterChecker.lostJobs.rate")).thenReturn(this.lostJobCounter);
         this.unableToUpdateJobCounter = Mockito.mock(Counter.class);
         Mockito
-            .when(registry.counter("genie.tasks.clusterChecker.unableToUpdateJob.rate"))
+            .when(this.registry.counter("genie.tasks.clusterChecker.unableToUpdateJob.rate"))
             .thenReturn(this.unableToUpdateJobCounter);
+        Mockito
+            .when(this.registry.counter("genie.tasks.clusterChecker.healthCheckTimeout.rate"))
+            .thenReturn(Mockito.mock(Counter.class));
         this.task = new ClusterCheckerTask(
             this.hostName,
             properties,
             this.jobSearchService,
             this.jobPersistenceService,
             this.httpClient,
-            serverProperties,
-            registry
+            this.serverProperties,
+            this.registry
         );
     }
 
+    /**
+     * Stop the health check threads.
+     */
+    @After
+    public void cleanup() {
+        this.task.shutdown();
+    }
+
     /**
      * Make sure run method works.
      *
      * @throws IOException on error
-     * @throws GenieException on error
      */
     @Test
-    public void canRun() throws IOException, GenieException {
+    public void canRun() throws IOException {
         final String host1 = UUID.randomUUID().toString();
         final String host2 = UUID.randomUUID().toString();
         final String host3 = UUID.randomUUID().toString();
@@ -115,46 +126,24 @@ public class ClusterCheckerTaskUnitTests {
         Mockito.when(statusLine3.getStatusCode()).thenReturn(500);
         Mockito.when(response3.getStatusLine()).thenReturn(statusLine3);
 
-        // Mock the 9 invocations for 3 calls to run
+        // The hosts are checked in parallel so match the requests by host
         Mockito
-            .when(this.httpClient.execute(Mockito.any(HttpGet.class)))
-            .thenReturn(response1)
-            .thenThrow(new IOException("blah"))
-            .thenReturn(response3)
-            .thenReturn(response1)
-            .thenThrow(new IOException("blah"))
-            .thenReturn(response3)
-            .thenReturn(response1)
-            .thenThrow(new IOException("blah"))
-            .thenReturn(response3);
-
-        final List<String> hostsRunningJobs = Lists.newArrayList(this.hostName, host1, host2, host3);
-        Mockito.when(this.jobSearchService.getAllHostsRunningJobs()).thenReturn(hostsRunningJobs);
-
-        final JobExecution job1 = Mockito.mock(JobExecution.class);
-        final String job1Id = UUID.randomUUID().toString();
-        Mockito.when(job1.getId()).thenReturn(job1Id);
-        final JobExecution job2 = Mockito.mock(JobExecution.class);
-        final String job2Id = UUID.randomUUID().toString();
-        Mockito.when(job2.getId()).thenReturn(job2Id);
-        final JobExecution job3 = Mockito.mock(JobExecution.class);
-        final String job3Id = UUID.randomUUID().toString();
-        Mockito.when(job3.getId()).thenReturn(job3Id);
-        final JobExecution job4 = Mockito.mock(JobExecution.class);
-        final String job4Id = UUID.randomUUID().toString();
-        Mockito.when(job4.getId()).thenReturn(job4Id);
-
+            .when(this.httpClient.execute(Mockito.argThat(this.requestTo(host1))))
+            .thenReturn(response1);
         Mockito
-            .when(this.jobSearchService.getAllRunningJobExecutionsOnHost(host2))
-            .thenReturn(Sets.newHashSet(job1, job2));
+            .when(this.httpClient.execute(Mockito.argThat(this.requestTo(host2))))
+            .thenThrow(new IOException("blah"));
         Mockito
-            .when(this.jobSearchService.getAllRunningJobExecutionsOnHost(host3))
-            .thenReturn(Sets.newHashSet(job3, job4));
+            .when(this.httpClient.execute(Mockito.argThat(this.requestTo(host3))))
+            .thenReturn(response3);
 
+        final List<String> staleHosts = Lists.newArrayList(this.hostName, host1, host2, host3);
         Mockito
-            .doThrow(new GenieServerException("blah"))
-            .when(this.jobPersistenceService)
-            .setExitCode(job1Id, JobExecution.LOST_EXIT_CODE);
+            .when(this.jobSearchService.getAllHostsRunningJobsWithoutHeartbeatSince(Mockito.any(Date.class)))
+            .thenReturn(staleHosts);
+
+        Mockito.when(this.jobPersistenceService.markJobsOnHostLost(host2)).thenThrow(new RuntimeException("blah"));
+        Mockito.when(this.jobPersistenceService.markJobsOnHostLost(host3)).thenReturn(2);
 
         this.task.run();
         Assert.assertThat(this.task.getErrorCountsSize(), Matchers.is(2));
@@ -163,14 +152,90 @@ public class ClusterCheckerTaskUnitTests {
         this.task.run();
         Assert.assertThat(this.task.getErrorCountsSize(), Matchers.is(0));
 
-        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).setExitCode(job1Id, JobExecution.LOST_EXIT_CODE);
-        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).setExitCode(job2Id, JobExecution.LOST_EXIT_CODE);
-        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).setExitCode(job3Id, JobExecution.LOST_EXIT_CODE);
-        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).setExitCode(job4Id, JobExecution.LOST_EXIT_CODE);
-        Mockito.verify(this.lostJobCounter, Mockito.times(3)).increment();
+        Mockito.verify(this.httpClient, Mockito.never()).execute(Mockito.argThat(this.requestTo(this.hostName)));
+        Mockito.verify(this.jobPersistenceService, Mockito.never()).markJobsOnHostLost(host1);
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).markJobsOnHostLost(host2);
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).markJobsOnHostLost(host3);
+        Mockito.verify(this.lostJobCounter, Mockito.times(1)).increment(2L);
         Mockito.verify(this.unableToUpdateJobCounter, Mockito.times(1)).increment();
     }
 
+    /**
+     * Make sure probes waiting for a free thread get their full timeout once they start.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void wontTimeOutQueuedHealthChecks() throws IOException {
+        final ClusterCheckerProperties properties = new ClusterCheckerProperties();
+        properties.setHealthCheckThreads(1);
+        properties.setHealthCheckTimeout(500L);
+        final ClusterCheckerTask singleThreadedTask = new ClusterCheckerTask(
+            this.hostName,
+            properties,
+            this.jobSearchService,
+            this.jobPersistenceService,
+            this.httpClient,
+            this.serverProperties,
+            this.registry
+        );
+
+        try {
+            final String host1 = UUID.randomUUID().toString();
+            final String host2 = UUID.randomUUID().toString();
+
+            final HttpResponse response = Mockito.mock(HttpResponse.class);
+            final StatusLine statusLine = Mockito.mock(StatusLine.class);
+            Mockito.when(statusLine.getStatusCode()).thenReturn(200);
+            Mockito.when(response.getStatusLine()).thenReturn(statusLine);
+
+            // Together the probes take longer than one timeout but each one finishes in time
+            Mockito
+                .when(this.httpClient.execute(Mockito.argThat(this.requestTo(host1))))
+                .thenAnswer(
+                    invocation -> {
+                        Thread.sleep(300L);
+                        return response;
+                    }
+                );
+            Mockito
+                .when(this.httpClient.execute(Mockito.argThat(this.requestTo(host2))))
+                .thenAnswer(
+                    invocation -> {
+                        Thread.sleep(300L);
+                        return response;
+                    }
+                );
+            Mockito
+                .when(this.jobSearchService.getAllHostsRunningJobsWithoutHeartbeatSince(Mockito.any(Date.class)))
+                .thenReturn(Lists.newArrayList(host1, host2));
+
+            singleThreadedTask.run();
+            Assert.assertThat(singleThreadedTask.getErrorCountsSize(), Matchers.is(0));
+            Mockito.verify(this.httpClient, Mockito.times(1)).execute(Mockito.argThat(this.requestTo(host1)));
+            Mockito.verify(this.httpClient, Mockito.times(1)).execute(Mockito.argThat(this.requestTo(host2)));
+        } finally {
+            singleThreadedTask.shutdown();
+        }
+    }
+
+    /**
+     * Make sure nodes which are still writing heartbeats aren't checked at all.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void doesntCheckNodesWithHeartbeats() throws IOException {
+        Mockito
+            .when(this.jobSearchService.getAllHostsRunningJobsWithoutHeartbeatSince(Mockito.any(Date.class)))
+            .thenReturn(Lists.newArrayList());
+
+        this.task.run();
+        Assert.assertThat(this.task.getErrorCountsSize(), Matchers.is(0));
+        Mockito.verify(this.httpClient, Mockito.never()).execute(Mockito.any(HttpGet.class));
+        Mockito.verify(this.jobPersistenceService, Mockito.never()).markJobsOnHostLost(Mockito.anyString());
+    }
+
     /**
      * Make sure we get the right schedule type.
      */
@@ -202,4 +267,13 @@ public class ClusterCheckerTaskUnitTests {
     public void canGetFixedDelay() {
         this.task.getFixedDelay();
     }
+
+    private ArgumentMatcher<HttpGet> requestTo(final String host) {
+        return new ArgumentMatcher<HttpGet>() {
+            @Override
+            public boolean matches(final Object argument) {
+                return argument instanceof HttpGet && argument.toString().contains("://" + host + ":");
+            }
+        };
+    }
 }
@@ -22,6 +22,7 @@ import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.web.properties.DatabaseCleanupProperties;
 import com.netflix.genie.web.tasks.GenieTaskScheduleType;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
@@ -49,6 +50,8 @@ public class DatabaseCleanupTaskUnitTests {
     private JobPersistenceService jobPersistenceService;
     private DatabaseCleanupTask task;
     private AtomicLong numDeletedJobs;
+    private Counter deletedJobsRate;
+    private Counter batchesRate;
 
     /**
      * Setup for the tests.
@@ -66,6 +69,14 @@ public class DatabaseCleanupTaskUnitTests {
                     Mockito.any(AtomicLong.class)
                 )
             ).thenReturn(this.numDeletedJobs);
+        this.deletedJobsRate = Mockito.mock(Counter.class);
+        Mockito
+            .when(registry.counter("genie.tasks.databaseCleanup.deletedJobs.rate"))
+            .thenReturn(this.deletedJobsRate);
+        this.batchesRate = Mockito.mock(Counter.class);
+        Mockito.when(registry.counter("genie.tasks.databaseCleanup.batches.rate")).thenReturn(this.batchesRate);
+        Mockito.when(this.cleanupProperties.getBatchSize()).thenReturn(10);
+        Mockito.when(this.cleanupProperties.getMaxRunTime()).thenReturn(60000L);
         this.task = new DatabaseCleanupTask(this.cleanupProperties, this.jobPersistenceService, registry);
     }
 
@@ -100,9 +111,12 @@ public class DatabaseCleanupTaskUnitTests {
         final long deletedCount1 = 6L;
         final long deletedCount2 = 18L;
         Mockito
-            .when(this.jobPersistenceService.deleteAllJobsCreatedBeforeDate(Mockito.any(Date.class)))
+            .when(
+                this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(Mockito.any(Date.class), Mockito.eq(10))
+            )
             .thenReturn(deletedCount1)
-            .thenReturn(deletedCount2);
+            .thenReturn(10L)
+            .thenReturn(8L);
 
         // The multiple calendar instances are to protect against running this test when the day flips
         final Calendar before = Calendar.getInstance(JobConstants.UTC);
@@ -114,8 +128,8 @@ public class DatabaseCleanupTaskUnitTests {
 
         if (before.get(Calendar.DAY_OF_YEAR) == after.get(Calendar.DAY_OF_YEAR)) {
             Mockito
-                .verify(this.jobPersistenceService, Mockito.times(2))
-                .deleteAllJobsCreatedBeforeDate(argument.capture());
+                .verify(this.jobPersistenceService, Mockito.times(3))
+                .deleteBatchOfJobsCreatedBeforeDate(argument.capture(), Mockito.eq(10));
             final Calendar date = Calendar.getInstance(JobConstants.UTC);
             date.set(Calendar.HOUR_OF_DAY, 0);
             date.set(Calendar.MINUTE, 0);
@@ -124,6 +138,31 @@ public class DatabaseCleanupTaskUnitTests {
             date.add(Calendar.DAY_OF_YEAR, negativeDays);
             Assert.assertThat(argument.getAllValues().get(0), Matchers.is(date.getTime()));
             Assert.assertThat(argument.getAllValues().get(1), Matchers.is(date.getTime()));
+            Assert.assertThat(argument.getAllValues().get(2), Matchers.is(date.getTime()));
         }
+        Mockito.verify(this.batchesRate, Mockito.times(3)).increment();
+        Mockito.verify(this.deletedJobsRate, Mockito.times(1)).increment(10L);
+    }
+
+    /**
+     * Make sure the run stops deleting once it runs out of time even if there are more jobs to delete.
+     */
+    @Test
+    public void stopsWhenOutOfTime() {
+        Mockito.when(this.cleanupProperties.getRetention()).thenReturn(5);
+        Mockito.when(this.cleanupProperties.getMaxRunTime()).thenReturn(1000L);
+        Mockito.when(this.cleanupProperties.getBatchDelay()).thenReturn(5000L);
+        Mockito
+            .when(
+                this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(Mockito.any(Date.class), Mockito.eq(10))
+            )
+            .thenReturn(10L);
+
+        this.task.run();
+
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .deleteBatchOfJobsCreatedBeforeDate(Mockito.any(Date.class), Mockito.eq(10));
+        Assert.assertThat(this.numDeletedJobs.get(), Matchers.is(10L));
     }
 }
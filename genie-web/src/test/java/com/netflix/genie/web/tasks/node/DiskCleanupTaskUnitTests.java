@@ -17,10 +17,9 @@
  */
 package com.netflix.genie.web.tasks.node;
 
-import com.netflix.genie.common.dto.Job;
+import com.google.common.collect.Lists;
 import com.netflix.genie.common.dto.JobStatus;
-import com.netflix.genie.common.exceptions.GenieException;
-import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.common.dto.search.JobSearchResult;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.web.properties.DiskCleanupProperties;
@@ -28,7 +27,9 @@ import com.netflix.genie.web.tasks.TaskUtils;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import org.hamcrest.Matchers;
+import org.junit.After;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -36,11 +37,14 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.springframework.core.io.Resource;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -59,6 +63,67 @@ public class DiskCleanupTaskUnitTests {
     @Rule
     public TemporaryFolder tmpJobDir = new TemporaryFolder();
 
+    private DiskCleanupProperties properties;
+    private TaskScheduler scheduler;
+    private Resource jobDir;
+    private JobSearchService jobSearchService;
+    private Registry registry;
+    private AtomicLong numberOfDeletedJobs;
+    private Counter unableToGetJobCounter;
+    private Counter unableToDeleteJobsDir;
+    private Counter diskUsageTriggeredCounter;
+    private Counter diskUsageNothingDeletedCounter;
+    private DiskCleanupTask task;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws IOException on error
+     */
+    @Before
+    public void setup() throws IOException {
+        this.properties = new DiskCleanupProperties();
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.jobDir = Mockito.mock(Resource.class);
+        Mockito.when(this.jobDir.exists()).thenReturn(true);
+        Mockito.when(this.jobDir.getFile()).thenReturn(this.tmpJobDir.getRoot());
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
+        this.registry = Mockito.mock(Registry.class);
+        this.numberOfDeletedJobs = new AtomicLong();
+        Mockito.when(
+            this.registry.gauge(
+                Mockito.eq("genie.tasks.diskCleanup.numberDeletedJobDirs.gauge"),
+                Mockito.any(AtomicLong.class)
+            )
+        ).thenReturn(this.numberOfDeletedJobs);
+        this.unableToGetJobCounter = Mockito.mock(Counter.class);
+        Mockito
+            .when(this.registry.counter("genie.tasks.diskCleanup.unableToGetJobs.rate"))
+            .thenReturn(this.unableToGetJobCounter);
+        this.unableToDeleteJobsDir = Mockito.mock(Counter.class);
+        Mockito
+            .when(this.registry.counter("genie.tasks.diskCleanup.unableToDeleteJobsDir.rate"))
+            .thenReturn(this.unableToDeleteJobsDir);
+        this.diskUsageTriggeredCounter = Mockito.mock(Counter.class);
+        Mockito
+            .when(this.registry.counter("genie.tasks.diskCleanup.diskUsageTriggered.rate"))
+            .thenReturn(this.diskUsageTriggeredCounter);
+        this.diskUsageNothingDeletedCounter = Mockito.mock(Counter.class);
+        Mockito
+            .when(this.registry.counter("genie.tasks.diskCleanup.diskUsageNothingDeleted.rate"))
+            .thenReturn(this.diskUsageNothingDeletedCounter);
+    }
+
+    /**
+     * Stop any background deletions.
+     */
+    @After
+    public void cleanup() {
+        if (this.task != null) {
+            this.task.shutdown();
+        }
+    }
+
     /**
      * Test the constructor on error case.
      *
@@ -80,18 +145,46 @@ public class DiskCleanupTaskUnitTests {
     }
 
     /**
-     * Make sure we can run successfully.
+     * Make sure the task is scheduled on the cron expression and to check the disk usage if there is a threshold.
      *
      * @throws IOException on error
-     * @throws GenieException on error
      */
     @Test
-    public void canRun() throws IOException, GenieException {
+    public void canSchedule() throws IOException {
+        this.task = this.createTask();
+        Mockito.verify(this.scheduler, Mockito.times(1)).schedule(Mockito.eq(this.task), Mockito.any(Trigger.class));
+        Mockito
+            .verify(this.scheduler, Mockito.times(1))
+            .scheduleAtFixedRate(Mockito.any(Runnable.class), Mockito.eq(this.properties.getDiskUsageCheckRate()));
+
+        final TaskScheduler noDiskUsageScheduler = Mockito.mock(TaskScheduler.class);
+        this.properties.setDiskUsageThreshold(0.0);
+        this.task.shutdown();
+        this.task = new DiskCleanupTask(
+            this.properties,
+            noDiskUsageScheduler,
+            this.jobDir,
+            this.jobSearchService,
+            this.registry
+        );
+        Mockito
+            .verify(noDiskUsageScheduler, Mockito.never())
+            .scheduleAtFixedRate(Mockito.any(Runnable.class), Mockito.anyLong());
+    }
+
+    /**
+     * Make sure we can run successfully.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canRun() throws Exception {
         // Create some random junk file that should be ignored
         this.tmpJobDir.newFile(UUID.randomUUID().toString());
-        final DiskCleanupProperties properties = new DiskCleanupProperties();
+        // Use small batches to make sure all of them are looked up
+        this.properties.setBatchSize(2);
         final Calendar cal = TaskUtils.getMidnightUTC();
-        TaskUtils.subtractDaysFromDate(cal, properties.getRetention());
+        TaskUtils.subtractDaysFromDate(cal, this.properties.getRetention());
         final Date threshold = cal.getTime();
 
         final String job1Id = UUID.randomUUID().toString();
@@ -100,60 +193,122 @@ public class DiskCleanupTaskUnitTests {
         final String job4Id = UUID.randomUUID().toString();
         final String job5Id = UUID.randomUUID().toString();
 
-        final Job job1 = Mockito.mock(Job.class);
-        Mockito.when(job1.getStatus()).thenReturn(JobStatus.INIT);
-        final Job job2 = Mockito.mock(Job.class);
-        Mockito.when(job2.getStatus()).thenReturn(JobStatus.RUNNING);
-        final Job job3 = Mockito.mock(Job.class);
-        Mockito.when(job3.getStatus()).thenReturn(JobStatus.SUCCEEDED);
-        Mockito.when(job3.getFinished()).thenReturn(new Date(threshold.getTime() - 1));
-        final Job job4 = Mockito.mock(Job.class);
-        Mockito.when(job4.getStatus()).thenReturn(JobStatus.FAILED);
-        Mockito.when(job4.getFinished()).thenReturn(threshold);
-
         this.createJobDir(job1Id);
         this.createJobDir(job2Id);
         this.createJobDir(job3Id);
         this.createJobDir(job4Id);
         this.createJobDir(job5Id);
 
-        final TaskScheduler scheduler = Mockito.mock(TaskScheduler.class);
-        final Resource jobDir = Mockito.mock(Resource.class);
-        Mockito.when(jobDir.exists()).thenReturn(true);
-        Mockito.when(jobDir.getFile()).thenReturn(this.tmpJobDir.getRoot());
-        final JobSearchService jobSearchService = Mockito.mock(JobSearchService.class);
-        final Registry registry = Mockito.mock(Registry.class);
-        final AtomicLong numberOfDeletedJobs = new AtomicLong();
-        Mockito.when(
-            registry.gauge(
-                Mockito.eq("genie.tasks.diskCleanup.numberDeletedJobDirs.gauge"),
-                Mockito.any(AtomicLong.class)
-            )
-        ).thenReturn(numberOfDeletedJobs);
-        final Counter unableToGetJobCounter = Mockito.mock(Counter.class);
         Mockito
-            .when(registry.counter("genie.tasks.diskCleanup.unableToGetJobs.rate"))
-            .thenReturn(unableToGetJobCounter);
-        final Counter unabledToDeleteJobsDir = Mockito.mock(Counter.class);
-        Mockito
-            .when(registry.counter("genie.tasks.diskCleanup.unableToDeleteJobsDir.rate"))
-            .thenReturn(unabledToDeleteJobsDir);
-
-        Mockito.when(jobSearchService.getJob(job1Id)).thenReturn(job1);
-        Mockito.when(jobSearchService.getJob(job2Id)).thenReturn(job2);
-        Mockito.when(jobSearchService.getJob(job3Id)).thenReturn(job3);
-        Mockito.when(jobSearchService.getJob(job4Id)).thenReturn(job4);
-        Mockito.when(jobSearchService.getJob(job5Id)).thenThrow(new GenieServerException("blah"));
-
-        final DiskCleanupTask task = new DiskCleanupTask(properties, scheduler, jobDir, jobSearchService, registry);
-        Assert.assertThat(numberOfDeletedJobs.get(), Matchers.is(0L));
-        task.run();
-        Assert.assertThat(numberOfDeletedJobs.get(), Matchers.is(1L));
-        Assert.assertTrue(new File(jobDir.getFile(), job1Id).exists());
-        Assert.assertTrue(new File(jobDir.getFile(), job2Id).exists());
-        Assert.assertFalse(new File(jobDir.getFile(), job3Id).exists());
-        Assert.assertTrue(new File(jobDir.getFile(), job4Id).exists());
-        Assert.assertTrue(new File(jobDir.getFile(), job5Id).exists());
+            .when(this.jobSearchService.getJobSearchResults(Mockito.anySetOf(String.class)))
+            .thenAnswer(
+                invocation -> {
+                    @SuppressWarnings("unchecked")
+                    final Set<String> ids = (Set<String>) invocation.getArguments()[0];
+                    final List<JobSearchResult> results = Lists.newArrayList(
+                        this.createResult(job1Id, JobStatus.INIT, null),
+                        this.createResult(job2Id, JobStatus.RUNNING, null),
+                        this.createResult(job3Id, JobStatus.SUCCEEDED, new Date(threshold.getTime() - 1)),
+                        this.createResult(job4Id, JobStatus.FAILED, threshold)
+                    );
+                    results.removeIf(result -> !ids.contains(result.getId()));
+                    return results;
+                }
+            );
+
+        this.task = this.createTask();
+        Assert.assertThat(this.numberOfDeletedJobs.get(), Matchers.is(0L));
+        this.task.run();
+        Assert.assertThat(this.numberOfDeletedJobs.get(), Matchers.is(1L));
+        Assert.assertTrue(new File(this.jobDir.getFile(), job1Id).exists());
+        Assert.assertTrue(new File(this.jobDir.getFile(), job2Id).exists());
+        Assert.assertFalse(new File(this.jobDir.getFile(), job3Id).exists());
+        Assert.assertTrue(new File(this.jobDir.getFile(), job4Id).exists());
+        Assert.assertTrue(new File(this.jobDir.getFile(), job5Id).exists());
+        Mockito.verify(this.jobSearchService, Mockito.times(3)).getJobSearchResults(Mockito.anySetOf(String.class));
+        Mockito.verify(this.unableToGetJobCounter, Mockito.times(1)).increment();
+
+        this.waitForEmptyTrash();
+        Mockito.verify(this.unableToDeleteJobsDir, Mockito.never()).increment();
+    }
+
+    /**
+     * Make sure anything left in the trash from before is deleted on the next run.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canEmptyTrashLeftFromBefore() throws Exception {
+        final File trash = this.tmpJobDir.newFolder(DiskCleanupTask.TRASH_DIR_NAME);
+        final File leftOver = new File(trash, UUID.randomUUID().toString());
+        Assert.assertTrue(leftOver.mkdir());
+
+        this.task = this.createTask();
+        this.task.run();
+
+        this.waitForEmptyTrash();
+        Mockito.verify(this.jobSearchService, Mockito.never()).getJobSearchResults(Mockito.anySetOf(String.class));
+    }
+
+    /**
+     * Make sure the disk usage check only cleans up when the disk is fuller than the threshold.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canCheckDiskUsage() throws IOException {
+        this.properties.setDiskUsageThreshold(1.0);
+        this.task = this.createTask();
+        this.task.checkDiskUsage();
+        Mockito.verify(this.diskUsageTriggeredCounter, Mockito.never()).increment();
+
+        // Any disk in use at all is over this threshold
+        this.properties.setDiskUsageThreshold(Double.MIN_VALUE);
+        this.task.checkDiskUsage();
+        Mockito.verify(this.diskUsageTriggeredCounter, Mockito.times(1)).increment();
+        Assert.assertThat(this.numberOfDeletedJobs.get(), Matchers.is(0L));
+        Mockito.verify(this.diskUsageNothingDeletedCounter, Mockito.times(1)).increment();
+    }
+
+    /**
+     * Make sure the disk usage check backs off after a cleanup which deleted nothing.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canBackOffWhenDiskUsageCleanupDeletesNothing() throws IOException {
+        // Any disk in use at all is over this threshold
+        this.properties.setDiskUsageThreshold(Double.MIN_VALUE);
+        this.properties.setDiskUsageBackoff(60000L);
+        this.task = this.createTask();
+
+        this.task.checkDiskUsage();
+        this.task.checkDiskUsage();
+        this.task.checkDiskUsage();
+
+        Mockito.verify(this.diskUsageTriggeredCounter, Mockito.times(1)).increment();
+        Mockito.verify(this.diskUsageNothingDeletedCounter, Mockito.times(1)).increment();
+        Mockito.verify(this.jobSearchService, Mockito.never()).getJobSearchResults(Mockito.anySetOf(String.class));
+    }
+
+    private DiskCleanupTask createTask() throws IOException {
+        return new DiskCleanupTask(this.properties, this.scheduler, this.jobDir, this.jobSearchService, this.registry);
+    }
+
+    private JobSearchResult createResult(final String id, final JobStatus status, final Date finished) {
+        return new JobSearchResult(id, "name", "user", status, null, finished, null, null);
+    }
+
+    private void waitForEmptyTrash() throws InterruptedException {
+        final File trash = new File(this.tmpJobDir.getRoot(), DiskCleanupTask.TRASH_DIR_NAME);
+        for (int i = 0; i < 100; i++) {
+            final String[] trashed = trash.list();
+            if (trashed == null || trashed.length == 0) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        Assert.fail("Trash was never emptied");
     }
 
     private void createJobDir(final String id) throws IOException {
@@ -0,0 +1,117 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.HeartbeatProperties;
+import com.netflix.genie.web.tasks.job.JobMonitoringCoordinator;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for the heartbeat task.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class HeartbeatTaskUnitTests {
+
+    private String hostName;
+    private HeartbeatProperties properties;
+    private TaskScheduler scheduler;
+    private JobPersistenceService jobPersistenceService;
+    private JobMonitoringCoordinator jobMonitoringCoordinator;
+    private Counter heartbeatFailuresCounter;
+    private HeartbeatTask task;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.hostName = UUID.randomUUID().toString();
+        this.properties = new HeartbeatProperties();
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
+        this.jobMonitoringCoordinator = Mockito.mock(JobMonitoringCoordinator.class);
+        this.heartbeatFailuresCounter = Mockito.mock(Counter.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito
+            .when(registry.counter("genie.tasks.heartbeat.failures.rate"))
+            .thenReturn(this.heartbeatFailuresCounter);
+        this.task = new HeartbeatTask(
+            this.hostName,
+            this.properties,
+            this.scheduler,
+            this.jobPersistenceService,
+            this.jobMonitoringCoordinator,
+            registry
+        );
+    }
+
+    /**
+     * Make sure the task schedules itself at the configured rate.
+     */
+    @Test
+    public void willScheduleAtConfiguredRate() {
+        Mockito.verify(this.scheduler, Mockito.times(1)).scheduleAtFixedRate(this.task, this.properties.getRate());
+    }
+
+    /**
+     * Make sure the heartbeat is saved with the number of jobs currently running.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSaveHeartbeat() throws GenieException {
+        Mockito.when(this.jobMonitoringCoordinator.getNumRunningJobs()).thenReturn(7);
+
+        this.task.run();
+
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1)).saveNodeHeartbeat(this.hostName, 7);
+        Mockito.verify(this.heartbeatFailuresCounter, Mockito.never()).increment();
+    }
+
+    /**
+     * Make sure a failed heartbeat is counted and doesn't throw.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void willCountFailedHeartbeat() throws GenieException {
+        Mockito
+            .doThrow(new GenieServerException("blah"))
+            .when(this.jobPersistenceService)
+            .saveNodeHeartbeat(this.hostName, 0);
+
+        this.task.run();
+
+        Mockito.verify(this.heartbeatFailuresCounter, Mockito.times(1)).increment();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobStatsProperties;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unit tests for the job statistics task.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatsTaskUnitTests {
+
+    private String hostName;
+    private JobStatsProperties properties;
+    private TaskScheduler scheduler;
+    private JobPersistenceService jobPersistenceService;
+    private Counter droppedChangesCounter;
+    private Counter flushFailuresCounter;
+    private JobStatsTask task;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.hostName = UUID.randomUUID().toString();
+        this.properties = new JobStatsProperties();
+        this.properties.setMaxPending(2);
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
+        this.droppedChangesCounter = Mockito.mock(Counter.class);
+        this.flushFailuresCounter = Mockito.mock(Counter.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        Mockito
+            .when(registry.counter("genie.tasks.jobStats.droppedChanges.rate"))
+            .thenReturn(this.droppedChangesCounter);
+        Mockito
+            .when(registry.counter("genie.tasks.jobStats.flushFailures.rate"))
+            .thenReturn(this.flushFailuresCounter);
+        this.task = new JobStatsTask(
+            this.hostName,
+            this.properties,
+            this.scheduler,
+            this.jobPersistenceService,
+            registry
+        );
+    }
+
+    /**
+     * Make sure the task schedules itself at the configured rate.
+     */
+    @Test
+    public void willScheduleAtConfiguredRate() {
+        Mockito.verify(this.scheduler, Mockito.times(1)).scheduleAtFixedRate(this.task, this.properties.getRate());
+    }
+
+    /**
+     * Make sure nothing is written when there are no pending changes.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontFlushIfNothingPending() throws GenieException {
+        this.task.run();
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.never())
+            .addJobStatistics(Mockito.anyString(), Mockito.anyListOf(JobStatusChangedEvent.class));
+    }
+
+    /**
+     * Make sure pending changes are flushed once and then cleared.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFlushPendingChanges() throws GenieException {
+        final JobStatusChangedEvent event1 = this.createEvent(JobStatus.RUNNING);
+        final JobStatusChangedEvent event2 = this.createEvent(JobStatus.SUCCEEDED);
+        this.task.onJobStatusChanged(event1);
+        this.task.onJobStatusChanged(event2);
+
+        this.task.run();
+        this.task.run();
+
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatistics(this.hostName, Lists.newArrayList(event1, event2));
+    }
+
+    /**
+     * Make sure changes beyond the maximum number pending are dropped and counted.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canDropChangesBeyondMaxPending() throws GenieException {
+        final JobStatusChangedEvent event1 = this.createEvent(JobStatus.INIT);
+        final JobStatusChangedEvent event2 = this.createEvent(JobStatus.RUNNING);
+        final JobStatusChangedEvent event3 = this.createEvent(JobStatus.FAILED);
+        this.task.onJobStatusChanged(event1);
+        this.task.onJobStatusChanged(event2);
+        this.task.onJobStatusChanged(event3);
+
+        this.task.flushOnShutdown();
+
+        Mockito.verify(this.droppedChangesCounter, Mockito.times(1)).increment();
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatistics(this.hostName, Lists.newArrayList(event1, event2));
+    }
+
+    /**
+     * Make sure changes which fail to flush are retried on the next run.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void willRetryFailedFlush() throws GenieException {
+        final JobStatusChangedEvent event = this.createEvent(JobStatus.KILLED);
+        final List<JobStatusChangedEvent> expected = Lists.newArrayList(event);
+        Mockito
+            .when(this.jobPersistenceService.addJobStatistics(this.hostName, expected))
+            .thenThrow(GenieServerException.class)
+            .thenReturn(1);
+        this.task.onJobStatusChanged(event);
+
+        this.task.run();
+        this.task.run();
+
+        Mockito.verify(this.flushFailuresCounter, Mockito.times(1)).increment();
+        Mockito.verify(this.jobPersistenceService, Mockito.times(2)).addJobStatistics(this.hostName, expected);
+    }
+
+    private JobStatusChangedEvent createEvent(final JobStatus status) {
+        return new JobStatusChangedEvent(UUID.randomUUID().toString(), JobStatus.INIT, status, null, this);
+    }
+}
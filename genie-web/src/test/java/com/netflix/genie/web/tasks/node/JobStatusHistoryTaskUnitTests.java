@@ -0,0 +1,282 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.node;
+
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.JobStatusChangedEvent;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.properties.JobStatusHistoryProperties;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unit tests for the job status history task.
+ *
+ * @author tgianos
+ * @since 3.0.0
+ */
+@Category(UnitTest.class)
+public class JobStatusHistoryTaskUnitTests {
+
+    private String hostName;
+    private JobStatusHistoryProperties properties;
+    private TaskScheduler scheduler;
+    private JobPersistenceService jobPersistenceService;
+    private Registry registry;
+    private Counter droppedTransitionsCounter;
+    private Counter flushFailuresCounter;
+    private Counter abandonedTransitionsCounter;
+    private JobStatusHistoryTask task;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.hostName = UUID.randomUUID().toString();
+        this.properties = new JobStatusHistoryProperties();
+        this.properties.setMaxPending(3);
+        this.properties.setBatchSize(2);
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
+        this.droppedTransitionsCounter = Mockito.mock(Counter.class);
+        this.flushFailuresCounter = Mockito.mock(Counter.class);
+        this.abandonedTransitionsCounter = Mockito.mock(Counter.class);
+        this.registry = Mockito.mock(Registry.class);
+        Mockito.when(this.registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        Mockito
+            .when(this.registry.counter("genie.tasks.jobStatusHistory.droppedTransitions.rate"))
+            .thenReturn(this.droppedTransitionsCounter);
+        Mockito
+            .when(this.registry.counter("genie.tasks.jobStatusHistory.flushFailures.rate"))
+            .thenReturn(this.flushFailuresCounter);
+        Mockito
+            .when(this.registry.counter("genie.tasks.jobStatusHistory.abandonedTransitions.rate"))
+            .thenReturn(this.abandonedTransitionsCounter);
+        this.task = new JobStatusHistoryTask(
+            this.hostName,
+            this.properties,
+            this.scheduler,
+            this.jobPersistenceService,
+            this.registry
+        );
+    }
+
+    /**
+     * Make sure the task schedules itself at the configured rate.
+     */
+    @Test
+    public void willScheduleAtConfiguredRate() {
+        Mockito.verify(this.scheduler, Mockito.times(1)).scheduleAtFixedRate(this.task, this.properties.getRate());
+    }
+
+    /**
+     * Make sure nothing is written when there are no pending transitions.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontFlushIfNothingPending() throws GenieException {
+        this.task.run();
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.never())
+            .addJobStatusHistory(Mockito.anyString(), Mockito.anyListOf(JobStatusChangedEvent.class));
+    }
+
+    /**
+     * Make sure pending transitions are written in batches of the configured size and then cleared.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFlushPendingTransitionsInBatches() throws GenieException {
+        final JobStatusChangedEvent event1 = this.createEvent(JobStatus.INIT);
+        final JobStatusChangedEvent event2 = this.createEvent(JobStatus.RUNNING);
+        final JobStatusChangedEvent event3 = this.createEvent(JobStatus.SUCCEEDED);
+        this.task.onJobStatusChanged(event1);
+        this.task.onJobStatusChanged(event2);
+        this.task.onJobStatusChanged(event3);
+
+        this.task.run();
+        this.task.run();
+
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event1, event2));
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event3));
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(2))
+            .addJobStatusHistory(Mockito.anyString(), Mockito.anyListOf(JobStatusChangedEvent.class));
+    }
+
+    /**
+     * Make sure transitions beyond the maximum number pending are dropped and counted.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canDropTransitionsBeyondMaxPending() throws GenieException {
+        final JobStatusChangedEvent event1 = this.createEvent(JobStatus.INIT);
+        final JobStatusChangedEvent event2 = this.createEvent(JobStatus.RUNNING);
+        final JobStatusChangedEvent event3 = this.createEvent(JobStatus.FAILED);
+        final JobStatusChangedEvent event4 = this.createEvent(JobStatus.KILLED);
+        this.task.onJobStatusChanged(event1);
+        this.task.onJobStatusChanged(event2);
+        this.task.onJobStatusChanged(event3);
+        this.task.onJobStatusChanged(event4);
+
+        this.task.flushOnShutdown();
+
+        Mockito.verify(this.droppedTransitionsCounter, Mockito.times(1)).increment();
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event1, event2));
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event3));
+    }
+
+    /**
+     * Make sure transitions which fail to flush are retried on the next run.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void willRetryFailedFlush() throws GenieException {
+        final JobStatusChangedEvent event = this.createEvent(JobStatus.KILLED);
+        final List<JobStatusChangedEvent> expected = Lists.newArrayList(event);
+        Mockito
+            .when(this.jobPersistenceService.addJobStatusHistory(this.hostName, expected))
+            .thenThrow(GenieServerException.class)
+            .thenReturn(1);
+        this.task.onJobStatusChanged(event);
+
+        this.task.run();
+        this.task.run();
+
+        Mockito.verify(this.flushFailuresCounter, Mockito.times(1)).increment();
+        Mockito.verify(this.jobPersistenceService, Mockito.times(2)).addJobStatusHistory(this.hostName, expected);
+    }
+
+    /**
+     * Make sure a transition which can't be written doesn't hold back the rest of its batch and is given up on after
+     * the maximum number of attempts.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canFlushRestOfBatchAndAbandonFailingTransition() throws GenieException {
+        this.properties.setMaxAttempts(2);
+        final JobStatusHistoryTask retryingTask = new JobStatusHistoryTask(
+            this.hostName,
+            this.properties,
+            this.scheduler,
+            this.jobPersistenceService,
+            this.registry
+        );
+        final JobStatusChangedEvent event1 = this.createEvent(JobStatus.RUNNING);
+        final JobStatusChangedEvent event2 = this.createEvent(JobStatus.FAILED);
+        Mockito
+            .when(this.jobPersistenceService.addJobStatusHistory(this.hostName, Lists.newArrayList(event1, event2)))
+            .thenThrow(GenieServerException.class);
+        Mockito
+            .when(this.jobPersistenceService.addJobStatusHistory(this.hostName, Lists.newArrayList(event2)))
+            .thenThrow(GenieServerException.class);
+        retryingTask.onJobStatusChanged(event1);
+        retryingTask.onJobStatusChanged(event2);
+
+        retryingTask.run();
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event1));
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event2));
+        Mockito.verify(this.abandonedTransitionsCounter, Mockito.never()).increment();
+
+        retryingTask.run();
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(2))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event2));
+        Mockito.verify(this.abandonedTransitionsCounter, Mockito.times(1)).increment();
+
+        retryingTask.run();
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(4))
+            .addJobStatusHistory(Mockito.anyString(), Mockito.anyListOf(JobStatusChangedEvent.class));
+    }
+
+    /**
+     * Make sure a flush stops without counting attempts against the rest of the pending transitions when nothing can
+     * be written at all.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void willStopFlushWhenNothingCanBeWritten() throws GenieException {
+        final JobStatusChangedEvent event1 = this.createEvent(JobStatus.INIT);
+        final JobStatusChangedEvent event2 = this.createEvent(JobStatus.RUNNING);
+        final JobStatusChangedEvent event3 = this.createEvent(JobStatus.SUCCEEDED);
+        Mockito
+            .when(
+                this.jobPersistenceService.addJobStatusHistory(
+                    Mockito.anyString(),
+                    Mockito.anyListOf(JobStatusChangedEvent.class)
+                )
+            )
+            .thenThrow(GenieServerException.class);
+        this.task.onJobStatusChanged(event1);
+        this.task.onJobStatusChanged(event2);
+        this.task.onJobStatusChanged(event3);
+
+        this.task.run();
+
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event1, event2));
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .addJobStatusHistory(this.hostName, Lists.newArrayList(event1));
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(2))
+            .addJobStatusHistory(Mockito.anyString(), Mockito.anyListOf(JobStatusChangedEvent.class));
+        Mockito.verify(this.droppedTransitionsCounter, Mockito.never()).increment();
+        Mockito.verify(this.abandonedTransitionsCounter, Mockito.never()).increment();
+    }
+
+    private JobStatusChangedEvent createEvent(final JobStatus status) {
+        return new JobStatusChangedEvent(UUID.randomUUID().toString(), JobStatus.INIT, status, null, this);
+    }
+}